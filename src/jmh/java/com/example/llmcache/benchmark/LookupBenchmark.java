@@ -0,0 +1,90 @@
+package com.example.llmcache.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+import com.example.llmcache.service.VectorCacheService;
+import com.example.llmcache.service.index.VectorIndexManager;
+
+/**
+ * End-to-end cache lookups through {@link VectorCacheService} with the in-memory vector index
+ * enabled, over stores of increasing size.
+ *
+ * <p>The store and provider are synthetic so that the numbers reflect the cache itself, not Redis
+ * or embedding latency. The largest store needs a few GB of heap for the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xmx4g"})
+public class LookupBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  int entries;
+
+  @Param({"384"})
+  int dims;
+
+  private VectorCacheService cache;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    SyntheticCacheStore store = new SyntheticCacheStore(entries, dims);
+    cache =
+        new VectorCacheService(
+            store, new UnderlyingLlmProviderService(List.of(new SyntheticLlmProvider(dims))));
+    ReflectionTestUtils.setField(cache, "similarityThreshold", 0.95);
+
+    VectorIndexManager index =
+        (VectorIndexManager) ReflectionTestUtils.getField(cache, "vectorIndex");
+    Path snapshot = Files.createTempDirectory("lookup-benchmark").resolve("none.snapshot");
+    ReflectionTestUtils.setField(index, "enabled", true);
+    ReflectionTestUtils.setField(index, "snapshotPath", snapshot.toString());
+    index.init();
+    while (!index.isReady()) {
+      Thread.sleep(100);
+    }
+  }
+
+  @Benchmark
+  public Optional<String> exactHit() {
+    return cache.get(SyntheticData.prompt(next())).join();
+  }
+
+  @Benchmark
+  public Optional<String> semanticHit() {
+    return cache.get(SyntheticData.paraphrase(next())).join();
+  }
+
+  @Benchmark
+  public Optional<String> miss() {
+    return cache.get("unrelated prompt " + next()).join();
+  }
+
+  private int next() {
+    return ThreadLocalRandom.current().nextInt(entries);
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.llmcache.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.example.llmcache.config.RedisConfig;
+import com.example.llmcache.model.CacheEntry;
+
+/** Encoding and decoding of a cache entry with the serializer the Redis store uses */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"384", "1536", "3072", "4096"})
+  int dims;
+
+  @Param({"2048"})
+  int responseLength;
+
+  private GenericJackson2JsonRedisSerializer serializer;
+  private CacheEntry entry;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() {
+    serializer = RedisConfig.valueSerializer();
+    Map<String, Object> metadata = new HashMap<>();
+    metadata.put("model", "benchmark");
+    entry =
+        new CacheEntry(
+            SyntheticData.prompt(0),
+            "x".repeat(responseLength),
+            SyntheticData.vector(0, dims),
+            LocalDateTime.now(),
+            metadata,
+            "0");
+    encoded = serializer.serialize(entry);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return serializer.serialize(entry);
+  }
+
+  @Benchmark
+  public Object decode() {
+    return serializer.deserialize(encoded);
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.llmcache.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+import com.example.llmcache.service.index.VectorIndex;
+
+/**
+ * Similarity kernels at common embedding sizes: the pairwise cosine used by the store scan, and a
+ * search of the in-memory vector index. Divide the index search time by {@link #INDEX_SIZE} for the
+ * cost per candidate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarityBenchmark {
+
+  static final int INDEX_SIZE = 1024;
+
+  @Param({"384", "1536", "3072", "4096"})
+  int dims;
+
+  private UnderlyingLlmProviderService similarity;
+  private VectorIndex index;
+  private float[] query;
+  private float[] candidate;
+
+  @Setup
+  public void setup() {
+    similarity = new UnderlyingLlmProviderService(List.of());
+    query = SyntheticData.nearVector(0, dims);
+    candidate = SyntheticData.vector(0, dims);
+    index = new VectorIndex();
+    for (int i = 0; i < INDEX_SIZE; i++) {
+      index.add(SyntheticData.prompt(i), SyntheticData.vector(i, dims));
+    }
+  }
+
+  @Benchmark
+  public double cosineSimilarity() {
+    return similarity.cosineSimilarity(query, candidate);
+  }
+
+  @Benchmark
+  public Optional<VectorIndex.Match> indexSearch() {
+    return index.search(query, -1.0, null);
+  }
+}
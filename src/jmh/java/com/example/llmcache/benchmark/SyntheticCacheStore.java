@@ -0,0 +1,127 @@
+package com.example.llmcache.benchmark;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.store.CacheStore;
+
+/**
+ * In-memory store of generated entries, large enough to benchmark lookups over millions of entries.
+ *
+ * <p>Only the ids are kept; each entry is rebuilt from its index when read, which stands in for the
+ * decoding a real store does. Entries written during a benchmark are kept as they are.
+ */
+class SyntheticCacheStore implements CacheStore {
+
+  private static final String RESPONSE = "x".repeat(512);
+
+  private final int dimension;
+  private final String[] ids;
+  private final Map<String, Integer> indexes;
+  private final Map<String, CacheEntry> written = new ConcurrentHashMap<>();
+  private final LocalDateTime createdAt = LocalDateTime.now();
+
+  SyntheticCacheStore(int entries, int dimension) {
+    this.dimension = dimension;
+    this.ids = new String[entries];
+    this.indexes = new HashMap<>(entries * 2);
+    for (int i = 0; i < entries; i++) {
+      ids[i] = DigestUtils.md5Hex(SyntheticData.prompt(i));
+      indexes.put(ids[i], i);
+    }
+  }
+
+  @Override
+  public CacheEntry get(String id) {
+    CacheEntry entry = written.get(id);
+    if (entry != null) {
+      return entry;
+    }
+    Integer index = indexes.get(id);
+    return index != null ? generate(index) : null;
+  }
+
+  @Override
+  public TimedEntry getWithTtl(String id) {
+    CacheEntry entry = get(id);
+    return new TimedEntry(entry, entry != null ? -1 : -2);
+  }
+
+  @Override
+  public long getTtlMillis(String id) {
+    return get(id) != null ? -1 : -2;
+  }
+
+  @Override
+  public void put(CacheEntry entry, Duration ttl) {
+    written.put(entry.getId(), entry);
+  }
+
+  @Override
+  public boolean replace(CacheEntry entry) {
+    if (get(entry.getId()) == null) {
+      return false;
+    }
+    written.put(entry.getId(), entry);
+    return true;
+  }
+
+  @Override
+  public void expire(Map<String, Duration> ttls) {}
+
+  @Override
+  public void delete(Collection<String> ids) {
+    ids.forEach(written::remove);
+  }
+
+  @Override
+  public void forEach(Consumer<CacheEntry> action) {
+    for (int i = 0; i < ids.length; i++) {
+      action.accept(generate(i));
+    }
+    written.values().forEach(action);
+  }
+
+  @Override
+  public void forEachId(Consumer<String> action) {
+    for (String id : ids) {
+      action.accept(id);
+    }
+    written.keySet().forEach(action);
+  }
+
+  @Override
+  public void forEachSize(BiConsumer<String, Long> action) {
+    long size = RESPONSE.length() + dimension * 8L;
+    forEachId(id -> action.accept(id, size));
+  }
+
+  @Override
+  public long count() {
+    return ids.length + written.size();
+  }
+
+  @Override
+  public String getType() {
+    return "synthetic";
+  }
+
+  private CacheEntry generate(int index) {
+    return new CacheEntry(
+        SyntheticData.prompt(index),
+        RESPONSE,
+        SyntheticData.vector(index, dimension),
+        createdAt,
+        new HashMap<>(),
+        ids[index]);
+  }
+}
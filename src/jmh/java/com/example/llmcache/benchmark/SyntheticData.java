@@ -0,0 +1,41 @@
+package com.example.llmcache.benchmark;
+
+import java.util.SplittableRandom;
+
+/** Deterministic prompts and vectors shared by the benchmarks */
+final class SyntheticData {
+
+  static final String PARAPHRASE_PREFIX = "paraphrased prompt ";
+
+  private SyntheticData() {}
+
+  static String prompt(int index) {
+    return "cached prompt " + index;
+  }
+
+  /**
+   * A paraphrase of {@link #prompt(int)} whose vector is close to, but not equal to, the entry's
+   */
+  static String paraphrase(int index) {
+    return PARAPHRASE_PREFIX + index;
+  }
+
+  static float[] vector(long seed, int dimension) {
+    SplittableRandom random = new SplittableRandom(seed);
+    float[] vector = new float[dimension];
+    for (int i = 0; i < dimension; i++) {
+      vector[i] = (float) (random.nextDouble() * 2.0 - 1.0);
+    }
+    return vector;
+  }
+
+  /** The vector of entry {@code index} with a little noise added, similarity around 0.99 */
+  static float[] nearVector(int index, int dimension) {
+    float[] vector = vector(index, dimension);
+    SplittableRandom noise = new SplittableRandom(~index);
+    for (int i = 0; i < dimension; i++) {
+      vector[i] += (float) ((noise.nextDouble() * 2.0 - 1.0) * 0.1);
+    }
+    return vector;
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.llmcache.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.llmcache.service.llmprovider.LlmProvider;
+
+/**
+ * Provider that embeds without a network call, so the benchmarks measure the cache alone.
+ *
+ * <p>Paraphrases from {@link SyntheticData#paraphrase(int)} embed close to the matching cached
+ * entry; any other text gets an unrelated vector.
+ */
+class SyntheticLlmProvider implements LlmProvider {
+
+  private final int dimension;
+
+  SyntheticLlmProvider(int dimension) {
+    this.dimension = dimension;
+  }
+
+  @Override
+  public CompletableFuture<float[]> getVector(String text) {
+    if (text.startsWith(SyntheticData.PARAPHRASE_PREFIX)) {
+      int index = Integer.parseInt(text.substring(SyntheticData.PARAPHRASE_PREFIX.length()));
+      return CompletableFuture.completedFuture(SyntheticData.nearVector(index, dimension));
+    }
+    return CompletableFuture.completedFuture(
+        SyntheticData.vector(text.hashCode() ^ 0x5DEECE66DL, dimension));
+  }
+
+  @Override
+  public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
+    return CompletableFuture.completedFuture("generated response");
+  }
+
+  @Override
+  public int getVectorDimension() {
+    return dimension;
+  }
+
+  @Override
+  public String getProviderName() {
+    return "synthetic";
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return true;
+  }
+}
@@ -0,0 +1,165 @@
+package com.example.llmcache.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One scrape of the service's {@code /actuator/prometheus} endpoint.
+ *
+ * <p>Percentiles for the replay window are computed from the difference of two scrapes of a
+ * histogram's cumulative buckets, interpolating within a bucket the way PromQL's {@code
+ * histogram_quantile} does. They are therefore only as precise as the bucket boundaries.
+ */
+final class PrometheusSnapshot {
+
+  private static final Pattern LINE =
+      Pattern.compile("^([a-zA-Z_:][a-zA-Z0-9_:]*)(?:\\{(.*)\\})?\\s+(\\S+)");
+  private static final Pattern LABEL = Pattern.compile("(\\w+)=\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+  private final List<Sample> samples;
+
+  private PrometheusSnapshot(List<Sample> samples) {
+    this.samples = samples;
+  }
+
+  /** Scrapes the endpoint, or returns empty if it cannot be reached */
+  static Optional<PrometheusSnapshot> scrape(HttpClient client, URI endpoint) {
+    try {
+      HttpResponse<String> response =
+          client.send(
+              HttpRequest.newBuilder(endpoint).timeout(Duration.ofSeconds(10)).GET().build(),
+              HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() != 200) {
+        return Optional.empty();
+      }
+      return Optional.of(parse(response.body()));
+    } catch (Exception e) {
+      return Optional.empty();
+    }
+  }
+
+  static PrometheusSnapshot parse(String text) {
+    List<Sample> samples = new ArrayList<>();
+    for (String line : text.split("\n")) {
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      Matcher matcher = LINE.matcher(line);
+      if (!matcher.find()) {
+        continue;
+      }
+      Map<String, String> labels = new HashMap<>();
+      if (matcher.group(2) != null) {
+        Matcher label = LABEL.matcher(matcher.group(2));
+        while (label.find()) {
+          labels.put(label.group(1), label.group(2));
+        }
+      }
+      samples.add(new Sample(matcher.group(1), labels, number(matcher.group(3))));
+    }
+    return new PrometheusSnapshot(samples);
+  }
+
+  /** Sums the samples of a metric whose labels include all of the given ones */
+  double sum(String name, Map<String, String> match) {
+    double total = 0;
+    for (Sample sample : samples) {
+      if (sample.name().equals(name) && matches(sample, match)) {
+        total += sample.value();
+      }
+    }
+    return total;
+  }
+
+  /** Returns the increase of a metric since an earlier scrape */
+  double increase(PrometheusSnapshot before, String name, Map<String, String> match) {
+    return sum(name, match) - (before != null ? before.sum(name, match) : 0);
+  }
+
+  /**
+   * Returns the increase of a histogram's cumulative bucket counts since an earlier scrape, by
+   * upper bound, summed over every series whose labels include the given ones.
+   */
+  TreeMap<Double, Double> bucketIncrease(
+      PrometheusSnapshot before, String histogram, Map<String, String> match) {
+    TreeMap<Double, Double> buckets = buckets(histogram + "_bucket", match);
+    if (before != null) {
+      before
+          .buckets(histogram + "_bucket", match)
+          .forEach((bound, count) -> buckets.merge(bound, -count, Double::sum));
+    }
+    return buckets;
+  }
+
+  /**
+   * Estimates a quantile from cumulative bucket counts
+   *
+   * @return The estimate in the unit of the bucket bounds, or NaN if there are no observations
+   */
+  static double quantile(TreeMap<Double, Double> buckets, double q) {
+    if (buckets.isEmpty() || buckets.lastEntry().getValue() <= 0) {
+      return Double.NaN;
+    }
+    double rank = q * buckets.lastEntry().getValue();
+    double lowerBound = 0;
+    double lowerCount = 0;
+    for (Map.Entry<Double, Double> bucket : buckets.entrySet()) {
+      if (bucket.getValue() >= rank) {
+        if (bucket.getKey().isInfinite()) {
+          return lowerBound;
+        }
+        double inBucket = bucket.getValue() - lowerCount;
+        return inBucket <= 0
+            ? bucket.getKey()
+            : lowerBound + (bucket.getKey() - lowerBound) * (rank - lowerCount) / inBucket;
+      }
+      lowerBound = bucket.getKey();
+      lowerCount = bucket.getValue();
+    }
+    return lowerBound;
+  }
+
+  private TreeMap<Double, Double> buckets(String name, Map<String, String> match) {
+    TreeMap<Double, Double> buckets = new TreeMap<>();
+    for (Sample sample : samples) {
+      String bound = sample.labels().get("le");
+      if (sample.name().equals(name) && bound != null && matches(sample, match)) {
+        buckets.merge(number(bound), sample.value(), Double::sum);
+      }
+    }
+    return buckets;
+  }
+
+  private static boolean matches(Sample sample, Map<String, String> match) {
+    for (Map.Entry<String, String> label : match.entrySet()) {
+      if (!label.getValue().equals(sample.labels().get(label.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static double number(String value) {
+    switch (value) {
+      case "+Inf":
+        return Double.POSITIVE_INFINITY;
+      case "-Inf":
+        return Double.NEGATIVE_INFINITY;
+      default:
+        return Double.parseDouble(value);
+    }
+  }
+
+  private record Sample(String name, Map<String, String> labels, double value) {}
+}
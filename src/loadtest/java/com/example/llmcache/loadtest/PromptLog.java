@@ -0,0 +1,56 @@
+package com.example.llmcache.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Prompts to replay, read from a JSON Lines file with one object per line.
+ *
+ * <p>The prompt is read from a configurable field ({@code prompt} by default, which also matches
+ * the NDJSON cache export), and generation options from an optional {@code options} object. Lines
+ * without the field are skipped.
+ */
+final class PromptLog {
+
+  private static final TypeReference<Map<String, Object>> OPTIONS = new TypeReference<>() {};
+
+  private PromptLog() {}
+
+  static List<Prompt> read(Path file, String field, ObjectMapper mapper) throws IOException {
+    List<Prompt> prompts = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        JsonNode node = mapper.readTree(line);
+        JsonNode prompt = node.get(field);
+        if (prompt == null || !prompt.isTextual() || prompt.asText().isBlank()) {
+          continue;
+        }
+        JsonNode options = node.get("options");
+        prompts.add(
+            new Prompt(
+                prompt.asText(),
+                options != null && options.isObject()
+                    ? mapper.convertValue(options, OPTIONS)
+                    : Map.of()));
+      }
+    }
+    return prompts;
+  }
+
+  /** One request to replay */
+  record Prompt(String prompt, Map<String, Object> options) {}
+}
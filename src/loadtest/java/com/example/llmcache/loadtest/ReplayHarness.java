@@ -0,0 +1,413 @@
+package com.example.llmcache.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Replays a prompt log against a running service and reports throughput, latency and hit ratio.
+ *
+ * <p>Requests are sent to {@code POST /api/llm/generate}, either open loop at a fixed rate or
+ * closed loop from a fixed number of concurrent clients. Client latency is measured end to end; in
+ * open loop it is measured from when the request was due, so a backed-up service is not hidden by
+ * the harness sending late. Per-stage percentiles and the hit ratio come from the service's
+ * Prometheus histograms, scraped before and after the run.
+ *
+ * <p>Combine with the {@code stub} profile on the service to run entirely offline:
+ *
+ * <pre>
+ * java -jar target/llm-vector-cache-1.0.0.jar --spring.profiles.active=stub,embedded
+ * mvn -Ploadtest -DskipTests test-compile exec:exec \
+ *   -Dloadtest.args="--log prompts.jsonl --rate 50 --requests 5000"
+ * </pre>
+ */
+public final class ReplayHarness {
+
+  private static final List<String> STAGES =
+      List.of("exact_lookup", "lexical_lookup", "embedding", "vector_search", "generation");
+  private static final List<String> LOOKUP_RESULTS =
+      List.of("exact", "lexical", "semantic", "miss");
+
+  private static final String USAGE =
+      String.join(
+          "\n",
+          "Usage: ReplayHarness --log <file.jsonl> [options]",
+          "  --url <base url>        Service to replay against (default http://localhost:8080)",
+          "  --field <name>          JSON field holding the prompt (default prompt)",
+          "  --rate <per second>     Send open loop at this rate",
+          "  --concurrency <n>       Otherwise send closed loop from n clients (default 8)",
+          "  --requests <n>          Requests to send, cycling through the log (default: log size)",
+          "  --timeout-ms <ms>       Per-request timeout (default 60000)",
+          "  --report <file.json>    Also write the report as JSON");
+
+  private final Options options;
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final HttpClient client =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+  private ReplayHarness(Options options) {
+    this.options = options;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+    new ReplayHarness(options).run();
+  }
+
+  private void run() throws IOException, InterruptedException {
+    List<PromptLog.Prompt> prompts = PromptLog.read(options.log(), options.field(), mapper);
+    if (prompts.isEmpty()) {
+      System.err.println("No prompts with a '" + options.field() + "' field in " + options.log());
+      System.exit(1);
+    }
+    int total = options.requests() > 0 ? options.requests() : prompts.size();
+    URI metrics = options.url().resolve("/actuator/prometheus");
+    System.out.printf(
+        "Replaying %d requests from %s (%d prompts) against %s, %s%n",
+        total, options.log(), prompts.size(), options.url(), mode());
+
+    Optional<PrometheusSnapshot> before = PrometheusSnapshot.scrape(client, metrics);
+    Results results = new Results(total);
+    long started = System.nanoTime();
+    if (options.rate() > 0) {
+      runOpenLoop(prompts, total, results, started);
+    } else {
+      runClosedLoop(prompts, total, results);
+    }
+    double seconds = (System.nanoTime() - started) / 1e9;
+    Optional<PrometheusSnapshot> after = PrometheusSnapshot.scrape(client, metrics);
+
+    Report report = report(results, seconds, before.orElse(null), after.orElse(null));
+    print(report);
+    if (after.isEmpty()) {
+      System.out.println("Could not scrape " + metrics + "; stage latencies and hits omitted");
+    }
+    if (options.report() != null) {
+      if (options.report().getParent() != null) {
+        Files.createDirectories(options.report().getParent());
+      }
+      mapper
+          .enable(SerializationFeature.INDENT_OUTPUT)
+          .writeValue(options.report().toFile(), report);
+      System.out.println("Report written to " + options.report());
+    }
+  }
+
+  private void runOpenLoop(List<PromptLog.Prompt> prompts, int total, Results results, long started)
+      throws InterruptedException {
+    long periodNanos = Math.max(1, (long) (1e9 / options.rate()));
+    CountDownLatch done = new CountDownLatch(total);
+    AtomicInteger next = new AtomicInteger();
+    ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    ScheduledFuture<?> ticks =
+        ticker.scheduleAtFixedRate(
+            () -> {
+              int i = next.getAndIncrement();
+              if (i >= total) {
+                return;
+              }
+              long due = started + i * periodNanos;
+              send(prompts.get(i % prompts.size()))
+                  .whenComplete(
+                      (ok, ex) -> {
+                        results.record(due, ok != null && ok);
+                        done.countDown();
+                      });
+            },
+            0,
+            periodNanos,
+            TimeUnit.NANOSECONDS);
+    done.await();
+    ticks.cancel(false);
+    ticker.shutdown();
+  }
+
+  private void runClosedLoop(List<PromptLog.Prompt> prompts, int total, Results results)
+      throws InterruptedException {
+    AtomicInteger next = new AtomicInteger();
+    ExecutorService clients = Executors.newFixedThreadPool(options.concurrency());
+    for (int c = 0; c < options.concurrency(); c++) {
+      clients.execute(
+          () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < total) {
+              long start = System.nanoTime();
+              boolean ok;
+              try {
+                ok = send(prompts.get(i % prompts.size())).get();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+              } catch (ExecutionException e) {
+                ok = false;
+              }
+              results.record(start, ok);
+            }
+          });
+    }
+    clients.shutdown();
+    clients.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+  }
+
+  /** Sends one prompt; completes with whether the service answered it successfully */
+  private CompletableFuture<Boolean> send(PromptLog.Prompt prompt) {
+    try {
+      byte[] body =
+          mapper.writeValueAsBytes(Map.of("prompt", prompt.prompt(), "options", prompt.options()));
+      HttpRequest request =
+          HttpRequest.newBuilder(options.url().resolve("/api/llm/generate"))
+              .timeout(options.timeout())
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+              .build();
+      return client
+          .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+          .thenApply(response -> response.statusCode() == 200 && succeeded(response.body()))
+          .exceptionally(ex -> false);
+    } catch (IOException e) {
+      return CompletableFuture.completedFuture(false);
+    }
+  }
+
+  private boolean succeeded(byte[] body) {
+    try {
+      JsonNode success = mapper.readTree(body).get("success");
+      return success != null && success.asBoolean();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private Report report(
+      Results results, double seconds, PrometheusSnapshot before, PrometheusSnapshot after) {
+    Double hitRatio = null;
+    Map<String, Long> lookups = null;
+    Map<String, Latency> stages = null;
+    if (after != null) {
+      double hits =
+          after.increase(before, "llm_cache_request_seconds_count", Map.of("result", "hit"));
+      double misses =
+          after.increase(before, "llm_cache_request_seconds_count", Map.of("result", "miss"));
+      hitRatio = hits + misses > 0 ? hits / (hits + misses) : null;
+
+      lookups = new LinkedHashMap<>();
+      for (String result : LOOKUP_RESULTS) {
+        lookups.put(
+            result,
+            Math.round(
+                after.increase(
+                    before, "llm_cache_lookup_seconds_count", Map.of("result", result))));
+      }
+
+      stages = new LinkedHashMap<>();
+      for (String stage : STAGES) {
+        putStage(
+            stages,
+            stage,
+            after.bucketIncrease(before, "llm_cache_stage_seconds", Map.of("stage", stage)));
+      }
+      putStage(
+          stages, "request", after.bucketIncrease(before, "llm_cache_request_seconds", Map.of()));
+    }
+    return new Report(
+        mode(),
+        results.count(),
+        results.errors(),
+        seconds,
+        results.count() / seconds,
+        results.latency(),
+        hitRatio,
+        lookups,
+        stages);
+  }
+
+  private static void putStage(
+      Map<String, Latency> stages, String stage, TreeMap<Double, Double> buckets) {
+    if (buckets.isEmpty() || buckets.lastEntry().getValue() <= 0) {
+      return;
+    }
+    stages.put(
+        stage,
+        new Latency(
+            Math.round(buckets.lastEntry().getValue()),
+            PrometheusSnapshot.quantile(buckets, 0.5) * 1000,
+            PrometheusSnapshot.quantile(buckets, 0.95) * 1000,
+            PrometheusSnapshot.quantile(buckets, 0.99) * 1000,
+            null));
+  }
+
+  private void print(Report report) {
+    System.out.println();
+    System.out.printf(
+        "Requests: %d in %.1f s (%.1f/s), %d errors%n",
+        report.requests(), report.durationSeconds(), report.throughput(), report.errors());
+    if (report.hitRatio() != null) {
+      System.out.printf(
+          "Hit ratio: %.1f%%  lookups %s%n", report.hitRatio() * 100, report.lookups());
+    }
+    System.out.printf(
+        "%-16s %8s %10s %10s %10s %10s%n", "", "count", "p50 ms", "p95 ms", "p99 ms", "max ms");
+    printLatency("client", report.latencyMs());
+    if (report.stages() != null) {
+      report.stages().forEach(ReplayHarness::printLatency);
+    }
+  }
+
+  private static void printLatency(String name, Latency latency) {
+    System.out.printf(
+        "%-16s %8d %10.1f %10.1f %10.1f %10s%n",
+        name,
+        latency.count(),
+        latency.p50(),
+        latency.p95(),
+        latency.p99(),
+        latency.max() != null ? String.format("%.1f", latency.max()) : "");
+  }
+
+  private String mode() {
+    return options.rate() > 0
+        ? "open loop at " + options.rate() + "/s"
+        : "closed loop with " + options.concurrency() + " clients";
+  }
+
+  /** Client-side latencies, kept in full for exact percentiles */
+  private static final class Results {
+    private final long[] latencies;
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong errors = new AtomicLong();
+
+    Results(int total) {
+      this.latencies = new long[total];
+    }
+
+    void record(long startNanos, boolean ok) {
+      latencies[count.getAndIncrement()] = System.nanoTime() - startNanos;
+      if (!ok) {
+        errors.incrementAndGet();
+      }
+    }
+
+    int count() {
+      return count.get();
+    }
+
+    long errors() {
+      return errors.get();
+    }
+
+    Latency latency() {
+      long[] sorted = Arrays.copyOf(latencies, count());
+      Arrays.sort(sorted);
+      return new Latency(
+          sorted.length,
+          percentile(sorted, 0.5),
+          percentile(sorted, 0.95),
+          percentile(sorted, 0.99),
+          sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0.0);
+    }
+
+    private static double percentile(long[] sorted, double q) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int rank = (int) Math.ceil(q * sorted.length) - 1;
+      return sorted[Math.max(0, rank)] / 1e6;
+    }
+  }
+
+  record Options(
+      URI url,
+      Path log,
+      String field,
+      double rate,
+      int concurrency,
+      int requests,
+      Duration timeout,
+      Path report) {
+
+    static Options parse(String[] args) {
+      Map<String, String> values = new LinkedHashMap<>();
+      for (int i = 0; i < args.length; i++) {
+        if (!args[i].startsWith("--") || i + 1 >= args.length) {
+          throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+        }
+        values.put(args[i].substring(2), args[++i]);
+      }
+      String log = values.remove("log");
+      if (log == null) {
+        throw new IllegalArgumentException("--log is required");
+      }
+      try {
+        Options options =
+            new Options(
+                URI.create(values.getOrDefault("url", "http://localhost:8080")),
+                Path.of(log),
+                values.getOrDefault("field", "prompt"),
+                Double.parseDouble(values.getOrDefault("rate", "0")),
+                Integer.parseInt(values.getOrDefault("concurrency", "8")),
+                Integer.parseInt(values.getOrDefault("requests", "0")),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("timeout-ms", "60000"))),
+                values.containsKey("report") ? Path.of(values.get("report")) : null);
+        values.keySet().removeAll(List.of("url", "field", "rate", "concurrency", "requests"));
+        values.keySet().removeAll(List.of("timeout-ms", "report"));
+        if (!values.isEmpty()) {
+          throw new IllegalArgumentException(
+              "Unknown option: --" + values.keySet().iterator().next());
+        }
+        if (options.concurrency() < 1) {
+          throw new IllegalArgumentException("--concurrency must be at least 1");
+        }
+        return options;
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+      }
+    }
+  }
+
+  /** Latency percentiles in milliseconds; max is only known for client-side latencies */
+  record Latency(long count, double p50, double p95, double p99, Double max) {}
+
+  record Report(
+      String mode,
+      int requests,
+      long errors,
+      double durationSeconds,
+      double throughput,
+      Latency latencyMs,
+      Double hitRatio,
+      Map<String, Long> lookups,
+      Map<String, Latency> stages) {}
+}
@@ -0,0 +1,31 @@
+package com.example.llmcache.config;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.example.llmcache.service.metrics.CacheMetrics;
+
+/** Delegating serializer that reports the size of every value read from Redis */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+  private final RedisSerializer<Object> delegate;
+  private final CacheMetrics metrics;
+
+  public MeteredRedisSerializer(RedisSerializer<Object> delegate, CacheMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    return delegate.serialize(value);
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes != null) {
+      metrics.recordBytesRead(bytes.length);
+    }
+    return delegate.deserialize(bytes);
+  }
+}
@@ -1,6 +1,7 @@
 package com.example.llmcache.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
@@ -8,6 +9,7 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 
+import com.example.llmcache.service.metrics.CacheMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -15,6 +17,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import redis.clients.jedis.JedisPool;
 
 @Configuration
+@ConditionalOnProperty(name = "cache.store.type", havingValue = "redis", matchIfMissing = true)
 public class RedisConfig {
 
   @Value("${spring.redis.host:localhost}")
@@ -29,21 +32,22 @@ public class RedisConfig {
   }
 
   @Bean
-  public RedisTemplate<String, Object> redisTemplate() {
+  public RedisTemplate<String, Object> redisTemplate(CacheMetrics metrics) {
     RedisTemplate<String, Object> template = new RedisTemplate<>();
     template.setConnectionFactory(redisConnectionFactory());
+    template.setDefaultSerializer(new MeteredRedisSerializer(valueSerializer(), metrics));
+    return template;
+  }
 
+  /** Serializer for values stored in Redis, cache entries included */
+  public static GenericJackson2JsonRedisSerializer valueSerializer() {
     // Configure ObjectMapper with JavaTimeModule for LocalDateTime support
     ObjectMapper objectMapper = new ObjectMapper();
     objectMapper.registerModule(new JavaTimeModule());
     objectMapper.activateDefaultTyping(
         LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
 
-    GenericJackson2JsonRedisSerializer serializer =
-        new GenericJackson2JsonRedisSerializer(objectMapper);
-
-    template.setDefaultSerializer(serializer);
-    return template;
+    return new GenericJackson2JsonRedisSerializer(objectMapper);
   }
 
   @Bean
@@ -0,0 +1,92 @@
+package com.example.llmcache.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.llmcache.service.bulk.BulkExportService;
+import com.example.llmcache.service.bulk.ExportFilter;
+import com.example.llmcache.service.bulk.ExportFormat;
+
+/**
+ * Streams the cache contents as NDJSON or binary.
+ *
+ * <pre>
+ * curl -o cache.ndjson 'http://localhost:8080/api/llm/cache/export?vectors=false&amp;minAgeMinutes=60&amp;metadata=model:gpt-4'
+ * </pre>
+ *
+ * <p>The response is written on the request thread as entries are read, so no async timeout cuts
+ * off a long export.
+ */
+@RestController
+@RequestMapping("/api/llm/cache/export")
+public class CacheExportController {
+
+  private final BulkExportService exportService;
+
+  public CacheExportController(BulkExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  /**
+   * @param format {@code ndjson} or {@code binary}
+   * @param vectors Whether to include the vectors
+   * @param minAgeMinutes Only entries at least this old
+   * @param maxAgeMinutes Only entries at most this old
+   * @param metadata {@code key:value} pairs every exported entry must have in its metadata
+   */
+  @GetMapping
+  public void export(
+      @RequestParam(defaultValue = "ndjson") String format,
+      @RequestParam(defaultValue = "true") boolean vectors,
+      @RequestParam(required = false) Long minAgeMinutes,
+      @RequestParam(required = false) Long maxAgeMinutes,
+      @RequestParam(required = false) List<String> metadata,
+      HttpServletResponse response)
+      throws IOException {
+    ExportFormat exportFormat;
+    try {
+      exportFormat = ExportFormat.valueOf(format.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown export format: " + format);
+      return;
+    }
+    Map<String, String> required = new HashMap<>();
+    if (metadata != null) {
+      for (String pair : metadata) {
+        int separator = pair.indexOf(':');
+        if (separator <= 0) {
+          response.sendError(
+              HttpServletResponse.SC_BAD_REQUEST, "Metadata filter must be key:value: " + pair);
+          return;
+        }
+        required.put(pair.substring(0, separator), pair.substring(separator + 1));
+      }
+    }
+    ExportFilter filter =
+        new ExportFilter(
+            minAgeMinutes != null ? Duration.ofMinutes(minAgeMinutes) : null,
+            maxAgeMinutes != null ? Duration.ofMinutes(maxAgeMinutes) : null,
+            required);
+
+    response.setContentType(exportFormat.getContentType());
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"llm-cache." + exportFormat.getExtension() + "\"");
+    try {
+      exportService.export(response.getOutputStream(), exportFormat, filter, vectors);
+    } catch (RejectedExecutionException e) {
+      response.reset();
+      response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.llmcache.controller;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.llmcache.service.bulk.BulkImportService;
+import com.example.llmcache.service.bulk.ImportProgress;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams NDJSON prompt/response logs into the cache.
+ *
+ * <pre>
+ * curl -X POST -H 'Content-Type: application/x-ndjson' --data-binary @history.jsonl \
+ *   'http://localhost:8080/api/llm/cache/import?jobId=history'
+ * </pre>
+ */
+@RestController
+@RequestMapping("/api/llm/cache/import")
+@Slf4j
+public class CacheImportController {
+
+  private final BulkImportService importService;
+
+  public CacheImportController(BulkImportService importService) {
+    this.importService = importService;
+  }
+
+  /**
+   * Imports the request body; posting again with the same job id resumes an interrupted import.
+   * Form content types are refused because the container would consume the body as parameters.
+   */
+  @PostMapping(
+      consumes = {
+        "application/x-ndjson",
+        "application/json",
+        "text/plain",
+        "application/octet-stream"
+      })
+  public ResponseEntity<ImportProgress> importEntries(
+      @RequestParam(required = false) String jobId, HttpServletRequest request) {
+    String id = jobId != null ? jobId : UUID.randomUUID().toString();
+    try {
+      return ResponseEntity.ok(importService.importStream(id, request.getInputStream()));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(importService.getProgress(id));
+    } catch (IOException e) {
+      log.error("Error reading import {}", id, e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(importService.getProgress(id));
+    }
+  }
+
+  @GetMapping("/{jobId}")
+  public ResponseEntity<ImportProgress> getProgress(@PathVariable String jobId) {
+    ImportProgress progress = importService.getProgress(jobId);
+    return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+  }
+}
@@ -1,15 +1,23 @@
 package com.example.llmcache.controller;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import com.example.llmcache.service.LlmService;
 import com.example.llmcache.service.VectorCacheService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -22,6 +30,13 @@ public class LLMController {
 
   private final LlmService llmService;
   private final VectorCacheService cacheService;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Value("${cache.batch.max-prompts:10000}")
+  private int maxBatchPrompts = 10000;
+
+  @Value("${cache.batch.timeout-ms:600000}")
+  private long batchTimeoutMs = 600000;
 
   public LLMController(LlmService llmService, VectorCacheService cacheService) {
     this.llmService = llmService;
@@ -41,6 +56,50 @@ public class LLMController {
             });
   }
 
+  /**
+   * Answers many prompts in one call. Results are streamed back as NDJSON, one line per prompt in
+   * completion order, each carrying the index of its prompt in the request.
+   */
+  @PostMapping("/generate/batch")
+  public ResponseEntity<ResponseBodyEmitter> generateBatch(@RequestBody BatchRequest request) {
+    List<String> prompts = request.getPrompts();
+    if (prompts == null
+        || prompts.isEmpty()
+        || prompts.size() > maxBatchPrompts
+        || prompts.stream().anyMatch(p -> p == null || p.isBlank())) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeoutMs);
+    llmService
+        .generateBatch(
+            prompts,
+            request.getOptions(),
+            result -> {
+              try {
+                String line = objectMapper.writeValueAsString(result) + "\n";
+                synchronized (emitter) {
+                  emitter.send(line, MediaType.TEXT_PLAIN);
+                }
+              } catch (JsonProcessingException e) {
+                log.error("Could not serialize batch result", e);
+              } catch (IOException | IllegalStateException e) {
+                // The client disconnected or the request timed out; remaining results are dropped
+                log.debug("Could not send batch result: {}", e.getMessage());
+              }
+            })
+        .whenComplete(
+            (done, ex) -> {
+              if (ex != null) {
+                log.error("Error generating batch", ex);
+                emitter.completeWithError(ex);
+              } else {
+                emitter.complete();
+              }
+            });
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+  }
+
   @GetMapping("/cache/stats")
   public ResponseEntity<VectorCacheService.CacheStats> getCacheStats() {
     return ResponseEntity.ok(cacheService.getStats());
@@ -66,6 +125,12 @@ public class LLMController {
     private Map<String, Object> options = new HashMap<>();
   }
 
+  @Data
+  public static class BatchRequest {
+    private List<String> prompts = new ArrayList<>();
+    private Map<String, Object> options = new HashMap<>();
+  }
+
   @Data
   @AllArgsConstructor
   public static class LLMResponse {
@@ -2,11 +2,16 @@ package com.example.llmcache.controller;
 
 import java.util.concurrent.CompletableFuture;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.example.llmcache.service.CacheStatsService;
+import com.example.llmcache.service.stats.DashboardPublisher;
 
 import lombok.RequiredArgsConstructor;
 
@@ -14,13 +19,15 @@ import lombok.RequiredArgsConstructor;
  * Landing page controller for LLM Vector Cache
  *
  * <p>Provides a dashboard showing cache statistics, performance metrics, and cost savings
- * information.
+ * information. The page renders the current statistics and then keeps them up to date from a
+ * server-sent event stream.
  */
 @Controller
 @RequiredArgsConstructor
 public class LandingPageController {
 
   private final CacheStatsService cacheStatsService;
+  private final DashboardPublisher dashboardPublisher;
 
   @GetMapping("/")
   public CompletableFuture<String> index(Model model) {
@@ -32,4 +39,13 @@ public class LandingPageController {
               return "index";
             });
   }
+
+  /** Streams live statistics to the dashboard; 503 when too many dashboards are connected */
+  @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> stream() {
+    return dashboardPublisher
+        .subscribe()
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+  }
 }
@@ -0,0 +1,47 @@
+package com.example.llmcache.controller;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.llmcache.service.stats.SimilarityAnalysis;
+
+/**
+ * Reports the distribution of best-candidate similarities and the hit rate the cache would have had
+ * at other similarity thresholds.
+ *
+ * <pre>
+ * curl 'http://localhost:8080/api/llm/cache/similarity?thresholds=0.85,0.9,0.95'
+ * </pre>
+ */
+@RestController
+@RequestMapping("/api/llm/cache/similarity")
+public class SimilarityAnalysisController {
+
+  private static final List<Double> DEFAULT_THRESHOLDS =
+      List.of(0.75, 0.8, 0.85, 0.9, 0.92, 0.94, 0.95, 0.96, 0.97, 0.98, 0.99);
+
+  private final SimilarityAnalysis analysis;
+
+  public SimilarityAnalysisController(SimilarityAnalysis analysis) {
+    this.analysis = analysis;
+  }
+
+  /** Thresholds default to a range around common settings plus the configured one */
+  @GetMapping
+  public ResponseEntity<SimilarityAnalysis.Report> analyze(
+      @RequestParam(required = false) List<Double> thresholds) {
+    TreeSet<Double> requested =
+        new TreeSet<>(
+            thresholds != null && !thresholds.isEmpty() ? thresholds : DEFAULT_THRESHOLDS);
+    if (thresholds == null || thresholds.isEmpty()) {
+      requested.add(analysis.getCurrentThreshold());
+    }
+    if (requested.first() < -1.0 || requested.last() > 1.0) {
+      return ResponseEntity.badRequest().build();
+    }
+    return ResponseEntity.ok(analysis.analyze(List.copyOf(requested)));
+  }
+}
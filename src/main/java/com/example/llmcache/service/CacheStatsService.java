@@ -2,36 +2,67 @@ package com.example.llmcache.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.example.llmcache.service.VectorCacheService.CacheStats;
+import com.example.llmcache.service.stats.InMemoryStatsStore;
+import com.example.llmcache.service.stats.StatsCounts;
+import com.example.llmcache.service.stats.StatsStore;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service for calculating comprehensive cache statistics and cost savings
  *
- * <p>Tracks cache performance metrics and estimates cost savings based on OpenAI API pricing for
- * avoided requests.
+ * <p>Hits and misses are counted in local adders on the request path and added to a shared {@link
+ * StatsStore} every {@code cache.stats.flush-interval-ms}, so statistics cover every instance and
+ * survive restarts without a store write per request. Counts not yet flushed by this instance are
+ * included in its own answers.
+ *
+ * <p>Estimates cost savings based on OpenAI API pricing for avoided requests, extrapolated from the
+ * time since statistics were first kept.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class CacheStatsService {
 
+  private static final Map<String, Duration> WINDOWS = new LinkedHashMap<>();
+
+  static {
+    WINDOWS.put("1m", Duration.ofMinutes(1));
+    WINDOWS.put("1h", Duration.ofHours(1));
+    WINDOWS.put("24h", Duration.ofHours(24));
+  }
+
+  private static final long MIN_EXTRAPOLATION_MILLIS = Duration.ofHours(1).toMillis();
+
   private final VectorCacheService vectorCacheService;
+  private final StatsStore statsStore;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  // Runtime counters for cache hits/misses, and how much of them was flushed to the store
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+  private long flushedHits;
+  private long flushedMisses;
 
-  // Runtime counters for cache hits/misses
-  private final AtomicLong totalRequests = new AtomicLong(0);
-  private final AtomicLong cacheHits = new AtomicLong(0);
-  private final AtomicLong cacheMisses = new AtomicLong(0);
+  @Value("${cache.stats.flush-interval-ms:5000}")
+  private long flushIntervalMs = 5000;
 
   // OpenAI pricing (as of 2024) - per 1K tokens
   @Value("${openai.pricing.input-tokens-per-1k:0.0015}")
@@ -53,18 +84,44 @@ public class CacheStatsService {
   @Value("${cache.stats.avg-embedding-tokens:50}")
   private int avgEmbeddingTokens;
 
+  public CacheStatsService(VectorCacheService vectorCacheService) {
+    this(vectorCacheService, null);
+  }
+
+  /**
+   * @param statsStore Shared store to aggregate counts in, or null to keep them in this process
+   */
+  @Autowired
+  public CacheStatsService(VectorCacheService vectorCacheService, @Nullable StatsStore statsStore) {
+    this.vectorCacheService = vectorCacheService;
+    this.statsStore = statsStore != null ? statsStore : new InMemoryStatsStore();
+  }
+
   /** Records a cache hit */
   public void recordCacheHit() {
-    totalRequests.incrementAndGet();
-    cacheHits.incrementAndGet();
-    log.debug("Cache hit recorded. Total: {}, Hits: {}", totalRequests.get(), cacheHits.get());
+    cacheHits.increment();
   }
 
   /** Records a cache miss */
   public void recordCacheMiss() {
-    totalRequests.incrementAndGet();
-    cacheMisses.incrementAndGet();
-    log.debug("Cache miss recorded. Total: {}, Misses: {}", totalRequests.get(), cacheMisses.get());
+    cacheMisses.increment();
+  }
+
+  /** Adds the counts recorded since the last flush to the shared store */
+  @Scheduled(fixedDelayString = "${cache.stats.flush-interval-ms:5000}")
+  @PreDestroy
+  public synchronized void flush() {
+    long hits = cacheHits.sum();
+    long misses = cacheMisses.sum();
+    try {
+      statsStore.add(
+          instanceId, System.currentTimeMillis(), hits - flushedHits, misses - flushedMisses);
+      flushedHits = hits;
+      flushedMisses = misses;
+    } catch (Exception e) {
+      // Keep the counts pending and add them with the next flush
+      log.warn("Could not flush cache statistics: {}", e.getMessage());
+    }
   }
 
   /** Gets comprehensive cache statistics including cost savings */
@@ -72,29 +129,63 @@ public class CacheStatsService {
     return CompletableFuture.supplyAsync(
         () -> {
           CacheStats basicStats = vectorCacheService.getStats();
-
-          long currentHits = cacheHits.get();
-          long currentMisses = cacheMisses.get();
-          long currentTotal = totalRequests.get();
-
-          // Calculate hit rate
-          double hitRate = currentTotal > 0 ? (double) currentHits / currentTotal * 100 : 0.0;
+          long now = System.currentTimeMillis();
+          StatsCounts pending = pendingCounts();
+
+          StatsCounts totals = pending;
+          long startedAt = now;
+          int instances = 1;
+          Map<String, WindowStats> windows = new LinkedHashMap<>();
+          try {
+            totals = statsStore.totals().plus(pending);
+            startedAt = statsStore.startedAt() > 0 ? statsStore.startedAt() : now;
+            instances = Math.max(1, statsStore.activeInstances(now - 2 * flushIntervalMs));
+            for (Map.Entry<String, Duration> window : WINDOWS.entrySet()) {
+              windows.put(window.getKey(), window(window.getValue(), pending, now, startedAt));
+            }
+          } catch (Exception e) {
+            log.warn("Could not read shared cache statistics: {}", e.getMessage());
+          }
+          long uptimeMillis = Math.max(0, now - startedAt);
 
           // Calculate cost savings
-          CostSavings costSavings = calculateCostSavings(currentHits);
+          CostSavings costSavings = calculateCostSavings(totals.hits(), uptimeMillis);
 
           return new CacheStatistics(
               basicStats.getTotalEntries(),
-              currentHits,
-              currentMisses,
-              currentTotal,
-              hitRate,
-              costSavings);
+              totals.hits(),
+              totals.misses(),
+              totals.requests(),
+              hitRate(totals),
+              costSavings,
+              uptimeMillis / 1000,
+              instances,
+              windows);
         });
   }
 
-  /** Calculates cost savings based on cache hits */
-  private CostSavings calculateCostSavings(long cacheHits) {
+  private synchronized StatsCounts pendingCounts() {
+    return new StatsCounts(cacheHits.sum() - flushedHits, cacheMisses.sum() - flushedMisses);
+  }
+
+  private WindowStats window(Duration length, StatsCounts pending, long now, long startedAt) {
+    StatsCounts counts = statsStore.sumWindow(length, now).plus(pending);
+    // A window longer than the time statistics have been kept only covers that time
+    double seconds = Math.max(1, Math.min(length.toMillis(), now - startedAt) / 1000.0);
+    return new WindowStats(
+        counts.hits(),
+        counts.misses(),
+        counts.requests(),
+        hitRate(counts),
+        counts.requests() / seconds);
+  }
+
+  private static double hitRate(StatsCounts counts) {
+    return counts.requests() > 0 ? (double) counts.hits() / counts.requests() * 100 : 0.0;
+  }
+
+  /** Calculates cost savings based on cache hits over the time statistics have been kept */
+  private CostSavings calculateCostSavings(long cacheHits, long uptimeMillis) {
     if (cacheHits == 0) {
       return new CostSavings(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
     }
@@ -124,10 +215,12 @@ public class CacheStatsService {
             .multiply(BigDecimal.valueOf(cacheHits))
             .setScale(4, RoundingMode.HALF_UP);
 
-    // Calculate daily savings rate (total savings divided by days the service has been running)
-    // For simplicity, assume 1 day of operation for now - this could be enhanced to track actual
-    // uptime
-    BigDecimal dailySavingsRate = totalSavings; // Simplified assumption
+    // Calculate daily savings rate (total savings divided by days statistics have been kept),
+    // extrapolating from at least an hour so a fresh cluster does not report wild estimates
+    BigDecimal uptimeDays =
+        BigDecimal.valueOf(Math.max(uptimeMillis, MIN_EXTRAPOLATION_MILLIS))
+            .divide(BigDecimal.valueOf(Duration.ofDays(1).toMillis()), 6, RoundingMode.HALF_UP);
+    BigDecimal dailySavingsRate = totalSavings.divide(uptimeDays, 6, RoundingMode.HALF_UP);
 
     // Estimate monthly savings (daily rate * 30)
     BigDecimal monthlySavings = dailySavingsRate.multiply(BigDecimal.valueOf(30));
@@ -135,7 +228,11 @@ public class CacheStatsService {
     // Estimate yearly savings (daily rate * 365)
     BigDecimal yearlySavings = dailySavingsRate.multiply(BigDecimal.valueOf(365));
 
-    return new CostSavings(totalCostPerRequest, totalSavings, monthlySavings, yearlySavings);
+    return new CostSavings(
+        totalCostPerRequest,
+        totalSavings,
+        monthlySavings.setScale(4, RoundingMode.HALF_UP),
+        yearlySavings.setScale(4, RoundingMode.HALF_UP));
   }
 
   /** Comprehensive cache statistics with cost analysis */
@@ -148,6 +245,20 @@ public class CacheStatsService {
     private long totalRequests;
     private double hitRatePercentage;
     private CostSavings costSavings;
+    private long uptimeSeconds;
+    private int activeInstances;
+    private Map<String, WindowStats> windows;
+  }
+
+  /** Cluster-wide counts over a rolling window */
+  @Data
+  @AllArgsConstructor
+  public static class WindowStats {
+    private long hits;
+    private long misses;
+    private long requests;
+    private double hitRatePercentage;
+    private double requestsPerSecond;
   }
 
   /** Cost savings analysis */
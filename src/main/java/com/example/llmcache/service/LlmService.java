@@ -1,11 +1,22 @@
 package com.example.llmcache.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.example.llmcache.service.batch.AsyncLimiter;
+import com.example.llmcache.service.metrics.CacheMetrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -17,17 +28,37 @@ public class LlmService {
   private final VectorCacheService cacheService;
   private final CacheStatsService cacheStatsService;
   private final UnderlyingLlmProviderService llmProviderService;
+  private final CacheMetrics metrics;
+
+  @Value("${cache.batch.max-concurrent-generations:8}")
+  private int maxConcurrentGenerations = 8;
 
   public LlmService(
       VectorCacheService cacheService,
       CacheStatsService cacheStatsService,
       UnderlyingLlmProviderService llmProviderService) {
+    this(
+        cacheService,
+        cacheStatsService,
+        llmProviderService,
+        new CacheMetrics(new SimpleMeterRegistry()));
+  }
+
+  @Autowired
+  public LlmService(
+      VectorCacheService cacheService,
+      CacheStatsService cacheStatsService,
+      UnderlyingLlmProviderService llmProviderService,
+      CacheMetrics metrics) {
     this.cacheService = cacheService;
     this.cacheStatsService = cacheStatsService;
     this.llmProviderService = llmProviderService;
+    this.metrics = metrics;
   }
 
   public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
+    Timer.Sample request = metrics.start();
+    String provider = llmProviderService.getGenerationProviderName();
     return cacheService
         .get(prompt)
         .thenCompose(
@@ -35,30 +66,105 @@ public class LlmService {
               if (cachedResponse.isPresent()) {
                 log.info("Cache hit for prompt");
                 cacheStatsService.recordCacheHit();
+                metrics.recordRequest(request, CacheMetrics.HIT, provider);
                 return CompletableFuture.completedFuture(cachedResponse.get());
               }
 
               log.info("Cache miss, calling LLM");
               cacheStatsService.recordCacheMiss();
-              return callLLM(prompt, options)
-                  .thenCompose(
-                      response -> {
-                        // Cache the response asynchronously
-                        cacheService.set(prompt, response, options);
-                        return CompletableFuture.completedFuture(response);
-                      });
+              return generateAndCache(prompt, options)
+                  .exceptionally(
+                      ex -> {
+                        log.error("Error calling LLM", ex);
+                        return "Error generating response: " + ex.getMessage();
+                      })
+                  .whenComplete(
+                      (response, ex) ->
+                          metrics.recordRequest(request, CacheMetrics.MISS, provider));
             });
   }
 
-  private CompletableFuture<String> callLLM(String prompt, Map<String, Object> options) {
-    // Delegate to the active LLM provider
-    return llmProviderService
-        .generateResponse(prompt, options)
-        .exceptionally(
-            ex -> {
-              log.error("Error calling LLM", ex);
-              return "Error generating response: " + ex.getMessage();
-            });
+  /**
+   * Answers a batch of prompts. Identical prompts are looked up and generated once; the cache
+   * lookups for the whole batch share one store round trip and one embedding call, and at most
+   * {@code cache.batch.max-concurrent-generations} provider calls run at a time.
+   *
+   * @param onResult Called once per input prompt as soon as its answer is known, possibly from
+   *     several threads at once
+   * @return A future completed once every prompt has been answered
+   */
+  public CompletableFuture<Void> generateBatch(
+      List<String> prompts, Map<String, Object> options, Consumer<BatchResult> onResult) {
+    Map<String, List<Integer>> indexesByPrompt = new LinkedHashMap<>();
+    for (int i = 0; i < prompts.size(); i++) {
+      indexesByPrompt.computeIfAbsent(prompts.get(i), p -> new ArrayList<>()).add(i);
+    }
+    List<String> distinct = new ArrayList<>(indexesByPrompt.keySet());
+    log.info("Batch of {} prompts, {} distinct", prompts.size(), distinct.size());
+
+    List<CompletableFuture<Optional<String>>> lookups = cacheService.getAll(distinct);
+    AsyncLimiter limiter = new AsyncLimiter(maxConcurrentGenerations);
+    List<CompletableFuture<Void>> answers = new ArrayList<>(distinct.size());
+    for (int i = 0; i < distinct.size(); i++) {
+      String prompt = distinct.get(i);
+      List<Integer> indexes = indexesByPrompt.get(prompt);
+      answers.add(
+          lookups
+              .get(i)
+              .thenCompose(
+                  cached -> {
+                    if (cached.isPresent()) {
+                      cacheStatsService.recordCacheHit();
+                      return CompletableFuture.completedFuture(
+                          new BatchResult(0, cached.get(), true, true));
+                    }
+                    cacheStatsService.recordCacheMiss();
+                    return limiter
+                        .submit(() -> generateAndCache(prompt, options))
+                        .thenApply(response -> new BatchResult(0, response, true, false));
+                  })
+              .exceptionally(
+                  ex -> {
+                    log.error("Error calling LLM", ex);
+                    return new BatchResult(
+                        0, "Error generating response: " + ex.getMessage(), false, false);
+                  })
+              .thenAccept(
+                  result -> {
+                    for (int index : indexes) {
+                      onResult.accept(
+                          new BatchResult(
+                              index, result.getContent(), result.isSuccess(), result.isCached()));
+                    }
+                  }));
+    }
+    return CompletableFuture.allOf(answers.toArray(new CompletableFuture[0]));
+  }
+
+  /**
+   * Calls the provider for a prompt that missed the cache and caches the response asynchronously
+   * once it arrives, unless admission control judges the prompt too rare to displace existing
+   * entries. Failures are not cached.
+   */
+  private CompletableFuture<String> generateAndCache(String prompt, Map<String, Object> options) {
+    CompletableFuture<String> generation = llmProviderService.generateResponse(prompt, options);
+    generation.thenAccept(
+        response -> {
+          if (cacheService.shouldAdmit(prompt)) {
+            cacheService.set(prompt, response, options);
+          }
+        });
+    return cacheService.withStaleFallback(prompt, generation);
+  }
+
+  /** Answer to one prompt of a batch */
+  @Data
+  @AllArgsConstructor
+  public static class BatchResult {
+    private int index;
+    private String content;
+    private boolean success;
+    private boolean cached;
   }
 
   @Data
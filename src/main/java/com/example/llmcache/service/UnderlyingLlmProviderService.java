@@ -1,14 +1,24 @@
 package com.example.llmcache.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.example.llmcache.model.CacheEntry;
 import com.example.llmcache.service.llmprovider.LlmProvider;
+import com.example.llmcache.service.metrics.CacheMetrics;
+import com.example.llmcache.service.routing.ProviderRouter;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -31,7 +41,14 @@ import lombok.extern.slf4j.Slf4j;
  * this for vector-based caching - Can be extended to support new providers without code changes
  *
  * <p>Configuration: Set 'llmprovider.active' to choose provider (openai, ollama, etc.) Each
- * provider has its own configuration section under 'llmprovider.*'
+ * provider has its own configuration section under 'llmprovider.*'. Set
+ * 'llmprovider.embedding.provider' or 'llmprovider.generation.provider' to use a different provider
+ * for one of the two, e.g. a small local embedder with a large hosted generator.
+ *
+ * <p>Calls go through {@link ProviderRouter}, which opens a circuit breaker on a failing provider
+ * and hedges calls slower than the provider's recent p95. Generation fails over to the other
+ * available providers; embeddings stay on the active provider because vector spaces differ between
+ * providers, so the breaker only makes them fail fast.
  *
  * @see LlmProvider for provider implementation interface
  * @see OpenAILlmProvider for OpenAI integration
@@ -43,44 +60,95 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class UnderlyingLlmProviderService {
 
+  /**
+   * Metadata key naming the embedding space of an entry's vector, as returned by {@link
+   * #getEmbeddingSpace()}
+   */
+  public static final String EMBEDDING_SPACE = "embedding_space";
+
   private final List<LlmProvider> providers;
-  private final LlmProvider activeProvider;
+  private final ProviderRouter router;
+  private volatile LlmProvider embeddingProvider;
+  private volatile LlmProvider generationProvider;
 
   @Value("${llmprovider.active:openai}")
   private String activeProviderName;
 
+  /** Provider for embeddings; {@code llmprovider.active} when empty */
+  @Value("${llmprovider.embedding.provider:}")
+  private String embeddingProviderName;
+
+  /** Provider for generation; {@code llmprovider.active} when empty */
+  @Value("${llmprovider.generation.provider:}")
+  private String generationProviderName;
+
   /**
    * Constructor that initializes the provider service with dependency injection.
    *
    * @param providers List of all available LLM providers discovered by Spring
    */
   public UnderlyingLlmProviderService(List<LlmProvider> providers) {
+    this(providers, new CacheMetrics(new SimpleMeterRegistry()));
+  }
+
+  /**
+   * @param providers List of all available LLM providers discovered by Spring
+   * @param metrics Meters recording the time of each embedding and generation call
+   */
+  public UnderlyingLlmProviderService(List<LlmProvider> providers, CacheMetrics metrics) {
+    this(providers, new ProviderRouter(metrics));
+  }
+
+  /**
+   * @param providers List of all available LLM providers discovered by Spring
+   * @param router Picks, times and hedges the provider call for each request
+   */
+  @Autowired
+  public UnderlyingLlmProviderService(List<LlmProvider> providers, ProviderRouter router) {
     this.providers = providers;
-    this.activeProvider = findActiveProvider();
+    this.router = router;
+    this.embeddingProvider = findProvider(null, p -> true);
+    this.generationProvider = findProvider(null, LlmProvider::supportsGeneration);
+  }
+
+  /** Selects the providers again once the configured names have been injected */
+  @PostConstruct
+  public void init() {
+    embeddingProvider = findProvider(configuredName(embeddingProviderName), p -> true);
+    generationProvider =
+        findProvider(configuredName(generationProviderName), LlmProvider::supportsGeneration);
 
     log.info(
         "Available LLM providers: {}",
         providers.stream().map(LlmProvider::getProviderName).toList());
     log.info(
-        "Active LLM provider: {}",
-        activeProvider != null ? activeProvider.getProviderName() : "none");
+        "Embedding LLM provider: {}, generation LLM provider: {}",
+        getProviderName(),
+        getGenerationProviderName());
+  }
+
+  private String configuredName(String name) {
+    return name == null || name.isBlank() ? activeProviderName : name;
   }
 
   /**
-   * Finds and selects the active LLM provider based on configuration and availability.
+   * Finds and selects an LLM provider based on configuration and availability.
    *
-   * <p>Selection Logic: 1. First, tries to find the specifically configured provider
-   * (llmprovider.active) 2. If configured provider is not available, falls back to first available
-   * provider 3. Returns null if no providers are available
+   * <p>Selection Logic: 1. First, tries to find the specifically configured provider 2. If
+   * configured provider is not available, falls back to first available provider 3. Returns null if
+   * no providers are available
    *
+   * @param name Configured provider name, or null before configuration is injected
+   * @param capable Whether a provider can serve the role it is selected for
    * @return The selected LlmProvider or null if none available
    */
-  private LlmProvider findActiveProvider() {
+  private LlmProvider findProvider(String name, Predicate<LlmProvider> capable) {
     // First, try to find the specifically configured provider
     LlmProvider configured =
         providers.stream()
-            .filter(p -> p.getProviderName().equals(activeProviderName))
+            .filter(p -> p.getProviderName().equals(name))
             .filter(LlmProvider::isAvailable)
+            .filter(capable)
             .findFirst()
             .orElse(null);
 
@@ -90,12 +158,16 @@ public class UnderlyingLlmProviderService {
 
     // Fall back to first available provider
     LlmProvider fallback =
-        providers.stream().filter(LlmProvider::isAvailable).findFirst().orElse(null);
+        providers.stream()
+            .filter(LlmProvider::isAvailable)
+            .filter(capable)
+            .findFirst()
+            .orElse(null);
 
-    if (fallback != null) {
+    if (fallback != null && name != null) {
       log.warn(
           "Configured provider '{}' not available, using fallback: {}",
-          activeProviderName,
+          name,
           fallback.getProviderName());
     }
 
@@ -103,26 +175,45 @@ public class UnderlyingLlmProviderService {
   }
 
   /**
-   * Generates a vector representation for the given text using the active provider.
+   * Generates a vector representation for the given text using the embedding provider.
    *
-   * <p>This method delegates to the currently active LLM provider to generate a vector
-   * representation of the input text. The vector can be used for semantic similarity matching,
-   * clustering, and other vector operations.
+   * <p>This method delegates to the embedding provider to generate a vector representation of the
+   * input text. The vector can be used for semantic similarity matching, clustering, and other
+   * vector operations.
    *
    * @param text The input text to generate a vector for
    * @return CompletableFuture containing the vector as float array
    * @throws IllegalStateException if no LLM provider is available
    */
   public CompletableFuture<float[]> getVector(String text) {
-    if (activeProvider == null) {
+    LlmProvider provider = embeddingProvider;
+    if (provider == null) {
       return CompletableFuture.failedFuture(new IllegalStateException("No LLM provider available"));
     }
 
-    return activeProvider.getVector(text);
+    return router.route(ProviderRouter.EMBEDDING, List.of(provider), p -> p.getVector(text));
   }
 
   /**
-   * Generates a chat/completion response using the active provider.
+   * Generates vector representations for several texts using the embedding provider, in one request
+   * where the provider supports batching.
+   *
+   * @param texts The input texts
+   * @return CompletableFuture containing one vector per text, in input order
+   */
+  public CompletableFuture<List<float[]>> getVectors(List<String> texts) {
+    LlmProvider provider = embeddingProvider;
+    if (provider == null) {
+      return CompletableFuture.failedFuture(new IllegalStateException("No LLM provider available"));
+    }
+
+    return router.route(
+        ProviderRouter.EMBEDDING_BATCH, List.of(provider), p -> p.getVectors(texts));
+  }
+
+  /**
+   * Generates a chat/completion response, preferring the generation provider and failing over to
+   * the other available providers when it errors or its breaker is open.
    *
    * @param prompt The input prompt
    * @param options Additional options (model, temperature, etc.)
@@ -130,15 +221,42 @@ public class UnderlyingLlmProviderService {
    * @throws IllegalStateException if no LLM provider is available
    */
   public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
-    if (activeProvider == null) {
+    LlmProvider provider = generationProvider;
+    if (provider == null) {
       return CompletableFuture.failedFuture(new IllegalStateException("No LLM provider available"));
     }
 
-    return activeProvider.generateResponse(prompt, options);
+    return router.route(
+        ProviderRouter.GENERATION,
+        generationCandidates(provider),
+        p -> p.generateResponse(prompt, p == provider ? options : withoutModel(options)));
+  }
+
+  /** A model named by the caller belongs to the generation provider, so alternates use their own */
+  private static Map<String, Object> withoutModel(Map<String, Object> options) {
+    if (options == null || !options.containsKey("model")) {
+      return options;
+    }
+    Map<String, Object> copy = new HashMap<>(options);
+    copy.remove("model");
+    return copy;
+  }
+
+  /** The generation provider first, then every other available provider able to generate */
+  private List<LlmProvider> generationCandidates(LlmProvider primary) {
+    List<LlmProvider> candidates = new ArrayList<>(providers.size());
+    candidates.add(primary);
+    for (LlmProvider p : providers) {
+      if (p != primary && p.isAvailable() && p.supportsGeneration()) {
+        candidates.add(p);
+      }
+    }
+    return candidates;
   }
 
   /**
-   * Gets the currently active LLM provider.
+   * Gets the currently active LLM provider, which is the embedding provider: its vectors are the
+   * ones stored in the cache.
    *
    * <p>Useful for: - Checking provider availability - Getting provider-specific information (name,
    * dimensions, etc.) - Debugging provider selection issues
@@ -146,7 +264,74 @@ public class UnderlyingLlmProviderService {
    * @return The currently active provider, or null if none available
    */
   public LlmProvider getActiveProvider() {
-    return activeProvider;
+    return embeddingProvider;
+  }
+
+  /** Provider that embeds prompts, or null if none available */
+  public LlmProvider getEmbeddingProvider() {
+    return embeddingProvider;
+  }
+
+  /** Provider that generation requests go to first, or null if none available */
+  public LlmProvider getGenerationProvider() {
+    return generationProvider;
+  }
+
+  /** Name of the embedding provider for logs and metric tags, or "none" */
+  public String getProviderName() {
+    return embeddingProvider != null ? embeddingProvider.getProviderName() : "none";
+  }
+
+  /** Name of the generation provider, or "none" */
+  public String getGenerationProviderName() {
+    return generationProvider != null ? generationProvider.getProviderName() : "none";
+  }
+
+  /**
+   * Identifies the vector space of the embedding provider by provider, model and dimension. Only
+   * vectors from the same space can be compared.
+   *
+   * @return The space, e.g. "ollama/nomic-embed-text/768", or "none" if no provider is available
+   */
+  public String getEmbeddingSpace() {
+    LlmProvider provider = embeddingProvider;
+    if (provider == null) {
+      return "none";
+    }
+    return provider.getProviderName()
+        + "/"
+        + provider.getEmbeddingModel()
+        + "/"
+        + provider.getVectorDimension();
+  }
+
+  /**
+   * Checks whether an entry's vector can be compared with vectors from the embedding provider.
+   * Entries written before spaces were recorded are judged by their dimension alone.
+   *
+   * @return false if the entry has no vector or its vector belongs to another space
+   */
+  public boolean isInEmbeddingSpace(CacheEntry entry) {
+    if (entry.getVector() == null) {
+      return false;
+    }
+    Object space = entry.getMetadata() != null ? entry.getMetadata().get(EMBEDDING_SPACE) : null;
+    if (space != null) {
+      return space.equals(getEmbeddingSpace());
+    }
+    LlmProvider provider = embeddingProvider;
+    return provider != null && entry.getVector().length == provider.getVectorDimension();
+  }
+
+  /** Records on the entry that its vector came from the embedding provider */
+  public void tagEmbeddingSpace(CacheEntry entry) {
+    if (entry.getVector() == null) {
+      return;
+    }
+    Map<String, Object> metadata =
+        entry.getMetadata() != null ? new HashMap<>(entry.getMetadata()) : new HashMap<>();
+    metadata.put(EMBEDDING_SPACE, getEmbeddingSpace());
+    entry.setMetadata(metadata);
   }
 
   /**
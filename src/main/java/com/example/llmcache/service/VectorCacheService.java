@@ -1,24 +1,51 @@
 package com.example.llmcache.service;
 
 import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import jakarta.annotation.PostConstruct;
 
 import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.eviction.AdmissionFilter;
+import com.example.llmcache.service.eviction.EvictionPlanner;
+import com.example.llmcache.service.index.CacheKeyFilter;
+import com.example.llmcache.service.index.MinHashLshIndex;
+import com.example.llmcache.service.index.VectorIndex;
+import com.example.llmcache.service.index.VectorIndexManager;
+import com.example.llmcache.service.metrics.CacheMetrics;
+import com.example.llmcache.service.refresh.ExpiryTouchBuffer;
+import com.example.llmcache.service.refresh.RefreshAheadPolicy;
+import com.example.llmcache.service.stats.EntryStatsTracker;
+import com.example.llmcache.service.stats.SimilarityAnalysis;
+import com.example.llmcache.service.store.CacheStore;
+import com.example.llmcache.service.store.RedisCacheStore;
+import com.example.llmcache.service.tier.HotTier;
+import com.example.llmcache.service.tier.TieredStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import redis.clients.jedis.JedisPool;
 
@@ -26,13 +53,33 @@ import redis.clients.jedis.JedisPool;
 @Slf4j
 public class VectorCacheService {
 
-  private static final String CACHE_PREFIX = "llm_cache:";
   private static final String VECTOR_INDEX = "llm_vector_idx";
 
-  private final RedisTemplate<String, Object> redisTemplate;
+  /** Metadata key of an alias entry naming the entry whose response it shares */
+  public static final String ALIAS_OF = "alias_of";
+
+  private static final int MAX_ALIAS_DEPTH = 3;
+
+  private final CacheStore cacheStore;
   private final UnderlyingLlmProviderService vectorService;
-  private final JedisPool jedisPool;
   private final ObjectMapper objectMapper;
+  private final MinHashLshIndex lshIndex;
+  private final CacheKeyFilter keyFilter;
+  private final EvictionPlanner evictionPlanner;
+  private final AdmissionFilter admissionFilter;
+  private final RefreshAheadPolicy refreshPolicy;
+  private final ExpiryTouchBuffer touchBuffer;
+  private final TieredStore tieredStore;
+  private final VectorIndexManager vectorIndex;
+  private final CacheMetrics metrics;
+  private final EntryStatsTracker entryStats;
+  private final SimilarityAnalysis similarityAnalysis;
+
+  // Lookups answered by the lexical index instead of an embedding call
+  private final AtomicLong lexicalHits = new AtomicLong(0);
+  private final AtomicLong evictedEntries = new AtomicLong(0);
+  private final AtomicLong aliasedEntries = new AtomicLong(0);
+  private final AtomicLong staleServed = new AtomicLong(0);
 
   @Value("${cache.similarity.threshold:0.95}")
   private double similarityThreshold;
@@ -40,13 +87,78 @@ public class VectorCacheService {
   @Value("${cache.ttl.hours:24}")
   private long cacheTtlHours;
 
+  @Value("${cache.eviction.batch-size:500}")
+  private int evictionBatchSize = 500;
+
+  @Value("${cache.dedup.enabled:true}")
+  private boolean dedupEnabled;
+
+  @Value("${cache.dedup.merge-threshold:0.98}")
+  private double mergeThreshold;
+
+  @Value("${cache.dedup.compaction-max-entries:50000}")
+  private int compactionMaxEntries;
+
   public VectorCacheService(
       RedisTemplate<String, Object> redisTemplate,
       UnderlyingLlmProviderService vectorService,
       JedisPool jedisPool) {
-    this.redisTemplate = redisTemplate;
+    this(new RedisCacheStore(redisTemplate), redisTemplate, vectorService);
+  }
+
+  /** Creates a service over any store, with every optional feature at its disabled default */
+  public VectorCacheService(CacheStore cacheStore, UnderlyingLlmProviderService vectorService) {
+    this(cacheStore, null, vectorService);
+  }
+
+  private VectorCacheService(
+      CacheStore cacheStore,
+      RedisTemplate<String, Object> redisTemplate,
+      UnderlyingLlmProviderService vectorService) {
+    this(
+        cacheStore,
+        vectorService,
+        new MinHashLshIndex(redisTemplate),
+        new CacheKeyFilter(cacheStore, redisTemplate),
+        new EvictionPlanner(),
+        new AdmissionFilter(null),
+        new RefreshAheadPolicy(),
+        new ExpiryTouchBuffer(),
+        new TieredStore(),
+        new VectorIndexManager(cacheStore, null, vectorService),
+        new CacheMetrics(new SimpleMeterRegistry()),
+        new EntryStatsTracker(cacheStore),
+        new SimilarityAnalysis());
+  }
+
+  @Autowired
+  public VectorCacheService(
+      CacheStore cacheStore,
+      UnderlyingLlmProviderService vectorService,
+      MinHashLshIndex lshIndex,
+      CacheKeyFilter keyFilter,
+      EvictionPlanner evictionPlanner,
+      AdmissionFilter admissionFilter,
+      RefreshAheadPolicy refreshPolicy,
+      ExpiryTouchBuffer touchBuffer,
+      TieredStore tieredStore,
+      VectorIndexManager vectorIndex,
+      CacheMetrics metrics,
+      EntryStatsTracker entryStats,
+      SimilarityAnalysis similarityAnalysis) {
+    this.cacheStore = cacheStore;
     this.vectorService = vectorService;
-    this.jedisPool = jedisPool;
+    this.lshIndex = lshIndex;
+    this.keyFilter = keyFilter;
+    this.evictionPlanner = evictionPlanner;
+    this.admissionFilter = admissionFilter;
+    this.refreshPolicy = refreshPolicy;
+    this.touchBuffer = touchBuffer;
+    this.tieredStore = tieredStore;
+    this.vectorIndex = vectorIndex;
+    this.metrics = metrics;
+    this.entryStats = entryStats;
+    this.similarityAnalysis = similarityAnalysis;
     this.objectMapper = new ObjectMapper();
     this.objectMapper.registerModule(new JavaTimeModule());
   }
@@ -55,16 +167,108 @@ public class VectorCacheService {
   public void initializeVectorIndex() {
     // Vector index initialization simplified - using basic Redis operations
     log.info("Vector cache service initialized");
+
+    CompletableFuture.runAsync(this::rebuildInProcessIndexes);
+  }
+
+  /**
+   * Populates the lexical index and the eviction planner from the existing cache entries. The
+   * lexical index is taken from its persisted signatures instead when those are available.
+   */
+  private void rebuildInProcessIndexes() {
+    try {
+      boolean lexicalLoaded = lshIndex.loadFromRedis();
+      cacheStore.forEach(
+          entry -> {
+            if (!lexicalLoaded) {
+              lshIndex.add(entry.getId(), entry.getPrompt());
+            }
+            trackEntry(entry);
+          });
+      log.info(
+          "In-process indexes rebuilt: {} entries tracked, {} lexical signatures",
+          evictionPlanner.getEntryCount(),
+          lshIndex.size());
+    } catch (Exception e) {
+      log.warn("Could not rebuild in-process indexes: {}", e.getMessage());
+    }
+  }
+
+  private void trackEntry(CacheEntry entry) {
+    long createdAt = createdAtMillis(entry);
+    long size = estimateSize(entry);
+    entryStats.recordWrite(entry.getId(), size);
+    evictionPlanner.recordInsert(
+        entry.getId(),
+        size,
+        entry.getResponse() != null ? entry.getResponse().length() : 0,
+        createdAt,
+        createdAt + storageTtl().toMillis());
+  }
+
+  private static long createdAtMillis(CacheEntry entry) {
+    return entry.getTimestamp() != null
+        ? entry.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+        : System.currentTimeMillis();
+  }
+
+  /** Records a hit for eviction and, under sliding expiry, schedules a TTL extension */
+  private void recordHit(CacheEntry entry) {
+    admissionFilter.recordAccess(entry.getId());
+    evictionPlanner.recordHit(entry.getId());
+    tieredStore.recordRead(entry.getId());
+    touchBuffer.touch(entry.getId(), createdAtMillis(entry));
+  }
+
+  /** TTL written to the store: the cache TTL plus the grace period for serving stale entries */
+  private Duration storageTtl() {
+    return Duration.ofHours(cacheTtlHours).plusMillis(refreshPolicy.getGraceMillis());
+  }
+
+  /** Approximates the bytes an entry occupies in Redis by its serialized size */
+  private long estimateSize(CacheEntry entry) {
+    try {
+      return objectMapper.writeValueAsBytes(entry).length;
+    } catch (Exception e) {
+      long size = 2L * (length(entry.getPrompt()) + length(entry.getResponse()));
+      return size + (entry.getVector() != null ? 12L * entry.getVector().length : 0);
+    }
+  }
+
+  private static int length(String s) {
+    return s != null ? s.length() : 0;
   }
 
   public CompletableFuture<Optional<String>> get(String prompt) {
+    String id = DigestUtils.md5Hex(prompt);
+    String provider = providerName();
+    Timer.Sample lookup = metrics.start();
+
     // First try exact match
-    String exactMatch = getExactMatch(prompt);
+    Timer.Sample stage = metrics.start();
+    String exactMatch = getExactMatch(id);
+    metrics.recordStage(
+        stage, "exact_lookup", provider, exactMatch != null ? CacheMetrics.HIT : CacheMetrics.MISS);
     if (exactMatch != null) {
       log.debug("Exact cache hit for prompt");
+      recordLookup(lookup, "exact", provider);
       return CompletableFuture.completedFuture(Optional.of(exactMatch));
     }
 
+    // Then try a lexical near-duplicate match, which needs no embedding call
+    stage = metrics.start();
+    String lexicalMatch = getLexicalMatch(prompt);
+    metrics.recordStage(
+        stage,
+        "lexical_lookup",
+        provider,
+        lexicalMatch != null ? CacheMetrics.HIT : CacheMetrics.MISS);
+    if (lexicalMatch != null) {
+      lexicalHits.incrementAndGet();
+      recordLookup(lookup, "lexical", provider);
+      return CompletableFuture.completedFuture(Optional.of(lexicalMatch));
+    }
+
     // Then try semantic similarity search
     return vectorService
         .getVector(prompt)
@@ -73,62 +277,526 @@ public class VectorCacheService {
             ex -> {
               log.error("Error during cache lookup", ex);
               return Optional.empty();
-            });
+            })
+        .whenComplete((result, ex) -> recordSemanticLookup(lookup, result, provider, id));
+  }
+
+  /** Records how a lookup was answered, for the lookup timer and the threshold analysis */
+  private void recordLookup(Timer.Sample sample, String result, String provider) {
+    metrics.recordLookup(sample, result, provider);
+    similarityAnalysis.recordLookup(result);
+  }
+
+  /**
+   * Records the outcome of a lookup that reached semantic search. Hits were counted for admission
+   * under the entry that answered them; a miss counts the prompt itself, whose response may be
+   * admitted next.
+   */
+  private void recordSemanticLookup(
+      Timer.Sample lookup, Optional<String> result, String provider, String id) {
+    boolean hit = result != null && result.isPresent();
+    if (!hit) {
+      admissionFilter.recordAccess(id);
+    }
+    recordLookup(lookup, hit ? "semantic" : "miss", provider);
+  }
+
+  private String providerName() {
+    return vectorService != null ? vectorService.getProviderName() : "none";
+  }
+
+  /**
+   * Looks up several distinct prompts at once. Exact matches are read in a single pipelined round
+   * trip, the prompts left are embedded with one provider call, and their vector searches run in
+   * parallel.
+   *
+   * @return One lookup per prompt, in the order of the prompts; each completes as soon as its
+   *     result is known
+   */
+  public List<CompletableFuture<Optional<String>>> getAll(List<String> prompts) {
+    String provider = providerName();
+    List<Timer.Sample> lookups = new ArrayList<>(prompts.size());
+    List<CompletableFuture<Optional<String>>> results = new ArrayList<>(prompts.size());
+    List<Integer> toFetch = new ArrayList<>();
+    List<String> fetchIds = new ArrayList<>();
+    for (int i = 0; i < prompts.size(); i++) {
+      String id = DigestUtils.md5Hex(prompts.get(i));
+      lookups.add(metrics.start());
+      String hot = getHotMatch(id);
+      results.add(hot != null ? CompletableFuture.completedFuture(Optional.of(hot)) : null);
+      if (hot == null && keyFilter.mightContain(id)) {
+        toFetch.add(i);
+        fetchIds.add(id);
+      }
+    }
+
+    if (!fetchIds.isEmpty()) {
+      Timer.Sample stage = metrics.start();
+      try {
+        List<CacheStore.TimedEntry> fetched = fetchAllWithTtl(fetchIds);
+        for (int i = 0; i < toFetch.size(); i++) {
+          String exact = serveExact(fetched.get(i));
+          if (exact != null) {
+            results.set(toFetch.get(i), CompletableFuture.completedFuture(Optional.of(exact)));
+          }
+        }
+      } catch (Exception e) {
+        log.error("Error getting exact matches", e);
+      }
+      metrics.recordStage(stage, "exact_lookup", provider, "batch");
+    }
+    for (int i = 0; i < prompts.size(); i++) {
+      if (results.get(i) != null) {
+        recordLookup(lookups.get(i), "exact", provider);
+      }
+    }
+
+    List<Integer> toEmbed = new ArrayList<>();
+    List<String> embedPrompts = new ArrayList<>();
+    for (int i = 0; i < prompts.size(); i++) {
+      if (results.get(i) != null) {
+        continue;
+      }
+      String lexicalMatch = getLexicalMatch(prompts.get(i));
+      if (lexicalMatch != null) {
+        lexicalHits.incrementAndGet();
+        recordLookup(lookups.get(i), "lexical", provider);
+        results.set(i, CompletableFuture.completedFuture(Optional.of(lexicalMatch)));
+      } else {
+        toEmbed.add(i);
+        embedPrompts.add(prompts.get(i));
+      }
+    }
+    if (toEmbed.isEmpty()) {
+      return results;
+    }
+
+    CompletableFuture<List<float[]>> vectors = vectorService.getVectors(embedPrompts);
+    for (int i = 0; i < toEmbed.size(); i++) {
+      int index = i;
+      String prompt = embedPrompts.get(i);
+      Timer.Sample lookup = lookups.get(toEmbed.get(i));
+      results.set(
+          toEmbed.get(i),
+          vectors
+              .thenCompose(all -> semanticSearch(prompt, all.get(index)))
+              .exceptionally(
+                  ex -> {
+                    log.error("Error during cache lookup", ex);
+                    return Optional.empty();
+                  })
+              .whenComplete(
+                  (result, ex) ->
+                      recordSemanticLookup(lookup, result, provider, DigestUtils.md5Hex(prompt))));
+    }
+    return results;
   }
 
-  private String getExactMatch(String prompt) {
-    String key = CACHE_PREFIX + DigestUtils.md5Hex(prompt);
+  private String getExactMatch(String id) {
+    String hot = getHotMatch(id);
+    if (hot != null) {
+      return hot;
+    }
+    if (!keyFilter.mightContain(id)) {
+      // Definitely never cached, skip the Redis round trip
+      return null;
+    }
     try {
-      CacheEntry entry = (CacheEntry) redisTemplate.opsForValue().get(key);
-      return entry != null ? entry.getResponse() : null;
+      return serveExact(fetchWithTtl(id));
     } catch (Exception e) {
       log.error("Error getting exact match", e);
       return null;
     }
   }
 
+  private String getHotMatch(String id) {
+    HotTier.Entry hot = tieredStore.getHot(id);
+    if (hot == null) {
+      return null;
+    }
+    admissionFilter.recordAccess(id);
+    evictionPlanner.recordHit(id);
+    tieredStore.recordRead(id);
+    touchBuffer.touch(id, hot.createdAt());
+    return hot.response();
+  }
+
+  /** Serves an entry fetched by its exact id, or returns null if it was missing or stale */
+  private String serveExact(CacheStore.TimedEntry timed) {
+    if (timed.entry() == null) {
+      keyFilter.recordFalsePositive();
+      return null;
+    }
+    if (isStale(timed.ttlMillis())) {
+      // Past its TTL; kept only as a fallback while the provider is unavailable
+      return null;
+    }
+    return serveHit(timed.entry(), timed.ttlMillis());
+  }
+
+  private String getLexicalMatch(String prompt) {
+    Optional<MinHashLshIndex.Match> match = lshIndex.findBestMatch(prompt);
+    if (match.isEmpty()) {
+      return null;
+    }
+    String id = match.get().getId();
+    try {
+      CacheStore.TimedEntry timed = fetchWithTtl(id);
+      if (timed.entry() == null) {
+        // The entry expired since it was indexed
+        lshIndex.remove(id);
+        return null;
+      }
+      if (isStale(timed.ttlMillis())) {
+        return null;
+      }
+      log.debug("Lexical cache hit with estimated Jaccard: {}", match.get().getSimilarity());
+      return serveHit(timed.entry(), timed.ttlMillis());
+    } catch (Exception e) {
+      log.error("Error getting lexical match", e);
+      return null;
+    }
+  }
+
+  /**
+   * Records a hit on an entry found in Redis and returns its response, keeping the response in the
+   * hot tier if the entry is read often enough.
+   */
+  private String serveHit(CacheEntry entry, long ttlMillis) {
+    recordHit(entry);
+    maybeRefresh(entry, ttlMillis);
+    String response = resolveResponse(entry);
+    if (response != null) {
+      tieredStore.offerHot(
+          entry.getId(), response, createdAtMillis(entry), evictionPlanner.getHits(entry.getId()));
+    }
+    return response;
+  }
+
+  /**
+   * Reads an entry together with its remaining TTL in a single round trip. The TTL is only fetched
+   * when refresh-ahead or stale serving needs it.
+   */
+  private CacheStore.TimedEntry fetchWithTtl(String id) {
+    if (!refreshPolicy.isEnabled() && !refreshPolicy.isStaleServingEnabled()) {
+      return new CacheStore.TimedEntry(cacheStore.get(id), -1);
+    }
+    return cacheStore.getWithTtl(id);
+  }
+
+  /** Batch form of {@link #fetchWithTtl(String)}: a plain MGET when no TTLs are needed */
+  private List<CacheStore.TimedEntry> fetchAllWithTtl(List<String> ids) {
+    if (!refreshPolicy.isEnabled() && !refreshPolicy.isStaleServingEnabled()) {
+      List<CacheStore.TimedEntry> timed = new ArrayList<>(ids.size());
+      for (CacheEntry entry : cacheStore.getAll(ids)) {
+        timed.add(new CacheStore.TimedEntry(entry, -1));
+      }
+      return timed;
+    }
+    return cacheStore.getAllWithTtl(ids);
+  }
+
+  /** An entry is stale once only the grace period is left of its Redis TTL */
+  private boolean isStale(long ttlMillis) {
+    return refreshPolicy.isStaleServingEnabled()
+        && ttlMillis >= 0
+        && ttlMillis <= refreshPolicy.getGraceMillis();
+  }
+
+  /**
+   * Regenerates a hot entry in the background when a hit finds it close to expiry, so the next
+   * requests keep hitting instead of all missing at once when the TTL runs out. The caller is
+   * served the cached value either way.
+   */
+  private void maybeRefresh(CacheEntry entry, long ttlMillis) {
+    if (ttlMillis < 0 || aliasTarget(entry) != null) {
+      return;
+    }
+    String id = entry.getId();
+    long remaining = ttlMillis - refreshPolicy.getGraceMillis();
+    long ttl = Duration.ofHours(cacheTtlHours).toMillis();
+    if (!refreshPolicy.tryStart(id, remaining, ttl, evictionPlanner.getHits(id))) {
+      return;
+    }
+    log.debug("Refreshing entry {} ahead of expiry, {} ms left", id, remaining);
+    vectorService
+        .generateResponse(entry.getPrompt(), entry.getMetadata())
+        .thenCompose(response -> set(entry.getPrompt(), response, entry.getMetadata()))
+        .whenComplete(
+            (result, ex) -> {
+              refreshPolicy.finish(id);
+              if (ex != null) {
+                log.warn("Refresh of entry {} failed: {}", id, ex.getMessage());
+              }
+            });
+  }
+
+  /**
+   * Returns the cached response for the prompt even if it is past its TTL, as long as it is still
+   * within the stale grace period. Only exact matches are considered.
+   */
+  public Optional<String> getStale(String prompt) {
+    if (!refreshPolicy.isStaleServingEnabled()) {
+      return Optional.empty();
+    }
+    try {
+      CacheEntry entry = cacheStore.get(DigestUtils.md5Hex(prompt));
+      return entry != null ? Optional.ofNullable(resolveResponse(entry)) : Optional.empty();
+    } catch (Exception e) {
+      log.error("Error getting stale entry", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Wraps a provider call so a stale cached response is returned instead when the call fails or
+   * takes longer than {@code cache.refresh.stale-timeout-ms}. A generation that completes after the
+   * stale value was served still finishes and can be cached by the caller.
+   */
+  public CompletableFuture<String> withStaleFallback(
+      String prompt, CompletableFuture<String> generation) {
+    if (!refreshPolicy.isStaleServingEnabled()) {
+      return generation;
+    }
+    CompletableFuture<String> result = new CompletableFuture<>();
+    generation.whenComplete(
+        (response, ex) -> {
+          if (ex == null) {
+            result.complete(response);
+            return;
+          }
+          Optional<String> stale = getStale(prompt);
+          if (stale.isPresent() && result.complete(stale.get())) {
+            staleServed.incrementAndGet();
+            log.warn("Provider failed, served stale response: {}", ex.getMessage());
+          } else {
+            result.completeExceptionally(ex);
+          }
+        });
+    CompletableFuture.delayedExecutor(refreshPolicy.getStaleTimeoutMs(), TimeUnit.MILLISECONDS)
+        .execute(
+            () -> {
+              if (result.isDone()) {
+                return;
+              }
+              getStale(prompt)
+                  .ifPresent(
+                      stale -> {
+                        if (result.complete(stale)) {
+                          staleServed.incrementAndGet();
+                          log.info("Provider slow, served stale response");
+                        }
+                      });
+            });
+    return result;
+  }
+
+  /**
+   * Returns the entry's response, following alias entries to the entry they were merged into.
+   *
+   * @return The response, or null if an alias points at an entry that no longer exists
+   */
+  private String resolveResponse(CacheEntry entry) {
+    CacheEntry current = entry;
+    for (int depth = 0; current != null && depth <= MAX_ALIAS_DEPTH; depth++) {
+      String target = aliasTarget(current);
+      if (target == null) {
+        return responseOf(current);
+      }
+      current = cacheStore.get(target);
+      if (current != null) {
+        recordHit(current);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the response of a non-alias entry, reading it from the cold tier if it was demoted. A
+   * cold entry read often enough is moved back to Redis.
+   */
+  private String responseOf(CacheEntry entry) {
+    String ref = TieredStore.coldRef(entry);
+    if (entry.getResponse() != null || ref == null) {
+      return entry.getResponse();
+    }
+    String response = tieredStore.readCold(ref);
+    if (response == null) {
+      if (tieredStore.isLocalRef(ref)) {
+        // The segment holding the response is gone; the entry can never be served again
+        removeEntries(List.of(entry.getId()));
+      }
+      return null;
+    }
+    if (tieredStore.shouldPromote(evictionPlanner.getHits(entry.getId()))) {
+      Map<String, Object> metadata = new HashMap<>(entry.getMetadata());
+      metadata.remove(TieredStore.COLD_REF);
+      entry.setMetadata(metadata);
+      entry.setResponse(response);
+      if (rewriteKeepingTtl(entry)) {
+        tieredStore.recordPromotion();
+      }
+    }
+    return response;
+  }
+
+  private static String aliasTarget(CacheEntry entry) {
+    Object target = entry.getMetadata() != null ? entry.getMetadata().get(ALIAS_OF) : null;
+    return target != null ? target.toString() : null;
+  }
+
   private CompletableFuture<Optional<String>> semanticSearch(
       String queryPrompt, float[] queryVector) {
     return CompletableFuture.supplyAsync(
         () -> {
           try {
-            Set<String> keys = redisTemplate.keys(CACHE_PREFIX + "*");
-            if (keys == null || keys.isEmpty()) {
-              return Optional.<String>empty();
+            Timer.Sample stage = metrics.start();
+            Optional<VectorMatch> match =
+                findBestMatch(
+                    queryVector,
+                    similarityThreshold,
+                    null,
+                    (candidate, similarity) -> {
+                      metrics.recordSimilarity(similarity);
+                      similarityAnalysis.recordSimilarity(queryPrompt, candidate, similarity);
+                    });
+            metrics.recordStage(
+                stage,
+                "vector_search",
+                providerName(),
+                match.isPresent() ? CacheMetrics.HIT : CacheMetrics.MISS);
+            if (match.isPresent()) {
+              CacheEntry entry = match.get().entry();
+              long ttlMillis = remainingTtl(entry.getId());
+              if (isStale(ttlMillis)) {
+                return Optional.<String>empty();
+              }
+              log.debug("Semantic cache hit with similarity: {}", match.get().similarity());
+              return Optional.ofNullable(serveHit(entry, ttlMillis));
             }
 
-            double bestSimilarity = 0.0;
-            String bestResponse = null;
+            return Optional.<String>empty();
+          } catch (Exception e) {
+            log.error("Error during semantic search", e);
+            return Optional.<String>empty();
+          }
+        });
+  }
 
-            for (String key : keys) {
-              try {
-                CacheEntry entry = (CacheEntry) redisTemplate.opsForValue().get(key);
+  private long remainingTtl(String id) {
+    if (!refreshPolicy.isEnabled() && !refreshPolicy.isStaleServingEnabled()) {
+      return -1;
+    }
+    return cacheStore.getTtlMillis(id);
+  }
 
-                if (entry != null && entry.getVector() != null) {
-                  double similarity =
-                      vectorService.cosineSimilarity(queryVector, entry.getVector());
+  /**
+   * Finds the entry most similar to the query vector, using the in-memory index once it is loaded.
+   * Index hits whose entry has since expired or lost its vector are dropped from the index and the
+   * search is retried.
+   *
+   * @param queryVector Vector to compare against
+   * @param threshold Minimum cosine similarity for a match
+   * @param excludeId Entry id to skip, or null
+   */
+  private Optional<VectorMatch> findBestMatch(
+      float[] queryVector, double threshold, String excludeId) {
+    return findBestMatch(queryVector, threshold, excludeId, null);
+  }
 
-                  if (similarity > bestSimilarity && similarity >= similarityThreshold) {
-                    bestSimilarity = similarity;
-                    bestResponse = entry.getResponse();
-                  }
-                }
-              } catch (Exception e) {
-                log.error("Error processing entry in semantic search", e);
-              }
-            }
+  /**
+   * @param observer Called with a supplier of the prompt and the similarity of the best candidate,
+   *     whether or not it reaches the threshold; not called when there are no candidates
+   */
+  private Optional<VectorMatch> findBestMatch(
+      float[] queryVector,
+      double threshold,
+      String excludeId,
+      BiConsumer<Supplier<String>, Double> observer) {
+    if (!vectorIndex.isReady()) {
+      return scanForBestMatch(queryVector, threshold, excludeId, observer);
+    }
+    metrics.recordCandidates("index", vectorIndex.size());
+    // With an observer, search without a threshold to learn the best score even on a miss
+    double searchThreshold = observer != null ? -1.0 : threshold;
+    // Each miss in the store forgets the id, so the loop ends once a live entry or nothing is found
+    while (true) {
+      Optional<VectorIndex.Match> match =
+          vectorIndex.search(queryVector, searchThreshold, excludeId);
+      if (match.isEmpty()) {
+        return Optional.empty();
+      }
+      double similarity = match.get().getSimilarity();
+      if (similarity < threshold) {
+        // Below the threshold the entry is only read if the observer asks for its prompt
+        if (observer != null) {
+          String candidateId = match.get().getId();
+          observer.accept(() -> promptOf(cacheStore.get(candidateId)), similarity);
+        }
+        return Optional.empty();
+      }
+      CacheEntry entry = cacheStore.get(match.get().getId());
+      if (entry != null && entry.getVector() != null) {
+        if (observer != null) {
+          observer.accept(entry::getPrompt, similarity);
+        }
+        return Optional.of(new VectorMatch(entry, similarity));
+      }
+      vectorIndex.forget(match.get().getId());
+    }
+  }
 
-            if (bestResponse != null) {
-              log.debug("Semantic cache hit with similarity: {}", bestSimilarity);
-              return Optional.of(bestResponse);
-            }
+  private static String promptOf(CacheEntry entry) {
+    return entry != null ? entry.getPrompt() : null;
+  }
 
-            return Optional.<String>empty();
+  /** Scans every entry that carries a vector for the one most similar to the query vector */
+  private Optional<VectorMatch> scanForBestMatch(
+      float[] queryVector,
+      double threshold,
+      String excludeId,
+      BiConsumer<Supplier<String>, Double> observer) {
+    VectorMatch[] best = new VectorMatch[1];
+    VectorMatch[] closest = new VectorMatch[1];
+    long[] candidates = new long[1];
+    cacheStore.forEach(
+        entry -> {
+          // Aliases carry no vector of their own
+          if (entry.getVector() == null || entry.getId().equals(excludeId)) {
+            return;
+          }
+          // Written by another embedding model; not comparable with the query
+          if (entry.getVector().length != queryVector.length
+              || !vectorService.isInEmbeddingSpace(entry)) {
+            return;
+          }
+          candidates[0]++;
+          try {
+            double similarity = vectorService.cosineSimilarity(queryVector, entry.getVector());
+            if (closest[0] == null || similarity > closest[0].similarity()) {
+              closest[0] = new VectorMatch(entry, similarity);
+            }
+            if (similarity >= threshold && (best[0] == null || similarity > best[0].similarity())) {
+              best[0] = new VectorMatch(entry, similarity);
+            }
           } catch (Exception e) {
-            log.error("Error during semantic search", e);
-            return Optional.<String>empty();
+            log.error("Error processing entry in semantic search", e);
           }
         });
+    metrics.recordCandidates("scan", candidates[0]);
+    if (observer != null && closest[0] != null) {
+      observer.accept(closest[0].entry()::getPrompt, closest[0].similarity());
+    }
+    return Optional.ofNullable(best[0]);
+  }
+
+  /**
+   * Decides whether a freshly generated response for the prompt is worth caching. Once the cache is
+   * at its eviction budget, only prompts requested more often than the next eviction victim are
+   * admitted.
+   */
+  public boolean shouldAdmit(String prompt) {
+    return admissionFilter.admit(DigestUtils.md5Hex(prompt));
   }
 
   public CompletableFuture<Void> set(String prompt, String response, Map<String, Object> metadata) {
@@ -140,13 +808,30 @@ public class VectorCacheService {
               if (metadata != null) {
                 entry.setMetadata(metadata);
               }
+              vectorService.tagEmbeddingSpace(entry);
 
-              String key = CACHE_PREFIX + entry.getId();
+              // Store near-duplicates of an existing entry as an alias instead of a new vector
+              Optional<VectorMatch> duplicate =
+                  dedupEnabled
+                      ? findBestMatch(vector, mergeThreshold, entry.getId())
+                      : Optional.empty();
+              if (duplicate.isPresent()) {
+                makeAlias(entry, duplicate.get().entry().getId());
+                aliasedEntries.incrementAndGet();
+                log.debug(
+                    "Prompt merged into {} with similarity {}",
+                    duplicate.get().entry().getId(),
+                    duplicate.get().similarity());
+              }
 
               try {
-                // Store in Redis with TTL
-                redisTemplate.opsForValue().set(key, entry, Duration.ofHours(cacheTtlHours));
-                log.debug("Cached response for prompt with key: {}", key);
+                cacheStore.put(entry, storageTtl());
+                keyFilter.add(entry.getId());
+                lshIndex.add(entry.getId(), prompt);
+                vectorIndex.recordPut(entry.getId(), entry.getVector());
+                tieredStore.invalidate(entry.getId());
+                trackEntry(entry);
+                log.debug("Cached response for prompt with id: {}", entry.getId());
               } catch (Exception e) {
                 log.error("Error storing cache entry", e);
               }
@@ -158,42 +843,370 @@ public class VectorCacheService {
             });
   }
 
-  public void evictExpired() {
-    log.info("Running cache cleanup...");
-    // Implementation for cleanup would go here
-    // For now, Redis TTL handles expiration automatically
+  /**
+   * Writes a batch of prepared entries in one pipelined round trip and registers them with the
+   * in-process indexes. Used for bulk imports, so near-duplicates are not merged on the way in; the
+   * scheduled compaction takes care of them later.
+   */
+  public void putAll(List<CacheEntry> entries) {
+    for (CacheEntry entry : entries) {
+      vectorService.tagEmbeddingSpace(entry);
+    }
+    cacheStore.putAll(entries, storageTtl());
+    for (CacheEntry entry : entries) {
+      keyFilter.add(entry.getId());
+      lshIndex.add(entry.getId(), entry.getPrompt());
+      tieredStore.invalidate(entry.getId());
+      trackEntry(entry);
+    }
+    vectorIndex.recordPuts(entries);
   }
 
-  public CacheStats getStats() {
+  private static void makeAlias(CacheEntry entry, String targetId) {
+    Map<String, Object> metadata =
+        entry.getMetadata() != null ? new HashMap<>(entry.getMetadata()) : new HashMap<>();
+    metadata.put(ALIAS_OF, targetId);
+    metadata.remove(UnderlyingLlmProviderService.EMBEDDING_SPACE);
+    entry.setMetadata(metadata);
+    entry.setResponse(null);
+    entry.setVector(null);
+  }
+
+  /**
+   * Merges clusters of near-duplicate entries that were written before deduplication was enabled or
+   * by concurrent inserts. Entries are visited oldest first; each one within the merge threshold of
+   * an earlier kept entry is rewritten as an alias of it, keeping its remaining TTL.
+   *
+   * <p>Each run compares every visited entry against the kept ones, so the number of entries
+   * considered per run is capped by {@code cache.dedup.compaction-max-entries}.
+   */
+  @Scheduled(
+      initialDelayString = "${cache.dedup.compaction-interval-ms:3600000}",
+      fixedDelayString = "${cache.dedup.compaction-interval-ms:3600000}")
+  public void compactNearDuplicates() {
+    if (!dedupEnabled) {
+      return;
+    }
     try {
-      var connFactory = redisTemplate.getConnectionFactory();
-      if (connFactory == null) {
-        log.warn("Redis connection factory is not configured. Returning zero stats.");
-        return new CacheStats(0, 0, 0);
-      }
-      try (var conn = connFactory.getConnection()) {
-        if (conn == null) {
-          log.warn("Could not obtain Redis connection. Returning zero stats.");
-          return new CacheStats(0, 0, 0);
+      List<CacheEntry> entries = new ArrayList<>();
+      cacheStore.forEach(
+          entry -> {
+            if (vectorService.isInEmbeddingSpace(entry) && entries.size() < compactionMaxEntries) {
+              entries.add(entry);
+            }
+          });
+      entries.sort(
+          Comparator.comparing(
+              CacheEntry::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+      List<CacheEntry> kept = new ArrayList<>();
+      int merged = 0;
+      for (CacheEntry entry : entries) {
+        CacheEntry target = null;
+        double best = mergeThreshold;
+        for (CacheEntry candidate : kept) {
+          if (candidate.getVector().length != entry.getVector().length) {
+            continue;
+          }
+          double similarity =
+              vectorService.cosineSimilarity(entry.getVector(), candidate.getVector());
+          if (similarity >= best) {
+            best = similarity;
+            target = candidate;
+          }
+        }
+        if (target == null) {
+          kept.add(entry);
+        } else if (rewriteAsAlias(entry, target.getId())) {
+          merged++;
+        }
+      }
+
+      aliasedEntries.addAndGet(merged);
+      if (merged > 0) {
+        log.info("Compaction merged {} near-duplicate entries out of {}", merged, entries.size());
+      }
+    } catch (Exception e) {
+      log.error("Error compacting near-duplicate entries", e);
+    }
+  }
+
+  private boolean rewriteAsAlias(CacheEntry entry, String targetId) {
+    makeAlias(entry, targetId);
+    if (!rewriteKeepingTtl(entry)) {
+      return false;
+    }
+    vectorIndex.recordPut(entry.getId(), null);
+    return true;
+  }
+
+  /**
+   * Writes a modified entry back to the store without changing its remaining TTL
+   *
+   * @return false if the entry expired in the meantime
+   */
+  private boolean rewriteKeepingTtl(CacheEntry entry) {
+    if (!cacheStore.replace(entry)) {
+      return false;
+    }
+    tieredStore.invalidate(entry.getId());
+    long size = estimateSize(entry);
+    entryStats.recordWrite(entry.getId(), size);
+    if (!evictionPlanner.recordResize(entry.getId(), size)) {
+      trackEntry(entry);
+    }
+    return true;
+  }
+
+  /**
+   * Moves the responses of old, rarely read entries from Redis to the cold tier. Each entry keeps
+   * its prompt, vector and remaining TTL in Redis, plus a reference to its response on disk.
+   *
+   * <p>Entries that are rarely read here are only demoted if they are rarely read by the other
+   * instances too, since those treat cold entries as misses.
+   */
+  @Scheduled(
+      initialDelayString = "${cache.tiers.cold.demote-interval-ms:600000}",
+      fixedDelayString = "${cache.tiers.cold.demote-interval-ms:600000}")
+  public void demoteColdEntries() {
+    if (!tieredStore.isColdEnabled()) {
+      return;
+    }
+    try {
+      flushReads();
+      long now = System.currentTimeMillis();
+      int batchSize = tieredStore.getDemoteBatchSize();
+      List<CacheEntry> candidates = new ArrayList<>();
+      List<CacheEntry> rarelyReadHere = new ArrayList<>();
+      cacheStore.forEach(
+          entry -> {
+            if (candidates.size() < batchSize
+                && entry.getResponse() != null
+                && aliasTarget(entry) == null
+                && tieredStore.shouldDemote(
+                    now - createdAtMillis(entry), evictionPlanner.getHits(entry.getId()))) {
+              rarelyReadHere.add(entry);
+              if (rarelyReadHere.size() == batchSize) {
+                addRarelyReadElsewhere(rarelyReadHere, candidates, now, batchSize);
+              }
+            }
+          });
+      addRarelyReadElsewhere(rarelyReadHere, candidates, now, batchSize);
+
+      int demoted = 0;
+      for (CacheEntry entry : candidates) {
+        String ref = tieredStore.demote(entry.getResponse());
+        if (ref == null) {
+          break;
+        }
+        Map<String, Object> metadata =
+            entry.getMetadata() != null ? new HashMap<>(entry.getMetadata()) : new HashMap<>();
+        metadata.put(TieredStore.COLD_REF, ref);
+        entry.setMetadata(metadata);
+        entry.setResponse(null);
+        if (rewriteKeepingTtl(entry)) {
+          demoted++;
         }
-        long totalKeys = conn.keyCommands().keys((CACHE_PREFIX + "*").getBytes()).size();
-        return new CacheStats(totalKeys, 0, 0);
-      } catch (Exception e) {
-        log.error("Error getting cache stats from Redis: {}", e.getMessage(), e);
-        // Defensive: If Redis unavailable, report zero stats but don't fail
-        return new CacheStats(0, 0, 0);
       }
-    } catch (Exception ex) {
-      log.error("Severe error in getStats: {}", ex.getMessage(), ex);
+      if (demoted > 0) {
+        log.info("Moved {} cached responses to the cold tier", demoted);
+      }
+    } catch (Exception e) {
+      log.error("Error demoting entries to the cold tier", e);
+    }
+  }
+
+  /** Adds the entries that other instances rarely read as well to the candidates, up to a limit */
+  private void addRarelyReadElsewhere(
+      List<CacheEntry> entries, List<CacheEntry> candidates, long now, int limit) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    List<String> ids = new ArrayList<>(entries.size());
+    for (CacheEntry entry : entries) {
+      ids.add(entry.getId());
+    }
+    List<Long> reads = cacheStore.getReads(ids);
+    for (int i = 0; i < entries.size() && candidates.size() < limit; i++) {
+      CacheEntry entry = entries.get(i);
+      // Shared counts miss reads not flushed yet; local hits miss reads before this process started
+      long hits = Math.max(reads.get(i), evictionPlanner.getHits(entry.getId()));
+      if (tieredStore.shouldDemote(now - createdAtMillis(entry), hits)) {
+        candidates.add(entry);
+      }
+    }
+    entries.clear();
+  }
+
+  /**
+   * Adds the reads counted since the last flush to the read counts every instance demotes by. A
+   * count lasts as long as a fresh entry, so it only covers entries read within their TTL.
+   */
+  @Scheduled(
+      initialDelayString = "${cache.tiers.cold.read-flush-interval-ms:10000}",
+      fixedDelayString = "${cache.tiers.cold.read-flush-interval-ms:10000}")
+  public void flushReads() {
+    Map<String, Long> reads = tieredStore.drainReads();
+    if (reads.isEmpty()) {
+      return;
+    }
+    try {
+      cacheStore.addReads(reads, storageTtl());
+    } catch (Exception e) {
+      log.warn("Could not record reads of {} cached entries: {}", reads.size(), e.getMessage());
+    }
+  }
+
+  /**
+   * Drops expired entries from the in-process indexes and evicts entries while the cache is over
+   * its configured budget. Runs on a schedule and can also be triggered through the API.
+   */
+  @Scheduled(
+      initialDelayString = "${cache.eviction.interval-ms:60000}",
+      fixedDelayString = "${cache.eviction.interval-ms:60000}")
+  public void evictExpired() {
+    log.debug("Running cache cleanup...");
+
+    // The store has already expired these entries; only our indexes still reference them
+    List<String> expired;
+    try {
+      expired = evictionPlanner.removeExpired(System.currentTimeMillis(), cacheStore::getTtlMillis);
+    } catch (Exception e) {
+      log.error("Error checking expired cache entries", e);
+      expired = List.of();
+    }
+    entryStats.recordRemoval(expired);
+    for (String id : expired) {
+      keyFilter.remove(id);
+      lshIndex.remove(id);
+      vectorIndex.forget(id);
+      tieredStore.invalidate(id);
+    }
+
+    List<String> victims = evictionPlanner.selectVictims();
+    for (int from = 0; from < victims.size(); from += evictionBatchSize) {
+      List<String> batch =
+          victims.subList(from, Math.min(victims.size(), from + evictionBatchSize));
+      removeEntries(batch);
+    }
+
+    if (!expired.isEmpty() || !victims.isEmpty()) {
+      log.info(
+          "Cache cleanup forgot {} expired entries and evicted {} entries",
+          expired.size(),
+          victims.size());
+    }
+  }
+
+  /**
+   * Extends the TTL of entries hit since the last run when sliding expiry is enabled. All
+   * extensions are sent in one pipeline, at most one per entry per run.
+   */
+  @Scheduled(
+      initialDelayString = "${cache.ttl.sliding.flush-interval-ms:10000}",
+      fixedDelayString = "${cache.ttl.sliding.flush-interval-ms:10000}")
+  public void flushTouches() {
+    if (!touchBuffer.isEnabled() || touchBuffer.getPendingCount() == 0) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    List<ExpiryTouchBuffer.Extension> extensions =
+        touchBuffer.drain(
+            now,
+            Duration.ofHours(cacheTtlHours),
+            Duration.ofMillis(refreshPolicy.getGraceMillis()));
+    if (extensions.isEmpty()) {
+      return;
+    }
+    try {
+      Map<String, Duration> ttls = new HashMap<>();
+      for (ExpiryTouchBuffer.Extension extension : extensions) {
+        ttls.put(extension.id(), extension.ttl());
+      }
+      cacheStore.expire(ttls);
+      for (ExpiryTouchBuffer.Extension extension : extensions) {
+        evictionPlanner.recordExpiry(extension.id(), now + extension.ttl().toMillis());
+      }
+      log.debug("Extended TTL of {} entries", extensions.size());
+    } catch (Exception e) {
+      log.error("Error extending cache entry TTLs", e);
+    }
+  }
+
+  /** Deletes entries from the store and from every in-process index */
+  private void removeEntries(List<String> ids) {
+    try {
+      cacheStore.delete(ids);
+    } catch (Exception e) {
+      log.error("Error evicting cache entries", e);
+      return;
+    }
+    vectorIndex.recordRemoval(ids);
+    entryStats.recordRemoval(ids);
+    for (String id : ids) {
+      keyFilter.remove(id);
+      lshIndex.remove(id);
+      evictionPlanner.remove(id);
+      touchBuffer.remove(id);
+      tieredStore.invalidate(id);
+    }
+    evictedEntries.addAndGet(ids.size());
+  }
+
+  public CacheStats getStats() {
+    try {
+      // Served from memory; the tracker is reconciled with the store in the background
+      CacheStats stats = new CacheStats(entryStats.getEntryCount(), 0, 0);
+      stats.setTotalBytes(entryStats.getTotalBytes());
+      stats.setEmbeddingCallsAvoided(lexicalHits.get());
+      stats.setExactLookupsSkipped(keyFilter.getSkippedLookups());
+      stats.setKeyFilterFalsePositives(keyFilter.getFalsePositives());
+      stats.setEvictedEntries(evictedEntries.get());
+      stats.setAdmissionsRejected(admissionFilter.getRejected());
+      stats.setAliasedEntries(aliasedEntries.get());
+      stats.setRefreshesTriggered(refreshPolicy.getTriggered());
+      stats.setStaleServed(staleServed.get());
+      stats.setTtlExtensions(touchBuffer.getExtended());
+      stats.setHotTierHits(tieredStore.getHotHits());
+      stats.setColdTierReads(tieredStore.getColdReads());
+      stats.setDemotedToCold(tieredStore.getDemoted());
+      stats.setPromotedFromCold(tieredStore.getPromoted());
+      return stats;
+    } catch (Exception e) {
+      log.error(
+          "Error getting cache stats from {} store: {}", cacheStore.getType(), e.getMessage());
+      // Defensive: If the store is unavailable, report zero stats but don't fail
       return new CacheStats(0, 0, 0);
     }
   }
 
+  private record VectorMatch(CacheEntry entry, double similarity) {}
+
   @Data
-  @AllArgsConstructor
+  @NoArgsConstructor
   public static class CacheStats {
     private long totalEntries;
+    private long totalBytes;
     private long hitCount;
     private long missCount;
+    private long embeddingCallsAvoided;
+    private long exactLookupsSkipped;
+    private long keyFilterFalsePositives;
+    private long evictedEntries;
+    private long admissionsRejected;
+    private long aliasedEntries;
+    private long refreshesTriggered;
+    private long staleServed;
+    private long ttlExtensions;
+    private long hotTierHits;
+    private long coldTierReads;
+    private long demotedToCold;
+    private long promotedFromCold;
+
+    public CacheStats(long totalEntries, long hitCount, long missCount) {
+      this.totalEntries = totalEntries;
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+    }
   }
 }
@@ -0,0 +1,83 @@
+package com.example.llmcache.service.batch;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Runs asynchronous tasks with at most a fixed number in flight. Tasks submitted beyond the limit
+ * are queued and started as earlier ones complete, without blocking any thread while they wait.
+ */
+public class AsyncLimiter {
+
+  private final int maxConcurrent;
+  private final Queue<Runnable> waiting = new ArrayDeque<>();
+  private int running;
+
+  public AsyncLimiter(int maxConcurrent) {
+    if (maxConcurrent <= 0) {
+      throw new IllegalArgumentException("Concurrency limit must be positive");
+    }
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  /**
+   * Starts the task now if a slot is free, otherwise once one frees up.
+   *
+   * @return A future completed with the task's result
+   */
+  public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Runnable start =
+        () -> {
+          CompletableFuture<T> started;
+          try {
+            started = task.get();
+          } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+          }
+          started.whenComplete(
+              (value, ex) -> {
+                release();
+                if (ex != null) {
+                  result.completeExceptionally(ex);
+                } else {
+                  result.complete(value);
+                }
+              });
+        };
+    synchronized (this) {
+      if (running >= maxConcurrent) {
+        waiting.add(start);
+        return result;
+      }
+      running++;
+    }
+    start.run();
+    return result;
+  }
+
+  private void release() {
+    Runnable next;
+    synchronized (this) {
+      next = waiting.poll();
+      if (next == null) {
+        running--;
+        return;
+      }
+    }
+    // Started on another thread so a long queue of tasks that complete immediately cannot
+    // recurse through this method
+    ForkJoinPool.commonPool().execute(next);
+  }
+
+  public synchronized int getRunning() {
+    return running;
+  }
+
+  public synchronized int getWaiting() {
+    return waiting.size();
+  }
+}
@@ -0,0 +1,226 @@
+package com.example.llmcache.service.bulk;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.store.CacheStore;
+import com.example.llmcache.service.tier.TieredStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the cache contents to an output stream.
+ *
+ * <p>Entries are read a page at a time (one SCAN and one MGET on Redis), so an export never blocks
+ * the store and holds only one page in memory. A page is written only once it has been read, so a
+ * slow client never holds a store connection. At most {@code cache.export.max-concurrent} exports
+ * run at once. Responses demoted to the local cold tier are read back; entries whose cold response
+ * lives on another node are left out.
+ *
+ * <p>The binary format is a header ({@code int} magic {@code "LLMX"}, {@code int} version 1, {@code
+ * byte} 1 if vectors are included) followed by records, each starting with the byte 1: id, prompt,
+ * response, {@code long} creation time in epoch milliseconds (-1 if unknown), metadata as JSON,
+ * and, with vectors, an {@code int} dimension (-1 if none) and the floats. Strings are an {@code
+ * int} byte length (-1 for null) and UTF-8 bytes. The byte 0 and a {@code long} record count end
+ * the stream.
+ */
+@Service
+@Slf4j
+public class BulkExportService {
+
+  static final int BINARY_MAGIC = 0x4C4C4D58; // "LLMX"
+  static final int BINARY_VERSION = 1;
+
+  private final CacheStore cacheStore;
+  private final TieredStore tieredStore;
+  private final ObjectMapper objectMapper;
+  private final AtomicInteger running = new AtomicInteger();
+
+  @Value("${cache.export.max-concurrent:2}")
+  private int maxConcurrent = 2;
+
+  public BulkExportService(CacheStore cacheStore, TieredStore tieredStore) {
+    this.cacheStore = cacheStore;
+    this.tieredStore = tieredStore;
+    this.objectMapper = new ObjectMapper();
+    this.objectMapper.registerModule(new JavaTimeModule());
+    this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    this.objectMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * Writes every matching entry to the stream, which is flushed but not closed.
+   *
+   * @return The number of entries written
+   * @throws RejectedExecutionException if {@code cache.export.max-concurrent} exports are already
+   *     running; nothing has been written then
+   */
+  public long export(
+      OutputStream output, ExportFormat format, ExportFilter filter, boolean includeVectors)
+      throws IOException {
+    if (running.incrementAndGet() > maxConcurrent) {
+      running.decrementAndGet();
+      throw new RejectedExecutionException(maxConcurrent + " exports are already running");
+    }
+    try {
+      return write(output, format, filter, includeVectors);
+    } finally {
+      running.decrementAndGet();
+    }
+  }
+
+  private long write(
+      OutputStream output, ExportFormat format, ExportFilter filter, boolean includeVectors)
+      throws IOException {
+    long started = System.currentTimeMillis();
+    LocalDateTime now = LocalDateTime.now();
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+    long[] counts = new long[2];
+    if (format == ExportFormat.BINARY) {
+      out.writeInt(BINARY_MAGIC);
+      out.writeInt(BINARY_VERSION);
+      out.writeByte(includeVectors ? 1 : 0);
+    }
+    String cursor = null;
+    try {
+      do {
+        cursor =
+            cacheStore.forEachInPage(
+                cursor,
+                entry -> {
+                  if (!filter.matches(entry, now)) {
+                    return;
+                  }
+                  if (!resolveColdResponse(entry)) {
+                    counts[1]++;
+                    return;
+                  }
+                  try {
+                    if (format == ExportFormat.BINARY) {
+                      writeBinary(out, entry, includeVectors);
+                    } else {
+                      writeJson(out, entry, includeVectors);
+                    }
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                  counts[0]++;
+                });
+      } while (cursor != null);
+    } catch (UncheckedIOException e) {
+      // Usually the client went away; nothing more can be written
+      log.warn("Export aborted after {} entries: {}", counts[0], e.getCause().getMessage());
+      throw e.getCause();
+    }
+    if (format == ExportFormat.BINARY) {
+      out.writeByte(0);
+      out.writeLong(counts[0]);
+    }
+    out.flush();
+    log.info(
+        "Exported {} entries as {} in {} ms ({} with unreachable cold responses left out)",
+        counts[0],
+        format,
+        System.currentTimeMillis() - started,
+        counts[1]);
+    return counts[0];
+  }
+
+  /** Puts a locally demoted response back into the entry; false if it cannot be read here */
+  private boolean resolveColdResponse(CacheEntry entry) {
+    String ref = TieredStore.coldRef(entry);
+    if (entry.getResponse() != null || ref == null) {
+      return true;
+    }
+    String response = tieredStore.readCold(ref);
+    if (response == null) {
+      return false;
+    }
+    Map<String, Object> metadata = new HashMap<>(entry.getMetadata());
+    metadata.remove(TieredStore.COLD_REF);
+    entry.setMetadata(metadata);
+    entry.setResponse(response);
+    return true;
+  }
+
+  private void writeJson(OutputStream out, CacheEntry entry, boolean includeVectors)
+      throws IOException {
+    try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+      json.writeStartObject();
+      json.writeStringField("id", entry.getId());
+      json.writeStringField("prompt", entry.getPrompt());
+      json.writeStringField("response", entry.getResponse());
+      json.writeFieldName("timestamp");
+      json.writeObject(entry.getTimestamp());
+      if (entry.getMetadata() != null && !entry.getMetadata().isEmpty()) {
+        json.writeFieldName("metadata");
+        json.writeObject(entry.getMetadata());
+      }
+      if (includeVectors && entry.getVector() != null) {
+        float[] vector = entry.getVector();
+        json.writeFieldName("vector");
+        json.writeStartArray();
+        for (float v : vector) {
+          json.writeNumber(v);
+        }
+        json.writeEndArray();
+      }
+      json.writeEndObject();
+    }
+    out.write('\n');
+  }
+
+  private void writeBinary(DataOutputStream out, CacheEntry entry, boolean includeVectors)
+      throws IOException {
+    out.writeByte(1);
+    writeString(out, entry.getId());
+    writeString(out, entry.getPrompt());
+    writeString(out, entry.getResponse());
+    out.writeLong(
+        entry.getTimestamp() != null
+            ? entry.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : -1);
+    writeString(
+        out,
+        entry.getMetadata() != null && !entry.getMetadata().isEmpty()
+            ? objectMapper.writeValueAsString(entry.getMetadata())
+            : null);
+    if (includeVectors) {
+      float[] vector = entry.getVector();
+      out.writeInt(vector != null ? vector.length : -1);
+      if (vector != null) {
+        for (float v : vector) {
+          out.writeFloat(v);
+        }
+      }
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.llmcache.service.bulk;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports an NDJSON file at startup when {@code cache.import.file} is set, for example:
+ *
+ * <pre>
+ * java -jar llm-vector-cache.jar --cache.import.file=history.jsonl --spring.main.web-application-type=none
+ * </pre>
+ *
+ * <p>The job id defaults to the file name, so rerunning the same command resumes an interrupted
+ * import. The application exits when the import is done unless {@code cache.import.exit-when-done}
+ * is false; the exit code is non-zero if any batch failed.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "cache.import.file")
+public class BulkImportRunner implements ApplicationRunner {
+
+  private final BulkImportService importService;
+  private final ConfigurableApplicationContext context;
+
+  @Value("${cache.import.file}")
+  private String file;
+
+  @Value("${cache.import.job-id:}")
+  private String jobId;
+
+  @Value("${cache.import.exit-when-done:true}")
+  private boolean exitWhenDone;
+
+  public BulkImportRunner(BulkImportService importService, ConfigurableApplicationContext context) {
+    this.importService = importService;
+    this.context = context;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws Exception {
+    Path path = Path.of(file);
+    String id = !jobId.isBlank() ? jobId : path.getFileName().toString();
+    ImportProgress progress;
+    try (InputStream input = Files.newInputStream(path)) {
+      progress = importService.importStream(id, input);
+    }
+    if (exitWhenDone) {
+      int code = progress.getFailed() > 0 ? 1 : 0;
+      System.exit(SpringApplication.exit(context, () -> code));
+    }
+  }
+}
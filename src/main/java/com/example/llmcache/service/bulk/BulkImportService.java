@@ -0,0 +1,305 @@
+package com.example.llmcache.service.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+import com.example.llmcache.service.VectorCacheService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prewarms the cache from NDJSON prompt/response logs.
+ *
+ * <p>Each line is a JSON object with {@code prompt} and {@code response} fields and optional {@code
+ * metadata}, as written by {@link BulkExportService}. A {@code vector} of the provider's dimension
+ * is reused instead of embedding the prompt again, and alias entries (no response, an {@code
+ * alias_of} metadata value) are imported as aliases. The input is read one line at a time, grouped
+ * into batches that are embedded with a single provider call and written with a single pipelined
+ * store call. At most {@code cache.import.max-concurrent-batches} batches are in flight; reading
+ * blocks until one finishes, so memory stays bounded however large the input.
+ *
+ * <p>Every job has an id. The last line up to which everything is stored is checkpointed to a file
+ * named after the job, and importing again under the same id skips the lines before it. Entry ids
+ * are derived from the prompt, so lines imported twice after a crash are simply overwritten.
+ * Malformed lines are counted as skipped; batches that fail are counted as failed and hold the
+ * checkpoint back so a rerun retries them.
+ */
+@Service
+@Slf4j
+public class BulkImportService {
+
+  private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+  private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+
+  private final VectorCacheService cacheService;
+  private final UnderlyingLlmProviderService providerService;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Map<String, ImportProgress> jobs = new ConcurrentHashMap<>();
+
+  @Value("${cache.import.batch-size:256}")
+  private int batchSize = 256;
+
+  @Value("${cache.import.max-concurrent-batches:4}")
+  private int maxConcurrentBatches = 4;
+
+  @Value("${cache.import.checkpoint-dir:./data/import-checkpoints}")
+  private String checkpointDir = "./data/import-checkpoints";
+
+  @Value("${cache.import.checkpoint-every-batches:20}")
+  private int checkpointEveryBatches = 20;
+
+  @Value("${cache.import.embedding-timeout-ms:60000}")
+  private long embeddingTimeoutMs = 60000;
+
+  @Value("${cache.import.progress-interval-ms:10000}")
+  private long progressIntervalMs = 10000;
+
+  public BulkImportService(
+      VectorCacheService cacheService, UnderlyingLlmProviderService providerService) {
+    this.cacheService = cacheService;
+    this.providerService = providerService;
+  }
+
+  /**
+   * Imports NDJSON from the stream, resuming after the job's checkpoint if there is one. Returns
+   * once every line has been read and every batch has been stored or has failed.
+   *
+   * @param jobId Job id made of letters, digits, dots, dashes and underscores
+   * @param input NDJSON stream, read to the end but not closed
+   * @throws IllegalArgumentException if the job id is invalid
+   * @throws IllegalStateException if an import with the same id is already running
+   */
+  public ImportProgress importStream(String jobId, InputStream input) throws IOException {
+    if (jobId == null || !JOB_ID.matcher(jobId).matches()) {
+      throw new IllegalArgumentException("Invalid import job id: " + jobId);
+    }
+    ImportProgress progress = new ImportProgress(jobId, readCheckpoint(jobId));
+    ImportProgress running =
+        jobs.compute(
+            jobId, (id, previous) -> previous != null && !previous.isDone() ? previous : progress);
+    if (running != progress) {
+      throw new IllegalStateException("Import " + jobId + " is already running");
+    }
+
+    if (progress.getResumedFromLine() > 0) {
+      log.info("Resuming import {} after line {}", jobId, progress.getResumedFromLine());
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(maxConcurrentBatches);
+    Semaphore inFlight = new Semaphore(maxConcurrentBatches);
+    ImportCheckpoint checkpoint = new ImportCheckpoint(progress.getResumedFromLine());
+    try {
+      BufferedReader reader =
+          new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+      List<CacheEntry> batch = new ArrayList<>(batchSize);
+      long lineNumber = 0;
+      long lastSubmitted = progress.getResumedFromLine();
+      long batchNumber = 0;
+      long nextLog = System.currentTimeMillis() + progressIntervalMs;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (++lineNumber <= progress.getResumedFromLine()) {
+          continue;
+        }
+        progress.lineRead();
+        CacheEntry entry = parse(line);
+        if (entry != null) {
+          batch.add(entry);
+        } else if (!line.isBlank()) {
+          progress.skipped();
+        }
+        if (batch.size() == batchSize) {
+          submit(executor, inFlight, batch, batchNumber++, lineNumber, checkpoint, progress);
+          batch = new ArrayList<>(batchSize);
+          lastSubmitted = lineNumber;
+        }
+        if (System.currentTimeMillis() >= nextLog) {
+          logProgress(progress);
+          nextLog = System.currentTimeMillis() + progressIntervalMs;
+        }
+      }
+      if (lineNumber > lastSubmitted) {
+        submit(executor, inFlight, batch, batchNumber, lineNumber, checkpoint, progress);
+      }
+      inFlight.acquire(maxConcurrentBatches);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Import " + jobId + " was interrupted", e);
+    } finally {
+      executor.shutdownNow();
+      writeCheckpoint(jobId, checkpoint.getCommittedLine(), progress);
+      progress.finish();
+    }
+    log.info(
+        "Import {} finished: {} imported, {} skipped, {} failed in {} ms ({} entries/s)",
+        jobId,
+        progress.getImported(),
+        progress.getSkipped(),
+        progress.getFailed(),
+        progress.getElapsedMillis(),
+        String.format("%.0f", progress.getEntriesPerSecond()));
+    return progress;
+  }
+
+  /** Returns the progress of a running or finished import, or null if there is none */
+  public ImportProgress getProgress(String jobId) {
+    return jobs.get(jobId);
+  }
+
+  private CacheEntry parse(String line) {
+    if (line.isBlank()) {
+      return null;
+    }
+    try {
+      JsonNode node = objectMapper.readTree(line);
+      String prompt = node.path("prompt").asText(null);
+      String response = node.path("response").asText(null);
+      if (prompt == null || prompt.isBlank()) {
+        return null;
+      }
+      CacheEntry entry = new CacheEntry(prompt, response, null);
+      if (node.path("metadata").isObject()) {
+        entry.setMetadata(
+            new HashMap<>(objectMapper.convertValue(node.get("metadata"), METADATA_TYPE)));
+      }
+      if (response == null) {
+        return entry.getMetadata().get(VectorCacheService.ALIAS_OF) != null ? entry : null;
+      }
+      if (node.path("vector").isArray() && node.get("vector").size() == vectorDimension()) {
+        entry.setVector(objectMapper.convertValue(node.get("vector"), float[].class));
+        // Exported by another embedding model; embedded again instead
+        if (!providerService.isInEmbeddingSpace(entry)) {
+          entry.setVector(null);
+        }
+      }
+      return entry;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private void submit(
+      ExecutorService executor,
+      Semaphore inFlight,
+      List<CacheEntry> batch,
+      long batchNumber,
+      long lastLine,
+      ImportCheckpoint checkpoint,
+      ImportProgress progress)
+      throws InterruptedException {
+    inFlight.acquire();
+    executor.execute(
+        () -> {
+          try {
+            store(batch);
+            progress.imported(batch.size());
+            long committed = checkpoint.complete(batchNumber, lastLine);
+            if (batchNumber % checkpointEveryBatches == 0) {
+              writeCheckpoint(progress.getJobId(), committed, progress);
+            }
+          } catch (Exception e) {
+            progress.failed(batch.size());
+            log.warn(
+                "Import {} failed to store batch ending at line {}: {}",
+                progress.getJobId(),
+                lastLine,
+                e.getMessage());
+          } finally {
+            inFlight.release();
+          }
+        });
+  }
+
+  private void store(List<CacheEntry> batch) throws Exception {
+    if (batch.isEmpty()) {
+      return;
+    }
+    // Aliases carry no vector, and exported vectors are reused as they are
+    List<CacheEntry> toEmbed = new ArrayList<>(batch.size());
+    List<String> prompts = new ArrayList<>(batch.size());
+    for (CacheEntry entry : batch) {
+      if (entry.getResponse() != null && entry.getVector() == null) {
+        toEmbed.add(entry);
+        prompts.add(entry.getPrompt());
+      }
+    }
+    if (!prompts.isEmpty()) {
+      List<float[]> vectors =
+          providerService.getVectors(prompts).get(embeddingTimeoutMs, TimeUnit.MILLISECONDS);
+      for (int i = 0; i < toEmbed.size(); i++) {
+        toEmbed.get(i).setVector(vectors.get(i));
+      }
+    }
+    cacheService.putAll(batch);
+  }
+
+  private int vectorDimension() {
+    return providerService.getEmbeddingProvider() != null
+        ? providerService.getEmbeddingProvider().getVectorDimension()
+        : -1;
+  }
+
+  private void logProgress(ImportProgress progress) {
+    log.info(
+        "Import {}: {} lines read, {} imported, {} skipped, {} failed ({} entries/s)",
+        progress.getJobId(),
+        progress.getLinesRead(),
+        progress.getImported(),
+        progress.getSkipped(),
+        progress.getFailed(),
+        String.format("%.0f", progress.getEntriesPerSecond()));
+  }
+
+  private Path checkpointFile(String jobId) {
+    return Path.of(checkpointDir, jobId + ".checkpoint");
+  }
+
+  private long readCheckpoint(String jobId) {
+    Path file = checkpointFile(jobId);
+    try {
+      return Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : 0;
+    } catch (IOException | NumberFormatException e) {
+      log.warn("Ignoring unreadable import checkpoint {}: {}", file, e.getMessage());
+      return 0;
+    }
+  }
+
+  private synchronized void writeCheckpoint(String jobId, long line, ImportProgress progress) {
+    if (line <= progress.getCheckpointLine() && Files.exists(checkpointFile(jobId))) {
+      return;
+    }
+    Path file = checkpointFile(jobId);
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(file.getParent());
+      Files.writeString(temp, Long.toString(line));
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      progress.setCheckpointLine(line);
+    } catch (IOException e) {
+      log.warn("Could not write import checkpoint {}: {}", file, e.getMessage());
+    }
+  }
+}
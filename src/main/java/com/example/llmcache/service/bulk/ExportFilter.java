@@ -0,0 +1,40 @@
+package com.example.llmcache.service.bulk;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.example.llmcache.model.CacheEntry;
+
+/**
+ * Selects the entries included in an export.
+ *
+ * @param minAge Only entries at least this old, or null
+ * @param maxAge Only entries at most this old, or null
+ * @param metadata Metadata values every exported entry must have, compared as strings
+ */
+public record ExportFilter(Duration minAge, Duration maxAge, Map<String, String> metadata) {
+
+  public static final ExportFilter ALL = new ExportFilter(null, null, Map.of());
+
+  public boolean matches(CacheEntry entry, LocalDateTime now) {
+    if (minAge != null || maxAge != null) {
+      if (entry.getTimestamp() == null) {
+        return false;
+      }
+      Duration age = Duration.between(entry.getTimestamp(), now);
+      if ((minAge != null && age.compareTo(minAge) < 0)
+          || (maxAge != null && age.compareTo(maxAge) > 0)) {
+        return false;
+      }
+    }
+    for (Map.Entry<String, String> required : metadata.entrySet()) {
+      Object value =
+          entry.getMetadata() != null ? entry.getMetadata().get(required.getKey()) : null;
+      if (value == null || !required.getValue().equals(value.toString())) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
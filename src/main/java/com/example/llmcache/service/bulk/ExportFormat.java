@@ -0,0 +1,25 @@
+package com.example.llmcache.service.bulk;
+
+/** Output formats of a cache export */
+public enum ExportFormat {
+  /** One JSON object per line, readable by the bulk import */
+  NDJSON("application/x-ndjson", "ndjson"),
+  /** Length-prefixed binary records, see {@link BulkExportService} */
+  BINARY("application/octet-stream", "bin");
+
+  private final String contentType;
+  private final String extension;
+
+  ExportFormat(String contentType, String extension) {
+    this.contentType = contentType;
+    this.extension = extension;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.llmcache.service.bulk;
+
+import java.util.TreeMap;
+
+/**
+ * Tracks which lines of an import are safely stored when batches complete out of order.
+ *
+ * <p>Batches are numbered in the order they were read. The committed line only advances past a
+ * batch once it and every earlier batch have completed, so resuming from it never skips a line. A
+ * batch that fails is never completed, which holds the committed line at the end of the batch
+ * before it.
+ */
+public class ImportCheckpoint {
+
+  // Last line of each completed batch that is not yet contiguous with the committed prefix
+  private final TreeMap<Long, Long> pending = new TreeMap<>();
+  private long nextBatch;
+  private long committedLine;
+
+  /**
+   * @param committedLine Line the import resumes after; 0 for a fresh import
+   */
+  public ImportCheckpoint(long committedLine) {
+    this.committedLine = committedLine;
+  }
+
+  /**
+   * Marks a batch as stored.
+   *
+   * @param batch Sequence number of the batch, starting at 0
+   * @param lastLine Last input line covered by the batch
+   * @return The committed line after this batch
+   */
+  public synchronized long complete(long batch, long lastLine) {
+    pending.put(batch, lastLine);
+    while (!pending.isEmpty() && pending.firstKey() == nextBatch) {
+      committedLine = pending.pollFirstEntry().getValue();
+      nextBatch++;
+    }
+    return committedLine;
+  }
+
+  public synchronized long getCommittedLine() {
+    return committedLine;
+  }
+}
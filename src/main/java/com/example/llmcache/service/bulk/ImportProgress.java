@@ -0,0 +1,89 @@
+package com.example.llmcache.service.bulk;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Live counters of a bulk import, serialized as its progress report */
+public class ImportProgress {
+
+  private final String jobId;
+  private final long resumedFromLine;
+  private final long startedAt = System.currentTimeMillis();
+  private final AtomicLong linesRead = new AtomicLong(0);
+  private final AtomicLong imported = new AtomicLong(0);
+  private final AtomicLong skipped = new AtomicLong(0);
+  private final AtomicLong failed = new AtomicLong(0);
+  private volatile long checkpointLine;
+  private volatile long finishedAt;
+
+  public ImportProgress(String jobId, long resumedFromLine) {
+    this.jobId = jobId;
+    this.resumedFromLine = resumedFromLine;
+    this.checkpointLine = resumedFromLine;
+  }
+
+  void lineRead() {
+    linesRead.incrementAndGet();
+  }
+
+  void skipped() {
+    skipped.incrementAndGet();
+  }
+
+  void imported(int count) {
+    imported.addAndGet(count);
+  }
+
+  void failed(int count) {
+    failed.addAndGet(count);
+  }
+
+  void setCheckpointLine(long line) {
+    checkpointLine = line;
+  }
+
+  void finish() {
+    finishedAt = System.currentTimeMillis();
+  }
+
+  public String getJobId() {
+    return jobId;
+  }
+
+  public long getResumedFromLine() {
+    return resumedFromLine;
+  }
+
+  public long getLinesRead() {
+    return linesRead.get();
+  }
+
+  public long getImported() {
+    return imported.get();
+  }
+
+  public long getSkipped() {
+    return skipped.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  /** Last input line up to which everything is stored; an interrupted import resumes after it */
+  public long getCheckpointLine() {
+    return checkpointLine;
+  }
+
+  public boolean isDone() {
+    return finishedAt != 0;
+  }
+
+  public long getElapsedMillis() {
+    return (finishedAt != 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+  }
+
+  public double getEntriesPerSecond() {
+    long elapsed = getElapsedMillis();
+    return elapsed > 0 ? imported.get() * 1000.0 / elapsed : 0.0;
+  }
+}
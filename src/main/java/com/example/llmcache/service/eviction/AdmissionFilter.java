@@ -0,0 +1,97 @@
+package com.example.llmcache.service.eviction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TinyLFU-style admission control for new cache entries.
+ *
+ * <p>Every lookup is counted in a {@link CountMinSketch}, under the id of the entry that answered
+ * it or, on a miss, of the prompt. Entries serving lexical and semantic hits are therefore counted
+ * like the victims they are compared with. While the cache is below its eviction budget everything
+ * is admitted; once the budget is reached, a new entry is only admitted if its prompt has been
+ * requested more often recently than the entry the {@link EvictionPlanner} would evict next.
+ * One-off prompts therefore never displace entries that are actually being reused.
+ */
+@Component
+@Slf4j
+public class AdmissionFilter {
+
+  private final EvictionPlanner evictionPlanner;
+  private CountMinSketch sketch;
+
+  private final AtomicLong admitted = new AtomicLong(0);
+  private final AtomicLong rejected = new AtomicLong(0);
+
+  @Value("${cache.admission.enabled:true}")
+  private boolean enabled;
+
+  @Value("${cache.admission.sketch-width:1048576}")
+  private int sketchWidth;
+
+  @Value("${cache.admission.sample-size:0}")
+  private long sampleSize;
+
+  public AdmissionFilter(EvictionPlanner evictionPlanner) {
+    this.evictionPlanner = evictionPlanner;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!enabled) {
+      log.info("Cache admission filter disabled");
+      return;
+    }
+    // TinyLFU ages its sketch after roughly ten times as many samples as it has counters
+    sketch = new CountMinSketch(sketchWidth, sampleSize > 0 ? sampleSize : 10L * sketchWidth);
+    log.info("Cache admission filter initialized with sketch width {}", sketch.getWidth());
+  }
+
+  public boolean isEnabled() {
+    return enabled && sketch != null;
+  }
+
+  /** Counts a lookup of the cache entry id */
+  public void recordAccess(String id) {
+    if (isEnabled()) {
+      sketch.increment(id);
+    }
+  }
+
+  /**
+   * Decides whether a new entry should be written.
+   *
+   * @param id Cache entry id of the candidate
+   * @return true if the candidate is admitted
+   */
+  public boolean admit(String id) {
+    if (!isEnabled() || !evictionPlanner.isAtBudget()) {
+      admitted.incrementAndGet();
+      return true;
+    }
+
+    String victim = evictionPlanner.peekVictim();
+    if (victim == null || sketch.estimate(id) > sketch.estimate(victim)) {
+      admitted.incrementAndGet();
+      return true;
+    }
+
+    rejected.incrementAndGet();
+    log.debug("Admission rejected for {} in favour of {}", id, victim);
+    return false;
+  }
+
+  public long getAdmitted() {
+    return admitted.get();
+  }
+
+  public long getRejected() {
+    return rejected.get();
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.llmcache.service.eviction;
+
+/**
+ * Count-min sketch of key frequencies with periodic aging.
+ *
+ * <p>Counters are 8-bit and saturate. After {@code sampleSize} increments every counter is halved,
+ * so the sketch reflects recent popularity rather than all-time totals (the "reset" operation from
+ * TinyLFU).
+ */
+public class CountMinSketch {
+
+  private static final long[] SEEDS = {
+    0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+  };
+  private static final int MAX_COUNT = 0xFF;
+
+  private final byte[][] table;
+  private final int width;
+  private final long sampleSize;
+  private long additions;
+
+  /**
+   * @param width Counters per row; rounded up to a power of two
+   * @param sampleSize Increments between agings
+   */
+  public CountMinSketch(int width, long sampleSize) {
+    if (width <= 0 || sampleSize <= 0) {
+      throw new IllegalArgumentException("Width and sample size must be positive");
+    }
+    int w = Math.max(16, width);
+    this.width = Integer.bitCount(w) == 1 ? w : Integer.highestOneBit(w) << 1;
+    this.table = new byte[SEEDS.length][this.width];
+    this.sampleSize = sampleSize;
+  }
+
+  public synchronized void increment(String key) {
+    long hash = hash(key);
+    boolean added = false;
+    for (int row = 0; row < SEEDS.length; row++) {
+      int index = index(hash, row);
+      int count = table[row][index] & 0xFF;
+      if (count < MAX_COUNT) {
+        table[row][index] = (byte) (count + 1);
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      age();
+    }
+  }
+
+  /** Returns the estimated recent frequency of the key; never an underestimate before aging */
+  public int estimate(String key) {
+    long hash = hash(key);
+    int min = MAX_COUNT;
+    for (int row = 0; row < SEEDS.length; row++) {
+      min = Math.min(min, table[row][index(hash, row)] & 0xFF);
+    }
+    return min;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  private void age() {
+    for (byte[] row : table) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] = (byte) ((row[i] & 0xFF) >>> 1);
+      }
+    }
+    additions /= 2;
+  }
+
+  private int index(long hash, int row) {
+    long h = (hash ^ SEEDS[row]) * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 29;
+    return (int) (h & (width - 1));
+  }
+
+  private static long hash(String key) {
+    long h = 0xCBF29CE484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h = (h ^ key.charAt(i)) * 0x100000001B3L;
+    }
+    h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+    h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+    return h ^ (h >>> 31);
+  }
+}
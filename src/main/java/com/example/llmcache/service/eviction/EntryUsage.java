@@ -0,0 +1,66 @@
+package com.example.llmcache.service.eviction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+/** Access statistics for one cache entry, as seen by this instance */
+@Getter
+public class EntryUsage {
+
+  private final String id;
+  private volatile long sizeBytes;
+  private final int responseLength;
+  private final long createdAt;
+  private volatile long expiresAt;
+  private volatile long lastAccess;
+  private volatile double priority;
+
+  @Getter(lombok.AccessLevel.NONE)
+  private final AtomicLong hits = new AtomicLong(0);
+
+  public EntryUsage(String id, long sizeBytes, int responseLength, long createdAt, long expiresAt) {
+    this.id = id;
+    this.sizeBytes = Math.max(1, sizeBytes);
+    this.responseLength = responseLength;
+    this.createdAt = createdAt;
+    this.expiresAt = expiresAt;
+    this.lastAccess = createdAt;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  void recordHit(long now, double inflation) {
+    long count = hits.incrementAndGet();
+    lastAccess = now;
+    updatePriority(inflation, count);
+  }
+
+  /** Takes over the access history of the usage record this one replaces */
+  void carryOver(EntryUsage previous) {
+    hits.set(previous.getHits());
+    lastAccess = Math.max(lastAccess, previous.getLastAccess());
+  }
+
+  void updatePriority(double inflation, long count) {
+    priority = inflation + (double) (count + 1) * Math.max(1, responseLength) / sizeBytes;
+  }
+
+  void resize(long sizeBytes) {
+    this.sizeBytes = Math.max(1, sizeBytes);
+  }
+
+  public void setExpiresAt(long expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  /** Captures the mutable fields so victims can be sorted while hits keep arriving */
+  public Snapshot snapshot() {
+    return new Snapshot(id, sizeBytes, hits.get(), lastAccess, priority);
+  }
+
+  /** Point-in-time view of an entry's usage */
+  public record Snapshot(String id, long sizeBytes, long hits, long lastAccess, double priority) {}
+}
@@ -0,0 +1,253 @@
+package com.example.llmcache.service.eviction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks entry sizes and accesses and decides which entries to evict.
+ *
+ * <p>The planner never touches Redis itself. {@code VectorCacheService} reports inserts and hits
+ * and asks for victims; it then deletes them in batches and keeps its in-process indexes in sync.
+ * Victim selection works on a weakly consistent snapshot of the usage map, so lookups are never
+ * blocked while a plan is computed.
+ *
+ * <p>Budgets apply to the entries this instance knows about: those it wrote, read, or found when
+ * scanning the keyspace at startup.
+ */
+@Component
+@Slf4j
+public class EvictionPlanner {
+
+  private static final int VICTIM_QUEUE_SIZE = 256;
+
+  private final Map<String, EntryUsage> usage = new ConcurrentHashMap<>();
+  private final AtomicLong totalBytes = new AtomicLong(0);
+
+  // Greedy-Dual-Size-Frequency inflation value: the priority of the last evicted entry
+  private volatile double inflation = 0.0;
+
+  // Head of the victim order from the last planning run, consulted by admission control
+  private volatile List<String> nextVictims = List.of();
+
+  @Value("${cache.eviction.policy:LRU}")
+  private EvictionPolicy policy = EvictionPolicy.LRU;
+
+  @Value("${cache.eviction.max-entries:0}")
+  private long maxEntries;
+
+  @Value("${cache.eviction.max-bytes:0}")
+  private long maxBytes;
+
+  @Value("${cache.eviction.low-watermark:0.9}")
+  private double lowWatermark = 0.9;
+
+  @PostConstruct
+  public void init() {
+    log.info(
+        "Eviction planner initialized: policy {}, max entries {}, max bytes {}",
+        policy,
+        maxEntries > 0 ? maxEntries : "unlimited",
+        maxBytes > 0 ? maxBytes : "unlimited");
+  }
+
+  /**
+   * Records a newly written (or rewritten) entry. A rewrite, such as a refresh or an alias update,
+   * keeps the hits and last access of the entry it replaces.
+   */
+  public void recordInsert(
+      String id, long sizeBytes, int responseLength, long createdAt, long expiresAt) {
+    EntryUsage entry = new EntryUsage(id, sizeBytes, responseLength, createdAt, expiresAt);
+    EntryUsage[] previous = new EntryUsage[1];
+    usage.compute(
+        id,
+        (key, existing) -> {
+          if (existing != null) {
+            entry.carryOver(existing);
+          }
+          previous[0] = existing;
+          return entry;
+        });
+    entry.updatePriority(inflation, entry.getHits());
+    totalBytes.addAndGet(
+        entry.getSizeBytes() - (previous[0] != null ? previous[0].getSizeBytes() : 0));
+  }
+
+  /** Records a cache hit on an entry */
+  public void recordHit(String id) {
+    EntryUsage entry = usage.get(id);
+    if (entry != null) {
+      entry.recordHit(System.currentTimeMillis(), inflation);
+    }
+  }
+
+  /** Records a new expiry time for an entry whose TTL was extended */
+  public void recordExpiry(String id, long expiresAt) {
+    EntryUsage entry = usage.get(id);
+    if (entry != null) {
+      entry.setExpiresAt(expiresAt);
+    }
+  }
+
+  /**
+   * Records a new size for an entry rewritten in place, keeping its access history
+   *
+   * @return false if the entry is not tracked
+   */
+  public boolean recordResize(String id, long sizeBytes) {
+    EntryUsage entry = usage.get(id);
+    if (entry == null) {
+      return false;
+    }
+    synchronized (entry) {
+      long previous = entry.getSizeBytes();
+      entry.resize(sizeBytes);
+      entry.updatePriority(inflation, entry.getHits());
+      totalBytes.addAndGet(entry.getSizeBytes() - previous);
+    }
+    return true;
+  }
+
+  /** Forgets an entry that was deleted */
+  public void remove(String id) {
+    EntryUsage previous = usage.remove(id);
+    if (previous != null) {
+      totalBytes.addAndGet(-previous.getSizeBytes());
+    }
+  }
+
+  /**
+   * Removes and returns the ids of entries whose TTL has passed. Redis has already dropped them;
+   * the caller only needs to clean up its in-process indexes.
+   *
+   * <p>The expiry tracked here misses TTL extensions made by other instances, so an entry is only
+   * treated as expired once the store confirms it is gone; otherwise its expiry is updated from the
+   * remaining TTL.
+   *
+   * @param remainingTtl Remaining TTL of an entry in the store, as {@link
+   *     com.example.llmcache.service.store.CacheStore#getTtlMillis}
+   */
+  public List<String> removeExpired(long now, ToLongFunction<String> remainingTtl) {
+    List<String> expired = new ArrayList<>();
+    for (EntryUsage entry : usage.values()) {
+      if (entry.getExpiresAt() > now) {
+        continue;
+      }
+      long ttlMillis = remainingTtl.applyAsLong(entry.getId());
+      if (ttlMillis == -1) {
+        entry.setExpiresAt(Long.MAX_VALUE);
+      } else if (ttlMillis > 0) {
+        entry.setExpiresAt(now + ttlMillis);
+      } else if (usage.remove(entry.getId(), entry)) {
+        totalBytes.addAndGet(-entry.getSizeBytes());
+        expired.add(entry.getId());
+      }
+    }
+    return expired;
+  }
+
+  /**
+   * Picks the entries to evict so that the cache falls back under the low watermark of its budget.
+   * While above the low watermark this also refreshes the victim queue used by {@link
+   * #peekVictim()}.
+   *
+   * @return Victim ids in eviction order, empty if the cache is within budget
+   */
+  public List<String> selectVictims() {
+    long entries = usage.size();
+    long bytes = totalBytes.get();
+    long targetEntries = maxEntries > 0 ? (long) (maxEntries * lowWatermark) : Long.MAX_VALUE;
+    long targetBytes = maxBytes > 0 ? (long) (maxBytes * lowWatermark) : Long.MAX_VALUE;
+    if (entries <= targetEntries && bytes <= targetBytes) {
+      nextVictims = List.of();
+      return List.of();
+    }
+
+    List<EntryUsage.Snapshot> candidates = new ArrayList<>(usage.size());
+    for (EntryUsage entry : usage.values()) {
+      candidates.add(entry.snapshot());
+    }
+    candidates.sort(policy.victimOrder());
+
+    List<String> victims = new ArrayList<>();
+    boolean overBudget = isOverBudget(entries, bytes);
+    int next = 0;
+    while (overBudget && next < candidates.size()) {
+      if (entries <= targetEntries && bytes <= targetBytes) {
+        break;
+      }
+      EntryUsage.Snapshot candidate = candidates.get(next++);
+      victims.add(candidate.id());
+      entries--;
+      bytes -= candidate.sizeBytes();
+      inflation = Math.max(inflation, candidate.priority());
+    }
+
+    List<String> queue = new ArrayList<>(VICTIM_QUEUE_SIZE);
+    for (int i = next; i < candidates.size() && queue.size() < VICTIM_QUEUE_SIZE; i++) {
+      queue.add(candidates.get(i).id());
+    }
+    nextVictims = queue;
+
+    if (victims.isEmpty()) {
+      return victims;
+    }
+    log.info(
+        "Cache over budget ({} entries, {} bytes), selected {} victims using {}",
+        usage.size(),
+        totalBytes.get(),
+        victims.size(),
+        policy);
+    return victims;
+  }
+
+  /**
+   * Returns the id the policy would evict next, according to the last planning run, or null if the
+   * cache was below its low watermark at that time.
+   */
+  public String peekVictim() {
+    for (String id : nextVictims) {
+      if (usage.containsKey(id)) {
+        return id;
+      }
+    }
+    return null;
+  }
+
+  /** Returns true if writing one more entry would exceed the budget */
+  public boolean isAtBudget() {
+    return isOverBudget(usage.size() + 1, totalBytes.get());
+  }
+
+  /** Returns the hits recorded for an entry, or 0 if it is not tracked */
+  public long getHits(String id) {
+    EntryUsage entry = usage.get(id);
+    return entry != null ? entry.getHits() : 0;
+  }
+
+  public long getEntryCount() {
+    return usage.size();
+  }
+
+  public long getTotalBytes() {
+    return totalBytes.get();
+  }
+
+  public EvictionPolicy getPolicy() {
+    return policy;
+  }
+
+  private boolean isOverBudget(long entries, long bytes) {
+    return (maxEntries > 0 && entries > maxEntries) || (maxBytes > 0 && bytes > maxBytes);
+  }
+}
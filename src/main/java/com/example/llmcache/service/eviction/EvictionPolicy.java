@@ -0,0 +1,34 @@
+package com.example.llmcache.service.eviction;
+
+import java.util.Comparator;
+
+/** Victim ordering used when the cache exceeds its memory budget */
+public enum EvictionPolicy {
+  /** Evicts the entries that were read least recently */
+  LRU(Comparator.comparingLong(EntryUsage.Snapshot::lastAccess)),
+
+  /** Evicts the entries with the fewest hits, oldest first on ties */
+  LFU(
+      Comparator.comparingLong(EntryUsage.Snapshot::hits)
+          .thenComparingLong(EntryUsage.Snapshot::lastAccess)),
+
+  /**
+   * Greedy-Dual-Size-Frequency: evicts the entries whose hit count times regeneration cost (the
+   * response length) per stored byte is lowest, aged by the priority of previous victims so that
+   * formerly hot entries cannot stay forever.
+   */
+  COST(
+      Comparator.comparingDouble(EntryUsage.Snapshot::priority)
+          .thenComparingLong(EntryUsage.Snapshot::lastAccess));
+
+  private final Comparator<EntryUsage.Snapshot> victimOrder;
+
+  EvictionPolicy(Comparator<EntryUsage.Snapshot> victimOrder) {
+    this.victimOrder = victimOrder;
+  }
+
+  /** Orders entries so that the first element is the best eviction candidate */
+  public Comparator<EntryUsage.Snapshot> victimOrder() {
+    return victimOrder;
+  }
+}
@@ -0,0 +1,268 @@
+package com.example.llmcache.service.index;
+
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.service.store.CacheStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Membership filter for exact-match cache ids.
+ *
+ * <p>Keeps a {@link CountingBloomFilter} of every cache entry id written by this instance so
+ * lookups for prompts that were never cached can skip the store round trip. Evicted ids are removed
+ * explicitly; entries that simply expire are dropped by a periodic rebuild from a walk over the
+ * store's ids.
+ *
+ * <p>Until the first load or rebuild completes the filter answers "maybe" for every id, so a cold
+ * start never hides existing entries. A snapshot loaded from Redis may be stale, so it only serves
+ * lookups until the rebuild that follows it completes.
+ *
+ * <p>When the store is shared with other instances, their writes have to be reported through {@link
+ * #add} as they happen (see {@link #setRemoteWritesTracked}). Only a filter rebuilt after the
+ * reports started can tell an id written elsewhere from one never cached, so until then, and
+ * whenever the reports stop, the filter answers "maybe" for every id. No snapshot is loaded for a
+ * shared store, since it would miss the ids written elsewhere after it was saved.
+ */
+@Component
+@Slf4j
+public class CacheKeyFilter {
+
+  static final String SNAPSHOT_KEY = "llm_bloom:cache_keys";
+
+  private final CacheStore cacheStore;
+  private final RedisTemplate<String, Object> redisTemplate;
+
+  private volatile CountingBloomFilter filter;
+  private volatile CountingBloomFilter rebuilding;
+  // Ids removed while a rebuild runs; the walk leaves them out of the replacement filter
+  private final Set<String> removedDuringRebuild = ConcurrentHashMap.newKeySet();
+  private volatile boolean ready;
+  private volatile boolean remoteWritesTracked;
+  // Whether the current filter was rebuilt while writes by other instances were reported
+  private volatile boolean coversRemoteWrites;
+  private final AtomicInteger trackingChanges = new AtomicInteger();
+
+  private final AtomicLong skippedLookups = new AtomicLong(0);
+  private final AtomicLong falsePositives = new AtomicLong(0);
+
+  @Value("${cache.bloom.enabled:true}")
+  private boolean enabled;
+
+  @Value("${cache.bloom.expected-entries:1000000}")
+  private long expectedEntries;
+
+  @Value("${cache.bloom.false-positive-rate:0.01}")
+  private double falsePositiveRate;
+
+  @Value("${cache.bloom.persist-to-redis:false}")
+  private boolean persistToRedis;
+
+  /**
+   * @param cacheStore Store to rebuild the filter from
+   * @param redisTemplate Redis to persist snapshots in, or null when running without Redis
+   */
+  public CacheKeyFilter(
+      CacheStore cacheStore, @Nullable RedisTemplate<String, Object> redisTemplate) {
+    this.cacheStore = cacheStore;
+    this.redisTemplate = redisTemplate;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!enabled) {
+      log.info("Cache key Bloom filter disabled");
+      return;
+    }
+    filter = new CountingBloomFilter(expectedEntries, falsePositiveRate);
+    log.info(
+        "Cache key Bloom filter initialized: {} slots, {} hashes",
+        filter.getSlotCount(),
+        filter.getNumHashes());
+
+    if (cacheStore != null && cacheStore.isShared()) {
+      log.info("Cache key Bloom filter waits for writes by other instances to be reported");
+    } else if (cacheStore != null) {
+      CompletableFuture.runAsync(
+          () -> {
+            loadSnapshot();
+            rebuild();
+          });
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled && filter != null;
+  }
+
+  /**
+   * @return false only if the id was definitely never cached; true while the filter is warming up
+   *     or misses writes to a shared store
+   */
+  public boolean mightContain(String id) {
+    if (!isEnabled() || !ready || !seesAllWrites()) {
+      return true;
+    }
+    if (filter.mightContain(id)) {
+      return true;
+    }
+    skippedLookups.incrementAndGet();
+    return false;
+  }
+
+  public void add(String id) {
+    if (!isEnabled()) {
+      return;
+    }
+    filter.add(id);
+    CountingBloomFilter next = rebuilding;
+    if (next != null) {
+      removedDuringRebuild.remove(id);
+      next.add(id);
+    }
+  }
+
+  /**
+   * Sets whether writes by other instances are reported through {@link #add}. Once they are, the
+   * next rebuild makes negative answers for a shared store trustworthy; once they stop, negative
+   * answers are no longer given.
+   */
+  public void setRemoteWritesTracked(boolean tracked) {
+    trackingChanges.incrementAndGet();
+    remoteWritesTracked = tracked;
+    if (!tracked) {
+      coversRemoteWrites = false;
+    }
+    log.info(
+        "Cache key Bloom filter {} writes by other instances",
+        tracked ? "tracks" : "no longer sees");
+  }
+
+  private boolean seesAllWrites() {
+    return cacheStore == null || !cacheStore.isShared() || coversRemoteWrites;
+  }
+
+  /** Removes an id whose entry was evicted */
+  public void remove(String id) {
+    if (!isEnabled()) {
+      return;
+    }
+    filter.remove(id);
+    // The replacement filter may never have seen the id, and removing a key that was never added
+    // would decrement the counters of other keys
+    if (rebuilding != null) {
+      removedDuringRebuild.add(id);
+    }
+  }
+
+  /** Records that the filter answered "maybe" for an id that was not in Redis */
+  public void recordFalsePositive() {
+    falsePositives.incrementAndGet();
+  }
+
+  public long getSkippedLookups() {
+    return skippedLookups.get();
+  }
+
+  public long getFalsePositives() {
+    return falsePositives.get();
+  }
+
+  /**
+   * Rebuilds the filter from the live entries, dropping ids whose entries have expired.
+   *
+   * <p>The replacement filter receives concurrent writes while the walk runs and is swapped in
+   * atomically once complete. Ids removed during the walk are skipped by it rather than removed
+   * from the replacement; one the walk had already added stays a false positive until the next
+   * rebuild.
+   *
+   * <p>For a shared store the walk is skipped while writes by other instances are not reported,
+   * since its result could not be trusted anyway.
+   */
+  @Scheduled(
+      initialDelayString = "${cache.bloom.rebuild-interval-ms:3600000}",
+      fixedDelayString = "${cache.bloom.rebuild-interval-ms:3600000}")
+  public synchronized void rebuild() {
+    if (!isEnabled() || cacheStore == null) {
+      return;
+    }
+    boolean shared = cacheStore.isShared();
+    // Taken before the walk, so writes reported during it are in the replacement or in the store
+    int tracking = trackingChanges.get();
+    if (shared && !remoteWritesTracked) {
+      return;
+    }
+    CountingBloomFilter next = new CountingBloomFilter(expectedEntries, falsePositiveRate);
+    removedDuringRebuild.clear();
+    rebuilding = next;
+    AtomicLong count = new AtomicLong();
+    try {
+      cacheStore.forEachId(
+          id -> {
+            if (!removedDuringRebuild.contains(id)) {
+              next.add(id);
+              count.incrementAndGet();
+            }
+          });
+      filter = next;
+      if (shared) {
+        coversRemoteWrites = remoteWritesTracked && trackingChanges.get() == tracking;
+      }
+      ready = true;
+      log.info("Cache key Bloom filter rebuilt with {} ids", count.get());
+      saveSnapshot();
+    } catch (Exception e) {
+      log.warn("Could not rebuild cache key Bloom filter: {}", e.getMessage());
+    } finally {
+      rebuilding = null;
+      removedDuringRebuild.clear();
+    }
+  }
+
+  @PreDestroy
+  public void saveSnapshot() {
+    if (!isEnabled() || !persistToRedis || !ready || redisTemplate == null) {
+      return;
+    }
+    try {
+      redisTemplate
+          .opsForValue()
+          .set(SNAPSHOT_KEY, Base64.getEncoder().encodeToString(filter.toBytes()));
+    } catch (Exception e) {
+      log.warn("Could not persist cache key Bloom filter: {}", e.getMessage());
+    }
+  }
+
+  private boolean loadSnapshot() {
+    if (!persistToRedis || redisTemplate == null) {
+      return false;
+    }
+    try {
+      Object snapshot = redisTemplate.opsForValue().get(SNAPSHOT_KEY);
+      if (snapshot == null) {
+        return false;
+      }
+      filter = CountingBloomFilter.fromBytes(Base64.getDecoder().decode(snapshot.toString()));
+      ready = true;
+      log.info("Loaded cache key Bloom filter snapshot from Redis");
+      return true;
+    } catch (Exception e) {
+      log.warn("Could not load cache key Bloom filter snapshot: {}", e.getMessage());
+      return false;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.llmcache.service.index;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+
+/**
+ * Ordered log of cache entry writes and deletions, shared by all instances.
+ *
+ * <p>Positions are opaque strings that only the implementation compares. The log is used to bring
+ * an index restored from a snapshot up to date, and to pick up writes made by other instances.
+ */
+public interface ChangeLog {
+
+  /** Records that an entry was written or deleted */
+  void append(String id, boolean removed);
+
+  /** Records several writes or deletions, in one round trip where possible */
+  default void appendAll(Collection<String> ids, boolean removed) {
+    for (String id : ids) {
+      append(id, removed);
+    }
+  }
+
+  /** Returns the position of the latest change */
+  String currentPosition();
+
+  /** Returns true if every change after the position is still retained */
+  boolean covers(String position);
+
+  /**
+   * Reads changes after a position, oldest first.
+   *
+   * @param position Position to read after
+   * @param limit Maximum number of changes to read
+   * @param action Called with the entry id and whether it was deleted, for every change not
+   *     appended by this process
+   * @return The position of the last change read, or the given position if there was none
+   */
+  String readAfter(String position, int limit, BiConsumer<String, Boolean> action);
+
+  /** Discards old changes beyond the retention limit */
+  void trim();
+}
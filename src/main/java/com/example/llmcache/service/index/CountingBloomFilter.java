@@ -0,0 +1,128 @@
+package com.example.llmcache.service.index;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Counting Bloom filter over string keys.
+ *
+ * <p>Each slot is an 8-bit counter instead of a single bit, so keys can be removed again when the
+ * corresponding cache entry is evicted. Counters saturate at 255 and are never decremented once
+ * saturated, which keeps the filter free of false negatives at the cost of a slightly higher false
+ * positive rate for extremely hot slots.
+ *
+ * <p>Writes are synchronized so no increment is lost; reads are lock-free.
+ */
+public class CountingBloomFilter {
+
+  private static final int SATURATED = 0xFF;
+
+  private final byte[] counters;
+  private final int numHashes;
+
+  /**
+   * Creates a filter sized for the given load.
+   *
+   * @param expectedEntries Number of keys the filter should hold at the target error rate
+   * @param falsePositiveRate Target false positive probability, between 0 and 1
+   */
+  public CountingBloomFilter(long expectedEntries, double falsePositiveRate) {
+    if (expectedEntries <= 0) {
+      throw new IllegalArgumentException("Expected entries must be positive");
+    }
+    if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+      throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+    }
+    double ln2 = Math.log(2);
+    long slots = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+    this.counters = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(64, slots))];
+    this.numHashes =
+        Math.max(1, (int) Math.round((double) counters.length / expectedEntries * ln2));
+  }
+
+  private CountingBloomFilter(byte[] counters, int numHashes) {
+    this.counters = counters;
+    this.numHashes = numHashes;
+  }
+
+  public synchronized void add(String key) {
+    long h1 = hash(key, 0x9E3779B97F4A7C15L);
+    long h2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+    for (int i = 0; i < numHashes; i++) {
+      int slot = slot(h1, h2, i);
+      int count = counters[slot] & 0xFF;
+      if (count < SATURATED) {
+        counters[slot] = (byte) (count + 1);
+      }
+    }
+  }
+
+  /** Removes a key previously added; keys that were never added must not be removed */
+  public synchronized void remove(String key) {
+    if (!mightContain(key)) {
+      return;
+    }
+    long h1 = hash(key, 0x9E3779B97F4A7C15L);
+    long h2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+    for (int i = 0; i < numHashes; i++) {
+      int slot = slot(h1, h2, i);
+      int count = counters[slot] & 0xFF;
+      if (count > 0 && count < SATURATED) {
+        counters[slot] = (byte) (count - 1);
+      }
+    }
+  }
+
+  /**
+   * @return false if the key is definitely absent, true if it may be present
+   */
+  public boolean mightContain(String key) {
+    long h1 = hash(key, 0x9E3779B97F4A7C15L);
+    long h2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+    for (int i = 0; i < numHashes; i++) {
+      if (counters[slot(h1, h2, i)] == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int getSlotCount() {
+    return counters.length;
+  }
+
+  public int getNumHashes() {
+    return numHashes;
+  }
+
+  /** Serializes the filter for persistence */
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + counters.length);
+    buffer.putInt(numHashes);
+    buffer.put(counters);
+    return buffer.array();
+  }
+
+  /** Restores a filter produced by {@link #toBytes()} */
+  public static CountingBloomFilter fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    int numHashes = buffer.getInt();
+    byte[] counters = new byte[buffer.remaining()];
+    buffer.get(counters);
+    return new CountingBloomFilter(counters, numHashes);
+  }
+
+  private int slot(long h1, long h2, int i) {
+    return (int) Long.remainderUnsigned(h1 + i * h2, counters.length);
+  }
+
+  private static long hash(String key, long seed) {
+    long h = seed;
+    for (int i = 0; i < key.length(); i++) {
+      h = (h ^ key.charAt(i)) * 0x100000001B3L;
+    }
+    // SplitMix64 finalizer
+    h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+    h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+    return h ^ (h >>> 31);
+  }
+}
@@ -0,0 +1,334 @@
+package com.example.llmcache.service.index;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lexical near-duplicate index over character shingles of cached prompts.
+ *
+ * <p>Each prompt is reduced to a MinHash signature; signatures are split into bands and bucketed so
+ * that prompts with a high Jaccard similarity collide in at least one band. A lookup only compares
+ * signatures of colliding prompts, which lets near-verbatim repeats be answered without calling the
+ * embedding provider or scanning vectors.
+ *
+ * <p>The index lives in memory and can optionally mirror its signatures into a Redis hash so a
+ * restarted instance does not need to re-read every cache entry.
+ */
+@Component
+@Slf4j
+public class MinHashLshIndex {
+
+  static final String SIGNATURES_KEY = "llm_lsh:signatures";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+
+  private final Map<String, int[]> signatures = new ConcurrentHashMap<>();
+  private Map<Long, Set<String>>[] buckets;
+  private long[] hashSeeds;
+
+  @Value("${cache.lsh.enabled:true}")
+  private boolean enabled;
+
+  @Value("${cache.lsh.shingle-size:5}")
+  private int shingleSize;
+
+  @Value("${cache.lsh.num-hashes:128}")
+  private int numHashes;
+
+  @Value("${cache.lsh.bands:16}")
+  private int bands;
+
+  @Value("${cache.lsh.threshold:0.9}")
+  private double threshold;
+
+  @Value("${cache.lsh.persist-to-redis:false}")
+  private boolean persistToRedis;
+
+  public MinHashLshIndex(@Nullable RedisTemplate<String, Object> redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  @PostConstruct
+  @SuppressWarnings("unchecked")
+  public void init() {
+    if (!enabled) {
+      log.info("Lexical LSH index disabled");
+      return;
+    }
+    if (numHashes % bands != 0) {
+      throw new IllegalStateException(
+          "cache.lsh.num-hashes (" + numHashes + ") must be divisible by cache.lsh.bands");
+    }
+
+    SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+    hashSeeds = new long[numHashes];
+    for (int i = 0; i < numHashes; i++) {
+      hashSeeds[i] = random.nextLong();
+    }
+
+    buckets = new Map[bands];
+    for (int b = 0; b < bands; b++) {
+      buckets[b] = new ConcurrentHashMap<>();
+    }
+
+    log.info(
+        "Lexical LSH index initialized: {} hashes in {} bands, shingle size {}, threshold {}",
+        numHashes,
+        bands,
+        shingleSize,
+        threshold);
+  }
+
+  public boolean isEnabled() {
+    return enabled && buckets != null;
+  }
+
+  /** Adds or replaces the signature for a cache entry id */
+  public void add(String id, String prompt) {
+    if (!isEnabled() || prompt == null) {
+      return;
+    }
+    int[] signature = signature(prompt);
+    insert(id, signature);
+
+    if (persistToRedis && redisTemplate != null) {
+      try {
+        redisTemplate.opsForHash().put(SIGNATURES_KEY, id, encode(signature));
+      } catch (Exception e) {
+        log.warn("Could not persist LSH signature for {}: {}", id, e.getMessage());
+      }
+    }
+  }
+
+  /** Removes a cache entry id from the index */
+  public void remove(String id) {
+    if (!isEnabled()) {
+      return;
+    }
+    int[] signature = signatures.remove(id);
+    if (signature != null) {
+      for (int b = 0; b < bands; b++) {
+        Set<String> bucket = buckets[b].get(bandKey(signature, b));
+        if (bucket != null) {
+          bucket.remove(id);
+        }
+      }
+    }
+
+    if (persistToRedis && redisTemplate != null) {
+      try {
+        redisTemplate.opsForHash().delete(SIGNATURES_KEY, id);
+      } catch (Exception e) {
+        log.warn("Could not remove persisted LSH signature for {}: {}", id, e.getMessage());
+      }
+    }
+  }
+
+  /** Drops every signature held in memory */
+  public void clear() {
+    if (!isEnabled()) {
+      return;
+    }
+    signatures.clear();
+    for (Map<Long, Set<String>> band : buckets) {
+      band.clear();
+    }
+  }
+
+  /**
+   * Finds the indexed prompt with the highest estimated Jaccard similarity to the given prompt.
+   *
+   * @param prompt The query prompt
+   * @return The best candidate at or above the configured threshold, if any
+   */
+  public Optional<Match> findBestMatch(String prompt) {
+    if (!isEnabled() || prompt == null || signatures.isEmpty()) {
+      return Optional.empty();
+    }
+
+    int[] query = signature(prompt);
+    Set<String> candidates = new HashSet<>();
+    for (int b = 0; b < bands; b++) {
+      Set<String> bucket = buckets[b].get(bandKey(query, b));
+      if (bucket != null) {
+        candidates.addAll(bucket);
+      }
+    }
+
+    String bestId = null;
+    double bestSimilarity = 0.0;
+    for (String candidate : candidates) {
+      int[] other = signatures.get(candidate);
+      if (other == null) {
+        continue;
+      }
+      double similarity = estimateJaccard(query, other);
+      if (similarity > bestSimilarity) {
+        bestSimilarity = similarity;
+        bestId = candidate;
+      }
+    }
+
+    if (bestId != null && bestSimilarity >= threshold) {
+      return Optional.of(new Match(bestId, bestSimilarity));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Loads signatures previously mirrored to Redis.
+   *
+   * @return true if the persisted signatures were used, false if the caller should rebuild the
+   *     index from the cache entries themselves
+   */
+  public boolean loadFromRedis() {
+    if (!isEnabled() || !persistToRedis || redisTemplate == null) {
+      return false;
+    }
+    try {
+      Map<Object, Object> persisted = redisTemplate.opsForHash().entries(SIGNATURES_KEY);
+      if (persisted.isEmpty()) {
+        return false;
+      }
+      for (Map.Entry<Object, Object> e : persisted.entrySet()) {
+        int[] signature = decode(e.getValue().toString());
+        if (signature.length == numHashes) {
+          insert(e.getKey().toString(), signature);
+        }
+      }
+      log.info("Loaded {} LSH signatures from Redis", signatures.size());
+      return true;
+    } catch (Exception e) {
+      log.warn("Could not load LSH signatures from Redis: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  public int size() {
+    return signatures.size();
+  }
+
+  private void insert(String id, int[] signature) {
+    int[] previous = signatures.put(id, signature);
+    for (int b = 0; b < bands; b++) {
+      if (previous != null) {
+        Set<String> old = buckets[b].get(bandKey(previous, b));
+        if (old != null) {
+          old.remove(id);
+        }
+      }
+      buckets[b].computeIfAbsent(bandKey(signature, b), k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+  }
+
+  int[] signature(String prompt) {
+    String text = normalize(prompt);
+    int[] signature = new int[numHashes];
+    Arrays.fill(signature, Integer.MAX_VALUE);
+
+    int limit = Math.max(1, text.length() - shingleSize + 1);
+    for (int start = 0; start < limit; start++) {
+      int end = Math.min(text.length(), start + shingleSize);
+      long shingle = shingleHash(text, start, end);
+      for (int i = 0; i < numHashes; i++) {
+        int h = (int) mix(shingle ^ hashSeeds[i]);
+        if (h < signature[i]) {
+          signature[i] = h;
+        }
+      }
+    }
+    return signature;
+  }
+
+  double estimateJaccard(int[] a, int[] b) {
+    int equal = 0;
+    for (int i = 0; i < a.length; i++) {
+      if (a[i] == b[i]) {
+        equal++;
+      }
+    }
+    return (double) equal / a.length;
+  }
+
+  private long bandKey(int[] signature, int band) {
+    int rows = numHashes / bands;
+    long key = band;
+    for (int i = band * rows; i < (band + 1) * rows; i++) {
+      key = key * 31 + signature[i];
+    }
+    return mix(key);
+  }
+
+  private static String encode(int[] signature) {
+    ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+    buffer.asIntBuffer().put(signature);
+    return Base64.getEncoder().encodeToString(buffer.array());
+  }
+
+  private static int[] decode(String encoded) {
+    ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+    int[] signature = new int[buffer.remaining() / Integer.BYTES];
+    buffer.asIntBuffer().get(signature);
+    return signature;
+  }
+
+  /** Lower-cases and collapses whitespace so formatting differences do not affect shingles */
+  private static String normalize(String prompt) {
+    StringBuilder sb = new StringBuilder(prompt.length());
+    boolean lastWasSpace = true;
+    for (int i = 0; i < prompt.length(); i++) {
+      char c = Character.toLowerCase(prompt.charAt(i));
+      if (Character.isWhitespace(c)) {
+        if (!lastWasSpace) {
+          sb.append(' ');
+          lastWasSpace = true;
+        }
+      } else {
+        sb.append(c);
+        lastWasSpace = false;
+      }
+    }
+    return sb.toString().trim();
+  }
+
+  private static long shingleHash(String text, int start, int end) {
+    long h = 1125899906842597L;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + text.charAt(i);
+    }
+    return h;
+  }
+
+  /** 64-bit finalizer from SplitMix64, used as a cheap family of independent hash functions */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /** A lexical match for a query prompt */
+  @Data
+  @AllArgsConstructor
+  public static class Match {
+    private String id;
+    private double similarity;
+  }
+}
@@ -0,0 +1,140 @@
+package com.example.llmcache.service.index;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Change log kept in the Redis stream {@code llm_changes}, capped at roughly {@code
+ * cache.vector-index.changelog-max-length} entries.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "cache.store.type", havingValue = "redis", matchIfMissing = true)
+public class RedisChangeLog implements ChangeLog {
+
+  static final String STREAM_KEY = "llm_changes";
+  private static final String EMPTY_POSITION = "0-0";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final String origin = UUID.randomUUID().toString();
+
+  @Value("${cache.vector-index.changelog-max-length:1000000}")
+  private long maxLength;
+
+  public RedisChangeLog(RedisTemplate<String, Object> redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  @Override
+  public void append(String id, boolean removed) {
+    try {
+      redisTemplate.opsForStream().add(record(id, removed));
+    } catch (Exception e) {
+      log.warn("Could not append to change log: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public void appendAll(Collection<String> ids, boolean removed) {
+    try {
+      redisTemplate.executePipelined(
+          new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+              RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+              for (String id : ids) {
+                ops.opsForStream().add(record(id, removed));
+              }
+              return null;
+            }
+          });
+    } catch (Exception e) {
+      log.warn("Could not append {} changes to change log: {}", ids.size(), e.getMessage());
+    }
+  }
+
+  private MapRecord<String, Object, Object> record(String id, boolean removed) {
+    return StreamRecords.newRecord()
+        .in(STREAM_KEY)
+        .ofMap(Map.<Object, Object>of("id", id, "op", removed ? "del" : "put", "origin", origin));
+  }
+
+  @Override
+  public String currentPosition() {
+    List<MapRecord<String, Object, Object>> latest =
+        redisTemplate
+            .opsForStream()
+            .reverseRange(STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+    return latest == null || latest.isEmpty() ? EMPTY_POSITION : latest.get(0).getId().getValue();
+  }
+
+  @Override
+  public boolean covers(String position) {
+    List<MapRecord<String, Object, Object>> oldest =
+        redisTemplate.opsForStream().range(STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+    if (oldest == null || oldest.isEmpty()) {
+      return EMPTY_POSITION.equals(position);
+    }
+    return compare(oldest.get(0).getId(), RecordId.of(position)) <= 0;
+  }
+
+  @Override
+  public String readAfter(String position, int limit, BiConsumer<String, Boolean> action) {
+    RecordId after = RecordId.of(position);
+    // Inclusive range, so ask for one extra record to make up for the one at the position itself
+    List<MapRecord<String, Object, Object>> records =
+        redisTemplate
+            .opsForStream()
+            .range(
+                STREAM_KEY,
+                Range.rightUnbounded(Range.Bound.inclusive(position)),
+                Limit.limit().count(limit + 1));
+    String last = position;
+    if (records == null) {
+      return last;
+    }
+    for (MapRecord<String, Object, Object> record : records) {
+      if (compare(record.getId(), after) <= 0) {
+        continue;
+      }
+      last = record.getId().getValue();
+      Map<Object, Object> change = record.getValue();
+      if (!origin.equals(String.valueOf(change.get("origin")))) {
+        action.accept(String.valueOf(change.get("id")), "del".equals(change.get("op")));
+      }
+    }
+    return last;
+  }
+
+  @Override
+  public void trim() {
+    try {
+      redisTemplate.opsForStream().trim(STREAM_KEY, maxLength, true);
+    } catch (Exception e) {
+      log.warn("Could not trim change log: {}", e.getMessage());
+    }
+  }
+
+  private static int compare(RecordId a, RecordId b) {
+    int result = Long.compare(a.getTimestamp(), b.getTimestamp());
+    return result != 0 ? result : Long.compare(a.getSequence(), b.getSequence());
+  }
+}
@@ -0,0 +1,364 @@
+package com.example.llmcache.service.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * In-memory exact nearest-neighbour index over normalized vectors.
+ *
+ * <p>Vectors are kept in one contiguous float array, one slot per entry, so a search is a single
+ * linear pass of dot products without touching the store. Slots of removed entries are reused.
+ *
+ * <p>The dimension is taken from the first vector added to an empty index, so it follows a change
+ * of embedding model once every old vector has been removed.
+ *
+ * <p>The index can be written to and restored from a binary snapshot file. Loading maps the file
+ * and copies the vector block in bulk, with no per-entry parsing beyond the ids.
+ */
+public class VectorIndex {
+
+  private static final int MAGIC = 0x56494458; // "VIDX"
+  private static final int VERSION = 2;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Integer> slots = new HashMap<>();
+
+  private int dimension;
+  private float[] vectors = new float[0];
+  private String[] ids = new String[0];
+  private int[] freeSlots = new int[0];
+  private int freeCount;
+  private int used;
+
+  /**
+   * Adds or replaces the vector of an entry.
+   *
+   * @return false if the vector is empty or does not match the dimension of the index
+   */
+  public boolean add(String id, float[] vector) {
+    float[] normalized = normalize(vector);
+    lock.writeLock().lock();
+    try {
+      if (normalized == null) {
+        return false;
+      }
+      if (slots.isEmpty() && normalized.length != dimension) {
+        resetSlots();
+        dimension = normalized.length;
+      } else if (normalized.length != dimension) {
+        return false;
+      }
+      Integer slot = slots.get(id);
+      if (slot == null) {
+        slot = allocateSlot();
+        slots.put(id, slot);
+        ids[slot] = id;
+      }
+      System.arraycopy(normalized, 0, vectors, slot * dimension, dimension);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(String id) {
+    lock.writeLock().lock();
+    try {
+      Integer slot = slots.remove(id);
+      if (slot != null) {
+        ids[slot] = null;
+        if (freeCount == freeSlots.length) {
+          freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeSlots.length * 2));
+        }
+        freeSlots[freeCount++] = slot;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean contains(String id) {
+    lock.readLock().lock();
+    try {
+      return slots.containsKey(id);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the entry most similar to the query by cosine similarity.
+   *
+   * @param query Query vector
+   * @param threshold Minimum similarity for a match
+   * @param excludeId Entry id to skip, or null
+   */
+  public Optional<Match> search(float[] query, double threshold, String excludeId) {
+    float[] normalized = normalize(query);
+    lock.readLock().lock();
+    try {
+      if (normalized == null || normalized.length != dimension) {
+        return Optional.empty();
+      }
+      String bestId = null;
+      double best = threshold;
+      for (int slot = 0; slot < used; slot++) {
+        String id = ids[slot];
+        if (id == null || id.equals(excludeId)) {
+          continue;
+        }
+        int offset = slot * dimension;
+        double dot = 0.0;
+        for (int i = 0; i < dimension; i++) {
+          dot += normalized[i] * vectors[offset + i];
+        }
+        if (dot >= best && (bestId == null || dot > best)) {
+          best = dot;
+          bestId = id;
+        }
+      }
+      return bestId != null ? Optional.of(new Match(bestId, best)) : Optional.empty();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return slots.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      resetSlots();
+      dimension = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Drops every slot; must be called with the write lock held */
+  private void resetSlots() {
+    slots.clear();
+    vectors = new float[0];
+    ids = new String[0];
+    freeCount = 0;
+    used = 0;
+  }
+
+  /** Calls the action with the id of every entry in the index */
+  public void forEachId(Consumer<String> action) {
+    String[] snapshot;
+    lock.readLock().lock();
+    try {
+      snapshot = slots.keySet().toArray(new String[0]);
+    } finally {
+      lock.readLock().unlock();
+    }
+    for (String id : snapshot) {
+      action.accept(id);
+    }
+  }
+
+  /**
+   * Writes the index to a file, replacing it atomically.
+   *
+   * @param file Target file
+   * @param position Opaque change log position the snapshot is consistent with
+   * @param embeddingSpace Embedding space the vectors belong to
+   */
+  public void writeSnapshot(Path file, String position, String embeddingSpace) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    CRC32 crc = new CRC32();
+    lock.readLock().lock();
+    try (FileChannel channel =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      byte[] positionBytes = position.getBytes(StandardCharsets.UTF_8);
+      byte[] spaceBytes = embeddingSpace.getBytes(StandardCharsets.UTF_8);
+      ByteBuffer header =
+          ByteBuffer.allocate(6 * Integer.BYTES + positionBytes.length + spaceBytes.length);
+      header.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(slots.size());
+      header.putInt(positionBytes.length).put(positionBytes);
+      header.putInt(spaceBytes.length).put(spaceBytes).flip();
+      write(channel, header, crc);
+
+      int[] order = new int[slots.size()];
+      ByteBuffer idBuffer = ByteBuffer.allocate(64 * 1024);
+      int n = 0;
+      for (int slot = 0; slot < used; slot++) {
+        if (ids[slot] == null) {
+          continue;
+        }
+        order[n++] = slot;
+        byte[] idBytes = ids[slot].getBytes(StandardCharsets.UTF_8);
+        if (idBuffer.remaining() < Short.BYTES + idBytes.length) {
+          write(channel, idBuffer.flip(), crc);
+          idBuffer.clear();
+        }
+        idBuffer.putShort((short) idBytes.length).put(idBytes);
+      }
+      write(channel, idBuffer.flip(), crc);
+
+      ByteBuffer vectorBuffer = ByteBuffer.allocate(Math.max(1, dimension) * Float.BYTES * 256);
+      for (int i = 0; i < n; i++) {
+        if (vectorBuffer.remaining() < dimension * Float.BYTES) {
+          write(channel, vectorBuffer.flip(), crc);
+          vectorBuffer.clear();
+        }
+        vectorBuffer.asFloatBuffer().put(vectors, order[i] * dimension, dimension);
+        vectorBuffer.position(vectorBuffer.position() + dimension * Float.BYTES);
+      }
+      write(channel, vectorBuffer.flip(), crc);
+
+      ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).flip();
+      channel.write(trailer);
+      channel.force(true);
+    } finally {
+      lock.readLock().unlock();
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Replaces the contents of the index with a snapshot.
+   *
+   * @return The change log position and embedding space stored with the snapshot
+   * @throws IOException if the file cannot be read, is corrupt or was written by another version
+   */
+  public SnapshotHeader loadSnapshot(Path file) throws IOException {
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (mapped.capacity() < 6 * Integer.BYTES + Long.BYTES) {
+      throw new IOException("Snapshot is truncated");
+    }
+    CRC32 crc = new CRC32();
+    crc.update(mapped.slice(0, mapped.capacity() - Long.BYTES));
+    if (crc.getValue() != mapped.getLong(mapped.capacity() - Long.BYTES)) {
+      throw new IOException("Snapshot checksum mismatch");
+    }
+    if (mapped.getInt() != MAGIC) {
+      throw new IOException("Not a vector index snapshot");
+    }
+    if (mapped.getInt() != VERSION) {
+      throw new IOException("Unsupported vector index snapshot version");
+    }
+    int snapshotDimension = mapped.getInt();
+    int count = mapped.getInt();
+    byte[] positionBytes = new byte[mapped.getInt()];
+    mapped.get(positionBytes);
+    byte[] spaceBytes = new byte[mapped.getInt()];
+    mapped.get(spaceBytes);
+
+    String[] snapshotIds = new String[count];
+    for (int i = 0; i < count; i++) {
+      byte[] idBytes = new byte[mapped.getShort()];
+      mapped.get(idBytes);
+      snapshotIds[i] = new String(idBytes, StandardCharsets.UTF_8);
+    }
+    float[] snapshotVectors = new float[count * snapshotDimension];
+    mapped
+        .slice(mapped.position(), snapshotVectors.length * Float.BYTES)
+        .asFloatBuffer()
+        .get(snapshotVectors);
+
+    lock.writeLock().lock();
+    try {
+      slots.clear();
+      for (int i = 0; i < count; i++) {
+        slots.put(snapshotIds[i], i);
+      }
+      dimension = snapshotDimension;
+      vectors = snapshotVectors;
+      ids = snapshotIds;
+      freeSlots = new int[0];
+      freeCount = 0;
+      used = count;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return new SnapshotHeader(
+        new String(positionBytes, StandardCharsets.UTF_8),
+        new String(spaceBytes, StandardCharsets.UTF_8));
+  }
+
+  private int allocateSlot() {
+    if (freeCount > 0) {
+      return freeSlots[--freeCount];
+    }
+    if (used == ids.length) {
+      int capacity = Math.max(64, ids.length + (ids.length >> 1));
+      ids = Arrays.copyOf(ids, capacity);
+      vectors = Arrays.copyOf(vectors, capacity * dimension);
+    }
+    return used++;
+  }
+
+  private static float[] normalize(float[] vector) {
+    if (vector == null || vector.length == 0) {
+      return null;
+    }
+    double norm = 0.0;
+    for (float v : vector) {
+      norm += v * v;
+    }
+    if (norm == 0.0) {
+      return null;
+    }
+    float scale = (float) (1.0 / Math.sqrt(norm));
+    float[] normalized = new float[vector.length];
+    for (int i = 0; i < vector.length; i++) {
+      normalized[i] = vector[i] * scale;
+    }
+    return normalized;
+  }
+
+  private static void write(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+    crc.update(buffer.duplicate());
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /** Change log position and embedding space a snapshot was written with */
+  public record SnapshotHeader(String position, String embeddingSpace) {}
+
+  /** An index entry similar to the query */
+  @Data
+  @AllArgsConstructor
+  public static class Match {
+    private String id;
+    private double similarity;
+  }
+}
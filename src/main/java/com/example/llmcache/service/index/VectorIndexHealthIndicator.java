@@ -0,0 +1,29 @@
+package com.example.llmcache.service.index;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/** Reports the instance out of service until the in-memory vector index has been loaded */
+@Component
+public class VectorIndexHealthIndicator implements HealthIndicator {
+
+  private final VectorIndexManager manager;
+
+  public VectorIndexHealthIndicator(VectorIndexManager manager) {
+    this.manager = manager;
+  }
+
+  @Override
+  public Health health() {
+    if (!manager.isEnabled()) {
+      return Health.up().withDetail("enabled", false).build();
+    }
+    Health.Builder builder = manager.isReady() ? Health.up() : Health.outOfService();
+    return builder
+        .withDetail("vectors", manager.size())
+        .withDetail("source", manager.getLoadSource())
+        .withDetail("loadMillis", manager.getLoadMillis())
+        .build();
+  }
+}
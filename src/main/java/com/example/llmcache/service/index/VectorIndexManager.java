@@ -0,0 +1,394 @@
+package com.example.llmcache.service.index;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+import com.example.llmcache.service.store.CacheStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the in-process {@link VectorIndex} in sync with the store and restarts it warm.
+ *
+ * <p>The index is written to a snapshot file periodically and on shutdown, tagged with the change
+ * log position it has been synced to. At startup the snapshot is mapped back in and only the
+ * changes logged since that position are replayed. Without a usable snapshot, or when the change
+ * log has been trimmed past its position, the index is rebuilt from a full walk of the store. When
+ * running without a change log (the embedded store) the snapshot is reconciled against the store's
+ * ids instead.
+ *
+ * <p>Only vectors in the embedding space of the current embedding provider are indexed. A snapshot
+ * written under another space is discarded and the index rebuilt from the store, skipping entries
+ * embedded by another model.
+ *
+ * <p>Entries that expire in the store are never logged, so before each periodic snapshot the index
+ * is pruned of ids the store no longer holds.
+ *
+ * <p>Lookups fall back to scanning the store until the index is loaded; {@link #isReady()} drives
+ * the readiness health indicator.
+ */
+@Component
+@Slf4j
+public class VectorIndexManager {
+
+  private static final int REPLAY_BATCH_SIZE = 1000;
+  private static final long WARMUP_RETRY_MS = 30000;
+
+  private final CacheStore cacheStore;
+  private final ChangeLog changeLog;
+  private final UnderlyingLlmProviderService providerService;
+  private final VectorIndex index = new VectorIndex();
+
+  // Local changes made while warming up, applied once the index is loaded; null when ready
+  private List<Runnable> deferred = new ArrayList<>();
+  private volatile boolean ready;
+  private volatile String syncPosition;
+  private volatile String loadSource = "none";
+  private volatile long loadMillis;
+  private final AtomicLong replayedChanges = new AtomicLong(0);
+
+  @Value("${cache.vector-index.enabled:false}")
+  private boolean enabled;
+
+  @Value("${cache.vector-index.snapshot-path:./data/vector-index.snapshot}")
+  private String snapshotPath;
+
+  /**
+   * @param cacheStore Store holding the vectors
+   * @param changeLog Log of changes made by every instance, or null when there is none
+   * @param providerService Source of the embedding space vectors must belong to
+   */
+  public VectorIndexManager(
+      CacheStore cacheStore,
+      @Nullable ChangeLog changeLog,
+      UnderlyingLlmProviderService providerService) {
+    this.cacheStore = cacheStore;
+    this.changeLog = changeLog;
+    this.providerService = providerService;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!enabled) {
+      log.info("In-memory vector index disabled");
+      return;
+    }
+    CompletableFuture.runAsync(this::warmUp);
+  }
+
+  private void warmUp() {
+    try {
+      long started = System.currentTimeMillis();
+      load();
+      synchronized (this) {
+        deferred.forEach(Runnable::run);
+        deferred = null;
+        ready = true;
+      }
+      loadMillis = System.currentTimeMillis() - started;
+      log.info(
+          "Vector index ready with {} vectors from {} in {} ms ({} changes replayed)",
+          index.size(),
+          loadSource,
+          loadMillis,
+          replayedChanges.get());
+    } catch (Exception e) {
+      log.warn(
+          "Could not load vector index, retrying in {} ms: {}", WARMUP_RETRY_MS, e.getMessage());
+      CompletableFuture.runAsync(
+          this::warmUp, CompletableFuture.delayedExecutor(WARMUP_RETRY_MS, TimeUnit.MILLISECONDS));
+    }
+  }
+
+  private void load() {
+    String position = loadSnapshot();
+    if (position != null && changeLog == null) {
+      reconcile();
+      syncPosition = "";
+      loadSource = "snapshot";
+    } else if (position != null && changeLog.covers(position)) {
+      syncPosition = replay(position);
+      loadSource = "snapshot";
+    } else {
+      // Take the position first so changes made during the walk are replayed afterwards
+      String start = changeLog != null ? changeLog.currentPosition() : "";
+      index.clear();
+      cacheStore.forEach(
+          entry -> {
+            if (providerService.isInEmbeddingSpace(entry)) {
+              index.add(entry.getId(), entry.getVector());
+            }
+          });
+      syncPosition = changeLog != null ? replay(start) : start;
+      loadSource = "store";
+    }
+  }
+
+  private String loadSnapshot() {
+    Path file = Path.of(snapshotPath);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try {
+      VectorIndex.SnapshotHeader header = index.loadSnapshot(file);
+      String space = providerService.getEmbeddingSpace();
+      if (!header.embeddingSpace().equals(space)) {
+        log.info(
+            "Vector index snapshot was written for embedding space {}, rebuilding for {}",
+            header.embeddingSpace(),
+            space);
+        index.clear();
+        return null;
+      }
+      return header.position();
+    } catch (Exception e) {
+      log.warn("Ignoring unreadable vector index snapshot {}: {}", file, e.getMessage());
+      index.clear();
+      return null;
+    }
+  }
+
+  /** Applies every logged change after the position and returns the position reached */
+  private String replay(String position) {
+    String current = position;
+    while (true) {
+      AtomicLong applied = new AtomicLong();
+      String next =
+          changeLog.readAfter(
+              current,
+              REPLAY_BATCH_SIZE,
+              (id, removed) -> {
+                applyRemote(id, removed);
+                applied.incrementAndGet();
+              });
+      replayedChanges.addAndGet(applied.get());
+      if (next.equals(current)) {
+        return current;
+      }
+      current = next;
+    }
+  }
+
+  private void applyRemote(String id, boolean removed) {
+    CacheEntry entry = removed ? null : cacheStore.get(id);
+    if (entry == null
+        || !providerService.isInEmbeddingSpace(entry)
+        || !index.add(id, entry.getVector())) {
+      index.remove(id);
+    }
+  }
+
+  /** Drops snapshot ids that are gone from the store and adds the ones written since */
+  private void reconcile() {
+    Set<String> live = new HashSet<>();
+    cacheStore.forEachId(live::add);
+    index.forEachId(
+        id -> {
+          if (!live.remove(id)) {
+            index.remove(id);
+          }
+        });
+    for (String id : live) {
+      applyRemote(id, false);
+    }
+    replayedChanges.addAndGet(live.size());
+  }
+
+  /**
+   * Drops indexed ids the store no longer holds, such as entries that expired.
+   *
+   * @return The number of ids dropped
+   */
+  int prune() {
+    if (!ready) {
+      return 0;
+    }
+    // Ids are taken before the walk, so entries written during it are never mistaken for gone
+    List<String> indexed = new ArrayList<>(index.size());
+    index.forEachId(indexed::add);
+    Set<String> live = new HashSet<>();
+    cacheStore.forEachId(live::add);
+    int pruned = 0;
+    for (String id : indexed) {
+      if (!live.contains(id)) {
+        index.remove(id);
+        pruned++;
+      }
+    }
+    if (pruned > 0) {
+      log.debug("Pruned {} vectors of expired or missing entries from the index", pruned);
+    }
+    return pruned;
+  }
+
+  /** Applies changes logged by other instances since the last sync */
+  @Scheduled(
+      initialDelayString = "${cache.vector-index.sync-interval-ms:1000}",
+      fixedDelayString = "${cache.vector-index.sync-interval-ms:1000}")
+  public void sync() {
+    if (!ready || changeLog == null) {
+      return;
+    }
+    try {
+      syncPosition = replay(syncPosition);
+    } catch (Exception e) {
+      log.warn("Could not sync vector index: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(
+      initialDelayString = "${cache.vector-index.snapshot-interval-ms:300000}",
+      fixedDelayString = "${cache.vector-index.snapshot-interval-ms:300000}")
+  public void scheduledSnapshot() {
+    try {
+      prune();
+    } catch (Exception e) {
+      log.warn("Could not prune vector index: {}", e.getMessage());
+    }
+    snapshot();
+    if (ready && changeLog != null) {
+      changeLog.trim();
+    }
+  }
+
+  /**
+   * Writes the index to the snapshot file, tagged with the position it was last synced to, so that
+   * changes logged since are replayed after a restart
+   */
+  @PreDestroy
+  public void snapshot() {
+    if (!ready) {
+      return;
+    }
+    try {
+      long started = System.currentTimeMillis();
+      // Read before writing: the index holds at least every change up to here
+      String position = syncPosition;
+      index.writeSnapshot(Path.of(snapshotPath), position, providerService.getEmbeddingSpace());
+      log.debug(
+          "Vector index snapshot of {} vectors written in {} ms",
+          index.size(),
+          System.currentTimeMillis() - started);
+    } catch (Exception e) {
+      log.warn("Could not write vector index snapshot: {}", e.getMessage());
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Finds the entry whose vector is most similar to the query.
+   *
+   * @param excludeId Entry id to skip, or null
+   */
+  public Optional<VectorIndex.Match> search(float[] query, double threshold, String excludeId) {
+    return index.search(query, threshold, excludeId);
+  }
+
+  /**
+   * Records that an entry was written, or rewritten without a vector when the vector is null, and
+   * logs the change for other instances.
+   */
+  public void recordPut(String id, float[] vector) {
+    if (!enabled) {
+      return;
+    }
+    apply(
+        () -> {
+          if (!index.add(id, vector)) {
+            index.remove(id);
+          }
+        });
+    if (changeLog != null) {
+      changeLog.append(id, false);
+    }
+  }
+
+  /** Records that a batch of entries was written and logs the writes in one go */
+  public void recordPuts(Collection<CacheEntry> entries) {
+    if (!enabled) {
+      return;
+    }
+    List<String> ids = new ArrayList<>(entries.size());
+    for (CacheEntry entry : entries) {
+      ids.add(entry.getId());
+      apply(
+          () -> {
+            if (!providerService.isInEmbeddingSpace(entry)
+                || !index.add(entry.getId(), entry.getVector())) {
+              index.remove(entry.getId());
+            }
+          });
+    }
+    if (changeLog != null) {
+      changeLog.appendAll(ids, false);
+    }
+  }
+
+  /** Records that entries were deleted and logs the deletions for other instances */
+  public void recordRemoval(Collection<String> ids) {
+    if (!enabled) {
+      return;
+    }
+    for (String id : ids) {
+      apply(() -> index.remove(id));
+    }
+    if (changeLog != null) {
+      changeLog.appendAll(ids, true);
+    }
+  }
+
+  /** Drops an entry that expired or was found missing, without logging it */
+  public void forget(String id) {
+    if (enabled) {
+      apply(() -> index.remove(id));
+    }
+  }
+
+  private void apply(Runnable change) {
+    synchronized (this) {
+      if (deferred != null) {
+        deferred.add(change);
+        return;
+      }
+    }
+    change.run();
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  public String getLoadSource() {
+    return loadSource;
+  }
+
+  public long getLoadMillis() {
+    return loadMillis;
+  }
+}
@@ -0,0 +1,157 @@
+package com.example.llmcache.service.llmprovider;
+
+import java.util.Arrays;
+
+/**
+ * In-process text vectorizer based on the hashing trick.
+ *
+ * <p>Word unigrams, word bigrams and character trigrams within words are hashed into a fixed number
+ * of signed buckets. Term frequencies are damped logarithmically and common English stopwords get a
+ * low static weight, which approximates IDF without a corpus-dependent table that would make the
+ * vectors of already cached prompts drift over time. The result is L2-normalized so cosine
+ * similarity behaves like it does for model embeddings.
+ *
+ * <p>Tokenization works directly on the input characters with rolling hashes, so {@link
+ * #vectorize(CharSequence, float[])} performs no allocation at all and the caller may reuse its
+ * output buffer.
+ */
+public final class HashingVectorizer {
+
+  private static final long WORD_SALT = 0x9E3779B97F4A7C15L;
+  private static final long BIGRAM_SALT = 0xC2B2AE3D27D4EB4FL;
+  private static final long TRIGRAM_SALT = 0x165667B19E3779F9L;
+
+  private static final float UNIGRAM_WEIGHT = 1.0f;
+  private static final float BIGRAM_WEIGHT = 0.7f;
+  private static final float TRIGRAM_WEIGHT = 0.3f;
+  private static final float STOPWORD_WEIGHT = 0.1f;
+
+  private static final char NONE = '\0';
+  private static final char BOUNDARY = '\u0001';
+
+  private static final long[] STOPWORD_HASHES =
+      hashAll(
+          "a", "an", "and", "are", "as", "at", "be", "but", "by", "can", "do", "does", "for",
+          "from", "how", "i", "if", "in", "is", "it", "me", "my", "of", "on", "or", "please", "so",
+          "that", "the", "this", "to", "was", "what", "when", "where", "which", "who", "why",
+          "with", "you", "your");
+
+  private final int dimension;
+
+  public HashingVectorizer(int dimension) {
+    if (dimension <= 0) {
+      throw new IllegalArgumentException("Dimension must be positive");
+    }
+    this.dimension = dimension;
+  }
+
+  public int getDimension() {
+    return dimension;
+  }
+
+  /** Vectorizes the text into a newly allocated array */
+  public float[] vectorize(CharSequence text) {
+    float[] vector = new float[dimension];
+    vectorize(text, vector);
+    return vector;
+  }
+
+  /**
+   * Vectorizes the text into the given buffer, overwriting its contents.
+   *
+   * @param text The input text
+   * @param out Output buffer of exactly {@link #getDimension()} elements
+   */
+  public void vectorize(CharSequence text, float[] out) {
+    if (out.length != dimension) {
+      throw new IllegalArgumentException("Output buffer must have length " + dimension);
+    }
+    Arrays.fill(out, 0f);
+
+    long word = 0;
+    int wordLength = 0;
+    long previousWord = 0;
+    boolean hasPreviousWord = false;
+    char c1 = NONE;
+    char c2 = BOUNDARY;
+
+    int length = text.length();
+    for (int i = 0; i <= length; i++) {
+      char c = i < length ? text.charAt(i) : ' ';
+      if (Character.isLetterOrDigit(c)) {
+        c = Character.toLowerCase(c);
+        if (c1 != NONE) {
+          addTrigram(out, c1, c2, c);
+        }
+        c1 = c2;
+        c2 = c;
+        word = word * 31 + c;
+        wordLength++;
+      } else if (wordLength > 0) {
+        addTrigram(out, c1, c2, BOUNDARY);
+        add(out, mix(word ^ WORD_SALT), isStopword(word) ? STOPWORD_WEIGHT : UNIGRAM_WEIGHT);
+        if (hasPreviousWord) {
+          add(out, mix((previousWord * 0x100000001B3L) ^ word ^ BIGRAM_SALT), BIGRAM_WEIGHT);
+        }
+        previousWord = word;
+        hasPreviousWord = true;
+        word = 0;
+        wordLength = 0;
+        c1 = NONE;
+        c2 = BOUNDARY;
+      }
+    }
+
+    double norm = 0.0;
+    for (int i = 0; i < dimension; i++) {
+      float v = out[i];
+      if (v != 0f) {
+        // Sublinear term frequency keeps repeated words from dominating the vector
+        v = (float) (Math.signum(v) * Math.log1p(Math.abs(v)));
+        out[i] = v;
+        norm += v * v;
+      }
+    }
+    if (norm > 0.0) {
+      float scale = (float) (1.0 / Math.sqrt(norm));
+      for (int i = 0; i < dimension; i++) {
+        out[i] *= scale;
+      }
+    }
+  }
+
+  private void addTrigram(float[] out, char a, char b, char c) {
+    long h = ((long) a << 32) | ((long) b << 16) | c;
+    add(out, mix(h ^ TRIGRAM_SALT), TRIGRAM_WEIGHT);
+  }
+
+  /** Adds a signed feature; the sign bit halves the bias introduced by bucket collisions */
+  private void add(float[] out, long hash, float weight) {
+    int bucket = (int) Long.remainderUnsigned(hash >>> 1, dimension);
+    out[bucket] += (hash & 1L) == 0 ? weight : -weight;
+  }
+
+  private static boolean isStopword(long wordHash) {
+    return Arrays.binarySearch(STOPWORD_HASHES, wordHash) >= 0;
+  }
+
+  private static long[] hashAll(String... words) {
+    long[] hashes = new long[words.length];
+    for (int i = 0; i < words.length; i++) {
+      long h = 0;
+      for (int j = 0; j < words[i].length(); j++) {
+        h = h * 31 + words[i].charAt(j);
+      }
+      hashes[i] = h;
+    }
+    Arrays.sort(hashes);
+    return hashes;
+  }
+
+  /** 64-bit finalizer from SplitMix64 */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,131 @@
+package com.example.llmcache.service.llmprovider;
+
+import java.util.SplittableRandom;
+
+/**
+ * A latency distribution in milliseconds, parsed from a short spec:
+ *
+ * <ul>
+ *   <li>{@code 0}: no delay
+ *   <li>{@code fixed:<ms>}
+ *   <li>{@code uniform:<min>,<max>}
+ *   <li>{@code normal:<mean>,<stddev>}, truncated at 0
+ *   <li>{@code lognormal:<median>,<p99>}, the long-tailed shape of real model latencies
+ * </ul>
+ */
+public final class LatencyDistribution {
+
+  // Standard normal quantile at 0.99
+  private static final double Z_99 = 2.3263478740408408;
+
+  private final String spec;
+  private final Kind kind;
+  private final double a;
+  private final double b;
+
+  private enum Kind {
+    FIXED,
+    UNIFORM,
+    NORMAL,
+    LOGNORMAL
+  }
+
+  private LatencyDistribution(String spec, Kind kind, double a, double b) {
+    this.spec = spec;
+    this.kind = kind;
+    this.a = a;
+    this.b = b;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the spec is not one of the supported forms
+   */
+  public static LatencyDistribution parse(String spec) {
+    String trimmed = spec == null ? "" : spec.trim();
+    if (trimmed.isEmpty() || trimmed.equals("0")) {
+      return new LatencyDistribution("0", Kind.FIXED, 0, 0);
+    }
+    int colon = trimmed.indexOf(':');
+    if (colon < 0) {
+      throw new IllegalArgumentException("Invalid latency distribution: " + spec);
+    }
+    String name = trimmed.substring(0, colon).trim();
+    String[] args = trimmed.substring(colon + 1).split(",");
+    try {
+      switch (name) {
+        case "fixed":
+          requireArgs(spec, args, 1);
+          return new LatencyDistribution(trimmed, Kind.FIXED, nonNegative(spec, args[0]), 0);
+        case "uniform":
+          requireArgs(spec, args, 2);
+          double min = nonNegative(spec, args[0]);
+          double max = nonNegative(spec, args[1]);
+          if (max < min) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + spec);
+          }
+          return new LatencyDistribution(trimmed, Kind.UNIFORM, min, max);
+        case "normal":
+          requireArgs(spec, args, 2);
+          return new LatencyDistribution(
+              trimmed, Kind.NORMAL, nonNegative(spec, args[0]), nonNegative(spec, args[1]));
+        case "lognormal":
+          requireArgs(spec, args, 2);
+          double median = nonNegative(spec, args[0]);
+          double p99 = nonNegative(spec, args[1]);
+          if (median <= 0 || p99 < median) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + spec);
+          }
+          double mu = Math.log(median);
+          return new LatencyDistribution(trimmed, Kind.LOGNORMAL, mu, (Math.log(p99) - mu) / Z_99);
+        default:
+          throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid latency distribution: " + spec, e);
+    }
+  }
+
+  /** Draws a latency in milliseconds */
+  public long sampleMillis(SplittableRandom random) {
+    double millis;
+    switch (kind) {
+      case UNIFORM:
+        millis = a + random.nextDouble() * (b - a);
+        break;
+      case NORMAL:
+        millis = a + gaussian(random) * b;
+        break;
+      case LOGNORMAL:
+        millis = Math.exp(a + gaussian(random) * b);
+        break;
+      default:
+        millis = a;
+    }
+    return Math.max(0, Math.round(millis));
+  }
+
+  @Override
+  public String toString() {
+    return spec;
+  }
+
+  private static double gaussian(SplittableRandom random) {
+    // Box-Muller; 1 - nextDouble() keeps the log argument in (0, 1]
+    return Math.sqrt(-2.0 * Math.log(1.0 - random.nextDouble()))
+        * Math.cos(2.0 * Math.PI * random.nextDouble());
+  }
+
+  private static void requireArgs(String spec, String[] args, int count) {
+    if (args.length != count) {
+      throw new IllegalArgumentException("Invalid latency distribution: " + spec);
+    }
+  }
+
+  private static double nonNegative(String spec, String value) {
+    double parsed = Double.parseDouble(value.trim());
+    if (parsed < 0 || Double.isNaN(parsed)) {
+      throw new IllegalArgumentException("Invalid latency distribution: " + spec);
+    }
+    return parsed;
+  }
+}
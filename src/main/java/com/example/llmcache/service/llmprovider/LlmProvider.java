@@ -1,5 +1,7 @@
 package com.example.llmcache.service.llmprovider;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -14,6 +16,29 @@ public interface LlmProvider {
    */
   CompletableFuture<float[]> getVector(String text);
 
+  /**
+   * Generate vector representations for several texts. Providers with a batch API should override
+   * this; the default issues one request per text concurrently.
+   *
+   * @param texts The input texts
+   * @return A CompletableFuture containing one vector per text, in input order
+   */
+  default CompletableFuture<List<float[]>> getVectors(List<String> texts) {
+    List<CompletableFuture<float[]>> futures = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      futures.add(getVector(text));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .thenApply(
+            ignored -> {
+              List<float[]> vectors = new ArrayList<>(futures.size());
+              for (CompletableFuture<float[]> future : futures) {
+                vectors.add(future.join());
+              }
+              return vectors;
+            });
+  }
+
   /**
    * Generate a chat/completion response for the given prompt
    *
@@ -23,6 +48,16 @@ public interface LlmProvider {
    */
   CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options);
 
+  /**
+   * Whether this provider can generate completions. Providers that only embed are never chosen for
+   * generation.
+   *
+   * @return true if {@link #generateResponse} is supported
+   */
+  default boolean supportsGeneration() {
+    return true;
+  }
+
   /**
    * Get the dimension size of vectors produced by this provider
    *
@@ -30,6 +65,16 @@ public interface LlmProvider {
    */
   int getVectorDimension();
 
+  /**
+   * Get the name of the model that produces this provider's vectors. Vectors from different models
+   * are not comparable even when their dimensions match.
+   *
+   * @return Embedding model name
+   */
+  default String getEmbeddingModel() {
+    return "default";
+  }
+
   /**
    * Get the name/identifier of this provider
    *
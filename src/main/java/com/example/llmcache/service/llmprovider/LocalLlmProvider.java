@@ -0,0 +1,73 @@
+package com.example.llmcache.service.llmprovider;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process embedding provider for offline and edge deployments.
+ *
+ * <p>Vectors are computed locally with a {@link HashingVectorizer}, so embedding takes well under a
+ * millisecond and never touches the network. This provider cannot generate completions; it is meant
+ * to be used as the embedder in front of a remote generation provider, or on its own to serve a
+ * prewarmed cache.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "llmprovider.local.enabled", havingValue = "true")
+public class LocalLlmProvider implements LlmProvider {
+
+  private HashingVectorizer vectorizer;
+
+  @Value("${llmprovider.local.dimension:384}")
+  private int vectorDimension;
+
+  @PostConstruct
+  private void initializeVectorizer() {
+    this.vectorizer = new HashingVectorizer(vectorDimension);
+    log.info("Local provider initialized with dimension: {}", vectorDimension);
+  }
+
+  @Override
+  public CompletableFuture<float[]> getVector(String text) {
+    if (text == null || text.trim().isEmpty()) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("Text cannot be null or empty"));
+    }
+
+    return CompletableFuture.completedFuture(vectorizer.vectorize(text));
+  }
+
+  @Override
+  public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
+    return CompletableFuture.failedFuture(
+        new UnsupportedOperationException("Local provider only supports embeddings"));
+  }
+
+  @Override
+  public boolean supportsGeneration() {
+    return false;
+  }
+
+  @Override
+  public int getVectorDimension() {
+    return vectorDimension;
+  }
+
+  @Override
+  public String getProviderName() {
+    return "local";
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return vectorizer != null;
+  }
+}
@@ -14,6 +14,7 @@ import org.springframework.web.reactive.function.client.WebClient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 /** Ollama LLM provider implementation Supports local Ollama servers with vector models */
 @Component
@@ -26,9 +27,15 @@ public class OllamaLlmProvider implements LlmProvider {
   @Value("${llmprovider.ollama.base-url:http://localhost:11434}")
   private String baseUrl;
 
-  @Value("${llmprovider.ollama.model:qwen2.5-coder:3b}")
-  private String model;
+  /** Model for embeddings; {@code llmprovider.ollama.model} unless set */
+  @Value("${llmprovider.ollama.embedding-model:${llmprovider.ollama.model:qwen2.5-coder:3b}}")
+  private String embeddingModel;
 
+  /** Model for generation; {@code llmprovider.ollama.model} unless set */
+  @Value("${llmprovider.ollama.generation-model:${llmprovider.ollama.model:qwen2.5-coder:3b}}")
+  private String generationModel;
+
+  /** Dimension of vectors from the embedding model */
   @Value("${llmprovider.ollama.dimension:4096}")
   private int vectorDimension;
 
@@ -38,7 +45,11 @@ public class OllamaLlmProvider implements LlmProvider {
   @PostConstruct
   private void initializeWebClient() {
     this.webClient = WebClient.builder().baseUrl(baseUrl).build();
-    log.info("Ollama provider initialized with base URL: {} and model: {}", baseUrl, model);
+    log.info(
+        "Ollama provider initialized with base URL: {}, embedding model: {}, generation model: {}",
+        baseUrl,
+        embeddingModel,
+        generationModel);
   }
 
   @Override
@@ -53,25 +64,9 @@ public class OllamaLlmProvider implements LlmProvider {
           new IllegalStateException("Ollama provider not available - check configuration"));
     }
 
-    // Try vector endpoint first, fall back to chat completions
-    return tryVectorEndpoint(text)
-        .exceptionally(
-            ex -> {
-              log.warn("Vector endpoint failed, trying chat completions: {}", ex.getMessage());
-              return null; // Signal failure to trigger fallback
-            })
-        .thenCompose(
-            result -> {
-              if (result == null) {
-                return tryCompletionsEndpoint(text);
-              }
-              return CompletableFuture.completedFuture(result);
-            });
-  }
-
-  /** Try the native Ollama vector endpoint */
-  private CompletableFuture<float[]> tryVectorEndpoint(String text) {
-    VectorRequest request = new VectorRequest(model, text);
+    // Errors reach the caller so the router can count them against the provider; a substitute
+    // vector from another model would not be comparable with the cached ones
+    VectorRequest request = new VectorRequest(embeddingModel, text);
 
     return webClient
         .post()
@@ -80,60 +75,26 @@ public class OllamaLlmProvider implements LlmProvider {
         .bodyValue(request)
         .retrieve()
         .bodyToMono(VectorResponse.class)
-        .map(
+        .flatMap(
             response -> {
-              float[] vector = response != null ? response.getVector() : null;
+              float[] vector = response.getVector();
               if (vector == null) {
-                log.warn("Ollama vector endpoint returned null vector for model: {}", model);
-                return null; // This will trigger the fallback
+                return Mono.error(
+                    new IllegalStateException(
+                        "Ollama returned no vector for model: " + embeddingModel));
               }
-              return vector;
+              return Mono.just(vector);
             })
-        .toFuture()
-        .exceptionally(
-            ex -> {
-              log.error(
-                  "Error getting Ollama vector for text: '{}'",
-                  text.substring(0, Math.min(50, text.length())),
-                  ex);
-              return null; // Return null to trigger fallback instead of throwing
-            });
-  }
-
-  /**
-   * Fallback: Use Ollama's generate endpoint to create consistent vectors This is useful when the
-   * model doesn't have a dedicated embedding endpoint
-   */
-  private CompletableFuture<float[]> tryCompletionsEndpoint(String text) {
-    // For models without embedding support, generate a deterministic vector
-    // based on the text content using a hash-based approach
-    log.debug(
-        "Using fallback vector generation for text: '{}'",
-        text.substring(0, Math.min(50, text.length())));
-
-    // Simply generate a deterministic vector without calling any API
-    // This ensures we don't accidentally call OpenAI when in Ollama mode
-    return CompletableFuture.completedFuture(generateSimpleVector(text));
-  }
-
-  /** Generate a simple hash-based vector as fallback */
-  private float[] generateSimpleVector(String text) {
-    float[] vector = new float[vectorDimension];
-    int hash = text.hashCode();
-
-    // Generate deterministic pseudo-random values based on text hash
-    for (int i = 0; i < vectorDimension; i++) {
-      hash = hash * 31 + i; // Simple linear congruential generator
-      vector[i] = (float) (Math.sin(hash) * 0.1); // Normalize to small values
-    }
-
-    return vector;
+        .doOnError(ex -> log.warn("Error getting Ollama vector: {}", ex.getMessage()))
+        .toFuture();
   }
 
   @Override
   public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
     String modelToUse =
-        options != null && options.containsKey("model") ? options.get("model").toString() : model;
+        options != null && options.containsKey("model")
+            ? options.get("model").toString()
+            : generationModel;
 
     GenerateRequest request = new GenerateRequest(modelToUse, prompt, false);
 
@@ -145,12 +106,10 @@ public class OllamaLlmProvider implements LlmProvider {
         .retrieve()
         .bodyToMono(GenerateResponse.class)
         .map(response -> response.getResponse())
-        .toFuture()
-        .exceptionally(
-            ex -> {
-              log.error("Error generating response with Ollama", ex);
-              return "Error: " + ex.getMessage();
-            });
+        .doOnError(ex -> log.error("Error generating response with Ollama", ex))
+        .onErrorMap(ex -> new RuntimeException("Ollama completion failed", ex))
+        // Mapped before toFuture so that cancelling the future cancels the request
+        .toFuture();
   }
 
   @Override
@@ -158,6 +117,11 @@ public class OllamaLlmProvider implements LlmProvider {
     return vectorDimension;
   }
 
+  @Override
+  public String getEmbeddingModel() {
+    return embeddingModel;
+  }
+
   @Override
   public String getProviderName() {
     return "ollama";
@@ -165,7 +129,12 @@ public class OllamaLlmProvider implements LlmProvider {
 
   @Override
   public boolean isAvailable() {
-    return baseUrl != null && !baseUrl.trim().isEmpty() && model != null && !model.trim().isEmpty();
+    return baseUrl != null
+        && !baseUrl.trim().isEmpty()
+        && embeddingModel != null
+        && !embeddingModel.trim().isEmpty()
+        && generationModel != null
+        && !generationModel.trim().isEmpty();
   }
 
   // Ollama API models
@@ -1,5 +1,7 @@
 package com.example.llmcache.service.llmprovider;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -14,6 +16,8 @@ import org.springframework.web.reactive.function.client.WebClient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /** OpenAI LLM provider implementation */
 @Component
@@ -21,14 +25,23 @@ import lombok.extern.slf4j.Slf4j;
 @ConditionalOnProperty(name = "llmprovider.openai.api-key", matchIfMissing = false)
 public class OpenAILlmProvider implements LlmProvider {
 
+  /** Most inputs the embeddings API accepts in one request */
+  static final int MAX_BATCH_INPUTS = 2048;
+
+  private static final int MAX_CONCURRENT_BATCHES = 4;
+
   private WebClient webClient;
 
   @Value("${llmprovider.openai.api-key:${OPENAI_API_KEY:}}")
   private String apiKey;
 
-  @Value("${llmprovider.openai.model:text-embedding-ada-002}")
+  /** Model for embeddings; {@code llmprovider.openai.model} unless set */
+  @Value("${llmprovider.openai.embedding-model:${llmprovider.openai.model:text-embedding-ada-002}}")
   private String model;
 
+  @Value("${llmprovider.openai.generation-model:gpt-3.5-turbo}")
+  private String generationModel;
+
   @Value("${llmprovider.openai.base-url:https://api.openai.com/v1}")
   private String baseUrl;
 
@@ -61,15 +74,64 @@ public class OpenAILlmProvider implements LlmProvider {
         .retrieve()
         .bodyToMono(EmbeddingResponse.class)
         .map(response -> response.getData().get(0).getEmbedding())
-        .toFuture()
-        .thenApply(embedding -> (float[]) embedding)
-        .exceptionally(
-            ex -> {
-              log.error(
-                  "Error getting OpenAI vector for text: '{}'",
-                  text.substring(0, Math.min(50, text.length())),
-                  ex);
-              throw new RuntimeException("OpenAI vector generation failed", ex);
+        .doOnError(
+            ex ->
+                log.error(
+                    "Error getting OpenAI vector for text: '{}'",
+                    text.substring(0, Math.min(50, text.length())),
+                    ex))
+        .onErrorMap(ex -> new RuntimeException("OpenAI vector generation failed", ex))
+        // Mapped before toFuture so that cancelling the future cancels the request
+        .toFuture();
+  }
+
+  /** Embeds all texts in a single request to the embeddings endpoint */
+  @Override
+  public CompletableFuture<List<float[]>> getVectors(List<String> texts) {
+    if (!isAvailable()) {
+      return CompletableFuture.failedFuture(
+          new IllegalStateException("OpenAI provider not available - missing API key"));
+    }
+
+    // The API takes a limited number of inputs per request; chunks are sent a few at a time and
+    // their vectors joined in input order
+    List<List<String>> chunks = new ArrayList<>();
+    for (int from = 0; from < texts.size(); from += MAX_BATCH_INPUTS) {
+      chunks.add(texts.subList(from, Math.min(texts.size(), from + MAX_BATCH_INPUTS)));
+    }
+    return Flux.fromIterable(chunks)
+        .flatMapSequential(this::requestVectors, MAX_CONCURRENT_BATCHES)
+        .collectList()
+        .map(
+            results -> {
+              List<float[]> vectors = new ArrayList<>(texts.size());
+              results.forEach(vectors::addAll);
+              return vectors;
+            })
+        .doOnError(ex -> log.error("Error getting OpenAI vectors for {} texts", texts.size(), ex))
+        .onErrorMap(ex -> new RuntimeException("OpenAI vector generation failed", ex))
+        .toFuture();
+  }
+
+  /** Sends one embeddings request and returns its vectors in input order */
+  private Mono<List<float[]>> requestVectors(List<String> texts) {
+    return webClient
+        .post()
+        .uri("/embeddings")
+        .header("Authorization", "Bearer " + apiKey)
+        .header("Content-Type", "application/json")
+        .bodyValue(new BatchEmbeddingRequest(texts, model))
+        .retrieve()
+        .bodyToMono(EmbeddingResponse.class)
+        .map(
+            response -> {
+              List<EmbeddingResponse.EmbeddingData> data = new ArrayList<>(response.getData());
+              data.sort(Comparator.comparingInt(EmbeddingResponse.EmbeddingData::getIndex));
+              List<float[]> vectors = new ArrayList<>(data.size());
+              for (EmbeddingResponse.EmbeddingData item : data) {
+                vectors.add(item.getEmbedding());
+              }
+              return vectors;
             });
   }
 
@@ -78,7 +140,7 @@ public class OpenAILlmProvider implements LlmProvider {
     String modelToUse =
         options != null && options.containsKey("model")
             ? options.get("model").toString()
-            : "gpt-3.5-turbo";
+            : generationModel;
 
     ChatRequest request = new ChatRequest(modelToUse, List.of(new ChatMessage("user", prompt)));
 
@@ -91,12 +153,9 @@ public class OpenAILlmProvider implements LlmProvider {
         .retrieve()
         .bodyToMono(ChatResponse.class)
         .map(response -> response.getChoices().get(0).getMessage().getContent())
-        .toFuture()
-        .exceptionally(
-            ex -> {
-              log.error("Error generating response with OpenAI", ex);
-              return "Error: " + ex.getMessage();
-            });
+        .doOnError(ex -> log.error("Error generating response with OpenAI", ex))
+        .onErrorMap(ex -> new RuntimeException("OpenAI completion failed", ex))
+        .toFuture();
   }
 
   @Override
@@ -107,6 +166,11 @@ public class OpenAILlmProvider implements LlmProvider {
     return "text-embedding-3-large".equals(model) ? 3072 : 1536;
   }
 
+  @Override
+  public String getEmbeddingModel() {
+    return model;
+  }
+
   @Override
   public String getProviderName() {
     return "openai";
@@ -124,12 +188,20 @@ public class OpenAILlmProvider implements LlmProvider {
     private String model;
   }
 
+  @Data
+  @AllArgsConstructor
+  public static class BatchEmbeddingRequest {
+    private List<String> input;
+    private String model;
+  }
+
   @Data
   public static class EmbeddingResponse {
     private List<EmbeddingData> data;
 
     @Data
     public static class EmbeddingData {
+      private int index;
       private float[] embedding;
     }
   }
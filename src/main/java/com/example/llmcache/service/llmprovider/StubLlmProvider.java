@@ -0,0 +1,157 @@
+package com.example.llmcache.service.llmprovider;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Offline stand-in for a remote provider, for load tests and capacity planning.
+ *
+ * <p>Embeddings and completions are answered after a delay drawn from a configurable {@link
+ * LatencyDistribution}, without blocking a thread. Vectors and responses are derived from the text,
+ * so replaying the same prompts gives the same results. Delays and simulated errors are drawn per
+ * call from a generator seeded with {@code llmprovider.stub.seed}, so a prompt sent many times
+ * still sees the whole latency distribution.
+ *
+ * <p>With {@code embedding: HASHING} vectors come from a {@link HashingVectorizer}, so prompts that
+ * share most of their words are similar; with {@code embedding: RANDOM} every distinct prompt gets
+ * an unrelated vector and only repeated prompts can hit.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "llmprovider.stub.enabled", havingValue = "true")
+public class StubLlmProvider implements LlmProvider {
+
+  /** How the stub turns text into vectors */
+  public enum EmbeddingMode {
+    HASHING,
+    RANDOM
+  }
+
+  private HashingVectorizer vectorizer;
+  private LatencyDistribution embeddingDelay;
+  private LatencyDistribution generationDelay;
+  private SplittableRandom calls;
+
+  @Value("${llmprovider.stub.dimension:384}")
+  private int vectorDimension = 384;
+
+  @Value("${llmprovider.stub.embedding:HASHING}")
+  private EmbeddingMode embedding = EmbeddingMode.HASHING;
+
+  @Value("${llmprovider.stub.embedding-latency:fixed:20}")
+  private String embeddingLatency = "fixed:20";
+
+  @Value("${llmprovider.stub.generation-latency:lognormal:800,4000}")
+  private String generationLatency = "lognormal:800,4000";
+
+  @Value("${llmprovider.stub.response-length:800}")
+  private int responseLength = 800;
+
+  @Value("${llmprovider.stub.error-rate:0}")
+  private double errorRate;
+
+  @Value("${llmprovider.stub.seed:0}")
+  private long seed;
+
+  @PostConstruct
+  public void init() {
+    this.vectorizer = new HashingVectorizer(vectorDimension);
+    this.embeddingDelay = LatencyDistribution.parse(embeddingLatency);
+    this.generationDelay = LatencyDistribution.parse(generationLatency);
+    this.calls = new SplittableRandom(seed);
+    log.info(
+        "Stub provider initialized: dimension {}, {} embeddings, embedding latency {}, generation"
+            + " latency {}, error rate {}",
+        vectorDimension,
+        embedding,
+        embeddingDelay,
+        generationDelay,
+        errorRate);
+  }
+
+  @Override
+  public CompletableFuture<float[]> getVector(String text) {
+    if (text == null || text.trim().isEmpty()) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("Text cannot be null or empty"));
+    }
+    float[] vector =
+        embedding == EmbeddingMode.RANDOM
+            ? randomVector(randomFor("embedding", text))
+            : vectorizer.vectorize(text);
+    return delay(embeddingDelay.sampleMillis(nextCall()), vector);
+  }
+
+  @Override
+  public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
+    SplittableRandom random = nextCall();
+    long delayMillis = generationDelay.sampleMillis(random);
+    if (random.nextDouble() < errorRate) {
+      return delay(delayMillis, null)
+          .thenCompose(
+              ignored ->
+                  CompletableFuture.failedFuture(
+                      new IllegalStateException("Simulated provider error")));
+    }
+    return delay(delayMillis, response(prompt));
+  }
+
+  @Override
+  public int getVectorDimension() {
+    return vectorDimension;
+  }
+
+  @Override
+  public String getProviderName() {
+    return "stub";
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return vectorizer != null;
+  }
+
+  private float[] randomVector(SplittableRandom random) {
+    float[] vector = new float[vectorDimension];
+    for (int i = 0; i < vectorDimension; i++) {
+      vector[i] = (float) (random.nextDouble() * 2.0 - 1.0);
+    }
+    return vector;
+  }
+
+  private String response(String prompt) {
+    StringBuilder response = new StringBuilder("Stub response to: ").append(prompt);
+    while (response.length() < responseLength) {
+      response.append(" lorem ipsum");
+    }
+    response.setLength(Math.max(0, responseLength));
+    return response.toString();
+  }
+
+  /** Independent draws for one call */
+  private synchronized SplittableRandom nextCall() {
+    return calls.split();
+  }
+
+  private SplittableRandom randomFor(String operation, String text) {
+    return new SplittableRandom(seed ^ ((long) operation.hashCode() << 32) ^ text.hashCode());
+  }
+
+  private static <T> CompletableFuture<T> delay(long millis, T value) {
+    if (millis <= 0) {
+      return CompletableFuture.completedFuture(value);
+    }
+    return CompletableFuture.supplyAsync(
+        () -> value, CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS));
+  }
+}
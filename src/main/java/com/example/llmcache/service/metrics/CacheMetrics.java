@@ -0,0 +1,259 @@
+package com.example.llmcache.service.metrics;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.service.routing.ProviderHealth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Micrometer meters for the request path, exposed under {@code /actuator/metrics} and {@code
+ * /actuator/prometheus}.
+ *
+ * <ul>
+ *   <li>{@code llm.cache.stage}: time per stage ({@code exact_lookup}, {@code lexical_lookup},
+ *       {@code embedding}, {@code embedding_batch}, {@code vector_search}, {@code generation}),
+ *       tagged with the provider and the outcome of the stage
+ *   <li>{@code llm.cache.lookup}: time of a whole cache lookup, tagged with the provider and how it
+ *       was answered ({@code exact}, {@code lexical}, {@code semantic} or {@code miss})
+ *   <li>{@code llm.cache.request}: time of a whole request through the service, tagged with the
+ *       provider and whether the cache answered it ({@code hit} or {@code miss})
+ *   <li>{@code llm.cache.similarity}: similarity of the best candidate of each semantic search,
+ *       with cumulative counts at common thresholds
+ *   <li>{@code llm.cache.search.candidates}: vectors compared per similarity search
+ *   <li>{@code llm.cache.store.read.bytes}: size of each value read from Redis
+ *   <li>{@code llm.provider.route}: provider routing decisions, tagged with the operation, the
+ *       provider and the reason ({@code preferred}, {@code alternate}, {@code failover}, {@code
+ *       probe}, or {@code rejected} when every breaker was open)
+ *   <li>{@code llm.provider.circuit.state}, {@code llm.provider.latency}, {@code
+ *       llm.provider.error.rate} and {@code llm.provider.in.flight}: health of each provider per
+ *       operation, with the breaker state as 0 (closed), 1 (half-open) or 2 (open)
+ *   <li>{@code llm.provider.hedge}: second calls sent for slow provider calls, tagged with the
+ *       operation, the provider and the outcome ({@code sent}, {@code won}, {@code over_budget})
+ * </ul>
+ *
+ * <p>Timers publish a percentile histogram for server-side quantiles plus client-side p50, p95 and
+ * p99.
+ *
+ * <p>Stage and request times are also kept per stage across all providers and outcomes, for the
+ * recent percentiles shown on the dashboard (see {@link #stageLatencies()}).
+ */
+@Component
+public class CacheMetrics {
+
+  public static final String HIT = "hit";
+  public static final String MISS = "miss";
+  public static final String SUCCESS = "success";
+  public static final String ERROR = "error";
+  public static final String CANCELLED = "cancelled";
+
+  private static final String REQUEST = "request";
+  private static final List<String> DASHBOARD_STAGES =
+      List.of(
+          "exact_lookup", "lexical_lookup", "embedding", "vector_search", "generation", REQUEST);
+
+  private final MeterRegistry registry;
+  private final DistributionSummary bytesRead;
+
+  // Not exported: per-stage timers whose percentiles decay over the last couple of minutes
+  private final MeterRegistry recent = new SimpleMeterRegistry();
+
+  public CacheMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.bytesRead =
+        DistributionSummary.builder("llm.cache.store.read.bytes")
+            .description("Size of values read from the cache store")
+            .baseUnit("bytes")
+            .publishPercentileHistogram()
+            .register(registry);
+  }
+
+  public Timer.Sample start() {
+    return Timer.start(registry);
+  }
+
+  /** Stops the sample and records it as one execution of a stage */
+  public void recordStage(Timer.Sample sample, String stage, String provider, String outcome) {
+    long nanos =
+        sample.stop(
+            timer("llm.cache.stage", "Time spent in one stage of a request")
+                .tag("stage", stage)
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .register(registry));
+    recordRecent(stage, nanos);
+  }
+
+  /**
+   * Records the stage when the future completes, as a success, an error, or cancelled when the
+   * future itself was cancelled (a hedged call that lost)
+   */
+  public <T> CompletableFuture<T> timeStage(
+      CompletableFuture<T> future, String stage, String provider) {
+    Timer.Sample sample = start();
+    return future.whenComplete(
+        (result, ex) ->
+            recordStage(
+                sample,
+                stage,
+                provider,
+                ex == null ? SUCCESS : ex instanceof CancellationException ? CANCELLED : ERROR));
+  }
+
+  /** Stops the sample and records it as a whole cache lookup answered in the given way */
+  public void recordLookup(Timer.Sample sample, String result, String provider) {
+    sample.stop(
+        timer("llm.cache.lookup", "Time of a cache lookup by how it was answered")
+            .tag("result", result)
+            .tag("provider", provider)
+            .register(registry));
+  }
+
+  /** Stops the sample and records it as a whole request answered from the cache or not */
+  public void recordRequest(Timer.Sample sample, String result, String provider) {
+    long nanos =
+        sample.stop(
+            timer("llm.cache.request", "Time of a request including generation on a miss")
+                .tag("result", result)
+                .tag("provider", provider)
+                .register(registry));
+    recordRecent(REQUEST, nanos);
+  }
+
+  /**
+   * @param source {@code index} for the in-memory vector index, {@code scan} for a store walk
+   * @param count Number of vectors compared
+   */
+  public void recordCandidates(String source, long count) {
+    DistributionSummary.builder("llm.cache.search.candidates")
+        .description("Vectors compared per similarity search")
+        .tag("source", source)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(count);
+  }
+
+  public void recordSimilarity(double similarity) {
+    DistributionSummary.builder("llm.cache.similarity")
+        .description("Similarity of the best candidate of each semantic search")
+        .serviceLevelObjectives(0.8, 0.85, 0.9, 0.95, 0.98)
+        .register(registry)
+        .record(similarity);
+  }
+
+  public void recordRoute(String operation, String provider, String reason) {
+    Counter.builder("llm.provider.route")
+        .description("Provider routing decisions")
+        .tag("operation", operation)
+        .tag("provider", provider)
+        .tag("reason", reason)
+        .register(registry)
+        .increment();
+  }
+
+  /**
+   * @param outcome {@code sent}, {@code won} when the hedge answered first, or {@code over_budget}
+   *     when a slow call was not hedged because the hedge budget was spent
+   */
+  public void recordHedge(String operation, String provider, String outcome) {
+    Counter.builder("llm.provider.hedge")
+        .description("Hedged provider calls")
+        .tag("operation", operation)
+        .tag("provider", provider)
+        .tag("outcome", outcome)
+        .register(registry)
+        .increment();
+  }
+
+  /** Publishes the health of a provider for one operation as gauges */
+  public void registerProviderHealth(String operation, String provider, ProviderHealth health) {
+    Tags tags = Tags.of("operation", operation, "provider", provider);
+    Gauge.builder("llm.provider.circuit.state", health, h -> h.getState().getGaugeValue())
+        .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+        .tags(tags)
+        .strongReference(true)
+        .register(registry);
+    Gauge.builder("llm.provider.latency", health, ProviderHealth::getLatencyMillis)
+        .description("Moving average latency of provider calls")
+        .baseUnit("milliseconds")
+        .tags(tags)
+        .strongReference(true)
+        .register(registry);
+    Gauge.builder("llm.provider.error.rate", health, ProviderHealth::getErrorRate)
+        .description("Moving average share of failed provider calls")
+        .tags(tags)
+        .strongReference(true)
+        .register(registry);
+    Gauge.builder("llm.provider.in.flight", health, ProviderHealth::getInFlight)
+        .description("Provider calls waiting for a result")
+        .tags(tags)
+        .strongReference(true)
+        .register(registry);
+  }
+
+  public void recordBytesRead(long bytes) {
+    bytesRead.record(bytes);
+  }
+
+  /**
+   * Returns recent p50 and p99 latencies per stage, plus {@code request} for whole requests, in
+   * pipeline order. Stages that have never run are left out.
+   */
+  public Map<String, StageLatency> stageLatencies() {
+    Map<String, StageLatency> latencies = new LinkedHashMap<>();
+    for (String stage : DASHBOARD_STAGES) {
+      Timer timer = recent.find("stage").tag("stage", stage).timer();
+      if (timer == null) {
+        continue;
+      }
+      HistogramSnapshot snapshot = timer.takeSnapshot();
+      double p50 = 0;
+      double p99 = 0;
+      for (ValueAtPercentile value : snapshot.percentileValues()) {
+        if (value.percentile() == 0.5) {
+          p50 = value.value(TimeUnit.MILLISECONDS);
+        } else if (value.percentile() == 0.99) {
+          p99 = value.value(TimeUnit.MILLISECONDS);
+        }
+      }
+      latencies.put(stage, new StageLatency(p50, p99, timer.count()));
+    }
+    return latencies;
+  }
+
+  private void recordRecent(String stage, long nanos) {
+    Timer.builder("stage")
+        .tag("stage", stage)
+        .publishPercentiles(0.5, 0.99)
+        .register(recent)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private static Timer.Builder timer(String name, String description) {
+    return Timer.builder(name)
+        .description(description)
+        .publishPercentileHistogram()
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofSeconds(60));
+  }
+
+  /** Recent latency of a stage in milliseconds, and how often it ran since startup */
+  public record StageLatency(double p50Ms, double p99Ms, long count) {}
+}
@@ -0,0 +1,98 @@
+package com.example.llmcache.service.refresh;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects cache hits whose TTL should be extended under sliding expiry.
+ *
+ * <p>Hits only mark an entry as touched; {@code VectorCacheService} drains the buffer every {@code
+ * cache.ttl.sliding.flush-interval-ms} and sends one pipelined {@code EXPIRE} per touched entry. A
+ * hot entry therefore costs at most one write per interval no matter how often it is read.
+ *
+ * <p>Entries are never extended beyond {@code cache.ttl.sliding.max-age-hours} after they were
+ * written, so popular answers are still regenerated eventually.
+ */
+@Component
+@Slf4j
+public class ExpiryTouchBuffer {
+
+  // Touched entry id -> time the entry was written
+  private final Map<String, Long> pending = new ConcurrentHashMap<>();
+  private final AtomicLong extended = new AtomicLong(0);
+
+  @Value("${cache.ttl.sliding.enabled:false}")
+  private boolean enabled;
+
+  @Value("${cache.ttl.sliding.max-age-hours:168}")
+  private long maxAgeHours;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Marks an entry as read
+   *
+   * @param id Cache entry id
+   * @param createdAt Epoch millis the entry was written
+   */
+  public void touch(String id, long createdAt) {
+    if (enabled) {
+      pending.putIfAbsent(id, createdAt);
+    }
+  }
+
+  /** Forgets a pending touch for an entry that was deleted */
+  public void remove(String id) {
+    pending.remove(id);
+  }
+
+  /**
+   * Removes all pending touches and returns the TTL each entry should be given.
+   *
+   * @param now Current epoch millis
+   * @param ttl The TTL of a freshly written entry
+   * @param grace Stale grace period added on top of the TTL
+   * @return Extensions to apply; entries at their maximum age are left to expire
+   */
+  public List<Extension> drain(long now, Duration ttl, Duration grace) {
+    List<Extension> extensions = new ArrayList<>(pending.size());
+    long maxAgeMillis = Duration.ofHours(maxAgeHours).toMillis();
+    Iterator<Map.Entry<String, Long>> it = pending.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, Long> touched = it.next();
+      it.remove();
+      long ttlMillis = ttl.toMillis();
+      if (maxAgeHours > 0) {
+        ttlMillis = Math.min(ttlMillis, touched.getValue() + maxAgeMillis - now);
+      }
+      if (ttlMillis > 0) {
+        extensions.add(new Extension(touched.getKey(), Duration.ofMillis(ttlMillis).plus(grace)));
+      }
+    }
+    extended.addAndGet(extensions.size());
+    return extensions;
+  }
+
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  public long getExtended() {
+    return extended.get();
+  }
+
+  /** A TTL to set on an entry */
+  public record Extension(String id, Duration ttl) {}
+}
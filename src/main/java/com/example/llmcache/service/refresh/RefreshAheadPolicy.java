@@ -0,0 +1,128 @@
+package com.example.llmcache.service.refresh;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides when a cache hit should trigger a background regeneration, and limits how many run.
+ *
+ * <p>An entry is refreshed ahead of time when its remaining TTL falls within {@code
+ * cache.refresh.ahead-fraction} of the full TTL and it has been hit at least {@code
+ * cache.refresh.min-hits} times. At most one refresh per entry runs at a time, at most {@code
+ * cache.refresh.max-concurrent} run overall, and no more than {@code cache.refresh.max-per-minute}
+ * start per minute, so a burst of hot entries cannot flood the upstream provider.
+ *
+ * <p>Entries are kept in Redis for an extra {@code cache.refresh.stale-grace-minutes} past their
+ * TTL. During that grace period they no longer count as hits but can still be served when the
+ * provider fails or does not answer within {@code cache.refresh.stale-timeout-ms}.
+ */
+@Component
+@Slf4j
+public class RefreshAheadPolicy {
+
+  private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+  private final AtomicLong triggered = new AtomicLong(0);
+  private final AtomicLong rateLimited = new AtomicLong(0);
+
+  private long windowStart;
+  private int startedInWindow;
+
+  @Value("${cache.refresh.enabled:true}")
+  private boolean enabled;
+
+  @Value("${cache.refresh.ahead-fraction:0.1}")
+  private double aheadFraction;
+
+  @Value("${cache.refresh.min-hits:3}")
+  private long minHits;
+
+  @Value("${cache.refresh.max-concurrent:2}")
+  private int maxConcurrent;
+
+  @Value("${cache.refresh.max-per-minute:30}")
+  private int maxPerMinute;
+
+  @Value("${cache.refresh.stale-grace-minutes:0}")
+  private long staleGraceMinutes;
+
+  @Value("${cache.refresh.stale-timeout-ms:5000}")
+  private long staleTimeoutMs;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Extra time entries stay in Redis after their TTL so they can be served stale */
+  public long getGraceMillis() {
+    return Duration.ofMinutes(staleGraceMinutes).toMillis();
+  }
+
+  public boolean isStaleServingEnabled() {
+    return staleGraceMinutes > 0;
+  }
+
+  public long getStaleTimeoutMs() {
+    return staleTimeoutMs;
+  }
+
+  /**
+   * Claims a refresh slot for an entry if it is close enough to expiry, hot enough, and the rate
+   * limits allow it. A successful claim must be released with {@link #finish(String)}.
+   *
+   * @param id Cache entry id
+   * @param remainingMillis Time until the entry stops counting as a hit
+   * @param ttlMillis Full TTL the entry was written with
+   * @param hits Hits recorded for the entry
+   * @return true if the caller should start a refresh
+   */
+  public boolean tryStart(String id, long remainingMillis, long ttlMillis, long hits) {
+    if (!enabled || remainingMillis <= 0 || remainingMillis > ttlMillis * aheadFraction) {
+      return false;
+    }
+    if (hits < minHits || inFlight.contains(id)) {
+      return false;
+    }
+    if (!claim(id)) {
+      return false;
+    }
+    triggered.incrementAndGet();
+    return true;
+  }
+
+  /** Releases the slot claimed by {@link #tryStart}, whether the refresh succeeded or not */
+  public void finish(String id) {
+    inFlight.remove(id);
+  }
+
+  public long getTriggered() {
+    return triggered.get();
+  }
+
+  public long getRateLimited() {
+    return rateLimited.get();
+  }
+
+  private synchronized boolean claim(String id) {
+    long now = System.currentTimeMillis();
+    if (now - windowStart >= 60_000) {
+      windowStart = now;
+      startedInWindow = 0;
+    }
+    if (inFlight.size() >= maxConcurrent || startedInWindow >= maxPerMinute) {
+      rateLimited.incrementAndGet();
+      return false;
+    }
+    if (!inFlight.add(id)) {
+      return false;
+    }
+    startedInWindow++;
+    return true;
+  }
+}
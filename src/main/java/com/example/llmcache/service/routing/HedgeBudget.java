@@ -0,0 +1,44 @@
+package com.example.llmcache.service.routing;
+
+/**
+ * Bounds hedged calls to a fraction of all calls. Every call adds {@code ratio} of a credit, up to
+ * {@code maxBalance}, and every hedge spends a whole credit, so over time at most {@code ratio}
+ * extra calls are sent per call while short bursts can still be hedged.
+ */
+public class HedgeBudget {
+
+  private final double ratio;
+  private final double maxBalance;
+  private double balance;
+
+  /**
+   * @param ratio Extra calls allowed per call, e.g. 0.05 for 5%
+   * @param maxBalance Most credits that can be saved up during quiet periods
+   */
+  public HedgeBudget(double ratio, double maxBalance) {
+    this.ratio = ratio;
+    this.maxBalance = maxBalance;
+  }
+
+  /** Records a call, earning credit towards a hedge */
+  public synchronized void deposit() {
+    balance = Math.min(maxBalance, balance + ratio);
+  }
+
+  /**
+   * Spends one credit if available
+   *
+   * @return true if a hedge may be sent
+   */
+  public synchronized boolean tryWithdraw() {
+    if (balance < 1) {
+      return false;
+    }
+    balance -= 1;
+    return true;
+  }
+
+  public synchronized double getBalance() {
+    return balance;
+  }
+}
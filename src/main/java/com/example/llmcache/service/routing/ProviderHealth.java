@@ -0,0 +1,155 @@
+package com.example.llmcache.service.routing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Health of one provider for one operation: exponentially weighted latency and error rate, calls in
+ * flight, and a circuit breaker.
+ *
+ * <p>The breaker opens after a run of consecutive failures or when the error rate passes its
+ * threshold. Once the open period has elapsed a single probe call is let through (half-open); its
+ * outcome closes the breaker or opens it for another period.
+ */
+public class ProviderHealth {
+
+  /** Circuit breaker states, with the values published as the state gauge */
+  public enum State {
+    CLOSED(0),
+    HALF_OPEN(1),
+    OPEN(2);
+
+    private final int gaugeValue;
+
+    State(int gaugeValue) {
+      this.gaugeValue = gaugeValue;
+    }
+
+    public int getGaugeValue() {
+      return gaugeValue;
+    }
+  }
+
+  private final double alpha;
+  private final int failureThreshold;
+  private final double errorRateThreshold;
+  private final long openMillis;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private State state = State.CLOSED;
+  private double latencyMillis;
+  private double errorRate;
+  private long calls;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean probing;
+
+  /**
+   * @param alpha Weight of the newest call in the moving averages
+   * @param failureThreshold Consecutive failures that open the breaker
+   * @param errorRateThreshold Error rate that opens the breaker, once that many calls were seen
+   * @param openMillis How long the breaker stays open before a probe is allowed
+   */
+  public ProviderHealth(
+      double alpha, int failureThreshold, double errorRateThreshold, long openMillis) {
+    this.alpha = alpha;
+    this.failureThreshold = failureThreshold;
+    this.errorRateThreshold = errorRateThreshold;
+    this.openMillis = openMillis;
+  }
+
+  /** Returns true if the breaker is closed and normal calls may be sent */
+  public synchronized boolean isClosed() {
+    return state == State.CLOSED;
+  }
+
+  /**
+   * Claims the probe of an open breaker whose open period has elapsed, moving it to half-open
+   *
+   * @return true if the caller should send its call as the probe
+   */
+  public synchronized boolean tryStartProbe(long now) {
+    if (state == State.OPEN && now - openedAt >= openMillis) {
+      state = State.HALF_OPEN;
+    }
+    if (state != State.HALF_OPEN || probing) {
+      return false;
+    }
+    probing = true;
+    return true;
+  }
+
+  /** Records that a call was sent */
+  public void started() {
+    inFlight.incrementAndGet();
+  }
+
+  public synchronized void recordSuccess(long latencyNanos) {
+    inFlight.decrementAndGet();
+    updateLatency(latencyNanos);
+    errorRate = (1 - alpha) * errorRate;
+    consecutiveFailures = 0;
+    if (state == State.HALF_OPEN) {
+      state = State.CLOSED;
+      probing = false;
+    }
+  }
+
+  public synchronized void recordFailure(long latencyNanos, long now) {
+    inFlight.decrementAndGet();
+    updateLatency(latencyNanos);
+    errorRate = alpha + (1 - alpha) * errorRate;
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN) {
+      open(now);
+    } else if (state == State.CLOSED
+        && (consecutiveFailures >= failureThreshold
+            || (calls >= failureThreshold && errorRate >= errorRateThreshold))) {
+      open(now);
+    }
+  }
+
+  /**
+   * Expected cost of sending one more call: the average latency scaled by the calls already waiting
+   * and by the retries that the error rate implies. Lower is better.
+   */
+  public synchronized double score() {
+    return latencyMillis * (1 + inFlight.get()) / Math.max(0.01, 1 - errorRate);
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public synchronized double getLatencyMillis() {
+    return latencyMillis;
+  }
+
+  public synchronized double getErrorRate() {
+    return errorRate;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /** Records a call abandoned because another call answered first; not counted as an outcome */
+  public synchronized void recordCancelled() {
+    inFlight.decrementAndGet();
+    if (state == State.HALF_OPEN) {
+      probing = false;
+    }
+  }
+
+  private void updateLatency(long latencyNanos) {
+    double millis = latencyNanos / 1e6;
+    latencyMillis = calls == 0 ? millis : alpha * millis + (1 - alpha) * latencyMillis;
+    calls++;
+  }
+
+  private void open(long now) {
+    state = State.OPEN;
+    openedAt = now;
+    probing = false;
+  }
+}
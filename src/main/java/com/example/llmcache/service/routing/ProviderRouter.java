@@ -0,0 +1,371 @@
+package com.example.llmcache.service.routing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.service.llmprovider.LlmProvider;
+import com.example.llmcache.service.metrics.CacheMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends each embedding or generation call to the healthiest of its candidate providers.
+ *
+ * <p>Every provider has a {@link ProviderHealth} per operation. A call goes to the candidate with
+ * the lowest expected cost among those whose breaker is closed, where the first candidate (the
+ * configured provider) is preferred unless another is more than {@code preference-factor} times
+ * cheaper. An open breaker whose open period has elapsed takes the next call as a probe. A failed
+ * call moves on to the next candidate still allowed, and a call fails at once when no breaker
+ * allows it, instead of waiting out a provider timeout.
+ *
+ * <p>A call still running after the recent p95 latency of its provider is hedged: a second call
+ * goes to the same provider, or to the cheapest healthy alternate when {@code
+ * llmprovider.hedging.target} is {@code alternate}. The first answer wins and the other call is
+ * cancelled. A {@link HedgeBudget} keeps hedges to {@code llmprovider.hedging.budget} of all calls.
+ * Batch embedding calls are tracked as their own operation and never hedged: their latency grows
+ * with the batch, and one hedge would repeat the whole batch.
+ *
+ * <p>Routing decisions are counted as {@code llm.provider.route} and hedges as {@code
+ * llm.provider.hedge}; see {@link CacheMetrics}.
+ */
+@Component
+@Slf4j
+public class ProviderRouter {
+
+  public static final String EMBEDDING = "embedding";
+  public static final String GENERATION = "generation";
+  public static final String EMBEDDING_BATCH = "embedding_batch";
+
+  private static final double HEDGE_PERCENTILE = 0.95;
+
+  private final CacheMetrics metrics;
+  private final Map<String, ProviderHealth> health = new ConcurrentHashMap<>();
+
+  // Not exported: successful call times per provider, decaying over the last couple of minutes
+  private final MeterRegistry recent = new SimpleMeterRegistry();
+
+  private volatile HedgeBudget hedgeBudget;
+
+  @Value("${llmprovider.routing.failover:true}")
+  private boolean failover = true;
+
+  @Value("${llmprovider.routing.preference-factor:2.0}")
+  private double preferenceFactor = 2.0;
+
+  @Value("${llmprovider.routing.ewma-alpha:0.2}")
+  private double alpha = 0.2;
+
+  @Value("${llmprovider.routing.failure-threshold:5}")
+  private int failureThreshold = 5;
+
+  @Value("${llmprovider.routing.error-rate-threshold:0.5}")
+  private double errorRateThreshold = 0.5;
+
+  @Value("${llmprovider.routing.open-ms:30000}")
+  private long openMillis = 30000;
+
+  @Value("${llmprovider.hedging.enabled:true}")
+  private boolean hedging = true;
+
+  @Value("${llmprovider.hedging.budget:0.05}")
+  private double hedgeRatio = 0.05;
+
+  @Value("${llmprovider.hedging.max-burst:10}")
+  private double hedgeBurst = 10;
+
+  @Value("${llmprovider.hedging.min-samples:20}")
+  private long hedgeMinSamples = 20;
+
+  @Value("${llmprovider.hedging.min-delay-ms:50}")
+  private long hedgeMinDelayMillis = 50;
+
+  @Value("${llmprovider.hedging.target:same}")
+  private String hedgeTarget = "same";
+
+  public ProviderRouter(CacheMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Runs the call on the healthiest candidate, hedging it when slow and failing over to the others
+   * on error. Each call to a provider is timed as the stage named by the operation.
+   *
+   * @param operation {@link #EMBEDDING}, {@link #EMBEDDING_BATCH} or {@link #GENERATION}
+   * @param candidates Providers able to serve the call, the preferred one first
+   * @param call Sends the call to one provider
+   */
+  public <T> CompletableFuture<T> route(
+      String operation,
+      List<LlmProvider> candidates,
+      Function<LlmProvider, CompletableFuture<T>> call) {
+    return attempt(operation, candidates, call, ConcurrentHashMap.newKeySet(), null);
+  }
+
+  /** Returns the health of a provider for an operation, tracking it from now on */
+  public ProviderHealth health(String operation, LlmProvider provider) {
+    return health.computeIfAbsent(
+        operation + ":" + provider.getProviderName(),
+        key -> {
+          ProviderHealth created =
+              new ProviderHealth(alpha, failureThreshold, errorRateThreshold, openMillis);
+          metrics.registerProviderHealth(operation, provider.getProviderName(), created);
+          return created;
+        });
+  }
+
+  /**
+   * Returns how long a call to the provider may run before it is hedged, or 0 while there are too
+   * few recent successful calls to tell
+   */
+  public long hedgeDelayMillis(String operation, LlmProvider provider) {
+    Timer timer = latencies(operation, provider);
+    if (timer.count() < hedgeMinSamples) {
+      return 0;
+    }
+    for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+      if (value.percentile() == HEDGE_PERCENTILE && value.value() > 0) {
+        return Math.max(hedgeMinDelayMillis, (long) value.value(TimeUnit.MILLISECONDS));
+      }
+    }
+    return 0;
+  }
+
+  private <T> CompletableFuture<T> attempt(
+      String operation,
+      List<LlmProvider> candidates,
+      Function<LlmProvider, CompletableFuture<T>> call,
+      Set<LlmProvider> tried,
+      Throwable lastError) {
+    long now = System.currentTimeMillis();
+    List<LlmProvider> remaining = new ArrayList<>(candidates.size());
+    for (LlmProvider candidate : candidates) {
+      if (!tried.contains(candidate) && (failover || candidate == candidates.get(0))) {
+        remaining.add(candidate);
+      }
+    }
+
+    String reason = tried.isEmpty() ? null : "failover";
+    LlmProvider chosen = null;
+    for (LlmProvider candidate : remaining) {
+      if (health(operation, candidate).tryStartProbe(now)) {
+        chosen = candidate;
+        reason = "probe";
+        break;
+      }
+    }
+    if (chosen == null) {
+      chosen = cheapest(operation, remaining, candidates);
+      if (chosen != null && reason == null) {
+        reason = chosen == candidates.get(0) ? "preferred" : "alternate";
+      }
+    }
+
+    if (chosen == null) {
+      if (lastError != null) {
+        return CompletableFuture.failedFuture(lastError);
+      }
+      String preferred = candidates.isEmpty() ? "none" : candidates.get(0).getProviderName();
+      metrics.recordRoute(operation, preferred, "rejected");
+      return CompletableFuture.failedFuture(
+          new IllegalStateException("No healthy LLM provider available for " + operation));
+    }
+    if (!"preferred".equals(reason)) {
+      log.debug("Routing {} call to {} ({})", operation, chosen.getProviderName(), reason);
+    }
+    metrics.recordRoute(operation, chosen.getProviderName(), reason);
+
+    boolean first = tried.isEmpty();
+    tried.add(chosen);
+    CompletableFuture<T> result;
+    if (first && hedging && !EMBEDDING_BATCH.equals(operation) && !"probe".equals(reason)) {
+      hedgeBudget().deposit();
+      result = new Race<>(operation, candidates, call, tried).start(chosen);
+    } else {
+      result = send(operation, chosen, call);
+    }
+    return result
+        .handle(
+            (value, ex) ->
+                ex == null
+                    ? CompletableFuture.completedFuture(value)
+                    : attempt(operation, candidates, call, tried, unwrap(ex)))
+        .thenCompose(Function.identity());
+  }
+
+  /** Sends one call to a provider, recording its time and outcome */
+  private <T> CompletableFuture<T> send(
+      String operation, LlmProvider provider, Function<LlmProvider, CompletableFuture<T>> call) {
+    ProviderHealth providerHealth = health(operation, provider);
+    providerHealth.started();
+    long started = System.nanoTime();
+    CompletableFuture<T> future;
+    try {
+      future = call.apply(provider);
+    } catch (RuntimeException e) {
+      future = CompletableFuture.failedFuture(e);
+    }
+    metrics.timeStage(future, operation, provider.getProviderName());
+    future.whenComplete(
+        (value, ex) -> {
+          long elapsed = System.nanoTime() - started;
+          if (ex == null) {
+            providerHealth.recordSuccess(elapsed);
+            latencies(operation, provider).record(elapsed, TimeUnit.NANOSECONDS);
+          } else if (unwrap(ex) instanceof CancellationException) {
+            providerHealth.recordCancelled();
+          } else {
+            providerHealth.recordFailure(elapsed, System.currentTimeMillis());
+            log.warn(
+                "{} call to {} failed: {}", operation, provider.getProviderName(), ex.getMessage());
+          }
+        });
+    return future;
+  }
+
+  private LlmProvider cheapest(
+      String operation, List<LlmProvider> remaining, List<LlmProvider> candidates) {
+    return remaining.stream()
+        .filter(candidate -> health(operation, candidate).isClosed())
+        .min(Comparator.comparingDouble(candidate -> cost(operation, candidate, candidates)))
+        .orElse(null);
+  }
+
+  private double cost(String operation, LlmProvider candidate, List<LlmProvider> candidates) {
+    double score = health(operation, candidate).score();
+    return candidate == candidates.get(0) ? score : score * preferenceFactor;
+  }
+
+  private Timer latencies(String operation, LlmProvider provider) {
+    return Timer.builder("call")
+        .tag("operation", operation)
+        .tag("provider", provider.getProviderName())
+        .publishPercentiles(HEDGE_PERCENTILE)
+        .register(recent);
+  }
+
+  private HedgeBudget hedgeBudget() {
+    if (hedgeBudget == null) {
+      synchronized (this) {
+        if (hedgeBudget == null) {
+          hedgeBudget = new HedgeBudget(hedgeRatio, hedgeBurst);
+        }
+      }
+    }
+    return hedgeBudget;
+  }
+
+  private static Throwable unwrap(Throwable ex) {
+    return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+  }
+
+  /**
+   * A call and its hedge. Completes with the first success, or with the last error once every call
+   * sent has failed.
+   */
+  private final class Race<T> {
+    private final String operation;
+    private final List<LlmProvider> candidates;
+    private final Function<LlmProvider, CompletableFuture<T>> call;
+    private final Set<LlmProvider> tried;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final List<CompletableFuture<T>> calls = new ArrayList<>(2);
+    private int pending;
+    private boolean finished;
+
+    Race(
+        String operation,
+        List<LlmProvider> candidates,
+        Function<LlmProvider, CompletableFuture<T>> call,
+        Set<LlmProvider> tried) {
+      this.operation = operation;
+      this.candidates = candidates;
+      this.call = call;
+      this.tried = tried;
+    }
+
+    CompletableFuture<T> start(LlmProvider provider) {
+      long delay = hedgeDelayMillis(operation, provider);
+      synchronized (this) {
+        add(provider, false);
+      }
+      if (delay > 0 && !result.isDone()) {
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+            .execute(() -> hedge(provider));
+      }
+      return result;
+    }
+
+    private synchronized void hedge(LlmProvider primary) {
+      if (finished) {
+        return;
+      }
+      LlmProvider target = target(primary);
+      if (!hedgeBudget().tryWithdraw()) {
+        metrics.recordHedge(operation, target.getProviderName(), "over_budget");
+        return;
+      }
+      log.debug("Hedging slow {} call to {}", operation, target.getProviderName());
+      metrics.recordHedge(operation, target.getProviderName(), "sent");
+      tried.add(target);
+      add(target, true);
+    }
+
+    private LlmProvider target(LlmProvider primary) {
+      if ("alternate".equalsIgnoreCase(hedgeTarget) && failover) {
+        List<LlmProvider> alternates = new ArrayList<>(candidates);
+        alternates.remove(primary);
+        LlmProvider alternate = cheapest(operation, alternates, candidates);
+        if (alternate != null) {
+          return alternate;
+        }
+      }
+      return primary;
+    }
+
+    private void add(LlmProvider provider, boolean isHedge) {
+      CompletableFuture<T> future = send(operation, provider, call);
+      calls.add(future);
+      pending++;
+      future.whenComplete((value, ex) -> complete(provider, isHedge, value, ex));
+    }
+
+    private void complete(LlmProvider provider, boolean isHedge, T value, Throwable ex) {
+      List<CompletableFuture<T>> others;
+      synchronized (this) {
+        pending--;
+        if (finished || (ex != null && pending > 0)) {
+          return;
+        }
+        finished = true;
+        others = new ArrayList<>(calls);
+      }
+      if (ex != null) {
+        result.completeExceptionally(unwrap(ex));
+        return;
+      }
+      if (isHedge) {
+        metrics.recordHedge(operation, provider.getProviderName(), "won");
+      }
+      for (CompletableFuture<T> other : others) {
+        other.cancel(true);
+      }
+      result.complete(value);
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package com.example.llmcache.service.stats;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.llmcache.service.CacheStatsService;
+import com.example.llmcache.service.CacheStatsService.CacheStatistics;
+import com.example.llmcache.service.metrics.CacheMetrics;
+import com.example.llmcache.service.metrics.CacheMetrics.StageLatency;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes live statistics to connected dashboards as server-sent {@code stats} events.
+ *
+ * <p>A snapshot is computed and serialized once per {@code cache.dashboard.push-interval-ms} and
+ * the same JSON is sent to every subscriber, so the cost of the statistics does not grow with the
+ * number of viewers. Nothing is computed while no dashboard is connected.
+ *
+ * <p>Each subscriber is sent to on its own task, off the scheduler thread, so a stalled client
+ * never delays the others. A subscriber still busy with an earlier snapshot skips the new one, and
+ * one that has skipped {@value #MAX_SKIPPED} snapshots in a row is dropped.
+ */
+@Component
+@Slf4j
+public class DashboardPublisher {
+
+  static final int MAX_SKIPPED = 3;
+
+  private final CacheStatsService statsService;
+  private final CacheMetrics metrics;
+  private final ObjectMapper objectMapper;
+
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  // Unbounded, but each subscriber has at most one send in flight
+  private final ExecutorService sender =
+      Executors.newCachedThreadPool(
+          task -> {
+            Thread thread = new Thread(task, "dashboard-push");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private volatile String latest;
+  private volatile long latestAt;
+
+  @Value("${cache.dashboard.push-interval-ms:2000}")
+  private long pushIntervalMs = 2000;
+
+  @Value("${cache.dashboard.max-subscribers:200}")
+  private int maxSubscribers = 200;
+
+  @Value("${cache.dashboard.emitter-timeout-ms:1800000}")
+  private long emitterTimeoutMs = 1800000;
+
+  public DashboardPublisher(
+      CacheStatsService statsService, CacheMetrics metrics, ObjectMapper objectMapper) {
+    this.statsService = statsService;
+    this.metrics = metrics;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Registers a dashboard for updates. It receives the latest snapshot right away if there is a
+   * recent one, and every new one after that.
+   *
+   * @return Empty when the subscriber limit is reached
+   */
+  public Optional<SseEmitter> subscribe() {
+    if (subscribers.size() >= maxSubscribers) {
+      return Optional.empty();
+    }
+    SseEmitter emitter = newEmitter();
+    Subscriber subscriber = new Subscriber(emitter);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+
+    String snapshot = latest;
+    if (snapshot != null && System.currentTimeMillis() - latestAt < 2 * pushIntervalMs) {
+      offer(subscriber, snapshot);
+    }
+    return Optional.of(emitter);
+  }
+
+  SseEmitter newEmitter() {
+    return new SseEmitter(emitterTimeoutMs);
+  }
+
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  @Scheduled(fixedRateString = "${cache.dashboard.push-interval-ms:2000}")
+  public void publish() {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    String snapshot;
+    try {
+      snapshot = objectMapper.writeValueAsString(snapshot());
+    } catch (Exception e) {
+      log.warn("Could not compute dashboard statistics: {}", e.getMessage());
+      return;
+    }
+    latest = snapshot;
+    latestAt = System.currentTimeMillis();
+    for (Subscriber subscriber : subscribers) {
+      if (!offer(subscriber, snapshot) && ++subscriber.skipped >= MAX_SKIPPED) {
+        drop(subscriber);
+      }
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    sender.shutdownNow();
+  }
+
+  /** Computes the statistics pushed to dashboards */
+  public DashboardSnapshot snapshot() {
+    return new DashboardSnapshot(
+        System.currentTimeMillis(),
+        statsService.getCacheStatistics().join(),
+        metrics.stageLatencies());
+  }
+
+  /**
+   * Starts sending the snapshot to the subscriber
+   *
+   * @return false if the subscriber is still busy with an earlier snapshot
+   */
+  private boolean offer(Subscriber subscriber, String snapshot) {
+    if (!subscriber.sending.compareAndSet(false, true)) {
+      return false;
+    }
+    subscriber.skipped = 0;
+    try {
+      sender.execute(
+          () -> {
+            try {
+              subscriber.emitter.send(
+                  SseEmitter.event().name("stats").data(snapshot, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+              // The client went away; the container completes the emitter
+              subscribers.remove(subscriber);
+            } finally {
+              subscriber.sending.set(false);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      subscriber.sending.set(false);
+    }
+    return true;
+  }
+
+  /** Stops sending to a subscriber that cannot keep up and closes its stream */
+  private void drop(Subscriber subscriber) {
+    if (!subscribers.remove(subscriber)) {
+      return;
+    }
+    log.debug("Dropping dashboard subscriber that skipped {} updates", subscriber.skipped);
+    try {
+      // Waits for the stalled send to give up, so it must not run on the scheduler thread
+      sender.execute(subscriber.emitter::complete);
+    } catch (RejectedExecutionException e) {
+      // Shutting down
+    }
+  }
+
+  /** A connected dashboard and whether a snapshot is still being sent to it */
+  private static final class Subscriber {
+    private final SseEmitter emitter;
+    private final AtomicBoolean sending = new AtomicBoolean(false);
+    // Consecutive snapshots skipped; counted by the scheduler thread
+    private volatile int skipped;
+
+    Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+  }
+
+  /** Statistics pushed to dashboards, with stage latencies in milliseconds */
+  public record DashboardSnapshot(
+      long timestamp, CacheStatistics stats, Map<String, StageLatency> stages) {}
+}
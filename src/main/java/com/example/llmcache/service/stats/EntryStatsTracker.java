@@ -0,0 +1,157 @@
+package com.example.llmcache.service.stats;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.service.store.CacheStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Number and total size of the entries in the store, kept in memory so stats never walk the
+ * keyspace.
+ *
+ * <p>Writes and removals are reported as they happen: by {@code VectorCacheService} for this
+ * instance, and from Redis keyspace notifications for every instance and for entries Redis expires
+ * or evicts on its own. A periodic walk over the store replaces the tracked sizes to correct any
+ * drift, for example from notifications missed while disconnected. Updates that arrive during the
+ * walk are applied to both the current and the replacement map.
+ */
+@Component
+@Slf4j
+public class EntryStatsTracker {
+
+  private final CacheStore cacheStore;
+
+  private volatile Sizes sizes = new Sizes();
+  private volatile Sizes rebuilding;
+  private volatile boolean reconciled;
+  private final AtomicLong reconciliations = new AtomicLong(0);
+  private volatile long lastDrift;
+
+  public EntryStatsTracker(CacheStore cacheStore) {
+    this.cacheStore = cacheStore;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (cacheStore != null) {
+      CompletableFuture.runAsync(this::reconcile);
+    }
+  }
+
+  /** Records a written entry and its stored size, replacing any previous size */
+  public void recordWrite(String id, long sizeBytes) {
+    sizes.put(id, sizeBytes);
+    Sizes next = rebuilding;
+    if (next != null) {
+      next.put(id, sizeBytes);
+    }
+  }
+
+  /** Records entries that were deleted, evicted or expired */
+  public void recordRemoval(Collection<String> ids) {
+    for (String id : ids) {
+      recordRemoval(id);
+    }
+  }
+
+  public void recordRemoval(String id) {
+    sizes.remove(id);
+    Sizes next = rebuilding;
+    if (next != null) {
+      next.remove(id);
+    }
+  }
+
+  public long getEntryCount() {
+    return sizes.count();
+  }
+
+  public long getTotalBytes() {
+    return sizes.bytes.get();
+  }
+
+  /** Returns false until the first walk over the store has completed */
+  public boolean isReconciled() {
+    return reconciled;
+  }
+
+  /** Returns by how many entries the tracked count was off at the last reconciliation */
+  public long getLastDrift() {
+    return lastDrift;
+  }
+
+  public long getReconciliations() {
+    return reconciliations.get();
+  }
+
+  /** Replaces the tracked sizes with those found by walking the store */
+  @Scheduled(
+      initialDelayString = "${cache.stats.reconcile-interval-ms:600000}",
+      fixedDelayString = "${cache.stats.reconcile-interval-ms:600000}")
+  public synchronized void reconcile() {
+    if (cacheStore == null) {
+      return;
+    }
+    Sizes next = new Sizes();
+    rebuilding = next;
+    try {
+      long start = System.currentTimeMillis();
+      cacheStore.forEachSize(next::putIfAbsent);
+      long drift = reconciled ? sizes.count() - next.count() : 0;
+      sizes = next;
+      reconciled = true;
+      lastDrift = drift;
+      reconciliations.incrementAndGet();
+      log.info(
+          "Entry stats reconciled with {} store: {} entries, {} bytes, drift {} ({} ms)",
+          cacheStore.getType(),
+          next.count(),
+          next.bytes.get(),
+          drift,
+          System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      log.warn("Could not reconcile entry stats: {}", e.getMessage());
+    } finally {
+      rebuilding = null;
+    }
+  }
+
+  /** Sizes by entry id and their running total */
+  private static final class Sizes {
+    private final Map<String, Long> byId = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong(0);
+
+    void put(String id, long sizeBytes) {
+      Long previous = byId.put(id, sizeBytes);
+      bytes.addAndGet(sizeBytes - (previous != null ? previous : 0));
+    }
+
+    /** Adds a size found by the walk unless a concurrent update already recorded the entry */
+    void putIfAbsent(String id, long sizeBytes) {
+      if (byId.putIfAbsent(id, sizeBytes) == null) {
+        bytes.addAndGet(sizeBytes);
+      }
+    }
+
+    void remove(String id) {
+      Long previous = byId.remove(id);
+      if (previous != null) {
+        bytes.addAndGet(-previous);
+      }
+    }
+
+    long count() {
+      return byId.size();
+    }
+  }
+}
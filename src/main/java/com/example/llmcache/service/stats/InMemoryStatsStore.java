@@ -0,0 +1,54 @@
+package com.example.llmcache.service.stats;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics store local to this process, used when there is no shared store. Counts are lost on
+ * restart.
+ */
+public class InMemoryStatsStore implements StatsStore {
+
+  private final Map<String, StatsCounts> buckets = new ConcurrentHashMap<>();
+  private final Map<String, Long> instances = new ConcurrentHashMap<>();
+  private final AtomicLong startedAt = new AtomicLong(0);
+  private volatile StatsCounts totals = StatsCounts.ZERO;
+
+  @Override
+  public synchronized void add(String instanceId, long timestamp, long hits, long misses) {
+    StatsCounts counts = new StatsCounts(hits, misses);
+    for (String key : StatsBuckets.keysAt(timestamp)) {
+      buckets.merge(key, counts, StatsCounts::plus);
+    }
+    totals = totals.plus(counts);
+    startedAt.compareAndSet(0, timestamp);
+    instances.put(instanceId, timestamp);
+    buckets.keySet().removeIf(key -> StatsBuckets.expiresAt(key) < timestamp);
+  }
+
+  @Override
+  public StatsCounts sum(List<String> bucketKeys) {
+    StatsCounts sum = StatsCounts.ZERO;
+    for (String key : bucketKeys) {
+      sum = sum.plus(buckets.getOrDefault(key, StatsCounts.ZERO));
+    }
+    return sum;
+  }
+
+  @Override
+  public StatsCounts totals() {
+    return totals;
+  }
+
+  @Override
+  public long startedAt() {
+    return startedAt.get();
+  }
+
+  @Override
+  public int activeInstances(long since) {
+    return (int) instances.values().stream().filter(seen -> seen >= since).count();
+  }
+}
@@ -0,0 +1,117 @@
+package com.example.llmcache.service.stats;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Statistics kept in Redis hashes under {@code llm_stats:*}, one per bucket with {@code hits} and
+ * {@code misses} fields. Buckets expire once no window reads them. Active instances are tracked in
+ * a sorted set scored by the time of their last flush.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.store.type", havingValue = "redis", matchIfMissing = true)
+public class RedisStatsStore implements StatsStore {
+
+  static final String KEY_PREFIX = "llm_stats:";
+  private static final String TOTALS_KEY = KEY_PREFIX + "total";
+  private static final String STARTED_KEY = KEY_PREFIX + "started";
+  private static final String INSTANCES_KEY = KEY_PREFIX + "instances";
+  private static final List<Object> FIELDS = List.of("hits", "misses");
+
+  private final RedisTemplate<String, Object> redisTemplate;
+
+  public RedisStatsStore(RedisTemplate<String, Object> redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  @Override
+  public void add(String instanceId, long timestamp, long hits, long misses) {
+    redisTemplate.executePipelined(
+        new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <K, V> Object execute(RedisOperations<K, V> operations) {
+            RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+            if (hits > 0 || misses > 0) {
+              for (String bucket : StatsBuckets.keysAt(timestamp)) {
+                increment(ops, KEY_PREFIX + bucket, hits, misses);
+                ops.expire(KEY_PREFIX + bucket, StatsBuckets.retention(bucket));
+              }
+              increment(ops, TOTALS_KEY, hits, misses);
+              ops.opsForValue().setIfAbsent(STARTED_KEY, timestamp);
+            }
+            ops.opsForZSet().add(INSTANCES_KEY, instanceId, timestamp);
+            ops.opsForZSet()
+                .removeRangeByScore(INSTANCES_KEY, 0, timestamp - StatsBuckets.COARSE_MILLIS);
+            return null;
+          }
+        });
+  }
+
+  private static void increment(
+      RedisOperations<String, Object> ops, String key, long hits, long misses) {
+    if (hits > 0) {
+      ops.opsForHash().increment(key, "hits", hits);
+    }
+    if (misses > 0) {
+      ops.opsForHash().increment(key, "misses", misses);
+    }
+  }
+
+  @Override
+  public StatsCounts sum(List<String> bucketKeys) {
+    List<Object> results =
+        redisTemplate.executePipelined(
+            new SessionCallback<Object>() {
+              @Override
+              @SuppressWarnings("unchecked")
+              public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String bucket : bucketKeys) {
+                  ops.opsForHash().multiGet(KEY_PREFIX + bucket, FIELDS);
+                }
+                return null;
+              }
+            });
+    StatsCounts sum = StatsCounts.ZERO;
+    for (Object result : results) {
+      sum = sum.plus(toCounts(result));
+    }
+    return sum;
+  }
+
+  @Override
+  public StatsCounts totals() {
+    return toCounts(redisTemplate.opsForHash().multiGet(TOTALS_KEY, FIELDS));
+  }
+
+  @Override
+  public long startedAt() {
+    return toLong(redisTemplate.opsForValue().get(STARTED_KEY));
+  }
+
+  @Override
+  public int activeInstances(long since) {
+    Long count = redisTemplate.opsForZSet().count(INSTANCES_KEY, since, Double.POSITIVE_INFINITY);
+    return count != null ? count.intValue() : 0;
+  }
+
+  private static StatsCounts toCounts(Object fields) {
+    if (!(fields instanceof List<?> values) || values.size() < 2) {
+      return StatsCounts.ZERO;
+    }
+    return new StatsCounts(toLong(values.get(0)), toLong(values.get(1)));
+  }
+
+  private static long toLong(Object value) {
+    if (value instanceof Number number) {
+      return number.longValue();
+    }
+    return value != null ? Long.parseLong(value.toString()) : 0;
+  }
+}
@@ -0,0 +1,150 @@
+package com.example.llmcache.service.stats;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the similarity of the best candidate of every semantic search, whether or not it reached
+ * the threshold, to estimate the hit rate the cache would have had at other thresholds.
+ *
+ * <p>The estimate replays this instance's lookups since startup: lookups answered by an exact or
+ * lexical match stay hits, and a semantic search counts as a hit if its best candidate reaches the
+ * threshold. It does not model how the cache contents would have differed, since every extra hit is
+ * a response that was never generated and cached, nor entries skipped for being stale.
+ *
+ * <p>Optionally a fraction of searches is kept as (query, candidate, similarity) samples for manual
+ * review of whether matches near a threshold would have been acceptable.
+ */
+@Component
+public class SimilarityAnalysis {
+
+  private static final int DISTRIBUTION_BUCKETS = 20;
+
+  private final SimilarityHistogram histogram = new SimilarityHistogram();
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder earlyHits = new LongAdder();
+  private final Deque<Sample> samples = new ArrayDeque<>();
+
+  @Value("${cache.similarity.threshold:0.95}")
+  private double currentThreshold = 0.95;
+
+  @Value("${cache.similarity.analysis.sample-rate:0}")
+  private double sampleRate;
+
+  @Value("${cache.similarity.analysis.max-samples:1000}")
+  private int maxSamples = 1000;
+
+  /**
+   * Records how a lookup was answered: {@code exact} and {@code lexical} lookups never reach the
+   * semantic search.
+   */
+  public void recordLookup(String result) {
+    lookups.increment();
+    if ("exact".equals(result) || "lexical".equals(result)) {
+      earlyHits.increment();
+    }
+  }
+
+  /**
+   * Records the best candidate of a semantic search
+   *
+   * @param query Prompt that was looked up
+   * @param candidatePrompt Prompt of the most similar entry, only asked for when the search is
+   *     sampled
+   * @param similarity Cosine similarity of the most similar entry
+   */
+  public void recordSimilarity(String query, Supplier<String> candidatePrompt, double similarity) {
+    histogram.record(similarity);
+    if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+      Sample sample = new Sample(Instant.now(), query, candidatePrompt.get(), similarity);
+      synchronized (samples) {
+        if (samples.size() >= maxSamples) {
+          samples.removeFirst();
+        }
+        samples.addLast(sample);
+      }
+    }
+  }
+
+  /** Estimates the hit rate at each threshold from the lookups seen so far */
+  public Report analyze(List<Double> thresholds) {
+    long totalLookups = lookups.sum();
+    long early = earlyHits.sum();
+    List<ThresholdOutcome> outcomes = new ArrayList<>(thresholds.size());
+    for (double threshold : thresholds) {
+      long semanticHits = histogram.countAtOrAbove(threshold);
+      outcomes.add(
+          new ThresholdOutcome(
+              threshold,
+              semanticHits,
+              percentage(semanticHits, histogram.getTotal()),
+              percentage(early + semanticHits, Math.max(totalLookups, early + semanticHits))));
+    }
+
+    long[] counts = histogram.distribution(DISTRIBUTION_BUCKETS);
+    List<Bucket> distribution = new ArrayList<>(counts.length);
+    for (int i = 0; i < counts.length; i++) {
+      distribution.add(
+          new Bucket((double) i / counts.length, (double) (i + 1) / counts.length, counts[i]));
+    }
+
+    List<Sample> sampled;
+    synchronized (samples) {
+      sampled = new ArrayList<>(samples);
+    }
+    return new Report(
+        currentThreshold,
+        totalLookups,
+        early,
+        histogram.getTotal(),
+        outcomes,
+        distribution,
+        sampled);
+  }
+
+  public double getCurrentThreshold() {
+    return currentThreshold;
+  }
+
+  private static double percentage(long part, long total) {
+    return total > 0 ? (double) part / total * 100 : 0.0;
+  }
+
+  /**
+   * @param lookups Lookups since startup
+   * @param earlyHits Lookups answered by an exact or lexical match
+   * @param scoredSearches Semantic searches that had at least one candidate
+   */
+  public record Report(
+      double currentThreshold,
+      long lookups,
+      long earlyHits,
+      long scoredSearches,
+      List<ThresholdOutcome> thresholds,
+      List<Bucket> distribution,
+      List<Sample> samples) {}
+
+  /**
+   * @param semanticHitRatePercentage Share of scored semantic searches that would have been hits
+   * @param hitRatePercentage Share of all lookups that would have been hits
+   */
+  public record ThresholdOutcome(
+      double threshold,
+      long semanticHits,
+      double semanticHitRatePercentage,
+      double hitRatePercentage) {}
+
+  /** Best-candidate similarities in [from, to) */
+  public record Bucket(double from, double to, long count) {}
+
+  public record Sample(Instant timestamp, String query, String candidate, double similarity) {}
+}
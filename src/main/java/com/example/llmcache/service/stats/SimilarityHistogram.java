@@ -0,0 +1,49 @@
+package com.example.llmcache.service.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of cosine similarities in [0, 1] with a resolution of 0.001. Negative
+ * similarities count towards the lowest bin.
+ */
+public class SimilarityHistogram {
+
+  static final int BINS = 1000;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BINS + 1);
+  private final LongAdder total = new LongAdder();
+
+  public void record(double similarity) {
+    counts.incrementAndGet(bin(similarity));
+    total.increment();
+  }
+
+  public long getTotal() {
+    return total.sum();
+  }
+
+  /** Returns how many recorded similarities would reach the threshold */
+  public long countAtOrAbove(double threshold) {
+    long count = 0;
+    for (int bin = bin(threshold); bin <= BINS; bin++) {
+      count += counts.get(bin);
+    }
+    return count;
+  }
+
+  /** Returns the counts of {@code buckets} equal-width ranges covering [0, 1] */
+  public long[] distribution(int buckets) {
+    long[] distribution = new long[buckets];
+    for (int bin = 0; bin <= BINS; bin++) {
+      distribution[Math.min(buckets - 1, bin * buckets / BINS)] += counts.get(bin);
+    }
+    return distribution;
+  }
+
+  private static int bin(double similarity) {
+    // Round before flooring so thresholds like 0.95 land on their own bin despite float error
+    long scaled = (long) Math.floor(Math.round(similarity * BINS * 1000.0) / 1000.0);
+    return (int) Math.max(0, Math.min(BINS, scaled));
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.llmcache.service.stats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time bucket layout of the shared hit and miss counters.
+ *
+ * <p>Counts are kept at two resolutions: 10 second buckets for windows up to an hour and hourly
+ * buckets for longer ones. A window is the bucket holding {@code now} plus as many earlier buckets
+ * as fit in it, so it reaches back at most one bucket less than its length.
+ */
+final class StatsBuckets {
+
+  static final long FINE_MILLIS = 10_000;
+  static final long COARSE_MILLIS = 3_600_000;
+
+  private static final String FINE_PREFIX = "f:";
+  private static final String COARSE_PREFIX = "h:";
+  private static final long FINE_RETENTION_MILLIS = Duration.ofHours(2).toMillis();
+  private static final long COARSE_RETENTION_MILLIS = Duration.ofHours(26).toMillis();
+
+  private StatsBuckets() {}
+
+  /** Returns the keys of the buckets counts recorded at a time go to */
+  static List<String> keysAt(long timestamp) {
+    return List.of(
+        FINE_PREFIX + timestamp / FINE_MILLIS, COARSE_PREFIX + timestamp / COARSE_MILLIS);
+  }
+
+  /** Returns the keys of the buckets that make up a window ending at {@code now} */
+  static List<String> keysFor(Duration window, long now) {
+    boolean fine = window.toMillis() <= COARSE_MILLIS;
+    long size = fine ? FINE_MILLIS : COARSE_MILLIS;
+    String prefix = fine ? FINE_PREFIX : COARSE_PREFIX;
+    long count = Math.max(1, window.toMillis() / size);
+    long last = now / size;
+    List<String> keys = new ArrayList<>((int) count);
+    for (long bucket = last - count + 1; bucket <= last; bucket++) {
+      keys.add(prefix + bucket);
+    }
+    return keys;
+  }
+
+  /** Returns how long a bucket has to be kept for the longest window that reads it */
+  static Duration retention(String key) {
+    return Duration.ofMillis(
+        key.startsWith(FINE_PREFIX) ? FINE_RETENTION_MILLIS : COARSE_RETENTION_MILLIS);
+  }
+
+  /** Returns the time after which a bucket is no longer read by any window */
+  static long expiresAt(String key) {
+    boolean fine = key.startsWith(FINE_PREFIX);
+    long bucket = Long.parseLong(key.substring(2));
+    long end = (bucket + 1) * (fine ? FINE_MILLIS : COARSE_MILLIS);
+    return end + retention(key).toMillis();
+  }
+}
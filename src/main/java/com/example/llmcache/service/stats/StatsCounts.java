@@ -0,0 +1,15 @@
+package com.example.llmcache.service.stats;
+
+/** Hit and miss counts over some period */
+public record StatsCounts(long hits, long misses) {
+
+  public static final StatsCounts ZERO = new StatsCounts(0, 0);
+
+  public long requests() {
+    return hits + misses;
+  }
+
+  public StatsCounts plus(StatsCounts other) {
+    return new StatsCounts(hits + other.hits, misses + other.misses);
+  }
+}
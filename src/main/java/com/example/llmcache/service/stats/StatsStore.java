@@ -0,0 +1,36 @@
+package com.example.llmcache.service.stats;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Shared store of time-bucketed hit and miss counters.
+ *
+ * <p>Every instance adds its counts periodically, so queries see the totals of the whole cluster.
+ * Bucket keys come from {@link StatsBuckets}.
+ */
+public interface StatsStore {
+
+  /**
+   * Adds counts recorded by an instance to the buckets covering a time and to the lifetime totals,
+   * and marks the instance as active.
+   */
+  void add(String instanceId, long timestamp, long hits, long misses);
+
+  /** Returns the sum of the given buckets */
+  StatsCounts sum(List<String> bucketKeys);
+
+  /** Returns the sum of the buckets that make up a window ending at {@code now} */
+  default StatsCounts sumWindow(Duration window, long now) {
+    return sum(StatsBuckets.keysFor(window, now));
+  }
+
+  /** Returns the counts recorded since statistics were first kept */
+  StatsCounts totals();
+
+  /** Returns when statistics were first kept, or 0 if nothing has been recorded yet */
+  long startedAt();
+
+  /** Returns the number of instances that added counts since a time */
+  int activeInstances(long since);
+}
@@ -0,0 +1,119 @@
+package com.example.llmcache.service.store;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.example.llmcache.model.CacheEntry;
+
+/**
+ * Storage backend for cache entries, addressed by entry id.
+ *
+ * <p>TTLs follow Redis conventions: {@link #getTtlMillis(String)} returns -2 for a missing entry
+ * and -1 for an entry without expiry. Expired entries are never returned.
+ */
+public interface CacheStore {
+
+  /** Returns the entry, or null if it is missing or expired */
+  CacheEntry get(String id);
+
+  /** Returns the entry together with its remaining TTL, in a single round trip where possible */
+  TimedEntry getWithTtl(String id);
+
+  /** Returns the entries in the order of the ids, null for missing ones, in one round trip */
+  default List<CacheEntry> getAll(List<String> ids) {
+    List<CacheEntry> entries = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      entries.add(get(id));
+    }
+    return entries;
+  }
+
+  /** Returns the entries with their remaining TTLs in the order of the ids, in one round trip */
+  default List<TimedEntry> getAllWithTtl(List<String> ids) {
+    List<TimedEntry> entries = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      entries.add(getWithTtl(id));
+    }
+    return entries;
+  }
+
+  long getTtlMillis(String id);
+
+  /** Writes an entry, replacing any previous one; a null TTL means no expiry */
+  void put(CacheEntry entry, Duration ttl);
+
+  /** Writes several entries with the same TTL, in as few round trips as the backend allows */
+  default void putAll(Collection<CacheEntry> entries, Duration ttl) {
+    for (CacheEntry entry : entries) {
+      put(entry, ttl);
+    }
+  }
+
+  /**
+   * Overwrites an existing entry without changing its remaining TTL
+   *
+   * @return false if the entry no longer exists
+   */
+  boolean replace(CacheEntry entry);
+
+  /** Sets new TTLs on existing entries; missing entries are ignored */
+  void expire(Map<String, Duration> ttls);
+
+  void delete(Collection<String> ids);
+
+  /** Visits every live entry without blocking other operations for the whole walk */
+  void forEach(Consumer<CacheEntry> action);
+
+  /**
+   * Visits the live entries of one page of the walk. Unlike {@link #forEach}, no cursor or pooled
+   * connection is held between pages or while the action runs, so the action may block, for example
+   * on a slow client.
+   *
+   * <p>The default walks everything as one page, for stores whose walk holds no shared resource.
+   *
+   * @param cursor Position returned for the previous page, or null to start the walk
+   * @return Position of the next page, or null when the walk is complete
+   */
+  default String forEachInPage(String cursor, Consumer<CacheEntry> action) {
+    forEach(action);
+    return null;
+  }
+
+  /** Visits the id of every live entry */
+  void forEachId(Consumer<String> action);
+
+  /** Visits the id and stored size in bytes of every live entry, without reading the entries */
+  void forEachSize(BiConsumer<String, Long> action);
+
+  long count();
+
+  /** Short name of the backend for logs and stats */
+  String getType();
+
+  /**
+   * Adds to the read counts of entries that every instance sees. A count lasts until {@code ttl}
+   * after it was last added to. Stores that are not shared keep no counts.
+   */
+  default void addReads(Map<String, Long> reads, Duration ttl) {}
+
+  /**
+   * Returns the read counts added by all instances in the order of the ids, 0 where none is kept
+   */
+  default List<Long> getReads(List<String> ids) {
+    return Collections.nCopies(ids.size(), 0L);
+  }
+
+  /** Returns true if other instances may write to the store as well */
+  default boolean isShared() {
+    return false;
+  }
+
+  /** An entry and its remaining TTL in milliseconds */
+  record TimedEntry(CacheEntry entry, long ttlMillis) {}
+}
@@ -0,0 +1,543 @@
+package com.example.llmcache.service.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.model.CacheEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis-free store that keeps entries in append-only log segments on local disk.
+ *
+ * <p>Every write appends a CRC-checked record (put, delete or expire) to the active segment. An
+ * in-memory hash index maps each live id to the location of its latest put record, so a lookup is
+ * one read: through a {@link FileChannel} for the active segment, and through a read-only {@link
+ * MappedByteBuffer} for sealed segments.
+ *
+ * <p>On startup the index is rebuilt by replaying the segments in order. Only record headers and
+ * ids are parsed, not the entries themselves. Expired entries are dropped only once the whole log
+ * has been replayed, since a later expire record may have extended them. A torn or corrupt record
+ * at the end of the last segment, left by a crash during a write, is truncated away.
+ *
+ * <p>Once less than {@code cache.store.embedded.compaction-threshold} of the sealed bytes belong to
+ * live entries, compaction copies the live records of all sealed segments to the end of the log and
+ * deletes the segments. Copies are made under the write lock one record at a time, so a concurrent
+ * write of the same id always lands after the copy and wins on replay.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "cache.store.type", havingValue = "embedded")
+public class EmbeddedCacheStore implements CacheStore {
+
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  private static final byte EXPIRE = 3;
+
+  // Record: length of body, CRC32 of body, then body = type, expiresAt, id length, id, payload
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+  private static final int BODY_PREFIX_BYTES = 1 + Long.BYTES + Short.BYTES;
+  private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private final ObjectMapper objectMapper;
+  private final Map<String, Location> index = new ConcurrentHashMap<>();
+  private final Map<Integer, MappedByteBuffer> sealed = new ConcurrentHashMap<>();
+  private final Map<Integer, AtomicLong> liveBytes = new ConcurrentHashMap<>();
+  private final Object writeLock = new Object();
+  private final AtomicLong compactions = new AtomicLong(0);
+
+  private Path directory;
+  private FileChannel active;
+  private volatile int activeSegment;
+
+  @Value("${cache.store.embedded.directory:./data/llm-cache}")
+  private String directoryName;
+
+  @Value("${cache.store.embedded.segment-mb:64}")
+  private long segmentMb = 64;
+
+  @Value("${cache.store.embedded.compaction-threshold:0.5}")
+  private double compactionThreshold = 0.5;
+
+  @Value("${cache.store.embedded.sync-writes:false}")
+  private boolean syncWrites;
+
+  public EmbeddedCacheStore() {
+    this.objectMapper = new ObjectMapper();
+    this.objectMapper.registerModule(new JavaTimeModule());
+  }
+
+  /** Opens the log directory and rebuilds the index from the existing segments */
+  @PostConstruct
+  public void open() throws IOException {
+    long start = System.currentTimeMillis();
+    directory = Path.of(directoryName);
+    Files.createDirectories(directory);
+
+    TreeSet<Integer> segments = new TreeSet<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+      for (Path file : files) {
+        segments.add(segmentNumber(file));
+      }
+    }
+    for (int segment : segments) {
+      recover(segment, segment == segments.last());
+    }
+    // Expiry is only final once every expire record has been applied, so drop expired ids last
+    long now = System.currentTimeMillis();
+    index.keySet().stream()
+        .filter(id -> index.get(id).expiresAt() <= now)
+        .toList()
+        .forEach(this::removeLocation);
+    activeSegment = segments.isEmpty() ? 0 : segments.last();
+    sealed.remove(activeSegment);
+    active = openForAppend(activeSegment);
+
+    log.info(
+        "Embedded cache store opened in {}: {} entries in {} segments, recovered in {} ms",
+        directory,
+        index.size(),
+        Math.max(1, segments.size()),
+        System.currentTimeMillis() - start);
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    synchronized (writeLock) {
+      if (active != null && active.isOpen()) {
+        active.force(false);
+        active.close();
+      }
+    }
+  }
+
+  @Override
+  public CacheEntry get(String id) {
+    Location location = liveLocation(id, System.currentTimeMillis());
+    return location != null ? read(location) : null;
+  }
+
+  @Override
+  public TimedEntry getWithTtl(String id) {
+    long now = System.currentTimeMillis();
+    Location location = liveLocation(id, now);
+    if (location == null) {
+      return new TimedEntry(null, -2);
+    }
+    return new TimedEntry(read(location), ttlOf(location, now));
+  }
+
+  @Override
+  public long getTtlMillis(String id) {
+    long now = System.currentTimeMillis();
+    Location location = liveLocation(id, now);
+    return location != null ? ttlOf(location, now) : -2;
+  }
+
+  @Override
+  public void put(CacheEntry entry, Duration ttl) {
+    long expiresAt = ttl != null ? System.currentTimeMillis() + ttl.toMillis() : NO_EXPIRY;
+    byte[] payload = serialize(entry);
+    synchronized (writeLock) {
+      Location location = append(PUT, entry.getId(), expiresAt, payload);
+      setLocation(entry.getId(), location);
+    }
+  }
+
+  @Override
+  public boolean replace(CacheEntry entry) {
+    byte[] payload = serialize(entry);
+    synchronized (writeLock) {
+      Location current = liveLocation(entry.getId(), System.currentTimeMillis());
+      if (current == null) {
+        return false;
+      }
+      Location location = append(PUT, entry.getId(), current.expiresAt(), payload);
+      setLocation(entry.getId(), location);
+      return true;
+    }
+  }
+
+  @Override
+  public void expire(Map<String, Duration> ttls) {
+    long now = System.currentTimeMillis();
+    synchronized (writeLock) {
+      for (Map.Entry<String, Duration> ttl : ttls.entrySet()) {
+        Location current = liveLocation(ttl.getKey(), now);
+        if (current != null) {
+          long expiresAt = now + ttl.getValue().toMillis();
+          append(EXPIRE, ttl.getKey(), expiresAt, new byte[0]);
+          index.put(ttl.getKey(), current.withExpiresAt(expiresAt));
+        }
+      }
+    }
+  }
+
+  @Override
+  public void delete(Collection<String> ids) {
+    synchronized (writeLock) {
+      for (String id : ids) {
+        if (index.containsKey(id)) {
+          append(DELETE, id, 0, new byte[0]);
+          removeLocation(id);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void forEach(Consumer<CacheEntry> action) {
+    long now = System.currentTimeMillis();
+    for (Map.Entry<String, Location> item : index.entrySet()) {
+      if (item.getValue().expiresAt() > now) {
+        CacheEntry entry = read(item.getValue());
+        if (entry != null) {
+          action.accept(entry);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void forEachId(Consumer<String> action) {
+    long now = System.currentTimeMillis();
+    index.forEach(
+        (id, location) -> {
+          if (location.expiresAt() > now) {
+            action.accept(id);
+          }
+        });
+  }
+
+  @Override
+  public void forEachSize(BiConsumer<String, Long> action) {
+    long now = System.currentTimeMillis();
+    index.forEach(
+        (id, location) -> {
+          if (location.expiresAt() > now) {
+            action.accept(id, (long) location.size());
+          }
+        });
+  }
+
+  @Override
+  public long count() {
+    long now = System.currentTimeMillis();
+    return index.values().stream().filter(location -> location.expiresAt() > now).count();
+  }
+
+  @Override
+  public String getType() {
+    return "embedded";
+  }
+
+  public long getCompactions() {
+    return compactions.get();
+  }
+
+  /**
+   * Drops expired entries from the index and compacts the sealed segments when enough of their
+   * bytes are garbage.
+   */
+  @Scheduled(
+      initialDelayString = "${cache.store.embedded.compaction-interval-ms:300000}",
+      fixedDelayString = "${cache.store.embedded.compaction-interval-ms:300000}")
+  public void compact() {
+    long now = System.currentTimeMillis();
+    index.forEach(
+        (id, location) -> {
+          if (location.expiresAt() <= now) {
+            synchronized (writeLock) {
+              if (index.remove(id, location)) {
+                liveBytes(location.segment()).addAndGet(-location.size());
+              }
+            }
+          }
+        });
+
+    List<Integer> segments = sealed.keySet().stream().sorted().toList();
+    if (segments.isEmpty()) {
+      return;
+    }
+    long total = 0;
+    long live = 0;
+    for (int segment : segments) {
+      total += sealed.get(segment).capacity();
+      live += liveBytes(segment).get();
+    }
+    if (total == 0 || (double) live / total >= compactionThreshold) {
+      return;
+    }
+
+    try {
+      long copied = 0;
+      for (Map.Entry<String, Location> item : index.entrySet()) {
+        Location location = item.getValue();
+        if (!segments.contains(location.segment())) {
+          continue;
+        }
+        synchronized (writeLock) {
+          // Skip entries rewritten or deleted since the index was read
+          Location current = index.get(item.getKey());
+          if (current == null
+              || current.segment() != location.segment()
+              || current.offset() != location.offset()) {
+            continue;
+          }
+          // Re-encoded with the current expiry, since the expire records go away with the segment
+          byte[] payload = payloadOf(recordAt(current));
+          Location copy = append(PUT, item.getKey(), current.expiresAt(), payload);
+          setLocation(item.getKey(), copy);
+          copied++;
+        }
+      }
+      synchronized (writeLock) {
+        active.force(false);
+      }
+      for (int segment : segments) {
+        sealed.remove(segment);
+        liveBytes.remove(segment);
+        Files.deleteIfExists(segmentFile(segment));
+      }
+      compactions.incrementAndGet();
+      log.info(
+          "Compacted {} segments ({} of {} bytes live), copied {} entries",
+          segments.size(),
+          live,
+          total,
+          copied);
+    } catch (IOException | UncheckedIOException e) {
+      log.error("Error compacting embedded cache store", e);
+    }
+  }
+
+  private Location liveLocation(String id, long now) {
+    Location location = index.get(id);
+    return location != null && location.expiresAt() > now ? location : null;
+  }
+
+  private static long ttlOf(Location location, long now) {
+    return location.expiresAt() == NO_EXPIRY ? -1 : location.expiresAt() - now;
+  }
+
+  private void setLocation(String id, Location location) {
+    Location previous = index.put(id, location);
+    if (previous != null) {
+      liveBytes(previous.segment()).addAndGet(-previous.size());
+    }
+    liveBytes(location.segment()).addAndGet(location.size());
+  }
+
+  private void removeLocation(String id) {
+    Location previous = index.remove(id);
+    if (previous != null) {
+      liveBytes(previous.segment()).addAndGet(-previous.size());
+    }
+  }
+
+  private AtomicLong liveBytes(int segment) {
+    return liveBytes.computeIfAbsent(segment, s -> new AtomicLong());
+  }
+
+  /** Appends a new record; must be called with the write lock held */
+  private Location append(byte type, String id, long expiresAt, byte[] payload) {
+    byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer body = ByteBuffer.allocate(BODY_PREFIX_BYTES + idBytes.length + payload.length);
+    body.put(type).putLong(expiresAt).putShort((short) idBytes.length).put(idBytes).put(payload);
+    body.flip();
+    CRC32 crc = new CRC32();
+    crc.update(body.duplicate());
+
+    ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + body.remaining());
+    record.putInt(body.remaining()).putInt((int) crc.getValue()).put(body).flip();
+    try {
+      if (active.size() > 0 && active.size() + record.remaining() > segmentMb * 1024 * 1024) {
+        roll();
+      }
+      long offset = active.size();
+      int size = record.remaining();
+      while (record.hasRemaining()) {
+        active.write(record, offset + record.position());
+      }
+      if (syncWrites) {
+        active.force(false);
+      }
+      return new Location(activeSegment, offset, size, expiresAt);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not append to segment " + activeSegment, e);
+    }
+  }
+
+  private void roll() throws IOException {
+    active.force(false);
+    active.close();
+    map(activeSegment);
+    activeSegment++;
+    active = openForAppend(activeSegment);
+  }
+
+  private CacheEntry read(Location location) {
+    try {
+      return objectMapper.readValue(payloadOf(recordAt(location)), CacheEntry.class);
+    } catch (IOException | UncheckedIOException e) {
+      log.warn("Could not read cache entry at {}: {}", location, e.getMessage());
+      return null;
+    }
+  }
+
+  private static byte[] payloadOf(ByteBuffer record) {
+    record.position(HEADER_BYTES + 1 + Long.BYTES);
+    int idLength = record.getShort();
+    record.position(record.position() + idLength);
+    byte[] payload = new byte[record.remaining()];
+    record.get(payload);
+    return payload;
+  }
+
+  /** Returns a buffer holding the whole record at the location */
+  private ByteBuffer recordAt(Location location) throws IOException {
+    if (location.segment() == activeSegment) {
+      synchronized (writeLock) {
+        if (location.segment() == activeSegment) {
+          ByteBuffer record = ByteBuffer.allocate(location.size());
+          while (record.hasRemaining()) {
+            if (active.read(record, location.offset() + record.position()) < 0) {
+              throw new IOException("Unexpected end of segment");
+            }
+          }
+          return record.flip();
+        }
+      }
+    }
+    MappedByteBuffer mapped = sealed.get(location.segment());
+    if (mapped == null) {
+      throw new IOException("Segment " + location.segment() + " no longer exists");
+    }
+    return mapped.slice((int) location.offset(), location.size());
+  }
+
+  /** Replays one segment into the index */
+  private void recover(int segment, boolean last) throws IOException {
+    MappedByteBuffer mapped = map(segment);
+    int offset = 0;
+    while (offset + HEADER_BYTES <= mapped.capacity()) {
+      int length = mapped.getInt(offset);
+      int expectedCrc = mapped.getInt(offset + Integer.BYTES);
+      if (length < BODY_PREFIX_BYTES || offset + HEADER_BYTES + length > mapped.capacity()) {
+        break;
+      }
+      ByteBuffer body = mapped.slice(offset + HEADER_BYTES, length);
+      CRC32 crc = new CRC32();
+      crc.update(body.duplicate());
+      if ((int) crc.getValue() != expectedCrc) {
+        break;
+      }
+
+      byte type = body.get();
+      long expiresAt = body.getLong();
+      byte[] idBytes = new byte[body.getShort()];
+      body.get(idBytes);
+      String id = new String(idBytes, StandardCharsets.UTF_8);
+      int size = HEADER_BYTES + length;
+
+      if (type == PUT) {
+        // Indexed even when already expired, since a later expire record may extend it
+        setLocation(id, new Location(segment, offset, size, expiresAt));
+      } else if (type == DELETE) {
+        removeLocation(id);
+      } else if (type == EXPIRE) {
+        Location current = index.get(id);
+        if (current != null) {
+          index.put(id, current.withExpiresAt(expiresAt));
+        }
+      }
+      offset += size;
+    }
+
+    if (offset < mapped.capacity()) {
+      if (last) {
+        log.warn(
+            "Truncating segment {} at offset {}, discarding an incomplete record", segment, offset);
+        sealed.remove(segment);
+        try (FileChannel channel =
+            FileChannel.open(segmentFile(segment), StandardOpenOption.WRITE)) {
+          channel.truncate(offset);
+        }
+      } else {
+        log.warn("Segment {} is corrupt after offset {}, ignoring the remainder", segment, offset);
+      }
+    }
+  }
+
+  private MappedByteBuffer map(int segment) throws IOException {
+    try (FileChannel channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      sealed.put(segment, mapped);
+      return mapped;
+    }
+  }
+
+  private FileChannel openForAppend(int segment) throws IOException {
+    return FileChannel.open(
+        segmentFile(segment),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  private Path segmentFile(int segment) {
+    return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+  }
+
+  private static int segmentNumber(Path file) {
+    String name = file.getFileName().toString();
+    return Integer.parseInt(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private byte[] serialize(CacheEntry entry) {
+    try {
+      return objectMapper.writeValueAsBytes(entry);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not serialize cache entry " + entry.getId(), e);
+    }
+  }
+
+  /** Position of the latest put record for an id */
+  private record Location(int segment, long offset, int size, long expiresAt) {
+    Location withExpiresAt(long newExpiresAt) {
+      return new Location(segment, offset, size, newExpiresAt);
+    }
+  }
+}
@@ -0,0 +1,396 @@
+package com.example.llmcache.service.store;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.model.CacheEntry;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+
+/** Stores each cache entry as a JSON value under {@code llm_cache:<id>} in Redis */
+@Component
+@ConditionalOnProperty(name = "cache.store.type", havingValue = "redis", matchIfMissing = true)
+public class RedisCacheStore implements CacheStore {
+
+  static final String CACHE_PREFIX = "llm_cache:";
+  static final String READS_PREFIX = "llm_reads:";
+  private static final int SCAN_BATCH_SIZE = 500;
+
+  private final RedisTemplate<String, Object> redisTemplate;
+
+  public RedisCacheStore(RedisTemplate<String, Object> redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  @Override
+  public CacheEntry get(String id) {
+    return (CacheEntry) redisTemplate.opsForValue().get(CACHE_PREFIX + id);
+  }
+
+  @Override
+  public TimedEntry getWithTtl(String id) {
+    String key = CACHE_PREFIX + id;
+    List<Object> results =
+        redisTemplate.executePipelined(
+            new SessionCallback<Object>() {
+              @Override
+              @SuppressWarnings("unchecked")
+              public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.opsForValue().get(key);
+                ops.getExpire(key, TimeUnit.MILLISECONDS);
+                return null;
+              }
+            });
+    CacheEntry entry = results.get(0) instanceof CacheEntry e ? e : null;
+    long ttlMillis = results.get(1) instanceof Long ttl ? ttl : -1;
+    return new TimedEntry(entry, ttlMillis);
+  }
+
+  @Override
+  public List<CacheEntry> getAll(List<String> ids) {
+    List<String> keys = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      keys.add(CACHE_PREFIX + id);
+    }
+    List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+    List<CacheEntry> entries = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Object value = values != null ? values.get(i) : null;
+      entries.add(value instanceof CacheEntry entry ? entry : null);
+    }
+    return entries;
+  }
+
+  /** Sends a GET and a PTTL per id in a single pipeline */
+  @Override
+  public List<TimedEntry> getAllWithTtl(List<String> ids) {
+    List<Object> results =
+        redisTemplate.executePipelined(
+            new SessionCallback<Object>() {
+              @Override
+              @SuppressWarnings("unchecked")
+              public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String id : ids) {
+                  ops.opsForValue().get(CACHE_PREFIX + id);
+                  ops.getExpire(CACHE_PREFIX + id, TimeUnit.MILLISECONDS);
+                }
+                return null;
+              }
+            });
+    List<TimedEntry> entries = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      CacheEntry entry = results.get(2 * i) instanceof CacheEntry e ? e : null;
+      long ttlMillis = results.get(2 * i + 1) instanceof Long ttl ? ttl : -1;
+      entries.add(new TimedEntry(entry, ttlMillis));
+    }
+    return entries;
+  }
+
+  @Override
+  public long getTtlMillis(String id) {
+    Long ttlMillis = redisTemplate.getExpire(CACHE_PREFIX + id, TimeUnit.MILLISECONDS);
+    return ttlMillis != null ? ttlMillis : -1;
+  }
+
+  @Override
+  public void put(CacheEntry entry, Duration ttl) {
+    if (ttl != null) {
+      redisTemplate.opsForValue().set(CACHE_PREFIX + entry.getId(), entry, ttl);
+    } else {
+      redisTemplate.opsForValue().set(CACHE_PREFIX + entry.getId(), entry);
+    }
+  }
+
+  @Override
+  public void putAll(Collection<CacheEntry> entries, Duration ttl) {
+    redisTemplate.executePipelined(
+        new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <K, V> Object execute(RedisOperations<K, V> operations) {
+            RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+            for (CacheEntry entry : entries) {
+              if (ttl != null) {
+                ops.opsForValue().set(CACHE_PREFIX + entry.getId(), entry, ttl);
+              } else {
+                ops.opsForValue().set(CACHE_PREFIX + entry.getId(), entry);
+              }
+            }
+            return null;
+          }
+        });
+  }
+
+  /**
+   * Sends a single {@code SET ... XX KEEPTTL}, so the entry cannot expire or have its TTL changed
+   * between checking and writing it
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean replace(CacheEntry entry) {
+    byte[] key = rawKey(CACHE_PREFIX + entry.getId());
+    byte[] value = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(entry);
+    Boolean replaced =
+        redisTemplate.execute(
+            (RedisCallback<Boolean>)
+                connection ->
+                    connection
+                        .stringCommands()
+                        .set(key, value, Expiration.keepTtl(), SetOption.ifPresent()));
+    return Boolean.TRUE.equals(replaced);
+  }
+
+  @Override
+  public void expire(Map<String, Duration> ttls) {
+    redisTemplate.executePipelined(
+        new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <K, V> Object execute(RedisOperations<K, V> operations) {
+            RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+            ttls.forEach((id, ttl) -> ops.expire(CACHE_PREFIX + id, ttl));
+            return null;
+          }
+        });
+  }
+
+  @Override
+  public void delete(Collection<String> ids) {
+    List<String> keys = new ArrayList<>(2 * ids.size());
+    for (String id : ids) {
+      keys.add(CACHE_PREFIX + id);
+      keys.add(READS_PREFIX + id);
+    }
+    // UNLINK reclaims memory in a background thread so Redis keeps serving lookups
+    redisTemplate.unlink(keys);
+  }
+
+  /** Keeps read counts under {@code llm_reads:<id>}, sending one INCRBY and EXPIRE per entry */
+  @Override
+  public void addReads(Map<String, Long> reads, Duration ttl) {
+    redisTemplate.executePipelined(
+        new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <K, V> Object execute(RedisOperations<K, V> operations) {
+            RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+            reads.forEach(
+                (id, count) -> {
+                  ops.opsForValue().increment(READS_PREFIX + id, count);
+                  ops.expire(READS_PREFIX + id, ttl);
+                });
+            return null;
+          }
+        });
+  }
+
+  @Override
+  public List<Long> getReads(List<String> ids) {
+    List<String> keys = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      keys.add(READS_PREFIX + id);
+    }
+    List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+    List<Long> reads = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Object value = values != null ? values.get(i) : null;
+      reads.add(value instanceof Number count ? count.longValue() : 0L);
+    }
+    return reads;
+  }
+
+  /** Walks all cache entries with SCAN in batches, without blocking Redis like KEYS does */
+  @Override
+  public void forEach(Consumer<CacheEntry> action) {
+    List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+    try (Cursor<String> cursor = redisTemplate.scan(scanOptions())) {
+      while (cursor.hasNext()) {
+        batch.add(cursor.next());
+        if (batch.size() == SCAN_BATCH_SIZE || !cursor.hasNext()) {
+          List<Object> values = redisTemplate.opsForValue().multiGet(batch);
+          if (values != null) {
+            for (Object value : values) {
+              if (value instanceof CacheEntry entry) {
+                action.accept(entry);
+              }
+            }
+          }
+          batch.clear();
+        }
+      }
+    }
+  }
+
+  /**
+   * Sends one SCAN from the cursor and one MGET, then runs the action once the connection is back
+   * in the pool. The SCAN goes to the Lettuce driver directly, since Spring Data Redis cursors
+   * cannot resume from a cursor id.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public String forEachInPage(String cursor, Consumer<CacheEntry> action) {
+    ScanArgs args = ScanArgs.Builder.matches(rawKey(CACHE_PREFIX + "*")).limit(SCAN_BATCH_SIZE);
+    KeyScanCursor<byte[]> page =
+        redisTemplate.execute(
+            (RedisCallback<KeyScanCursor<byte[]>>)
+                connection ->
+                    LettuceFutures.awaitOrCancel(
+                        ((RedisKeyAsyncCommands<byte[], byte[]>) connection.getNativeConnection())
+                            .scan(
+                                cursor != null ? ScanCursor.of(cursor) : ScanCursor.INITIAL, args),
+                        RedisURI.DEFAULT_TIMEOUT,
+                        TimeUnit.SECONDS));
+    RedisSerializer<String> keySerializer =
+        (RedisSerializer<String>) redisTemplate.getKeySerializer();
+    List<String> keys = new ArrayList<>(page.getKeys().size());
+    for (byte[] key : page.getKeys()) {
+      keys.add(keySerializer.deserialize(key));
+    }
+    List<Object> values = keys.isEmpty() ? null : redisTemplate.opsForValue().multiGet(keys);
+    if (values != null) {
+      for (Object value : values) {
+        if (value instanceof CacheEntry entry) {
+          action.accept(entry);
+        }
+      }
+    }
+    return page.isFinished() ? null : page.getCursor();
+  }
+
+  @Override
+  public void forEachId(Consumer<String> action) {
+    try (Cursor<String> cursor = redisTemplate.scan(scanOptions())) {
+      while (cursor.hasNext()) {
+        action.accept(cursor.next().substring(CACHE_PREFIX.length()));
+      }
+    }
+  }
+
+  /** Walks the keys with SCAN and reads their sizes with one pipelined STRLEN per batch */
+  @Override
+  public void forEachSize(BiConsumer<String, Long> action) {
+    List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+    try (Cursor<String> cursor = redisTemplate.scan(scanOptions())) {
+      while (cursor.hasNext()) {
+        batch.add(cursor.next());
+        if (batch.size() == SCAN_BATCH_SIZE || !cursor.hasNext()) {
+          List<Long> sizes = sizes(batch);
+          for (int i = 0; i < batch.size(); i++) {
+            // A key deleted between SCAN and STRLEN has size 0
+            if (sizes.get(i) > 0) {
+              action.accept(batch.get(i).substring(CACHE_PREFIX.length()), sizes.get(i));
+            }
+          }
+          batch.clear();
+        }
+      }
+    }
+  }
+
+  /** Returns the stored sizes of entries in bytes, 0 for missing ones, in one round trip */
+  public List<Long> sizesOf(List<String> ids) {
+    List<String> keys = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      keys.add(CACHE_PREFIX + id);
+    }
+    return sizes(keys);
+  }
+
+  private List<Long> sizes(List<String> keys) {
+    List<Object> results =
+        redisTemplate.executePipelined(
+            new SessionCallback<Object>() {
+              @Override
+              @SuppressWarnings("unchecked")
+              public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String key : keys) {
+                  ops.opsForValue().size(key);
+                }
+                return null;
+              }
+            });
+    List<Long> sizes = new ArrayList<>(keys.size());
+    for (Object result : results) {
+      sizes.add(result instanceof Long size ? size : 0L);
+    }
+    return sizes;
+  }
+
+  @Override
+  public long count() {
+    AtomicLong count = new AtomicLong();
+    forEachId(id -> count.incrementAndGet());
+    return count.get();
+  }
+
+  @Override
+  public String getType() {
+    return "redis";
+  }
+
+  @Override
+  public boolean isShared() {
+    return true;
+  }
+
+  /** Returns the pattern of cache keys as stored, for matching keyspace notification channels */
+  String storedKeyPattern() {
+    return new String(rawKey(CACHE_PREFIX + "*"), StandardCharsets.UTF_8);
+  }
+
+  /** Returns the entry id of a key as stored, or null if it is not a cache key */
+  @SuppressWarnings("unchecked")
+  String idOfStoredKey(byte[] key) {
+    String deserialized;
+    try {
+      deserialized = ((RedisSerializer<String>) redisTemplate.getKeySerializer()).deserialize(key);
+    } catch (SerializationException e) {
+      return null;
+    }
+    return deserialized != null && deserialized.startsWith(CACHE_PREFIX)
+        ? deserialized.substring(CACHE_PREFIX.length())
+        : null;
+  }
+
+  /** SCAN matches the stored bytes, so the pattern is serialized like the keys it should match */
+  private ScanOptions scanOptions() {
+    return ScanOptions.scanOptions()
+        .match(rawKey(CACHE_PREFIX + "*"))
+        .count(SCAN_BATCH_SIZE)
+        .build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private byte[] rawKey(String key) {
+    return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+  }
+}
@@ -0,0 +1,259 @@
+package com.example.llmcache.service.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.service.index.CacheKeyFilter;
+import com.example.llmcache.service.stats.EntryStatsTracker;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feeds {@link EntryStatsTracker} from Redis keyspace notifications on cache keys, so writes by
+ * other instances and entries Redis expires or evicts itself are counted without walking the
+ * keyspace. Written ids are also added to the {@link CacheKeyFilter}, which only rules ids out on a
+ * shared store while this feed is running.
+ *
+ * <p>Notifications do not carry sizes, so written ids are collected and their sizes read with one
+ * pipelined STRLEN per {@code cache.stats.size-refresh-ms}. Removals are applied immediately.
+ *
+ * <p>The notification classes it needs ({@code K$gxe}) have to be enabled in {@code
+ * notify-keyspace-events} on the server; on startup this logs any that are missing. Changing server
+ * configuration affects every client of the server, so it only enables them itself with {@code
+ * CONFIG SET} when {@code cache.stats.configure-keyspace-notifications} is true. Until they are
+ * enabled, entry stats rely on this instance's writes and the periodic reconciliation, and the key
+ * filter never skips an exact lookup.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "cache.store.type", havingValue = "redis", matchIfMissing = true)
+public class RedisKeyspaceListener implements MessageListener {
+
+  private static final String NOTIFY_CONFIG = "notify-keyspace-events";
+  private static final String REQUIRED_FLAGS = "K$gxe";
+  private static final String CHANNEL_PREFIX = "__keyspace@";
+  private static final int SIZE_BATCH = 500;
+  private static final long SUBSCRIPTION_CHECK_MS = 5000;
+
+  private final RedisConnectionFactory connectionFactory;
+  private final RedisCacheStore cacheStore;
+  private final EntryStatsTracker entryStats;
+  private final CacheKeyFilter keyFilter;
+  private final Set<String> written = ConcurrentHashMap.newKeySet();
+
+  private RedisMessageListenerContainer container;
+  private volatile boolean notifying;
+  private volatile boolean subscribed;
+
+  @Value("${cache.stats.keyspace-notifications:true}")
+  private boolean enabled;
+
+  @Value("${cache.stats.configure-keyspace-notifications:false}")
+  private boolean configureServer;
+
+  public RedisKeyspaceListener(
+      RedisConnectionFactory connectionFactory,
+      RedisCacheStore cacheStore,
+      EntryStatsTracker entryStats,
+      CacheKeyFilter keyFilter) {
+    this.connectionFactory = connectionFactory;
+    this.cacheStore = cacheStore;
+    this.entryStats = entryStats;
+    this.keyFilter = keyFilter;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      log.info("Keyspace notifications disabled, entry stats rely on reconciliation");
+      return;
+    }
+    notifying = checkNotifications();
+    try {
+      container = new RedisMessageListenerContainer();
+      container.setConnectionFactory(connectionFactory);
+      container.addMessageListener(
+          this, new PatternTopic(CHANNEL_PREFIX + "*__:" + cacheStore.storedKeyPattern()));
+      container.afterPropertiesSet();
+      container.start();
+      subscribed = true;
+      if (notifying) {
+        trackWritesInKeyFilter();
+      }
+    } catch (Exception e) {
+      log.warn("Could not subscribe to keyspace notifications: {}", e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  public void stop() throws Exception {
+    keyFilter.setRemoteWritesTracked(false);
+    if (container != null) {
+      container.destroy();
+    }
+  }
+
+  /**
+   * Logs notification classes missing on the server, enabling them only when configured to.
+   *
+   * @return true if the server sends every notification needed
+   */
+  private boolean checkNotifications() {
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      Properties config = connection.serverCommands().getConfig(NOTIFY_CONFIG);
+      String current = config != null ? config.getProperty(NOTIFY_CONFIG, "") : "";
+      String missing = missingFlags(current);
+      if (missing.isEmpty()) {
+        return true;
+      }
+      if (!configureServer) {
+        log.warn(
+            "Redis {} is \"{}\" and lacks {}; entry stats will miss writes by other instances and"
+                + " expiries, and the key filter will not skip lookups, until it includes {}",
+            NOTIFY_CONFIG,
+            current,
+            missing,
+            REQUIRED_FLAGS);
+        return false;
+      }
+      connection.serverCommands().setConfig(NOTIFY_CONFIG, current + missing);
+      log.info("Enabled Redis keyspace notifications: {}", current + missing);
+      return true;
+    } catch (Exception e) {
+      log.warn(
+          "Could not check Redis keyspace notifications, set {} to include {}: {}",
+          NOTIFY_CONFIG,
+          REQUIRED_FLAGS,
+          e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Stops the key filter from ruling ids out while the subscription is down, since writes made
+   * meanwhile are never reported, and has it rebuilt once the subscription is back.
+   */
+  @Scheduled(fixedDelay = SUBSCRIPTION_CHECK_MS)
+  public void checkSubscription() {
+    if (container == null || !notifying) {
+      return;
+    }
+    boolean listening = container.isListening();
+    if (listening == subscribed) {
+      return;
+    }
+    subscribed = listening;
+    if (listening) {
+      log.info("Keyspace notification subscription restored");
+      trackWritesInKeyFilter();
+    } else {
+      log.warn("Lost keyspace notification subscription, key filter stops skipping lookups");
+      keyFilter.setRemoteWritesTracked(false);
+    }
+  }
+
+  /** Has the key filter rebuilt now that it receives writes by other instances */
+  private void trackWritesInKeyFilter() {
+    keyFilter.setRemoteWritesTracked(true);
+    CompletableFuture.runAsync(keyFilter::rebuild);
+  }
+
+  private static String missingFlags(String current) {
+    StringBuilder missing = new StringBuilder();
+    for (char flag : REQUIRED_FLAGS.toCharArray()) {
+      // "A" is shorthand for every event class, including the ones needed here
+      if (current.indexOf(flag) < 0 && (flag == 'K' || current.indexOf('A') < 0)) {
+        missing.append(flag);
+      }
+    }
+    return missing.toString();
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    // Channels are "__keyspace@<db>__:" followed by the key as stored
+    byte[] channel = message.getChannel();
+    int keyStart = indexOfKey(channel);
+    String id =
+        keyStart > 0
+            ? cacheStore.idOfStoredKey(Arrays.copyOfRange(channel, keyStart, channel.length))
+            : null;
+    if (id == null) {
+      return;
+    }
+    switch (new String(message.getBody(), StandardCharsets.UTF_8)) {
+      case "set" -> {
+        written.add(id);
+        keyFilter.add(id);
+      }
+      case "del", "expired", "evicted" -> {
+        // The key filter is left to its rebuild: removing an id whose write it missed would
+        // decrement the counters of other ids
+        written.remove(id);
+        entryStats.recordRemoval(id);
+      }
+      default -> {
+        // TTL changes and other events do not affect count or size
+      }
+    }
+  }
+
+  private static int indexOfKey(byte[] channel) {
+    for (int i = CHANNEL_PREFIX.length(); i + 2 < channel.length; i++) {
+      if (channel[i] == '_' && channel[i + 1] == '_' && channel[i + 2] == ':') {
+        return i + 3;
+      }
+    }
+    return -1;
+  }
+
+  /** Reads the sizes of entries written since the last run */
+  @Scheduled(fixedDelayString = "${cache.stats.size-refresh-ms:1000}")
+  public void refreshSizes() {
+    if (written.isEmpty()) {
+      return;
+    }
+    List<String> batch = new ArrayList<>(SIZE_BATCH);
+    Iterator<String> it = written.iterator();
+    while (it.hasNext()) {
+      batch.add(it.next());
+      it.remove();
+      if (batch.size() == SIZE_BATCH || !it.hasNext()) {
+        try {
+          List<Long> sizes = cacheStore.sizesOf(batch);
+          for (int i = 0; i < batch.size(); i++) {
+            if (sizes.get(i) > 0) {
+              entryStats.recordWrite(batch.get(i), sizes.get(i));
+            } else {
+              entryStats.recordRemoval(batch.get(i));
+            }
+          }
+        } catch (Exception e) {
+          log.warn("Could not read sizes of written entries: {}", e.getMessage());
+        }
+        batch.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package com.example.llmcache.service.tier;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only store for response payloads in segment files on local disk.
+ *
+ * <p>Each record is a length, a CRC32 of the payload and the UTF-8 payload. Records are written to
+ * the active segment through a {@link FileChannel}; once a segment reaches its size limit it is
+ * sealed and read through a read-only {@link MappedByteBuffer}, so reads of cold data are served
+ * from the page cache without a system call.
+ *
+ * <p>Records are never updated or deleted individually. Whole sealed segments are deleted once they
+ * are older than any entry that could still reference them.
+ *
+ * <p>References include an id for the directory, so an instance never resolves a reference written
+ * by another instance against its own files.
+ */
+public class ColdSegmentStore implements Closeable {
+
+  private static final String NODE_ID_FILE = "node-id";
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+  private final Path directory;
+  private final long segmentBytes;
+  private final String nodeId;
+  private final Map<Integer, MappedByteBuffer> sealed = new ConcurrentHashMap<>();
+
+  private volatile int activeSegment;
+  private FileChannel active;
+
+  public ColdSegmentStore(Path directory, long segmentBytes) throws IOException {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    Files.createDirectories(directory);
+    this.nodeId = loadNodeId();
+
+    TreeSet<Integer> existing = new TreeSet<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+      for (Path file : files) {
+        existing.add(segmentNumber(file));
+      }
+    }
+    this.activeSegment = existing.isEmpty() ? 0 : existing.last();
+    this.active = openForAppend(activeSegment);
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Appends a payload.
+   *
+   * @return A reference that {@link #read(String)} resolves back to the payload
+   */
+  public synchronized String append(String payload) throws IOException {
+    byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+    if (active.size() > 0 && active.size() + HEADER_BYTES + data.length > segmentBytes) {
+      roll();
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + data.length);
+    record.putInt(data.length).putInt((int) crc.getValue()).put(data).flip();
+
+    long offset = active.size();
+    while (record.hasRemaining()) {
+      active.write(record, offset + record.position());
+    }
+    return nodeId + ":" + activeSegment + ":" + offset;
+  }
+
+  /**
+   * Reads a payload.
+   *
+   * @return The payload, or null if the reference belongs to another instance, its segment was
+   *     deleted, or the record is corrupt
+   */
+  public String read(String ref) throws IOException {
+    String[] parts = ref.split(":");
+    if (parts.length != 3 || !parts[0].equals(nodeId)) {
+      return null;
+    }
+    int segment = Integer.parseInt(parts[1]);
+    long offset = Long.parseLong(parts[2]);
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    if (segment == activeSegment) {
+      synchronized (this) {
+        if (segment == activeSegment) {
+          long size = active.size();
+          if (offset < 0 || offset + HEADER_BYTES > size) {
+            return null;
+          }
+          readFully(active, header, offset);
+          header.flip();
+          int length = header.getInt();
+          header.rewind();
+          if (length < 0 || offset + HEADER_BYTES + length > size) {
+            return null;
+          }
+          ByteBuffer payload = ByteBuffer.allocate(length);
+          readFully(active, payload, offset + HEADER_BYTES);
+          return decode(header, payload.array());
+        }
+      }
+    }
+    MappedByteBuffer mapped = mapped(segment);
+    if (mapped == null || offset < 0 || offset + HEADER_BYTES > mapped.capacity()) {
+      return null;
+    }
+    header.put(mapped.slice((int) offset, HEADER_BYTES)).flip();
+    int length = header.getInt();
+    header.rewind();
+    if (length < 0 || offset + HEADER_BYTES + length > mapped.capacity()) {
+      return null;
+    }
+    byte[] data = new byte[length];
+    mapped.slice((int) offset + HEADER_BYTES, length).get(data);
+    return decode(header, data);
+  }
+
+  /**
+   * Deletes sealed segments last written before the cutoff.
+   *
+   * @return Number of segments deleted
+   */
+  public int deleteSegmentsOlderThan(long cutoffMillis) throws IOException {
+    int deleted = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+      for (Path file : files) {
+        int segment = segmentNumber(file);
+        if (segment != activeSegment && Files.getLastModifiedTime(file).toMillis() < cutoffMillis) {
+          sealed.remove(segment);
+          Files.deleteIfExists(file);
+          deleted++;
+        }
+      }
+    }
+    return deleted;
+  }
+
+  /** Returns the total size of all segment files in bytes */
+  public long sizeOnDisk() throws IOException {
+    long total = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+      for (Path file : files) {
+        total += Files.size(file);
+      }
+    }
+    return total;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    active.force(false);
+    active.close();
+  }
+
+  private void roll() throws IOException {
+    active.force(false);
+    active.close();
+    activeSegment++;
+    active = openForAppend(activeSegment);
+  }
+
+  private MappedByteBuffer mapped(int segment) throws IOException {
+    MappedByteBuffer mapped = sealed.get(segment);
+    if (mapped != null) {
+      return mapped;
+    }
+    Path file = segmentFile(segment);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    sealed.put(segment, mapped);
+    return mapped;
+  }
+
+  private FileChannel openForAppend(int segment) throws IOException {
+    return FileChannel.open(
+        segmentFile(segment),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  private Path segmentFile(int segment) {
+    return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+  }
+
+  private static int segmentNumber(Path file) {
+    String name = file.getFileName().toString();
+    return Integer.parseInt(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private String loadNodeId() throws IOException {
+    Path file = directory.resolve(NODE_ID_FILE);
+    if (Files.exists(file)) {
+      return Files.readString(file).trim();
+    }
+    String id = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    Files.writeString(file, id);
+    return id;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of segment");
+      }
+    }
+  }
+
+  private static String decode(ByteBuffer header, byte[] data) {
+    header.getInt();
+    int expectedCrc = header.getInt();
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    if ((int) crc.getValue() != expectedCrc) {
+      return null;
+    }
+    return new String(data, StandardCharsets.UTF_8);
+  }
+}
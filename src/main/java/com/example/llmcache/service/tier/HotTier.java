@@ -0,0 +1,59 @@
+package com.example.llmcache.service.tier;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-process map of the most frequently read responses.
+ *
+ * <p>Entries are held for a short local TTL only, so TTL extensions, refreshes and overwrites made
+ * by other instances become visible within that time. When full, the least recently used entry is
+ * dropped.
+ */
+public class HotTier {
+
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final Map<String, Entry> entries;
+
+  public HotTier(int maxEntries, long ttlMillis) {
+    this.maxEntries = maxEntries;
+    this.ttlMillis = ttlMillis;
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > HotTier.this.maxEntries;
+          }
+        };
+  }
+
+  /**
+   * @return The cached entry, or null if absent or past the local TTL
+   */
+  public synchronized Entry get(String id, long now) {
+    Entry entry = entries.get(id);
+    if (entry != null && entry.heldUntil() <= now) {
+      entries.remove(id);
+      return null;
+    }
+    return entry;
+  }
+
+  public synchronized void put(String id, String response, long createdAt, long now) {
+    if (maxEntries > 0) {
+      entries.put(id, new Entry(response, createdAt, now + ttlMillis));
+    }
+  }
+
+  public synchronized void remove(String id) {
+    entries.remove(id);
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** A response held in process, with the time its cache entry was written */
+  public record Entry(String response, long createdAt, long heldUntil) {}
+}
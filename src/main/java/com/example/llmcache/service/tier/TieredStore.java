@@ -0,0 +1,268 @@
+package com.example.llmcache.service.tier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.llmcache.model.CacheEntry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Places cached responses in one of three tiers by how often they are read.
+ *
+ * <ul>
+ *   <li>Hot: responses of entries with at least {@code cache.tiers.hot.promote-hits} hits are also
+ *       held in process, so repeated exact matches skip Redis entirely.
+ *   <li>Warm: the entry in Redis holds the response, as before.
+ *   <li>Cold: entries older than {@code cache.tiers.cold.min-age-minutes} with at most {@code
+ *       cache.tiers.cold.max-hits} hits on any instance have their response moved to a local {@link
+ *       ColdSegmentStore}; the Redis entry keeps its prompt and vector plus a reference in its
+ *       metadata, so it still takes part in similarity search. A cold entry read {@code
+ *       cache.tiers.cold.promote-hits} times is moved back to Redis.
+ * </ul>
+ *
+ * <p>{@code VectorCacheService} drives demotion and promotion; this class only holds the tiers and
+ * the thresholds. Cold references can only be resolved by the instance that wrote them, so other
+ * instances treat a cold entry as a miss and overwrite it with a fresh warm one. To avoid demoting
+ * entries that are only read elsewhere, reads are counted here and added to counts kept in the
+ * shared store every {@code cache.tiers.cold.read-flush-interval-ms}.
+ */
+@Component
+@Slf4j
+public class TieredStore {
+
+  /** Metadata key of a cache entry whose response lives in the cold tier */
+  public static final String COLD_REF = "cold_ref";
+
+  private HotTier hot;
+  private ColdSegmentStore cold;
+
+  private final AtomicLong hotHits = new AtomicLong(0);
+  private final AtomicLong coldReads = new AtomicLong(0);
+  private final AtomicLong demoted = new AtomicLong(0);
+  private final AtomicLong promoted = new AtomicLong(0);
+  // Reads since the last flush to the shared read counts
+  private final Map<String, LongAdder> pendingReads = new ConcurrentHashMap<>();
+
+  @Value("${cache.tiers.hot.max-entries:10000}")
+  private int hotMaxEntries;
+
+  @Value("${cache.tiers.hot.promote-hits:5}")
+  private long hotPromoteHits;
+
+  @Value("${cache.tiers.hot.ttl-seconds:300}")
+  private long hotTtlSeconds;
+
+  @Value("${cache.tiers.cold.enabled:false}")
+  private boolean coldEnabled;
+
+  @Value("${cache.tiers.cold.directory:${java.io.tmpdir}/llm-cache-cold}")
+  private String coldDirectory;
+
+  @Value("${cache.tiers.cold.segment-mb:64}")
+  private long segmentMb;
+
+  @Value("${cache.tiers.cold.min-age-minutes:60}")
+  private long minAgeMinutes;
+
+  @Value("${cache.tiers.cold.max-hits:0}")
+  private long coldMaxHits;
+
+  @Value("${cache.tiers.cold.promote-hits:3}")
+  private long coldPromoteHits;
+
+  @Value("${cache.tiers.cold.retention-hours:192}")
+  private long retentionHours;
+
+  @Value("${cache.tiers.cold.demote-batch-size:1000}")
+  private int demoteBatchSize;
+
+  @PostConstruct
+  public void init() {
+    if (hotMaxEntries > 0) {
+      hot = new HotTier(hotMaxEntries, Duration.ofSeconds(hotTtlSeconds).toMillis());
+    }
+    if (coldEnabled) {
+      try {
+        cold = new ColdSegmentStore(Path.of(coldDirectory), segmentMb * 1024 * 1024);
+        log.info("Cold tier opened in {} as node {}", coldDirectory, cold.getNodeId());
+      } catch (IOException e) {
+        log.error("Could not open cold tier in {}, responses stay in Redis", coldDirectory, e);
+      }
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    if (cold != null) {
+      try {
+        cold.close();
+      } catch (IOException e) {
+        log.warn("Could not close cold tier: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * @return The hot copy of an entry's response, or null if it is not in the hot tier
+   */
+  public HotTier.Entry getHot(String id) {
+    if (hot == null) {
+      return null;
+    }
+    HotTier.Entry entry = hot.get(id, System.currentTimeMillis());
+    if (entry != null) {
+      hotHits.incrementAndGet();
+    }
+    return entry;
+  }
+
+  /** Keeps a response in process if its entry has been hit often enough */
+  public void offerHot(String id, String response, long createdAt, long hits) {
+    if (hot != null && hits >= hotPromoteHits) {
+      hot.put(id, response, createdAt, System.currentTimeMillis());
+    }
+  }
+
+  /** Drops the hot copy of an entry that was rewritten or deleted */
+  public void invalidate(String id) {
+    if (hot != null) {
+      hot.remove(id);
+    }
+  }
+
+  /** Counts a read of an entry towards the reads every instance demotes by */
+  public void recordRead(String id) {
+    if (cold != null) {
+      pendingReads.computeIfAbsent(id, k -> new LongAdder()).increment();
+    }
+  }
+
+  /** Removes and returns the reads counted since the last call */
+  public Map<String, Long> drainReads() {
+    Map<String, Long> reads = new HashMap<>();
+    for (String id : pendingReads.keySet()) {
+      LongAdder count = pendingReads.remove(id);
+      if (count != null) {
+        reads.put(id, count.sum());
+      }
+    }
+    return reads;
+  }
+
+  public boolean isColdEnabled() {
+    return cold != null;
+  }
+
+  public boolean shouldDemote(long ageMillis, long hits) {
+    return cold != null
+        && ageMillis >= Duration.ofMinutes(minAgeMinutes).toMillis()
+        && hits <= coldMaxHits;
+  }
+
+  public boolean shouldPromote(long hits) {
+    return hits >= coldPromoteHits;
+  }
+
+  public int getDemoteBatchSize() {
+    return demoteBatchSize;
+  }
+
+  /**
+   * Writes a response to the cold tier.
+   *
+   * @return The reference to store in the entry's metadata, or null if the write failed
+   */
+  public String demote(String response) {
+    try {
+      String ref = cold.append(response);
+      demoted.incrementAndGet();
+      return ref;
+    } catch (IOException e) {
+      log.error("Could not write response to cold tier", e);
+      return null;
+    }
+  }
+
+  /**
+   * @return The response, or null if the reference cannot be resolved by this instance
+   */
+  public String readCold(String ref) {
+    if (cold == null) {
+      return null;
+    }
+    try {
+      String response = cold.read(ref);
+      if (response != null) {
+        coldReads.incrementAndGet();
+      }
+      return response;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not read cold tier reference {}: {}", ref, e.getMessage());
+      return null;
+    }
+  }
+
+  /** Returns true if the reference was written by this instance */
+  public boolean isLocalRef(String ref) {
+    return cold != null && ref.startsWith(cold.getNodeId() + ":");
+  }
+
+  public void recordPromotion() {
+    promoted.incrementAndGet();
+  }
+
+  /** Returns the cold tier reference of an entry, or null if its response is not cold */
+  public static String coldRef(CacheEntry entry) {
+    Object ref = entry.getMetadata() != null ? entry.getMetadata().get(COLD_REF) : null;
+    return ref != null ? ref.toString() : null;
+  }
+
+  /** Deletes segments older than any entry that could still reference them */
+  @Scheduled(
+      initialDelayString = "${cache.tiers.cold.cleanup-interval-ms:3600000}",
+      fixedDelayString = "${cache.tiers.cold.cleanup-interval-ms:3600000}")
+  public void deleteExpiredSegments() {
+    if (cold == null) {
+      return;
+    }
+    try {
+      long cutoff = System.currentTimeMillis() - Duration.ofHours(retentionHours).toMillis();
+      int deleted = cold.deleteSegmentsOlderThan(cutoff);
+      if (deleted > 0) {
+        log.info("Deleted {} expired cold tier segments", deleted);
+      }
+    } catch (IOException e) {
+      log.warn("Could not clean up cold tier: {}", e.getMessage());
+    }
+  }
+
+  public long getHotHits() {
+    return hotHits.get();
+  }
+
+  public long getColdReads() {
+    return coldReads.get();
+  }
+
+  public long getDemoted() {
+    return demoted.get();
+  }
+
+  public long getPromoted() {
+    return promoted.get();
+  }
+}
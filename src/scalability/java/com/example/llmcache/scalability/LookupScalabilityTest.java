@@ -0,0 +1,346 @@
+package com.example.llmcache.scalability;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.config.MeteredRedisSerializer;
+import com.example.llmcache.config.RedisConfig;
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+import com.example.llmcache.service.VectorCacheService;
+import com.example.llmcache.service.index.VectorIndexManager;
+import com.example.llmcache.service.llmprovider.LlmProvider;
+import com.example.llmcache.service.metrics.CacheMetrics;
+import com.example.llmcache.service.store.RedisCacheStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.redis.testcontainers.RedisStackContainer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Seeds Redis with growing numbers of synthetic entries and checks that lookup latency, Redis
+ * traffic and memory per entry stay within the {@link ScalabilityBudget}.
+ *
+ * <p>Runs against a Redis Stack container, or against the server at {@code
+ * -Dscalability.redis-url=redis://host:port}, which is flushed first. Only compiled and run with
+ * the {@code scalability} Maven profile; results are also written to {@code
+ * target/scalability-report.json}.
+ */
+class LookupScalabilityTest {
+
+  private static final String RESPONSE = "x".repeat(800);
+  private static final int SEED_BATCH = 1000;
+  private static final long WARM_UP_TIMEOUT_MS = 30 * 60 * 1000;
+
+  private static RedisStackContainer container;
+  private static LettuceConnectionFactory connectionFactory;
+  private static RedisTemplate<String, Object> redisTemplate;
+
+  @BeforeAll
+  static void startRedis() {
+    String url = System.getProperty("scalability.redis-url");
+    if (url == null) {
+      container =
+          new RedisStackContainer(
+              RedisStackContainer.DEFAULT_IMAGE_NAME.withTag(RedisStackContainer.DEFAULT_TAG));
+      container.start();
+      url = container.getRedisURI();
+    }
+    URI uri = URI.create(url);
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(uri.getHost(), uri.getPort()));
+    connectionFactory.afterPropertiesSet();
+
+    // Same serialization as the application's template
+    redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.setDefaultSerializer(
+        new MeteredRedisSerializer(
+            RedisConfig.valueSerializer(), new CacheMetrics(new SimpleMeterRegistry())));
+    redisTemplate.afterPropertiesSet();
+    redisTemplate.execute(
+        (RedisCallback<Void>)
+            connection -> {
+              connection.serverCommands().flushDb();
+              return null;
+            });
+  }
+
+  @AfterAll
+  static void stopRedis() {
+    if (connectionFactory != null) {
+      connectionFactory.destroy();
+    }
+    if (container != null) {
+      container.stop();
+    }
+  }
+
+  @Test
+  void lookupCostsShouldStayWithinBudgetAsTheCacheGrows() throws Exception {
+    ScalabilityBudget budget = new ScalabilityBudget();
+    int dimension = budget.getInt("dimension");
+    RedisCacheStore store = new RedisCacheStore(redisTemplate);
+    long redisBaseline = redisInfo("memory", "used_memory");
+
+    List<SizeResult> results = new ArrayList<>();
+    int seeded = 0;
+    for (int size : budget.sizes()) {
+      long started = System.currentTimeMillis();
+      seed(store, seeded, size, dimension);
+      seeded = size;
+      long seedMillis = System.currentTimeMillis() - started;
+      results.add(measure(store, size, dimension, budget, seedMillis, redisBaseline));
+      System.out.println(results.get(results.size() - 1));
+    }
+
+    checkBudget(budget, results);
+    new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(new File("target/scalability-report.json"), results);
+    assertTrue(
+        budget.getViolations().isEmpty(),
+        "Scalability budget exceeded:\n" + String.join("\n", budget.getViolations()));
+  }
+
+  private SizeResult measure(
+      RedisCacheStore store,
+      int size,
+      int dimension,
+      ScalabilityBudget budget,
+      long seedMillis,
+      long redisBaseline)
+      throws Exception {
+    long heapBefore = usedHeap();
+    long started = System.currentTimeMillis();
+    VectorCacheService cache = newCache(store, dimension);
+    long warmUpMillis = System.currentTimeMillis() - started;
+    long heapPerEntry = (usedHeap() - heapBefore) / size;
+    long redisPerEntry = (redisInfo("memory", "used_memory") - redisBaseline) / size;
+
+    Random random = new Random(size);
+    for (int i = 0; i < budget.getInt("warmup-lookups"); i++) {
+      cache.get(prompt(random.nextInt(size))).join();
+      cache.get(paraphrase(random.nextInt(size))).join();
+    }
+    Lookups exact =
+        lookups(cache, budget.getInt("exact-lookups"), LookupScalabilityTest::prompt, size, random);
+    Lookups semantic =
+        lookups(
+            cache,
+            budget.getInt("semantic-lookups"),
+            LookupScalabilityTest::paraphrase,
+            size,
+            random);
+    return new SizeResult(
+        size, seedMillis, warmUpMillis, heapPerEntry, redisPerEntry, exact, semantic);
+  }
+
+  private void checkBudget(ScalabilityBudget budget, List<SizeResult> results) {
+    for (SizeResult result : results) {
+      String context = result.entries() + " entries:";
+      for (Map.Entry<String, Lookups> lookups :
+          Map.of("exact", result.exact(), "semantic", result.semantic()).entrySet()) {
+        String kind = lookups.getKey();
+        Lookups measured = lookups.getValue();
+        if (measured.hits() < measured.count()) {
+          budget
+              .getViolations()
+              .add(
+                  String.format(
+                      "%s %d of %d %s lookups missed",
+                      context, measured.count() - measured.hits(), measured.count(), kind));
+        }
+        budget.check(kind + ".max-bytes-per-lookup", context, measured.redisBytesPerLookup());
+      }
+      budget.check("heap.max-bytes-per-entry", context, result.heapBytesPerEntry());
+      budget.check("redis.max-bytes-per-entry", context, result.redisBytesPerEntry());
+    }
+
+    SizeResult smallest = results.get(0);
+    SizeResult largest = results.get(results.size() - 1);
+    String context = largest.entries() + " entries:";
+    budget.check("exact.p99-ms", context, largest.exact().p99Ms());
+    budget.check("semantic.p99-ms", context, largest.semantic().p99Ms());
+    if (largest != smallest) {
+      String growth = smallest.entries() + " to " + largest.entries() + " entries:";
+      budget.check("exact.max-growth", growth, largest.exact().p50Ms() / smallest.exact().p50Ms());
+      budget.check(
+          "semantic.max-growth", growth, largest.semantic().p50Ms() / smallest.semantic().p50Ms());
+    }
+  }
+
+  private VectorCacheService newCache(RedisCacheStore store, int dimension) throws Exception {
+    VectorCacheService cache =
+        new VectorCacheService(
+            store, new UnderlyingLlmProviderService(List.of(new SyntheticProvider(dimension))));
+    ReflectionTestUtils.setField(cache, "similarityThreshold", 0.95);
+
+    VectorIndexManager index =
+        (VectorIndexManager) ReflectionTestUtils.getField(cache, "vectorIndex");
+    ReflectionTestUtils.setField(index, "enabled", true);
+    ReflectionTestUtils.setField(
+        index,
+        "snapshotPath",
+        Files.createTempDirectory("scalability").resolve("none.snapshot").toString());
+    index.init();
+    long deadline = System.currentTimeMillis() + WARM_UP_TIMEOUT_MS;
+    while (!index.isReady()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Vector index did not load in time");
+      Thread.sleep(100);
+    }
+    return cache;
+  }
+
+  private Lookups lookups(
+      VectorCacheService cache, int count, IntFunction<String> prompt, int size, Random random) {
+    long[] nanos = new long[count];
+    int hits = 0;
+    long bytesBefore = redisInfo("stats", "total_net_output_bytes");
+    for (int i = 0; i < count; i++) {
+      String text = prompt.apply(random.nextInt(size));
+      long started = System.nanoTime();
+      if (cache.get(text).join().isPresent()) {
+        hits++;
+      }
+      nanos[i] = System.nanoTime() - started;
+    }
+    long bytes = redisInfo("stats", "total_net_output_bytes") - bytesBefore;
+    Arrays.sort(nanos);
+    return new Lookups(
+        count,
+        hits,
+        nanos[count / 2] / 1e6,
+        nanos[(int) Math.ceil(count * 0.99) - 1] / 1e6,
+        (double) bytes / count);
+  }
+
+  private static void seed(RedisCacheStore store, int from, int to, int dimension) {
+    LocalDateTime now = LocalDateTime.now();
+    List<CacheEntry> batch = new ArrayList<>(SEED_BATCH);
+    for (int i = from; i < to; i++) {
+      CacheEntry entry = new CacheEntry(prompt(i), RESPONSE, vector(i, dimension));
+      entry.setTimestamp(now);
+      batch.add(entry);
+      if (batch.size() == SEED_BATCH || i == to - 1) {
+        store.putAll(batch, null);
+        batch.clear();
+      }
+    }
+  }
+
+  private static long redisInfo(String section, String field) {
+    Properties info =
+        redisTemplate.execute(
+            (RedisCallback<Properties>) connection -> connection.serverCommands().info(section));
+    return Long.parseLong(info.getProperty(field).trim());
+  }
+
+  private static long usedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static String prompt(int index) {
+    return "cached prompt " + index;
+  }
+
+  private static String paraphrase(int index) {
+    return SyntheticProvider.PARAPHRASE_PREFIX + index;
+  }
+
+  private static float[] vector(long seed, int dimension) {
+    SplittableRandom random = new SplittableRandom(seed);
+    float[] vector = new float[dimension];
+    for (int i = 0; i < dimension; i++) {
+      vector[i] = (float) (random.nextDouble() * 2.0 - 1.0);
+    }
+    return vector;
+  }
+
+  /** Embeds paraphrases of seeded prompts close to their entry, at similarity around 0.99 */
+  private static class SyntheticProvider implements LlmProvider {
+
+    static final String PARAPHRASE_PREFIX = "paraphrased prompt ";
+
+    private final int dimension;
+
+    SyntheticProvider(int dimension) {
+      this.dimension = dimension;
+    }
+
+    @Override
+    public CompletableFuture<float[]> getVector(String text) {
+      if (!text.startsWith(PARAPHRASE_PREFIX)) {
+        return CompletableFuture.completedFuture(vector(~text.hashCode(), dimension));
+      }
+      int index = Integer.parseInt(text.substring(PARAPHRASE_PREFIX.length()));
+      float[] vector = vector(index, dimension);
+      SplittableRandom noise = new SplittableRandom(~index);
+      for (int i = 0; i < dimension; i++) {
+        vector[i] += (float) ((noise.nextDouble() * 2.0 - 1.0) * 0.1);
+      }
+      return CompletableFuture.completedFuture(vector);
+    }
+
+    @Override
+    public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
+      return CompletableFuture.completedFuture(RESPONSE);
+    }
+
+    @Override
+    public int getVectorDimension() {
+      return dimension;
+    }
+
+    @Override
+    public String getProviderName() {
+      return "synthetic";
+    }
+
+    @Override
+    public boolean isAvailable() {
+      return true;
+    }
+  }
+
+  /** Latency in milliseconds and Redis output per lookup */
+  record Lookups(int count, int hits, double p50Ms, double p99Ms, double redisBytesPerLookup) {}
+
+  record SizeResult(
+      int entries,
+      long seedMillis,
+      long warmUpMillis,
+      long heapBytesPerEntry,
+      long redisBytesPerEntry,
+      Lookups exact,
+      Lookups semantic) {}
+}
@@ -0,0 +1,71 @@
+package com.example.llmcache.scalability;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Sizes and limits for the scalability suite, read from {@code scalability-budget.properties} and
+ * overridden by {@code scalability.*} system properties.
+ */
+final class ScalabilityBudget {
+
+  private static final String RESOURCE = "/scalability-budget.properties";
+  private static final String OVERRIDE_PREFIX = "scalability.";
+
+  private final Properties properties = new Properties();
+  private final List<String> violations = new ArrayList<>();
+
+  ScalabilityBudget() throws IOException {
+    try (InputStream in = ScalabilityBudget.class.getResourceAsStream(RESOURCE)) {
+      if (in == null) {
+        throw new IOException("Missing " + RESOURCE);
+      }
+      properties.load(in);
+    }
+    for (String name : System.getProperties().stringPropertyNames()) {
+      if (name.startsWith(OVERRIDE_PREFIX)) {
+        properties.setProperty(name.substring(OVERRIDE_PREFIX.length()), System.getProperty(name));
+      }
+    }
+  }
+
+  int[] sizes() {
+    return Arrays.stream(get("sizes").split(","))
+        .mapToInt(s -> Integer.parseInt(s.trim()))
+        .sorted()
+        .toArray();
+  }
+
+  int getInt(String key) {
+    return Integer.parseInt(get(key));
+  }
+
+  double getDouble(String key) {
+    return Double.parseDouble(get(key));
+  }
+
+  /** Records a violation if the measured value is above the limit of the key */
+  void check(String key, String context, double measured) {
+    double limit = getDouble(key);
+    if (measured > limit) {
+      violations.add(
+          String.format("%s %s: %.1f exceeds budget %.1f", context, key, measured, limit));
+    }
+  }
+
+  List<String> getViolations() {
+    return violations;
+  }
+
+  private String get(String key) {
+    String value = properties.getProperty(key);
+    if (value == null) {
+      throw new IllegalStateException("No scalability budget for " + key);
+    }
+    return value.trim();
+  }
+}
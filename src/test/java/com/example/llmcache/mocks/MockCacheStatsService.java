@@ -1,6 +1,7 @@
 package com.example.llmcache.mocks;
 
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import com.example.llmcache.service.CacheStatsService;
@@ -24,7 +25,10 @@ public class MockCacheStatsService extends CacheStatsService {
                 BigDecimal.valueOf(0.24), // totalSaved
                 BigDecimal.valueOf(7.20), // estimatedMonthlySavings
                 BigDecimal.valueOf(87.60) // estimatedYearlySavings
-                ));
+                ),
+            86400L, // uptimeSeconds
+            1, // activeInstances
+            Map.of());
   }
 
   @Override
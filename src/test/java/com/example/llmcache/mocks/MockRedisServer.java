@@ -0,0 +1,302 @@
+package com.example.llmcache.mocks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * In-process Redis speaking RESP2, with just the string, expiry and SCAN commands the cache store
+ * sends. Keys are kept as ISO-8859-1 strings so their bytes round-trip unchanged, and SCAN cursors
+ * are positions in key order, so a walk is only consistent while no keys are added.
+ */
+public class MockRedisServer implements AutoCloseable {
+
+  private final ServerSocket serverSocket;
+  private final ExecutorService clients = Executors.newCachedThreadPool();
+  private final TreeMap<String, byte[]> values = new TreeMap<>();
+  private final Map<String, Long> expiresAt = new TreeMap<>();
+
+  public MockRedisServer() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    clients.submit(this::accept);
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /** Returns the stored keys, as the bytes Redis would hold, decoded as UTF-8 */
+  public synchronized List<String> keys() {
+    List<String> keys = new ArrayList<>();
+    for (String key : values.keySet()) {
+      keys.add(new String(bytes(key), StandardCharsets.UTF_8));
+    }
+    return keys;
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    clients.shutdownNow();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        clients.submit(() -> serve(socket));
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket;
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+      while (true) {
+        List<String> command = readCommand(in);
+        reply(out, execute(command));
+        if (in.available() == 0) {
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      // Client disconnected
+    }
+  }
+
+  private synchronized Object execute(List<String> command) {
+    String name = command.get(0).toUpperCase(Locale.ROOT);
+    List<String> args = command.subList(1, command.size());
+    switch (name) {
+      case "PING":
+        return new Status("PONG");
+      case "SELECT":
+      case "CLIENT":
+        return new Status("OK");
+      case "GET":
+        return get(args.get(0));
+      case "MGET":
+        List<Object> found = new ArrayList<>();
+        for (String key : args) {
+          found.add(get(key));
+        }
+        return found;
+      case "SET":
+        return set(args);
+      case "SETEX":
+        return set(List.of(args.get(0), args.get(2), "EX", args.get(1)));
+      case "PSETEX":
+        return set(List.of(args.get(0), args.get(2), "PX", args.get(1)));
+      case "DEL":
+      case "UNLINK":
+        long removed = 0;
+        for (String key : args) {
+          if (get(key) != null) {
+            remove(key);
+            removed++;
+          }
+        }
+        return removed;
+      case "PEXPIRE":
+      case "EXPIRE":
+        if (get(args.get(0)) == null) {
+          return 0L;
+        }
+        long ttl = Long.parseLong(args.get(1)) * (name.equals("EXPIRE") ? 1000 : 1);
+        expiresAt.put(args.get(0), System.currentTimeMillis() + ttl);
+        return 1L;
+      case "PTTL":
+        if (get(args.get(0)) == null) {
+          return -2L;
+        }
+        Long expiry = expiresAt.get(args.get(0));
+        return expiry != null ? expiry - System.currentTimeMillis() : -1L;
+      case "INCRBY":
+        byte[] current = get(args.get(0));
+        long value =
+            (current != null ? Long.parseLong(new String(current, StandardCharsets.UTF_8)) : 0)
+                + Long.parseLong(args.get(1));
+        values.put(args.get(0), Long.toString(value).getBytes(StandardCharsets.UTF_8));
+        return value;
+      case "STRLEN":
+        byte[] stored = get(args.get(0));
+        return stored != null ? (long) stored.length : 0L;
+      case "SCAN":
+        return scan(args);
+      default:
+        return new Error("ERR unknown command '" + command.get(0) + "'");
+    }
+  }
+
+  private byte[] get(String key) {
+    Long expiry = expiresAt.get(key);
+    if (expiry != null && expiry <= System.currentTimeMillis()) {
+      remove(key);
+    }
+    return values.get(key);
+  }
+
+  private void remove(String key) {
+    values.remove(key);
+    expiresAt.remove(key);
+  }
+
+  private Object set(List<String> args) {
+    String key = args.get(0);
+    boolean exists = get(key) != null;
+    Long expiry = null;
+    boolean keepTtl = false;
+    for (int i = 2; i < args.size(); i++) {
+      switch (args.get(i).toUpperCase(Locale.ROOT)) {
+        case "XX" -> {
+          if (!exists) {
+            return null;
+          }
+        }
+        case "NX" -> {
+          if (exists) {
+            return null;
+          }
+        }
+        case "EX" -> expiry = System.currentTimeMillis() + 1000 * Long.parseLong(args.get(++i));
+        case "PX" -> expiry = System.currentTimeMillis() + Long.parseLong(args.get(++i));
+        case "KEEPTTL" -> keepTtl = true;
+        default -> {
+          return new Error("ERR syntax error");
+        }
+      }
+    }
+    values.put(key, bytes(args.get(1)));
+    if (expiry != null) {
+      expiresAt.put(key, expiry);
+    } else if (!keepTtl) {
+      expiresAt.remove(key);
+    }
+    return new Status("OK");
+  }
+
+  private Object scan(List<String> args) {
+    int position = Integer.parseInt(args.get(0));
+    Pattern match = null;
+    int count = 10;
+    for (int i = 1; i + 1 < args.size(); i += 2) {
+      switch (args.get(i).toUpperCase(Locale.ROOT)) {
+        case "MATCH" -> match = glob(args.get(i + 1));
+        case "COUNT" -> count = Integer.parseInt(args.get(i + 1));
+        default -> {
+          return new Error("ERR syntax error");
+        }
+      }
+    }
+    List<String> keys = new ArrayList<>(values.keySet());
+    int end = Math.min(keys.size(), position + count);
+    List<Object> page = new ArrayList<>();
+    for (String key : keys.subList(Math.min(position, end), end)) {
+      if ((match == null || match.matcher(key).matches()) && get(key) != null) {
+        page.add(bytes(key));
+      }
+    }
+    String next = end < keys.size() ? Integer.toString(end) : "0";
+    return List.of(next.getBytes(StandardCharsets.UTF_8), page);
+  }
+
+  /** Translates a Redis glob with {@code *}, {@code ?} and backslash escapes to a regex */
+  private static Pattern glob(String glob) {
+    StringBuilder regex = new StringBuilder();
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      if (c == '*') {
+        regex.append("(?s).*");
+      } else if (c == '?') {
+        regex.append("(?s).");
+      } else {
+        if (c == '\\' && i + 1 < glob.length()) {
+          c = glob.charAt(++i);
+        }
+        regex.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return Pattern.compile(regex.toString());
+  }
+
+  private static List<String> readCommand(InputStream in) throws IOException {
+    String header = readLine(in);
+    if (!header.startsWith("*")) {
+      throw new IOException("Inline commands are not supported: " + header);
+    }
+    int count = Integer.parseInt(header.substring(1));
+    List<String> command = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int length = Integer.parseInt(readLine(in).substring(1));
+      byte[] arg = in.readNBytes(length);
+      readLine(in);
+      command.add(new String(arg, StandardCharsets.ISO_8859_1));
+    }
+    return command;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) != '\r') {
+      if (b < 0) {
+        throw new EOFException();
+      }
+      line.write(b);
+    }
+    in.read();
+    return line.toString(StandardCharsets.ISO_8859_1);
+  }
+
+  private static void reply(OutputStream out, Object value) throws IOException {
+    if (value == null) {
+      write(out, "$-1\r\n");
+    } else if (value instanceof Status status) {
+      write(out, "+" + status.text() + "\r\n");
+    } else if (value instanceof Error error) {
+      write(out, "-" + error.text() + "\r\n");
+    } else if (value instanceof Long number) {
+      write(out, ":" + number + "\r\n");
+    } else if (value instanceof byte[] bulk) {
+      write(out, "$" + bulk.length + "\r\n");
+      out.write(bulk);
+      write(out, "\r\n");
+    } else if (value instanceof List<?> list) {
+      write(out, "*" + list.size() + "\r\n");
+      for (Object item : list) {
+        reply(out, item);
+      }
+    }
+  }
+
+  private static void write(OutputStream out, String text) throws IOException {
+    out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  private record Status(String text) {}
+
+  private record Error(String text) {}
+}
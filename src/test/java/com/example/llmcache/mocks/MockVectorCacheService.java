@@ -1,9 +1,12 @@
 package com.example.llmcache.mocks;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
+import com.example.llmcache.model.CacheEntry;
 import com.example.llmcache.service.VectorCacheService;
 
 public class MockVectorCacheService extends VectorCacheService {
@@ -12,6 +15,8 @@ public class MockVectorCacheService extends VectorCacheService {
   private RuntimeException getException;
   private RuntimeException setException;
   private VectorCacheService.CacheStats statsResult;
+  private RuntimeException putAllException;
+  private final List<CacheEntry> storedEntries = new ArrayList<>();
 
   public MockVectorCacheService() {
     super(null, null, null);
@@ -45,6 +50,16 @@ public class MockVectorCacheService extends VectorCacheService {
     return CompletableFuture.completedFuture(result);
   }
 
+  @Override
+  public List<CompletableFuture<Optional<String>>> getAll(List<String> prompts) {
+    callTracker.recordCall("getAll", prompts);
+    List<CompletableFuture<Optional<String>>> results = new ArrayList<>();
+    for (String prompt : prompts) {
+      results.add(get(prompt));
+    }
+    return results;
+  }
+
   @Override
   public CompletableFuture<Void> set(String prompt, String response, Map<String, Object> metadata) {
     callTracker.recordCall("set", prompt, response, metadata);
@@ -54,6 +69,23 @@ public class MockVectorCacheService extends VectorCacheService {
     return CompletableFuture.completedFuture(null);
   }
 
+  public void setPutAllException(RuntimeException exception) {
+    this.putAllException = exception;
+  }
+
+  @Override
+  public synchronized void putAll(List<CacheEntry> entries) {
+    callTracker.recordCall("putAll", entries);
+    if (putAllException != null) {
+      throw putAllException;
+    }
+    storedEntries.addAll(entries);
+  }
+
+  public synchronized List<CacheEntry> getStoredEntries() {
+    return new ArrayList<>(storedEntries);
+  }
+
   @Override
   public CacheStats getStats() {
     callTracker.recordCall("getStats");
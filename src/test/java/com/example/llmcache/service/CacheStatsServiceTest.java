@@ -0,0 +1,90 @@
+package com.example.llmcache.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.mocks.MockVectorCacheService;
+import com.example.llmcache.service.CacheStatsService.CacheStatistics;
+import com.example.llmcache.service.stats.InMemoryStatsStore;
+import com.example.llmcache.service.stats.StatsStore;
+
+class CacheStatsServiceTest {
+
+  private StatsStore store;
+  private CacheStatsService first;
+  private CacheStatsService second;
+
+  @BeforeEach
+  void setUp() {
+    store = new InMemoryStatsStore();
+    first = newService(store);
+    second = newService(store);
+  }
+
+  private static CacheStatsService newService(StatsStore store) {
+    CacheStatsService service = new CacheStatsService(new MockVectorCacheService(), store);
+    ReflectionTestUtils.setField(service, "inputTokenPricePer1k", 0.0015);
+    ReflectionTestUtils.setField(service, "outputTokenPricePer1k", 0.002);
+    ReflectionTestUtils.setField(service, "embeddingTokenPricePer1k", 0.0001);
+    ReflectionTestUtils.setField(service, "avgInputTokens", 50);
+    ReflectionTestUtils.setField(service, "avgOutputTokens", 150);
+    ReflectionTestUtils.setField(service, "avgEmbeddingTokens", 50);
+    return service;
+  }
+
+  @Test
+  void shouldAggregateFlushedCountsAcrossInstances() throws Exception {
+    first.recordCacheHit();
+    first.recordCacheHit();
+    first.recordCacheMiss();
+    second.recordCacheHit();
+    first.flush();
+    second.flush();
+
+    CacheStatistics stats = first.getCacheStatistics().get();
+
+    assertEquals(3, stats.getCacheHits());
+    assertEquals(1, stats.getCacheMisses());
+    assertEquals(4, stats.getTotalRequests());
+    assertEquals(75.0, stats.getHitRatePercentage(), 0.001);
+    assertEquals(2, stats.getActiveInstances());
+    assertEquals(4, stats.getWindows().get("1m").getRequests());
+    assertEquals(4, stats.getWindows().get("1h").getRequests());
+    assertEquals(4, stats.getWindows().get("24h").getRequests());
+  }
+
+  @Test
+  void shouldIncludeOwnUnflushedCountsOnce() throws Exception {
+    first.recordCacheHit();
+    first.flush();
+    first.recordCacheMiss();
+
+    CacheStatistics before = first.getCacheStatistics().get();
+    first.flush();
+    CacheStatistics after = first.getCacheStatistics().get();
+
+    assertEquals(2, before.getTotalRequests());
+    assertEquals(2, after.getTotalRequests());
+    assertEquals(2, after.getWindows().get("1m").getRequests());
+  }
+
+  @Test
+  void shouldExtrapolateSavingsFromUptime() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      first.recordCacheHit();
+    }
+    first.flush();
+
+    CacheStatistics stats = first.getCacheStatistics().get();
+    BigDecimal totalSaved = stats.getCostSavings().getTotalSaved();
+
+    // Under an hour of statistics is extrapolated as one hour, so a day is 24 times the total
+    BigDecimal expectedMonthly = totalSaved.multiply(BigDecimal.valueOf(24 * 30));
+    assertEquals(0, expectedMonthly.compareTo(stats.getCostSavings().getEstimatedMonthlySavings()));
+  }
+}
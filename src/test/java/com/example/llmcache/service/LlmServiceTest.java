@@ -2,6 +2,9 @@ package com.example.llmcache.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -82,4 +85,39 @@ class LlmServiceTest {
     assertEquals("assistant", response.getChoices().get(0).getMessage().getRole());
     assertEquals("response", response.getChoices().get(0).getMessage().getContent());
   }
+
+  @Test
+  void shouldAnswerEveryBatchPromptAndGenerateDuplicatesOnce() throws Exception {
+    mockLlmProviderService.setGenerateResponseResult("generated");
+    List<LlmService.BatchResult> results = Collections.synchronizedList(new ArrayList<>());
+
+    service.generateBatch(List.of("a", "b", "a"), Map.of(), results::add).get();
+
+    assertEquals(3, results.size());
+    assertEquals(
+        List.of(0, 1, 2), results.stream().map(LlmService.BatchResult::getIndex).sorted().toList());
+    assertTrue(results.stream().allMatch(r -> r.isSuccess() && !r.isCached()));
+    assertEquals(2, mockLlmProviderService.getCallTracker().getCallCount("generateResponse"));
+    assertEquals(1, mockCacheService.getCallTracker().getCallCount("getAll"));
+  }
+
+  @Test
+  void shouldReportBatchCacheHitsAndFailures() throws Exception {
+    mockCacheService.setGetResult("cached");
+    List<LlmService.BatchResult> hits = Collections.synchronizedList(new ArrayList<>());
+
+    service.generateBatch(List.of("a", "b"), Map.of(), hits::add).get();
+
+    assertTrue(hits.stream().allMatch(r -> r.isCached() && r.getContent().equals("cached")));
+    assertTrue(mockLlmProviderService.getCallTracker().wasNeverCalled("generateResponse"));
+
+    mockCacheService.setGetResult(null);
+    mockLlmProviderService.setGenerateResponseException(new RuntimeException("down"));
+    List<LlmService.BatchResult> failures = Collections.synchronizedList(new ArrayList<>());
+
+    service.generateBatch(List.of("c"), Map.of(), failures::add).get();
+
+    assertEquals(1, failures.size());
+    assertFalse(failures.get(0).isSuccess());
+  }
 }
@@ -9,6 +9,7 @@ import java.util.concurrent.ExecutionException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.example.llmcache.mocks.MockLlmProvider;
 import com.example.llmcache.service.llmprovider.LlmProvider;
@@ -35,6 +36,47 @@ class UnderlyingLlmProviderServiceTest {
     assertEquals("mock1", service.getActiveProvider().getProviderName());
   }
 
+  @Test
+  void shouldUseSeparateEmbeddingAndGenerationProviders()
+      throws ExecutionException, InterruptedException {
+    ReflectionTestUtils.setField(service, "activeProviderName", "mock1");
+    ReflectionTestUtils.setField(service, "embeddingProviderName", "mock2");
+    service.init();
+
+    assertEquals("mock2", service.getEmbeddingProvider().getProviderName());
+    assertEquals("mock1", service.getGenerationProvider().getProviderName());
+    assertEquals(4096, service.getVector("test text").get().length);
+    assertEquals("Mock response for: hi", service.generateResponse("hi", null).get());
+  }
+
+  @Test
+  void shouldNotGenerateWithEmbeddingOnlyProvider()
+      throws ExecutionException, InterruptedException {
+    MockLlmProvider embedder =
+        new MockLlmProvider("embedder", 384, true) {
+          @Override
+          public boolean supportsGeneration() {
+            return false;
+          }
+        };
+    service = new UnderlyingLlmProviderService(List.of(embedder, mockProvider1));
+    ReflectionTestUtils.setField(service, "activeProviderName", "embedder");
+    service.init();
+
+    assertEquals("embedder", service.getEmbeddingProvider().getProviderName());
+    assertEquals("mock1", service.getGenerationProvider().getProviderName());
+    assertEquals("Mock response for: hi", service.generateResponse("hi", null).get());
+  }
+
+  @Test
+  void shouldUseActiveProviderForBothByDefault() {
+    ReflectionTestUtils.setField(service, "activeProviderName", "mock2");
+    service.init();
+
+    assertEquals("mock2", service.getEmbeddingProvider().getProviderName());
+    assertEquals("mock2", service.getGenerationProvider().getProviderName());
+  }
+
   @Test
   void shouldGenerateVectors() throws ExecutionException, InterruptedException {
     CompletableFuture<float[]> future = service.getVector("test text");
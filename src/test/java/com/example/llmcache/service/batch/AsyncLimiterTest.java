@@ -0,0 +1,66 @@
+package com.example.llmcache.service.batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+class AsyncLimiterTest {
+
+  @Test
+  void shouldQueueTasksBeyondTheLimit() {
+    AsyncLimiter limiter = new AsyncLimiter(2);
+    List<CompletableFuture<Integer>> pending = new ArrayList<>();
+    List<CompletableFuture<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      CompletableFuture<Integer> task = new CompletableFuture<>();
+      pending.add(task);
+      results.add(limiter.submit(() -> task));
+    }
+
+    assertEquals(2, limiter.getRunning());
+    assertEquals(3, limiter.getWaiting());
+
+    pending.get(0).complete(0);
+    assertEquals(0, results.get(0).join());
+    assertEquals(2, limiter.getRunning());
+    assertEquals(2, limiter.getWaiting());
+
+    for (int i = 1; i < 5; i++) {
+      pending.get(i).complete(i);
+    }
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i, results.get(i).join());
+    }
+    assertEquals(0, limiter.getRunning());
+    assertEquals(0, limiter.getWaiting());
+  }
+
+  @Test
+  void shouldReleaseSlotWhenTaskFails() {
+    AsyncLimiter limiter = new AsyncLimiter(1);
+
+    CompletableFuture<String> failed =
+        limiter.submit(() -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+    CompletableFuture<String> thrown =
+        limiter.submit(
+            () -> {
+              throw new IllegalStateException("thrown");
+            });
+    CompletableFuture<String> next = limiter.submit(() -> CompletableFuture.completedFuture("ok"));
+
+    assertThrows(ExecutionException.class, failed::get);
+    assertThrows(ExecutionException.class, thrown::get);
+    assertEquals("ok", next.join());
+    assertEquals(0, limiter.getRunning());
+  }
+
+  @Test
+  void shouldRejectNonPositiveLimit() {
+    assertThrows(IllegalArgumentException.class, () -> new AsyncLimiter(0));
+  }
+}
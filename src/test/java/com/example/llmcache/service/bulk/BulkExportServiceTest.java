@@ -0,0 +1,158 @@
+package com.example.llmcache.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.store.EmbeddedCacheStore;
+import com.example.llmcache.service.tier.TieredStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BulkExportServiceTest {
+
+  @TempDir Path directory;
+
+  private EmbeddedCacheStore store;
+  private BulkExportService service;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    store = new EmbeddedCacheStore();
+    ReflectionTestUtils.setField(store, "directoryName", directory.toString());
+    ReflectionTestUtils.setField(store, "segmentMb", 1L);
+    store.open();
+    service = new BulkExportService(store, new TieredStore());
+
+    CacheEntry plain = new CacheEntry("What is Java?", "A language", new float[] {1, 2});
+    plain.getMetadata().put("model", "gpt-4");
+    store.put(plain, Duration.ofHours(1));
+    store.put(new CacheEntry("What is Go?", "Another language", new float[] {3, 4}), null);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  void shouldWriteOneJsonLinePerEntry() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long count = service.export(out, ExportFormat.NDJSON, ExportFilter.ALL, true);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, count);
+    assertEquals(2, lines.length);
+    JsonNode java = null;
+    for (String line : lines) {
+      JsonNode node = new ObjectMapper().readTree(line);
+      if (node.get("prompt").asText().equals("What is Java?")) {
+        java = node;
+      }
+    }
+    assertNotNull(java);
+    assertEquals("A language", java.get("response").asText());
+    assertEquals("gpt-4", java.get("metadata").get("model").asText());
+    assertEquals(2, java.get("vector").size());
+    assertTrue(java.get("timestamp").isTextual());
+  }
+
+  @Test
+  void shouldOmitVectorsAndApplyFilter() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long count =
+        service.export(
+            out,
+            ExportFormat.NDJSON,
+            new ExportFilter(null, null, Map.of("model", "gpt-4")),
+            false);
+
+    assertEquals(1, count);
+    JsonNode node = new ObjectMapper().readTree(out.toString(StandardCharsets.UTF_8));
+    assertEquals("What is Java?", node.get("prompt").asText());
+    assertFalse(node.has("vector"));
+  }
+
+  @Test
+  void shouldWriteBinaryRecordsWithTrailer() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    service.export(out, ExportFormat.BINARY, ExportFilter.ALL, true);
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(BulkExportService.BINARY_MAGIC, in.readInt());
+    assertEquals(BulkExportService.BINARY_VERSION, in.readInt());
+    assertEquals(1, in.readByte());
+    int records = 0;
+    while (in.readByte() == 1) {
+      assertEquals(32, readString(in).length());
+      assertTrue(readString(in).startsWith("What is"));
+      assertTrue(readString(in).contains("language"));
+      assertTrue(in.readLong() > 0);
+      readString(in);
+      assertEquals(2, in.readInt());
+      in.readFloat();
+      in.readFloat();
+      records++;
+    }
+    assertEquals(2, records);
+    assertEquals(2, in.readLong());
+    assertEquals(0, in.available());
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void shouldRejectExportsOverTheConcurrencyLimit() throws IOException {
+    ReflectionTestUtils.setField(service, "maxConcurrent", 1);
+    boolean[] rejected = new boolean[1];
+    OutputStream slowClient =
+        new ByteArrayOutputStream() {
+          @Override
+          public void write(byte[] b, int off, int len) {
+            try {
+              service.export(
+                  new ByteArrayOutputStream(), ExportFormat.NDJSON, ExportFilter.ALL, true);
+            } catch (RejectedExecutionException e) {
+              rejected[0] = true;
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            super.write(b, off, len);
+          }
+        };
+
+    assertEquals(2, service.export(slowClient, ExportFormat.NDJSON, ExportFilter.ALL, true));
+    assertTrue(rejected[0]);
+    assertEquals(
+        2,
+        service.export(new ByteArrayOutputStream(), ExportFormat.NDJSON, ExportFilter.ALL, true));
+  }
+}
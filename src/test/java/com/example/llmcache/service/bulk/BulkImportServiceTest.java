@@ -0,0 +1,150 @@
+package com.example.llmcache.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.mocks.MockUnderlyingLlmProviderService;
+import com.example.llmcache.mocks.MockVectorCacheService;
+import com.example.llmcache.model.CacheEntry;
+
+class BulkImportServiceTest {
+
+  @TempDir Path dir;
+
+  private MockVectorCacheService cacheService;
+  private BulkImportService service;
+
+  @BeforeEach
+  void setUp() {
+    cacheService = new MockVectorCacheService();
+    service = new BulkImportService(cacheService, new MockUnderlyingLlmProviderService());
+    ReflectionTestUtils.setField(service, "checkpointDir", dir.toString());
+    ReflectionTestUtils.setField(service, "batchSize", 3);
+    ReflectionTestUtils.setField(service, "maxConcurrentBatches", 2);
+  }
+
+  @Test
+  void shouldImportValidLinesAndSkipMalformedOnes() throws IOException {
+    String input =
+        lines(10)
+            + "not json\n"
+            + "{\"prompt\":\"no response\"}\n"
+            + "\n"
+            + "{\"prompt\":\"with metadata\",\"response\":\"r\",\"metadata\":{\"model\":\"m\"}}\n";
+
+    ImportProgress progress = service.importStream("job", stream(input));
+
+    assertTrue(progress.isDone());
+    assertEquals(11, progress.getImported());
+    assertEquals(2, progress.getSkipped());
+    assertEquals(0, progress.getFailed());
+    assertEquals(14, progress.getCheckpointLine());
+    assertEquals(11, cacheService.getStoredEntries().size());
+    assertTrue(cacheService.getStoredEntries().stream().allMatch(e -> e.getVector() != null));
+    assertEquals(
+        "m",
+        cacheService.getStoredEntries().stream()
+            .filter(e -> e.getPrompt().equals("with metadata"))
+            .findFirst()
+            .get()
+            .getMetadata()
+            .get("model"));
+  }
+
+  @Test
+  void shouldResumeAfterCheckpoint() throws IOException {
+    Files.writeString(dir.resolve("job.checkpoint"), "6");
+
+    ImportProgress progress = service.importStream("job", stream(lines(10)));
+
+    assertEquals(6, progress.getResumedFromLine());
+    assertEquals(4, progress.getImported());
+    assertEquals(10, progress.getCheckpointLine());
+    assertEquals("10", Files.readString(dir.resolve("job.checkpoint")));
+  }
+
+  @Test
+  void shouldCountFailedBatchesAndKeepCheckpointBeforeThem() throws IOException {
+    cacheService.setPutAllException(new RuntimeException("store down"));
+
+    ImportProgress progress = service.importStream("job", stream(lines(7)));
+
+    assertEquals(0, progress.getImported());
+    assertEquals(7, progress.getFailed());
+    assertEquals(0, progress.getCheckpointLine());
+  }
+
+  @Test
+  void shouldImportAliasesAndReembedVectorsOfAnotherDimension() throws IOException {
+    String input =
+        "{\"prompt\":\"alias\",\"metadata\":{\"alias_of\":\"abc\"}}\n"
+            + "{\"prompt\":\"short vector\",\"response\":\"r\",\"vector\":[1.0,0.0]}\n";
+
+    ImportProgress progress = service.importStream("job", stream(input));
+
+    assertEquals(2, progress.getImported());
+    CacheEntry alias = stored("alias");
+    assertNull(alias.getResponse());
+    assertNull(alias.getVector());
+    assertEquals("abc", alias.getMetadata().get("alias_of"));
+    assertEquals(1536, stored("short vector").getVector().length);
+  }
+
+  @Test
+  void shouldReembedVectorsExportedFromAnotherEmbeddingSpace() throws IOException {
+    String vector = "[" + String.join(",", Collections.nCopies(1536, "1.0")) + "]";
+    String input =
+        "{\"prompt\":\"same space\",\"response\":\"r\",\"vector\":"
+            + vector
+            + ",\"metadata\":{\"embedding_space\":\"mock/default/1536\"}}\n"
+            + "{\"prompt\":\"other space\",\"response\":\"r\",\"vector\":"
+            + vector
+            + ",\"metadata\":{\"embedding_space\":\"openai/text-embedding-3-small/1536\"}}\n";
+
+    service.importStream("job", stream(input));
+
+    assertEquals(1.0f, stored("same space").getVector()[0]);
+    assertNotEquals(1.0f, stored("other space").getVector()[0]);
+  }
+
+  @Test
+  void shouldRejectInvalidJobId() {
+    assertThrows(
+        IllegalArgumentException.class, () -> service.importStream("../etc", stream(lines(1))));
+  }
+
+  private CacheEntry stored(String prompt) {
+    return cacheService.getStoredEntries().stream()
+        .filter(e -> e.getPrompt().equals(prompt))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static String lines(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 1; i <= count; i++) {
+      sb.append("{\"prompt\":\"prompt ")
+          .append(i)
+          .append("\",\"response\":\"response ")
+          .append(i)
+          .append("\"}\n");
+    }
+    return sb.toString();
+  }
+
+  private static InputStream stream(String s) {
+    return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.llmcache.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.llmcache.model.CacheEntry;
+
+class ExportFilterTest {
+
+  private final LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+  @Test
+  void shouldMatchEverythingWithoutConditions() {
+    CacheEntry entry = entry(Duration.ofDays(3));
+    entry.setTimestamp(null);
+
+    assertTrue(ExportFilter.ALL.matches(entry, now));
+  }
+
+  @Test
+  void shouldFilterByAge() {
+    ExportFilter filter = new ExportFilter(Duration.ofHours(1), Duration.ofHours(24), Map.of());
+
+    assertFalse(filter.matches(entry(Duration.ofMinutes(30)), now));
+    assertTrue(filter.matches(entry(Duration.ofHours(2)), now));
+    assertFalse(filter.matches(entry(Duration.ofDays(2)), now));
+  }
+
+  @Test
+  void shouldRequireAllMetadataValues() {
+    CacheEntry entry = entry(Duration.ZERO);
+    entry.getMetadata().put("model", "gpt-4");
+    entry.getMetadata().put("temperature", 0.5);
+
+    assertTrue(new ExportFilter(null, null, Map.of("model", "gpt-4")).matches(entry, now));
+    assertTrue(
+        new ExportFilter(null, null, Map.of("model", "gpt-4", "temperature", "0.5"))
+            .matches(entry, now));
+    assertFalse(new ExportFilter(null, null, Map.of("model", "other")).matches(entry, now));
+    assertFalse(new ExportFilter(null, null, Map.of("missing", "x")).matches(entry, now));
+  }
+
+  private CacheEntry entry(Duration age) {
+    CacheEntry entry = new CacheEntry("prompt", "response", new float[] {1, 0});
+    entry.setTimestamp(now.minus(age));
+    return entry;
+  }
+}
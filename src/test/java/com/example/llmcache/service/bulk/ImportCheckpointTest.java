@@ -0,0 +1,38 @@
+package com.example.llmcache.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ImportCheckpointTest {
+
+  @Test
+  void shouldAdvanceOnlyOverContiguousBatches() {
+    ImportCheckpoint checkpoint = new ImportCheckpoint(0);
+
+    assertEquals(0, checkpoint.complete(1, 200));
+    assertEquals(0, checkpoint.complete(2, 300));
+    assertEquals(300, checkpoint.complete(0, 100));
+    assertEquals(400, checkpoint.complete(3, 400));
+  }
+
+  @Test
+  void shouldHoldBackBehindMissingBatch() {
+    ImportCheckpoint checkpoint = new ImportCheckpoint(0);
+
+    checkpoint.complete(0, 100);
+    // Batch 1 failed and is never completed
+    checkpoint.complete(2, 300);
+    checkpoint.complete(3, 400);
+
+    assertEquals(100, checkpoint.getCommittedLine());
+  }
+
+  @Test
+  void shouldStartFromResumedLine() {
+    ImportCheckpoint checkpoint = new ImportCheckpoint(500);
+
+    assertEquals(500, checkpoint.getCommittedLine());
+    assertEquals(600, checkpoint.complete(0, 600));
+  }
+}
@@ -0,0 +1,71 @@
+package com.example.llmcache.service.eviction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class AdmissionFilterTest {
+
+  private EvictionPlanner planner;
+  private AdmissionFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    planner = new EvictionPlanner();
+    ReflectionTestUtils.setField(planner, "maxEntries", 2L);
+    ReflectionTestUtils.setField(planner, "lowWatermark", 0.5);
+
+    filter = new AdmissionFilter(planner);
+    ReflectionTestUtils.setField(filter, "enabled", true);
+    ReflectionTestUtils.setField(filter, "sketchWidth", 1024);
+    filter.init();
+  }
+
+  @Test
+  void shouldAdmitEverythingBelowBudget() {
+    assertTrue(filter.admit("one-off"));
+    assertEquals(0, filter.getRejected());
+  }
+
+  @Test
+  void shouldRejectRarePromptWhenAtBudget() {
+    fillToBudgetWithHotEntries();
+
+    filter.recordAccess("one-off");
+
+    assertFalse(filter.admit("one-off"));
+    assertEquals(1, filter.getRejected());
+  }
+
+  @Test
+  void shouldAdmitPromptMorePopularThanVictim() {
+    fillToBudgetWithHotEntries();
+
+    for (int i = 0; i < 10; i++) {
+      filter.recordAccess("trending");
+    }
+
+    assertTrue(filter.admit("trending"));
+  }
+
+  @Test
+  void shouldAdmitEverythingWhenDisabled() {
+    AdmissionFilter disabled = new AdmissionFilter(planner);
+    fillToBudgetWithHotEntries();
+
+    assertTrue(disabled.admit("one-off"));
+  }
+
+  private void fillToBudgetWithHotEntries() {
+    planner.recordInsert("a", 100, 10, 1, Long.MAX_VALUE);
+    planner.recordInsert("b", 100, 10, 2, Long.MAX_VALUE);
+    for (int i = 0; i < 3; i++) {
+      filter.recordAccess("a");
+      filter.recordAccess("b");
+    }
+    // Plans the victim queue, as the scheduled eviction run would
+    planner.selectVictims();
+  }
+}
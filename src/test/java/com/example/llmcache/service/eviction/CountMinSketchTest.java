@@ -0,0 +1,49 @@
+package com.example.llmcache.service.eviction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+  @Test
+  void shouldNeverUnderestimateBeforeAging() {
+    CountMinSketch sketch = new CountMinSketch(1024, 1_000_000);
+    for (int i = 0; i < 500; i++) {
+      for (int j = 0; j <= i % 5; j++) {
+        sketch.increment("key-" + i);
+      }
+    }
+
+    for (int i = 0; i < 500; i++) {
+      assertTrue(sketch.estimate("key-" + i) >= i % 5 + 1);
+    }
+  }
+
+  @Test
+  void shouldHalveCountsWhenSampleSizeIsReached() {
+    CountMinSketch sketch = new CountMinSketch(1024, 10);
+    for (int i = 0; i < 9; i++) {
+      sketch.increment("hot");
+    }
+    assertEquals(9, sketch.estimate("hot"));
+
+    sketch.increment("hot");
+
+    assertEquals(5, sketch.estimate("hot"));
+  }
+
+  @Test
+  void shouldRoundWidthUpToPowerOfTwo() {
+    assertEquals(1024, new CountMinSketch(1000, 10).getWidth());
+    assertEquals(1024, new CountMinSketch(1024, 10).getWidth());
+  }
+
+  @Test
+  void shouldReturnZeroForUnseenKeys() {
+    CountMinSketch sketch = new CountMinSketch(4096, 1000);
+    sketch.increment("seen");
+
+    assertEquals(0, sketch.estimate("unseen"));
+  }
+}
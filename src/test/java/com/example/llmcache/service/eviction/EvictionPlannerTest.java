@@ -0,0 +1,140 @@
+package com.example.llmcache.service.eviction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class EvictionPlannerTest {
+
+  private static final long FAR_FUTURE = Long.MAX_VALUE;
+
+  private EvictionPlanner planner(EvictionPolicy policy, long maxEntries, long maxBytes) {
+    EvictionPlanner planner = new EvictionPlanner();
+    ReflectionTestUtils.setField(planner, "policy", policy);
+    ReflectionTestUtils.setField(planner, "maxEntries", maxEntries);
+    ReflectionTestUtils.setField(planner, "maxBytes", maxBytes);
+    ReflectionTestUtils.setField(planner, "lowWatermark", 1.0);
+    return planner;
+  }
+
+  @Test
+  void shouldSelectNothingWithinBudget() {
+    EvictionPlanner planner = planner(EvictionPolicy.LRU, 10, 0);
+    planner.recordInsert("a", 100, 10, 1, FAR_FUTURE);
+
+    assertTrue(planner.selectVictims().isEmpty());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyCreatedFirstUnderLru() {
+    EvictionPlanner planner = planner(EvictionPolicy.LRU, 2, 0);
+    planner.recordInsert("old", 100, 10, 1, FAR_FUTURE);
+    planner.recordInsert("middle", 100, 10, 2, FAR_FUTURE);
+    planner.recordInsert("new", 100, 10, 3, FAR_FUTURE);
+
+    assertEquals(List.of("old"), planner.selectVictims());
+  }
+
+  @Test
+  void shouldKeepRecentlyReadEntryUnderLru() {
+    EvictionPlanner planner = planner(EvictionPolicy.LRU, 2, 0);
+    planner.recordInsert("old", 100, 10, 1, FAR_FUTURE);
+    planner.recordInsert("middle", 100, 10, 2, FAR_FUTURE);
+    planner.recordInsert("new", 100, 10, 3, FAR_FUTURE);
+    planner.recordHit("old");
+
+    assertEquals(List.of("middle"), planner.selectVictims());
+  }
+
+  @Test
+  void shouldEvictLeastFrequentlyUsedUnderLfu() {
+    EvictionPlanner planner = planner(EvictionPolicy.LFU, 2, 0);
+    planner.recordInsert("popular", 100, 10, 1, FAR_FUTURE);
+    planner.recordInsert("rare", 100, 10, 2, FAR_FUTURE);
+    planner.recordInsert("medium", 100, 10, 3, FAR_FUTURE);
+    planner.recordHit("popular");
+    planner.recordHit("popular");
+    planner.recordHit("medium");
+
+    assertEquals(List.of("rare"), planner.selectVictims());
+  }
+
+  @Test
+  void shouldPreferCheapToRegenerateEntriesUnderCostPolicy() {
+    EvictionPlanner planner = planner(EvictionPolicy.COST, 2, 0);
+    planner.recordInsert("long-answer", 1_000, 900, 1, FAR_FUTURE);
+    planner.recordInsert("short-answer", 1_000, 10, 2, FAR_FUTURE);
+    planner.recordInsert("hot-short-answer", 1_000, 10, 3, FAR_FUTURE);
+    for (int i = 0; i < 200; i++) {
+      planner.recordHit("hot-short-answer");
+    }
+
+    assertEquals(List.of("short-answer"), planner.selectVictims());
+  }
+
+  @Test
+  void shouldEvictUntilUnderByteBudget() {
+    EvictionPlanner planner = planner(EvictionPolicy.LRU, 0, 250);
+    planner.recordInsert("a", 100, 10, 1, FAR_FUTURE);
+    planner.recordInsert("b", 100, 10, 2, FAR_FUTURE);
+    planner.recordInsert("c", 100, 10, 3, FAR_FUTURE);
+
+    assertEquals(List.of("a"), planner.selectVictims());
+    assertEquals(300, planner.getTotalBytes());
+  }
+
+  @Test
+  void shouldRemoveExpiredEntries() {
+    EvictionPlanner planner = planner(EvictionPolicy.LRU, 0, 0);
+    planner.recordInsert("expired", 100, 10, 1, 1_000);
+    planner.recordInsert("live", 100, 10, 1, 5_000);
+
+    assertEquals(List.of("expired"), planner.removeExpired(2_000, id -> -2));
+    assertEquals(1, planner.getEntryCount());
+    assertEquals(100, planner.getTotalBytes());
+  }
+
+  @Test
+  void shouldKeepEntriesWhoseTtlWasExtendedElsewhere() {
+    EvictionPlanner planner = planner(EvictionPolicy.LRU, 0, 0);
+    planner.recordInsert("extended", 100, 10, 1, 1_000);
+    planner.recordInsert("persistent", 100, 10, 1, 1_000);
+
+    List<String> expired = planner.removeExpired(2_000, id -> id.equals("extended") ? 10_000 : -1);
+
+    assertTrue(expired.isEmpty());
+    assertEquals(2, planner.getEntryCount());
+    assertTrue(planner.removeExpired(13_000, id -> -2).contains("extended"));
+    assertEquals(1, planner.getEntryCount());
+  }
+
+  @Test
+  void shouldKeepAccessHistoryWhenEntryIsRewritten() {
+    EvictionPlanner planner = planner(EvictionPolicy.LFU, 2, 0);
+    planner.recordInsert("hot", 100, 10, 1, FAR_FUTURE);
+    planner.recordInsert("cold", 100, 10, 2, FAR_FUTURE);
+    planner.recordHit("hot");
+    planner.recordHit("hot");
+
+    // Refreshed in place, as refresh-ahead and alias updates do
+    planner.recordInsert("hot", 100, 10, 3, FAR_FUTURE);
+    planner.recordInsert("new", 100, 10, 4, FAR_FUTURE);
+
+    assertEquals(2, planner.getHits("hot"));
+    assertFalse(planner.selectVictims().contains("hot"));
+  }
+
+  @Test
+  void shouldAdjustBytesWhenEntryIsRewritten() {
+    EvictionPlanner planner = planner(EvictionPolicy.LRU, 0, 0);
+    planner.recordInsert("a", 100, 10, 1, FAR_FUTURE);
+    planner.recordInsert("a", 40, 10, 2, FAR_FUTURE);
+    planner.remove("a");
+
+    assertEquals(0, planner.getEntryCount());
+    assertEquals(0, planner.getTotalBytes());
+  }
+}
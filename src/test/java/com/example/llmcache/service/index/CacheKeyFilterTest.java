@@ -0,0 +1,150 @@
+package com.example.llmcache.service.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.store.EmbeddedCacheStore;
+
+class CacheKeyFilterTest {
+
+  @TempDir Path directory;
+
+  private final List<String> ids = new ArrayList<>();
+  private Consumer<Integer> duringWalk = visited -> {};
+  private boolean shared;
+  private EmbeddedCacheStore store;
+  private CacheKeyFilter filter;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    store =
+        new EmbeddedCacheStore() {
+          @Override
+          public void forEachId(Consumer<String> action) {
+            int[] visited = new int[1];
+            super.forEachId(
+                id -> {
+                  duringWalk.accept(visited[0]++);
+                  action.accept(id);
+                });
+          }
+
+          @Override
+          public boolean isShared() {
+            return shared;
+          }
+        };
+    ReflectionTestUtils.setField(store, "directoryName", directory.toString());
+    store.open();
+    for (int i = 0; i < 1000; i++) {
+      CacheEntry entry = new CacheEntry("prompt " + i, "response", null);
+      store.put(entry, Duration.ofHours(1));
+      ids.add(entry.getId());
+    }
+
+    filter = filter(1000);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  void shouldKeepLiveIdsWhenUnknownIdsAreRemovedDuringRebuild() {
+    duringWalk =
+        visited -> {
+          if (visited == 500) {
+            for (int i = 0; i < 5000; i++) {
+              filter.remove("never-added-" + i);
+            }
+          }
+        };
+
+    filter.rebuild();
+
+    for (String id : ids) {
+      assertTrue(filter.mightContain(id));
+    }
+  }
+
+  @Test
+  void shouldLeaveOutIdsRemovedBeforeTheWalkReachesThem() {
+    // Roomy enough that a false positive for the evicted id is practically impossible
+    filter = filter(1_000_000);
+    String evicted = ids.get(0);
+    duringWalk =
+        visited -> {
+          if (visited == 0) {
+            filter.remove(evicted);
+          }
+        };
+
+    filter.rebuild();
+
+    assertFalse(filter.mightContain(evicted));
+    for (String id : ids.subList(1, ids.size())) {
+      assertTrue(filter.mightContain(id));
+    }
+  }
+
+  @Test
+  void shouldKeepIdsAddedAgainDuringRebuild() {
+    String rewritten = ids.get(0);
+    duringWalk =
+        visited -> {
+          if (visited == 0) {
+            filter.remove(rewritten);
+            filter.add(rewritten);
+          }
+        };
+
+    filter.rebuild();
+
+    assertTrue(filter.mightContain(rewritten));
+  }
+
+  @Test
+  void shouldRuleOutIdsOfSharedStoreOnlyWhileWritesElsewhereAreTracked() {
+    shared = true;
+    filter = filter(1_000_000);
+    // Built without seeing writes by other instances
+    assertTrue(filter.mightContain("never-cached"));
+
+    filter.setRemoteWritesTracked(true);
+    filter.rebuild();
+    filter.add("written-elsewhere");
+
+    assertFalse(filter.mightContain("never-cached"));
+    assertTrue(filter.mightContain("written-elsewhere"));
+    assertTrue(filter.mightContain(ids.get(0)));
+
+    filter.setRemoteWritesTracked(false);
+
+    assertTrue(filter.mightContain("never-cached"));
+  }
+
+  /** A filter built from the store, without the background load started by init */
+  private CacheKeyFilter filter(long expectedEntries) {
+    CacheKeyFilter built = new CacheKeyFilter(store, null);
+    ReflectionTestUtils.setField(built, "enabled", true);
+    ReflectionTestUtils.setField(built, "expectedEntries", expectedEntries);
+    ReflectionTestUtils.setField(built, "falsePositiveRate", 0.01);
+    ReflectionTestUtils.setField(built, "filter", new CountingBloomFilter(expectedEntries, 0.01));
+    built.rebuild();
+    return built;
+  }
+}
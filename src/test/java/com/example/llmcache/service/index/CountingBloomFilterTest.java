@@ -0,0 +1,68 @@
+package com.example.llmcache.service.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CountingBloomFilterTest {
+
+  @Test
+  void shouldNeverReportFalseNegatives() {
+    CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add("id-" + i);
+    }
+
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(filter.mightContain("id-" + i));
+    }
+  }
+
+  @Test
+  void shouldStayNearConfiguredFalsePositiveRate() {
+    CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add("id-" + i);
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (filter.mightContain("other-" + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+  }
+
+  @Test
+  void shouldForgetRemovedKeysWithoutAffectingOthers() {
+    CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+    filter.add("keep");
+    filter.add("evict");
+
+    filter.remove("evict");
+
+    assertFalse(filter.mightContain("evict"));
+    assertTrue(filter.mightContain("keep"));
+  }
+
+  @Test
+  void shouldRoundTripThroughBytes() {
+    CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+    filter.add("a");
+    filter.add("b");
+
+    CountingBloomFilter restored = CountingBloomFilter.fromBytes(filter.toBytes());
+
+    assertTrue(restored.mightContain("a"));
+    assertTrue(restored.mightContain("b"));
+    assertEquals(filter.getNumHashes(), restored.getNumHashes());
+    assertEquals(filter.getSlotCount(), restored.getSlotCount());
+  }
+
+  @Test
+  void shouldRejectInvalidSizing() {
+    assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(100, 1.5));
+  }
+}
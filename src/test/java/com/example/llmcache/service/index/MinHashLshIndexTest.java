@@ -0,0 +1,85 @@
+package com.example.llmcache.service.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MinHashLshIndexTest {
+
+  private MinHashLshIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new MinHashLshIndex(null);
+    ReflectionTestUtils.setField(index, "enabled", true);
+    ReflectionTestUtils.setField(index, "shingleSize", 5);
+    ReflectionTestUtils.setField(index, "numHashes", 128);
+    ReflectionTestUtils.setField(index, "bands", 16);
+    ReflectionTestUtils.setField(index, "threshold", 0.8);
+    index.init();
+  }
+
+  @Test
+  void shouldMatchNearVerbatimPrompt() {
+    index.add("a", "Explain the difference between a process and a thread in operating systems");
+
+    Optional<MinHashLshIndex.Match> match =
+        index.findBestMatch(
+            "Explain the difference between a process and a thread in operating systems please");
+
+    assertTrue(match.isPresent());
+    assertEquals("a", match.get().getId());
+    assertTrue(match.get().getSimilarity() >= 0.8);
+  }
+
+  @Test
+  void shouldIgnoreCaseAndWhitespace() {
+    index.add("a", "What is the capital city of France?");
+
+    Optional<MinHashLshIndex.Match> match =
+        index.findBestMatch("  what is   the capital city of FRANCE?");
+
+    assertTrue(match.isPresent());
+    assertEquals(1.0, match.get().getSimilarity(), 0.0001);
+  }
+
+  @Test
+  void shouldNotMatchUnrelatedPrompt() {
+    index.add("a", "Explain the difference between a process and a thread in operating systems");
+
+    assertTrue(index.findBestMatch("Write a haiku about autumn leaves falling").isEmpty());
+  }
+
+  @Test
+  void shouldForgetRemovedEntries() {
+    index.add("a", "How do I reverse a linked list in Java?");
+    index.remove("a");
+
+    assertEquals(0, index.size());
+    assertTrue(index.findBestMatch("How do I reverse a linked list in Java?").isEmpty());
+  }
+
+  @Test
+  void shouldEstimateJaccardFromSignatures() {
+    int[] a = index.signature("the quick brown fox jumps over the lazy dog");
+    int[] b = index.signature("the quick brown fox jumps over the lazy dog");
+    int[] c = index.signature("completely different sentence about databases");
+
+    assertEquals(1.0, index.estimateJaccard(a, b), 0.0001);
+    assertTrue(index.estimateJaccard(a, c) < 0.2);
+  }
+
+  @Test
+  void shouldDoNothingWhenDisabled() {
+    MinHashLshIndex disabled = new MinHashLshIndex(null);
+
+    disabled.add("a", "prompt");
+
+    assertFalse(disabled.isEnabled());
+    assertTrue(disabled.findBestMatch("prompt").isEmpty());
+  }
+}
@@ -0,0 +1,225 @@
+package com.example.llmcache.service.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.mocks.MockLlmProvider;
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+import com.example.llmcache.service.store.EmbeddedCacheStore;
+
+class VectorIndexManagerTest {
+
+  @TempDir Path directory;
+
+  private final List<Change> changes = new ArrayList<>();
+  private EmbeddedCacheStore store;
+  private UnderlyingLlmProviderService providerService = embedder("mock", 2);
+
+  @BeforeEach
+  void setUp() throws IOException {
+    store = new EmbeddedCacheStore();
+    ReflectionTestUtils.setField(store, "directoryName", directory.resolve("store").toString());
+    store.open();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  void shouldBuildIndexFromStoreWithoutSnapshot() throws Exception {
+    store.put(entry("a", 1, 0), Duration.ofHours(1));
+
+    VectorIndexManager manager = start("local");
+
+    assertEquals("store", manager.getLoadSource());
+    assertEquals(1, manager.size());
+    assertEquals(
+        entry("a", 1, 0).getId(), manager.search(new float[] {1, 0}, 0.9, null).get().getId());
+  }
+
+  @Test
+  void shouldApplyRemoteChangesOnSync() throws Exception {
+    VectorIndexManager manager = start("local");
+    CacheEntry remote = writeRemote(entry("b", 0, 1));
+
+    assertTrue(manager.search(new float[] {0, 1}, 0.9, null).isEmpty());
+    manager.sync();
+
+    assertEquals(remote.getId(), manager.search(new float[] {0, 1}, 0.9, null).get().getId());
+  }
+
+  @Test
+  void shouldReplayRemoteChangesNotYetSyncedWhenSnapshotWasTaken() throws Exception {
+    VectorIndexManager manager = start("local");
+    manager.recordPut(put(entry("a", 1, 0)).getId(), new float[] {1, 0});
+    manager.sync();
+    // Logged after the last sync, so missing from the index when the snapshot is written
+    CacheEntry remote = writeRemote(entry("b", 0, 1));
+    manager.snapshot();
+
+    VectorIndexManager restarted = start("restarted");
+
+    assertEquals("snapshot", restarted.getLoadSource());
+    assertEquals(2, restarted.size());
+    assertEquals(remote.getId(), restarted.search(new float[] {0, 1}, 0.9, null).get().getId());
+  }
+
+  @Test
+  void shouldReplayChangesLoggedAfterSnapshot() throws Exception {
+    VectorIndexManager manager = start("local");
+    CacheEntry removed = put(entry("a", 1, 0));
+    manager.recordPut(removed.getId(), removed.getVector());
+    manager.snapshot();
+    store.delete(List.of(removed.getId()));
+    changes.add(new Change(removed.getId(), true, "other"));
+    CacheEntry added = writeRemote(entry("b", 0, 1));
+
+    VectorIndexManager restarted = start("restarted");
+
+    assertEquals("snapshot", restarted.getLoadSource());
+    assertEquals(1, restarted.size());
+    assertEquals(added.getId(), restarted.search(new float[] {0, 1}, 0.5, null).get().getId());
+  }
+
+  @Test
+  void shouldPruneEntriesThatExpiredInTheStore() throws Exception {
+    CacheEntry expiring = entry("a", 1, 0);
+    store.put(expiring, Duration.ofMillis(100));
+    store.put(entry("b", 0, 1), Duration.ofHours(1));
+    VectorIndexManager manager = start("local");
+    assertEquals(2, manager.size());
+
+    Thread.sleep(200);
+
+    assertEquals(1, manager.prune());
+    assertEquals(1, manager.size());
+    assertTrue(manager.search(new float[] {1, 0}, 0.9, null).isEmpty());
+  }
+
+  @Test
+  void shouldRebuildForNewEmbeddingSpace() throws Exception {
+    VectorIndexManager manager = start("local");
+    CacheEntry old = put(entry("a", 1, 0));
+    manager.recordPut(old.getId(), old.getVector());
+    manager.snapshot();
+
+    // Switched to a smaller model: the old two-dimensional vectors are not comparable
+    providerService = embedder("smaller", 1);
+    CacheEntry current = new CacheEntry("b", "response to b", new float[] {1});
+    providerService.tagEmbeddingSpace(current);
+    put(current);
+
+    VectorIndexManager restarted = start("restarted");
+
+    assertEquals("store", restarted.getLoadSource());
+    assertEquals(1, restarted.size());
+    assertEquals(current.getId(), restarted.search(new float[] {1}, 0.9, null).get().getId());
+  }
+
+  @Test
+  void shouldSkipEntriesTaggedWithAnotherModelOfTheSameDimension() throws Exception {
+    CacheEntry other = entry("a", 1, 0);
+    embedder("other", 2).tagEmbeddingSpace(other);
+    put(other);
+    CacheEntry current = entry("b", 0, 1);
+    providerService.tagEmbeddingSpace(current);
+    put(current);
+
+    VectorIndexManager manager = start("local");
+
+    assertEquals(1, manager.size());
+    assertTrue(manager.search(new float[] {1, 0}, 0.9, null).isEmpty());
+  }
+
+  private static UnderlyingLlmProviderService embedder(String name, int dimension) {
+    return new UnderlyingLlmProviderService(List.of(new MockLlmProvider(name, dimension, true)));
+  }
+
+  private VectorIndexManager start(String origin) throws InterruptedException {
+    VectorIndexManager manager =
+        new VectorIndexManager(store, new ListChangeLog(origin), providerService);
+    ReflectionTestUtils.setField(manager, "enabled", true);
+    ReflectionTestUtils.setField(
+        manager, "snapshotPath", directory.resolve("vector-index.snapshot").toString());
+    manager.init();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!manager.isReady() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(manager.isReady());
+    return manager;
+  }
+
+  private CacheEntry put(CacheEntry entry) {
+    store.put(entry, Duration.ofHours(1));
+    return entry;
+  }
+
+  /** Writes an entry as another instance would: to the store and the change log only */
+  private CacheEntry writeRemote(CacheEntry entry) {
+    put(entry);
+    changes.add(new Change(entry.getId(), false, "other"));
+    return entry;
+  }
+
+  private static CacheEntry entry(String prompt, float x, float y) {
+    return new CacheEntry(prompt, "response to " + prompt, new float[] {x, y});
+  }
+
+  private record Change(String id, boolean removed, String origin) {}
+
+  /** Change log over a shared list; positions are list sizes */
+  private class ListChangeLog implements ChangeLog {
+
+    private final String origin;
+
+    ListChangeLog(String origin) {
+      this.origin = origin;
+    }
+
+    @Override
+    public void append(String id, boolean removed) {
+      changes.add(new Change(id, removed, origin));
+    }
+
+    @Override
+    public String currentPosition() {
+      return String.valueOf(changes.size());
+    }
+
+    @Override
+    public boolean covers(String position) {
+      return true;
+    }
+
+    @Override
+    public String readAfter(String position, int limit, BiConsumer<String, Boolean> action) {
+      int from = Integer.parseInt(position);
+      int to = Math.min(changes.size(), from + limit);
+      for (Change change : changes.subList(from, to)) {
+        if (!change.origin().equals(origin)) {
+          action.accept(change.id(), change.removed());
+        }
+      }
+      return String.valueOf(to);
+    }
+
+    @Override
+    public void trim() {}
+  }
+}
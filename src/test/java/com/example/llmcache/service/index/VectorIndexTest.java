@@ -0,0 +1,104 @@
+package com.example.llmcache.service.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VectorIndexTest {
+
+  @TempDir Path dir;
+
+  @Test
+  void shouldFindMostSimilarVectorAboveThreshold() {
+    VectorIndex index = new VectorIndex();
+    index.add("a", new float[] {1, 0, 0});
+    index.add("b", new float[] {0.9f, 0.1f, 0});
+    index.add("c", new float[] {0, 1, 0});
+
+    Optional<VectorIndex.Match> match = index.search(new float[] {2, 0, 0}, 0.9, null);
+    assertTrue(match.isPresent());
+    assertEquals("a", match.get().getId());
+    assertEquals(1.0, match.get().getSimilarity(), 1e-6);
+
+    assertEquals("b", index.search(new float[] {1, 0, 0}, 0.9, "a").get().getId());
+    assertTrue(index.search(new float[] {0, 0, 1}, 0.5, null).isEmpty());
+  }
+
+  @Test
+  void shouldReuseSlotsOfRemovedEntries() {
+    VectorIndex index = new VectorIndex();
+    index.add("a", new float[] {1, 0});
+    index.add("b", new float[] {0, 1});
+    index.remove("a");
+    index.add("c", new float[] {1, 1});
+
+    assertEquals(2, index.size());
+    assertFalse(index.contains("a"));
+    assertEquals("c", index.search(new float[] {1, 0}, 0.5, null).get().getId());
+  }
+
+  @Test
+  void shouldRejectVectorsOfAnotherDimension() {
+    VectorIndex index = new VectorIndex();
+    assertTrue(index.add("a", new float[] {1, 0}));
+    assertFalse(index.add("b", new float[] {1, 0, 0}));
+    assertFalse(index.add("c", null));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void shouldTakeNewDimensionOnceEmpty() {
+    VectorIndex index = new VectorIndex();
+    index.add("a", new float[] {1, 0, 0});
+    index.remove("a");
+
+    assertTrue(index.add("b", new float[] {0, 1}));
+    assertEquals("b", index.search(new float[] {0, 1}, 0.9, null).get().getId());
+    assertTrue(index.search(new float[] {1, 0, 0}, 0.0, null).isEmpty());
+  }
+
+  @Test
+  void shouldRestoreSnapshotWithPositionAndEmbeddingSpace() throws IOException {
+    VectorIndex index = new VectorIndex();
+    for (int i = 0; i < 1000; i++) {
+      index.add("id-" + i, new float[] {i, 1, (float) Math.sin(i)});
+    }
+    index.remove("id-5");
+    Path file = dir.resolve("index.snapshot");
+    index.writeSnapshot(file, "1700000000000-3", "ollama/nomic-embed-text/3");
+
+    VectorIndex restored = new VectorIndex();
+    VectorIndex.SnapshotHeader header = restored.loadSnapshot(file);
+    assertEquals("1700000000000-3", header.position());
+    assertEquals("ollama/nomic-embed-text/3", header.embeddingSpace());
+    assertEquals(999, restored.size());
+    assertFalse(restored.contains("id-5"));
+    float[] query = {42, 1, (float) Math.sin(42)};
+    assertEquals(
+        index.search(query, 0.0, null).get().getId(),
+        restored.search(query, 0.0, null).get().getId());
+
+    restored.add("new", new float[] {-1, 0, 0});
+    assertEquals("new", restored.search(new float[] {-1, 0, 0}, 0.99, null).get().getId());
+  }
+
+  @Test
+  void shouldRejectCorruptSnapshot() throws IOException {
+    VectorIndex index = new VectorIndex();
+    index.add("a", new float[] {1, 0});
+    Path file = dir.resolve("index.snapshot");
+    index.writeSnapshot(file, "0-0", "local/default/2");
+
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length - Long.BYTES - 1] ^= 0x7F;
+    Files.write(file, bytes);
+
+    assertThrows(IOException.class, () -> new VectorIndex().loadSnapshot(file));
+  }
+}
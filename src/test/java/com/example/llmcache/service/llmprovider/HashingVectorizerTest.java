@@ -0,0 +1,67 @@
+package com.example.llmcache.service.llmprovider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+
+class HashingVectorizerTest {
+
+  private final HashingVectorizer vectorizer = new HashingVectorizer(384);
+  private final UnderlyingLlmProviderService similarity =
+      new UnderlyingLlmProviderService(java.util.List.of());
+
+  @Test
+  void shouldProduceDeterministicNormalizedVectors() {
+    float[] a = vectorizer.vectorize("How do I sort a list in Python?");
+    float[] b = vectorizer.vectorize("How do I sort a list in Python?");
+
+    assertEquals(384, a.length);
+    assertArrayEquals(a, b);
+
+    double norm = 0.0;
+    for (float v : a) {
+      norm += v * v;
+    }
+    assertEquals(1.0, norm, 0.0001);
+  }
+
+  @Test
+  void shouldRankParaphraseAboveUnrelatedText() {
+    float[] query = vectorizer.vectorize("How do I sort a list in Python?");
+    float[] paraphrase = vectorizer.vectorize("how to sort a python list");
+    float[] unrelated = vectorizer.vectorize("Recommend a good pasta recipe for dinner");
+
+    double close = similarity.cosineSimilarity(query, paraphrase);
+    double far = similarity.cosineSimilarity(query, unrelated);
+
+    assertTrue(close > 0.5, "paraphrase similarity was " + close);
+    assertTrue(far < 0.2, "unrelated similarity was " + far);
+  }
+
+  @Test
+  void shouldReuseCallerBuffer() {
+    float[] buffer = new float[384];
+    vectorizer.vectorize("first text", buffer);
+    float[] first = buffer.clone();
+
+    vectorizer.vectorize("first text", buffer);
+
+    assertArrayEquals(first, buffer);
+  }
+
+  @Test
+  void shouldRejectWrongBufferSize() {
+    assertThrows(IllegalArgumentException.class, () -> vectorizer.vectorize("text", new float[10]));
+  }
+
+  @Test
+  void shouldReturnZeroVectorForPunctuationOnly() {
+    float[] vector = vectorizer.vectorize("?!...");
+
+    for (float v : vector) {
+      assertEquals(0f, v);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.llmcache.service.llmprovider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyDistributionTest {
+
+  private final SplittableRandom random = new SplittableRandom(42);
+
+  @Test
+  void shouldParseFixedAndZeroDelays() {
+    assertEquals(0, LatencyDistribution.parse("0").sampleMillis(random));
+    assertEquals(0, LatencyDistribution.parse("").sampleMillis(random));
+    assertEquals(25, LatencyDistribution.parse("fixed:25").sampleMillis(random));
+  }
+
+  @Test
+  void shouldStayWithinUniformBounds() {
+    LatencyDistribution uniform = LatencyDistribution.parse("uniform:10,20");
+    for (int i = 0; i < 1000; i++) {
+      long millis = uniform.sampleMillis(random);
+      assertTrue(millis >= 10 && millis <= 20, "sampled " + millis);
+    }
+  }
+
+  @Test
+  void shouldMatchLognormalMedianAndTail() {
+    LatencyDistribution lognormal = LatencyDistribution.parse("lognormal:800,4000");
+    long[] samples = new long[20_000];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = lognormal.sampleMillis(random);
+    }
+    Arrays.sort(samples);
+
+    assertEquals(800, samples[samples.length / 2], 50);
+    assertEquals(4000, samples[(int) (samples.length * 0.99)], 500);
+  }
+
+  @Test
+  void shouldTruncateNormalAtZero() {
+    LatencyDistribution normal = LatencyDistribution.parse("normal:5,50");
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(normal.sampleMillis(random) >= 0);
+    }
+  }
+
+  @Test
+  void shouldRejectInvalidSpecs() {
+    for (String spec :
+        new String[] {
+          "50",
+          "fixed",
+          "fixed:-1",
+          "uniform:20,10",
+          "lognormal:0,10",
+          "lognormal:100,50",
+          "normal:abc,1",
+          "pareto:1,2"
+        }) {
+      assertThrows(
+          IllegalArgumentException.class, () -> LatencyDistribution.parse(spec), "spec " + spec);
+    }
+  }
+}
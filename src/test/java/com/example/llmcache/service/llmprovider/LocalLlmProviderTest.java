@@ -0,0 +1,51 @@
+package com.example.llmcache.service.llmprovider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.mocks.MockLlmProvider;
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+
+class LocalLlmProviderTest {
+
+  private LocalLlmProvider provider() {
+    LocalLlmProvider provider = new LocalLlmProvider();
+    ReflectionTestUtils.setField(provider, "vectorDimension", 384);
+    ReflectionTestUtils.invokeMethod(provider, "initializeVectorizer");
+    return provider;
+  }
+
+  @Test
+  void shouldEmbedWithoutGenerating() {
+    LocalLlmProvider provider = provider();
+
+    assertTrue(provider.isAvailable());
+    assertFalse(provider.supportsGeneration());
+    assertEquals(384, provider.getVector("What is Redis?").join().length);
+    assertTrue(provider.getVector(" ").isCompletedExceptionally());
+    assertTrue(provider.generateResponse("What is Redis?", Map.of()).isCompletedExceptionally());
+  }
+
+  @Test
+  void shouldEmbedLocallyAndGenerateWithActiveProvider()
+      throws ExecutionException, InterruptedException {
+    LocalLlmProvider local = provider();
+    MockLlmProvider remote = new MockLlmProvider("remote", 1536, true);
+    UnderlyingLlmProviderService service = new UnderlyingLlmProviderService(List.of(local, remote));
+    // As configured by the local profile
+    ReflectionTestUtils.setField(service, "activeProviderName", "remote");
+    ReflectionTestUtils.setField(service, "embeddingProviderName", "local");
+    service.init();
+
+    assertEquals(384, service.getVector("What is Redis?").get().length);
+    assertEquals(
+        "Mock response for: What is Redis?",
+        service.generateResponse("What is Redis?", null).get());
+  }
+}
@@ -0,0 +1,95 @@
+package com.example.llmcache.service.llmprovider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.service.UnderlyingLlmProviderService;
+
+class StubLlmProviderTest {
+
+  private final UnderlyingLlmProviderService similarity =
+      new UnderlyingLlmProviderService(java.util.List.of());
+
+  private StubLlmProvider provider(String embedding, String generationLatency, double errorRate) {
+    StubLlmProvider provider = new StubLlmProvider();
+    ReflectionTestUtils.setField(
+        provider, "embedding", StubLlmProvider.EmbeddingMode.valueOf(embedding));
+    ReflectionTestUtils.setField(provider, "embeddingLatency", "0");
+    ReflectionTestUtils.setField(provider, "generationLatency", generationLatency);
+    ReflectionTestUtils.setField(provider, "responseLength", 100);
+    ReflectionTestUtils.setField(provider, "errorRate", errorRate);
+    provider.init();
+    return provider;
+  }
+
+  @Test
+  void shouldEmbedParaphrasesCloseWithHashing() {
+    StubLlmProvider provider = provider("HASHING", "0", 0);
+
+    float[] query = provider.getVector("How do I sort a list in Python?").join();
+    float[] paraphrase = provider.getVector("how to sort a python list").join();
+
+    assertTrue(provider.isAvailable());
+    assertEquals("stub", provider.getProviderName());
+    assertEquals(384, query.length);
+    assertTrue(similarity.cosineSimilarity(query, paraphrase) > 0.5);
+  }
+
+  @Test
+  void shouldEmbedOnlyRepeatsCloseWhenRandom() {
+    StubLlmProvider provider = provider("RANDOM", "0", 0);
+
+    float[] query = provider.getVector("How do I sort a list in Python?").join();
+    float[] repeat = provider.getVector("How do I sort a list in Python?").join();
+    float[] paraphrase = provider.getVector("how to sort a python list").join();
+
+    assertArrayEquals(query, repeat);
+    assertTrue(similarity.cosineSimilarity(query, paraphrase) < 0.3);
+  }
+
+  @Test
+  void shouldGenerateDeterministicResponsesAfterDelay() {
+    StubLlmProvider provider = provider("HASHING", "fixed:50", 0);
+
+    long started = System.nanoTime();
+    CompletableFuture<String> response = provider.generateResponse("What is Redis?", Map.of());
+    assertFalse(response.isDone());
+    String first = response.join();
+    long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+    assertTrue(elapsedMillis >= 45, "completed after " + elapsedMillis + " ms");
+    assertEquals(100, first.length());
+    assertTrue(first.startsWith("Stub response to: What is Redis?"));
+    assertEquals(first, provider.generateResponse("What is Redis?", Map.of()).join());
+  }
+
+  @Test
+  void shouldFailGenerationAtErrorRate() {
+    StubLlmProvider provider = provider("HASHING", "0", 1.0);
+
+    CompletableFuture<String> response = provider.generateResponse("What is Redis?", Map.of());
+
+    assertThrows(CompletionException.class, response::join);
+    assertTrue(provider.getVector("").isCompletedExceptionally());
+  }
+
+  @Test
+  void shouldDrawErrorsPerCallRatherThanPerPrompt() {
+    StubLlmProvider provider = provider("HASHING", "0", 0.5);
+
+    int failures = 0;
+    for (int i = 0; i < 100; i++) {
+      if (provider.generateResponse("What is Redis?", Map.of()).isCompletedExceptionally()) {
+        failures++;
+      }
+    }
+
+    assertTrue(failures > 0 && failures < 100, failures + " of 100 calls failed");
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.llmcache.service.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheMetricsTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CacheMetrics metrics = new CacheMetrics(registry);
+
+  @Test
+  void shouldTagStageTimers() {
+    metrics.recordStage(metrics.start(), "exact_lookup", "openai", CacheMetrics.HIT);
+    metrics.recordStage(metrics.start(), "exact_lookup", "openai", CacheMetrics.HIT);
+    metrics.recordStage(metrics.start(), "exact_lookup", "openai", CacheMetrics.MISS);
+
+    Timer hits =
+        registry
+            .get("llm.cache.stage")
+            .tags("stage", "exact_lookup", "provider", "openai", "outcome", "hit")
+            .timer();
+    assertEquals(2, hits.count());
+    assertEquals(1, registry.get("llm.cache.stage").tags("outcome", "miss").timer().count());
+  }
+
+  @Test
+  void shouldRecordAsyncStageOutcome() {
+    CompletableFuture<String> ok = new CompletableFuture<>();
+    CompletableFuture<String> failed = new CompletableFuture<>();
+    metrics.timeStage(ok, "generation", "ollama");
+    metrics.timeStage(failed, "generation", "ollama");
+
+    ok.complete("response");
+    failed.completeExceptionally(new RuntimeException("down"));
+
+    assertEquals(
+        1,
+        registry
+            .get("llm.cache.stage")
+            .tags("stage", "generation", "outcome", "success")
+            .timer()
+            .count());
+    assertEquals(
+        1,
+        registry
+            .get("llm.cache.stage")
+            .tags("stage", "generation", "outcome", "error")
+            .timer()
+            .count());
+  }
+
+  @Test
+  void shouldRecordLookupsCandidatesAndBytes() {
+    metrics.recordLookup(metrics.start(), "semantic", "local");
+    metrics.recordCandidates("index", 1000);
+    metrics.recordCandidates("index", 3000);
+    metrics.recordBytesRead(512);
+
+    assertEquals(1, registry.get("llm.cache.lookup").tags("result", "semantic").timer().count());
+    assertEquals(
+        2000.0,
+        registry.get("llm.cache.search.candidates").tags("source", "index").summary().mean());
+    assertEquals(512.0, registry.get("llm.cache.store.read.bytes").summary().totalAmount());
+  }
+
+  @Test
+  void shouldSummarizeRecentLatencyPerStageAcrossTags() {
+    metrics.recordStage(metrics.start(), "generation", "openai", CacheMetrics.SUCCESS);
+    metrics.recordStage(metrics.start(), "generation", "ollama", CacheMetrics.ERROR);
+    metrics.recordStage(metrics.start(), "exact_lookup", "openai", CacheMetrics.MISS);
+    metrics.recordRequest(metrics.start(), CacheMetrics.MISS, "openai");
+
+    Map<String, CacheMetrics.StageLatency> latencies = metrics.stageLatencies();
+
+    assertEquals(List.of("exact_lookup", "generation", "request"), List.copyOf(latencies.keySet()));
+    assertEquals(2, latencies.get("generation").count());
+    assertTrue(latencies.get("generation").p99Ms() >= latencies.get("generation").p50Ms());
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.llmcache.service.refresh;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ExpiryTouchBufferTest {
+
+  private static final long HOUR = Duration.ofHours(1).toMillis();
+  private static final Duration TTL = Duration.ofHours(24);
+
+  private ExpiryTouchBuffer buffer;
+
+  @BeforeEach
+  void setUp() {
+    buffer = new ExpiryTouchBuffer();
+    ReflectionTestUtils.setField(buffer, "enabled", true);
+    ReflectionTestUtils.setField(buffer, "maxAgeHours", 48L);
+  }
+
+  @Test
+  void shouldCoalesceRepeatedTouches() {
+    long now = 100 * HOUR;
+    for (int i = 0; i < 100; i++) {
+      buffer.touch("hot", now);
+    }
+    buffer.touch("warm", now);
+
+    List<ExpiryTouchBuffer.Extension> extensions = buffer.drain(now, TTL, Duration.ZERO);
+
+    assertEquals(2, extensions.size());
+    assertEquals(0, buffer.getPendingCount());
+    assertEquals(2, buffer.getExtended());
+  }
+
+  @Test
+  void shouldExtendToFullTtlPlusGrace() {
+    long now = 100 * HOUR;
+    buffer.touch("hot", now);
+
+    List<ExpiryTouchBuffer.Extension> extensions = buffer.drain(now, TTL, Duration.ofHours(1));
+
+    assertEquals(Duration.ofHours(25), extensions.get(0).ttl());
+  }
+
+  @Test
+  void shouldNotExtendPastMaxAge() {
+    long now = 100 * HOUR;
+    buffer.touch("old", now - 40 * HOUR);
+    buffer.touch("expired", now - 48 * HOUR);
+
+    List<ExpiryTouchBuffer.Extension> extensions = buffer.drain(now, TTL, Duration.ZERO);
+
+    assertEquals(1, extensions.size());
+    assertEquals("old", extensions.get(0).id());
+    assertEquals(Duration.ofHours(8), extensions.get(0).ttl());
+  }
+
+  @Test
+  void shouldIgnoreTouchesWhenDisabled() {
+    ReflectionTestUtils.setField(buffer, "enabled", false);
+
+    buffer.touch("hot", 0);
+
+    assertEquals(0, buffer.getPendingCount());
+  }
+}
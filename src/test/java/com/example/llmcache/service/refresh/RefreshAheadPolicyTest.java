@@ -0,0 +1,73 @@
+package com.example.llmcache.service.refresh;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RefreshAheadPolicyTest {
+
+  private static final long TTL = 100_000;
+
+  private RefreshAheadPolicy policy;
+
+  @BeforeEach
+  void setUp() {
+    policy = new RefreshAheadPolicy();
+    ReflectionTestUtils.setField(policy, "enabled", true);
+    ReflectionTestUtils.setField(policy, "aheadFraction", 0.1);
+    ReflectionTestUtils.setField(policy, "minHits", 3L);
+    ReflectionTestUtils.setField(policy, "maxConcurrent", 2);
+    ReflectionTestUtils.setField(policy, "maxPerMinute", 3);
+  }
+
+  @Test
+  void shouldRefreshHotEntryNearExpiry() {
+    assertTrue(policy.tryStart("hot", 5_000, TTL, 5));
+    assertEquals(1, policy.getTriggered());
+  }
+
+  @Test
+  void shouldNotRefreshFreshOrColdEntries() {
+    assertFalse(policy.tryStart("fresh", 50_000, TTL, 5));
+    assertFalse(policy.tryStart("cold", 5_000, TTL, 1));
+    assertFalse(policy.tryStart("expired", 0, TTL, 5));
+    assertEquals(0, policy.getTriggered());
+  }
+
+  @Test
+  void shouldRunAtMostOneRefreshPerEntry() {
+    assertTrue(policy.tryStart("hot", 5_000, TTL, 5));
+    assertFalse(policy.tryStart("hot", 5_000, TTL, 5));
+
+    policy.finish("hot");
+
+    assertTrue(policy.tryStart("hot", 5_000, TTL, 5));
+  }
+
+  @Test
+  void shouldLimitConcurrentRefreshes() {
+    assertTrue(policy.tryStart("a", 5_000, TTL, 5));
+    assertTrue(policy.tryStart("b", 5_000, TTL, 5));
+    assertFalse(policy.tryStart("c", 5_000, TTL, 5));
+    assertEquals(1, policy.getRateLimited());
+  }
+
+  @Test
+  void shouldLimitRefreshesPerMinute() {
+    for (String id : new String[] {"a", "b", "c"}) {
+      assertTrue(policy.tryStart(id, 5_000, TTL, 5));
+      policy.finish(id);
+    }
+
+    assertFalse(policy.tryStart("d", 5_000, TTL, 5));
+  }
+
+  @Test
+  void shouldDoNothingWhenDisabled() {
+    ReflectionTestUtils.setField(policy, "enabled", false);
+
+    assertFalse(policy.tryStart("hot", 5_000, TTL, 5));
+  }
+}
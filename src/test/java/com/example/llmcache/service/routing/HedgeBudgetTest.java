@@ -0,0 +1,40 @@
+package com.example.llmcache.service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class HedgeBudgetTest {
+
+  @Test
+  void shouldAllowOneHedgePerTwentyCallsAtFivePercent() {
+    HedgeBudget budget = new HedgeBudget(0.05, 10);
+    int hedges = 0;
+    for (int i = 0; i < 1000; i++) {
+      budget.deposit();
+      if (budget.tryWithdraw()) {
+        hedges++;
+      }
+    }
+    assertTrue(hedges >= 49 && hedges <= 50, "hedges: " + hedges);
+  }
+
+  @Test
+  void shouldRefuseWithoutCredit() {
+    HedgeBudget budget = new HedgeBudget(0.05, 10);
+    budget.deposit();
+    assertFalse(budget.tryWithdraw());
+  }
+
+  @Test
+  void shouldCapSavedCredit() {
+    HedgeBudget budget = new HedgeBudget(0.5, 2);
+    for (int i = 0; i < 100; i++) {
+      budget.deposit();
+    }
+    assertEquals(2, budget.getBalance(), 0.001);
+    assertTrue(budget.tryWithdraw());
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.llmcache.service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ProviderHealthTest {
+
+  private static final long MS = 1_000_000L;
+
+  private final ProviderHealth health = new ProviderHealth(0.2, 3, 0.5, 1000);
+
+  @Test
+  void shouldOpenAfterConsecutiveFailures() {
+    fail(2, 0);
+    assertTrue(health.isClosed());
+
+    fail(1, 0);
+    assertEquals(ProviderHealth.State.OPEN, health.getState());
+    assertFalse(health.isClosed());
+  }
+
+  @Test
+  void shouldOpenWhenErrorRatePassesThreshold() {
+    ProviderHealth health = new ProviderHealth(0.3, 3, 0.5, 1000);
+    boolean[] outcomes = {false, false, true, false};
+    for (boolean success : outcomes) {
+      assertTrue(health.isClosed());
+      health.started();
+      if (success) {
+        health.recordSuccess(10 * MS);
+      } else {
+        health.recordFailure(10 * MS, 0);
+      }
+    }
+
+    assertTrue(health.getErrorRate() >= 0.5);
+    assertEquals(ProviderHealth.State.OPEN, health.getState());
+  }
+
+  @Test
+  void shouldAllowOneProbeAfterOpenPeriod() {
+    fail(3, 0);
+
+    assertFalse(health.tryStartProbe(500));
+    assertTrue(health.tryStartProbe(1000));
+    assertEquals(ProviderHealth.State.HALF_OPEN, health.getState());
+    assertFalse(health.tryStartProbe(1001));
+  }
+
+  @Test
+  void shouldCloseOnSuccessfulProbeAndReopenOnFailedProbe() {
+    fail(3, 0);
+    assertTrue(health.tryStartProbe(1000));
+    health.started();
+    health.recordSuccess(5 * MS);
+    assertTrue(health.isClosed());
+
+    fail(3, 2000);
+    assertTrue(health.tryStartProbe(3000));
+    health.started();
+    health.recordFailure(5 * MS, 3000);
+    assertEquals(ProviderHealth.State.OPEN, health.getState());
+    assertFalse(health.tryStartProbe(3500));
+    assertTrue(health.tryStartProbe(4000));
+  }
+
+  @Test
+  void shouldScoreByLatencyLoadAndErrors() {
+    health.started();
+    health.recordSuccess(100 * MS);
+    assertEquals(100, health.getLatencyMillis(), 0.001);
+    assertEquals(100, health.score(), 0.001);
+
+    health.started();
+    assertEquals(200, health.score(), 0.001);
+    health.recordFailure(100 * MS, 0);
+
+    assertEquals(0.2, health.getErrorRate(), 0.001);
+    assertEquals(125, health.score(), 0.001);
+    assertEquals(0, health.getInFlight());
+  }
+
+  private void fail(int times, long now) {
+    for (int i = 0; i < times; i++) {
+      health.started();
+      health.recordFailure(10 * MS, now);
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package com.example.llmcache.service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.mocks.MockLlmProvider;
+import com.example.llmcache.service.llmprovider.LlmProvider;
+import com.example.llmcache.service.metrics.CacheMetrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProviderRouterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private ProviderRouter router;
+  private FlakyProvider primary;
+  private FlakyProvider secondary;
+
+  @BeforeEach
+  void setUp() {
+    router = new ProviderRouter(new CacheMetrics(registry));
+    ReflectionTestUtils.setField(router, "failureThreshold", 2);
+    ReflectionTestUtils.setField(router, "openMillis", 50L);
+    primary = new FlakyProvider("primary");
+    secondary = new FlakyProvider("secondary");
+  }
+
+  @Test
+  void shouldPreferFirstCandidate() throws Exception {
+    assertEquals("primary", generate().get());
+    assertEquals(1, routes("primary", "preferred"));
+  }
+
+  @Test
+  void shouldFailOverToNextCandidate() throws Exception {
+    primary.failing = true;
+
+    assertEquals("secondary", generate().get());
+    assertEquals(1, primary.calls);
+    assertEquals(1, routes("secondary", "failover"));
+  }
+
+  @Test
+  void shouldSkipProviderWithOpenBreaker() throws Exception {
+    openPrimary();
+    assertEquals(
+        ProviderHealth.State.OPEN, router.health(ProviderRouter.GENERATION, primary).getState());
+
+    assertEquals("secondary", generate().get());
+    assertEquals(2, primary.calls);
+    assertEquals(1, routes("secondary", "alternate"));
+  }
+
+  @Test
+  void shouldRejectAtOnceWhenEveryBreakerIsOpen() throws Exception {
+    openPrimary();
+
+    ExecutionException e = assertThrows(ExecutionException.class, generate(List.of(primary))::get);
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    assertEquals(2, primary.calls);
+    assertEquals(1, routes("primary", "rejected"));
+  }
+
+  @Test
+  void shouldProbeAndCloseAfterOpenPeriod() throws Exception {
+    openPrimary();
+    primary.failing = false;
+
+    Thread.sleep(60);
+    assertEquals("primary", generate().get());
+    assertEquals(1, routes("primary", "probe"));
+    assertTrue(router.health(ProviderRouter.GENERATION, primary).isClosed());
+  }
+
+  @Test
+  void shouldNotFailOverWhenDisabled() {
+    ReflectionTestUtils.setField(router, "failover", false);
+    primary.failing = true;
+
+    assertThrows(ExecutionException.class, generate()::get);
+    assertEquals(0, secondary.calls);
+  }
+
+  @Test
+  void shouldPublishHealthGauges() throws Exception {
+    generate().get();
+
+    assertEquals(
+        0,
+        registry
+            .get("llm.provider.circuit.state")
+            .tags("operation", "generation", "provider", "primary")
+            .gauge()
+            .value());
+    assertNotNull(registry.find("llm.provider.latency").gauge());
+  }
+
+  @Test
+  void shouldNotHedgeWithoutEnoughSamples() {
+    SlowProvider slow = new SlowProvider("slow");
+    ReflectionTestUtils.setField(router, "hedgeRatio", 1.0);
+
+    assertEquals(0, router.hedgeDelayMillis(ProviderRouter.GENERATION, slow));
+  }
+
+  @Test
+  void shouldHedgeSlowCallAndCancelTheLoser() throws Exception {
+    SlowProvider slow = warmedUp();
+
+    CompletableFuture<String> result = generate(List.of(slow));
+    slow.respondImmediately = true;
+    assertEquals("slow", result.get(5, TimeUnit.SECONDS));
+
+    assertEquals(5, slow.calls.size());
+    assertTrue(slow.calls.get(3).isCancelled());
+    assertEquals(1, hedges("sent"));
+    assertEquals(1, hedges("won"));
+    assertEquals(0, router.health(ProviderRouter.GENERATION, slow).getInFlight());
+  }
+
+  @Test
+  void shouldCancelHedgeWhenPrimaryAnswersFirst() throws Exception {
+    SlowProvider slow = warmedUp();
+
+    CompletableFuture<String> result = generate(List.of(slow));
+    waitFor(() -> slow.calls.size() == 5);
+    slow.calls.get(3).complete("primary answer");
+
+    assertEquals("primary answer", result.get(5, TimeUnit.SECONDS));
+    assertTrue(slow.calls.get(4).isCancelled());
+    assertEquals(0, hedges("won"));
+  }
+
+  @Test
+  void shouldNotHedgeOverBudget() throws Exception {
+    SlowProvider slow = warmedUp();
+    ReflectionTestUtils.setField(router, "hedgeBudget", new HedgeBudget(0.0, 10));
+
+    CompletableFuture<String> result = generate(List.of(slow));
+    waitFor(() -> hedges("over_budget") == 1);
+    slow.calls.get(3).complete("primary answer");
+
+    assertEquals("primary answer", result.get(5, TimeUnit.SECONDS));
+    assertEquals(4, slow.calls.size());
+  }
+
+  @Test
+  void shouldNotHedgeBatchEmbeddings() throws Exception {
+    SlowProvider slow = warmedUp();
+    slow.respondImmediately = true;
+    for (int i = 0; i < 3; i++) {
+      batch(slow).get();
+    }
+    slow.respondImmediately = false;
+
+    CompletableFuture<String> result = batch(slow);
+    Thread.sleep(200);
+    slow.calls.get(6).complete("batch");
+
+    assertEquals("batch", result.get(5, TimeUnit.SECONDS));
+    assertEquals(7, slow.calls.size());
+    assertEquals(0, hedges("sent"));
+    assertEquals(0, router.hedgeDelayMillis(ProviderRouter.EMBEDDING, slow));
+  }
+
+  /** Returns a provider with enough fast calls recorded to be hedged after the minimum delay */
+  private SlowProvider warmedUp() throws Exception {
+    ReflectionTestUtils.setField(router, "hedgeMinSamples", 3L);
+    ReflectionTestUtils.setField(router, "hedgeMinDelayMillis", 20L);
+    ReflectionTestUtils.setField(router, "hedgeRatio", 1.0);
+    SlowProvider slow = new SlowProvider("slow");
+    slow.respondImmediately = true;
+    for (int i = 0; i < 3; i++) {
+      generate(List.of(slow)).get();
+    }
+    slow.respondImmediately = false;
+    assertTrue(router.hedgeDelayMillis(ProviderRouter.GENERATION, slow) >= 20);
+    return slow;
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "timed out");
+      Thread.sleep(5);
+    }
+  }
+
+  private double hedges(String outcome) {
+    Counter counter = registry.find("llm.provider.hedge").tag("outcome", outcome).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private void openPrimary() throws Exception {
+    primary.failing = true;
+    generate(List.of(primary)).exceptionally(e -> null).get();
+    generate(List.of(primary)).exceptionally(e -> null).get();
+  }
+
+  private CompletableFuture<String> batch(SlowProvider provider) {
+    return router.route(
+        ProviderRouter.EMBEDDING_BATCH, List.of(provider), p -> p.generateResponse("batch", null));
+  }
+
+  private CompletableFuture<String> generate() {
+    return generate(List.of(primary, secondary));
+  }
+
+  private CompletableFuture<String> generate(List<? extends MockLlmProvider> candidates) {
+    return router.route(
+        ProviderRouter.GENERATION,
+        List.<LlmProvider>copyOf(candidates),
+        p -> p.generateResponse("q", null));
+  }
+
+  private double routes(String provider, String reason) {
+    return registry
+        .get("llm.provider.route")
+        .tags("provider", provider, "reason", reason)
+        .counter()
+        .count();
+  }
+
+  /** Provider answering with its own name, or failing while {@code failing} is set */
+  private static class FlakyProvider extends MockLlmProvider {
+    private volatile boolean failing;
+    private int calls;
+
+    FlakyProvider(String name) {
+      super(name, 8, true);
+    }
+
+    @Override
+    public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
+      calls++;
+      if (failing) {
+        return CompletableFuture.failedFuture(new RuntimeException(getProviderName() + " down"));
+      }
+      return CompletableFuture.completedFuture(getProviderName());
+    }
+  }
+
+  /** Provider whose calls stay pending until completed by the test, unless set to respond */
+  private static class SlowProvider extends MockLlmProvider {
+    private final List<CompletableFuture<String>> calls = new CopyOnWriteArrayList<>();
+    private volatile boolean respondImmediately;
+
+    SlowProvider(String name) {
+      super(name, 8, true);
+    }
+
+    @Override
+    public CompletableFuture<String> generateResponse(String prompt, Map<String, Object> options) {
+      CompletableFuture<String> call =
+          respondImmediately
+              ? CompletableFuture.completedFuture(getProviderName())
+              : new CompletableFuture<>();
+      calls.add(call);
+      return call;
+    }
+  }
+}
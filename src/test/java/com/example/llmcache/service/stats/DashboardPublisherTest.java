@@ -0,0 +1,122 @@
+package com.example.llmcache.service.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.llmcache.mocks.MockCacheStatsService;
+import com.example.llmcache.service.metrics.CacheMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DashboardPublisherTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private MockCacheStatsService statsService;
+  private CacheMetrics metrics;
+  private DashboardPublisher publisher;
+
+  @BeforeEach
+  void setUp() {
+    statsService = new MockCacheStatsService();
+    metrics = new CacheMetrics(new SimpleMeterRegistry());
+    publisher = new DashboardPublisher(statsService, metrics, objectMapper);
+  }
+
+  @Test
+  void shouldSerializeStatsAndStageLatencies() throws Exception {
+    metrics.recordStage(metrics.start(), "embedding", "openai", CacheMetrics.SUCCESS);
+
+    JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(publisher.snapshot()));
+
+    assertEquals(80.0, json.get("stats").get("hitRatePercentage").asDouble());
+    assertEquals(100, json.get("stats").get("totalCacheEntries").asLong());
+    assertEquals(1, json.get("stages").get("embedding").get("count").asLong());
+    assertTrue(json.get("stages").get("embedding").has("p99Ms"));
+  }
+
+  @Test
+  void shouldNotComputeStatsWithoutSubscribers() {
+    publisher.publish();
+
+    assertEquals(0, statsService.getCallTracker().getCallCount("getCacheStatistics"));
+  }
+
+  @Test
+  void shouldComputeStatsOncePerIntervalForAllSubscribers() {
+    publisher.subscribe();
+    publisher.subscribe();
+    publisher.subscribe();
+
+    publisher.publish();
+
+    assertEquals(3, publisher.getSubscriberCount());
+    assertEquals(1, statsService.getCallTracker().getCallCount("getCacheStatistics"));
+  }
+
+  @Test
+  void shouldRejectSubscribersOverTheLimit() {
+    ReflectionTestUtils.setField(publisher, "maxSubscribers", 1);
+
+    assertTrue(publisher.subscribe().isPresent());
+    assertTrue(publisher.subscribe().isEmpty());
+  }
+
+  @Test
+  void shouldKeepServingOthersAndDropStalledSubscriber() throws Exception {
+    CountDownLatch stalled = new CountDownLatch(1);
+    AtomicInteger delivered = new AtomicInteger();
+    List<SseEmitter> emitters =
+        List.of(
+            new SseEmitter() {
+              @Override
+              public void send(SseEventBuilder builder) throws IOException {
+                try {
+                  stalled.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }
+            },
+            new SseEmitter() {
+              @Override
+              public void send(SseEventBuilder builder) {
+                delivered.incrementAndGet();
+              }
+            });
+    Iterator<SseEmitter> next = emitters.iterator();
+    publisher =
+        new DashboardPublisher(statsService, metrics, objectMapper) {
+          @Override
+          SseEmitter newEmitter() {
+            return next.next();
+          }
+        };
+    publisher.subscribe();
+    publisher.subscribe();
+
+    for (int i = 0; i <= DashboardPublisher.MAX_SKIPPED; i++) {
+      publisher.publish();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (delivered.get() <= i && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+    }
+
+    assertEquals(DashboardPublisher.MAX_SKIPPED + 1, delivered.get());
+    assertEquals(1, publisher.getSubscriberCount());
+    stalled.countDown();
+    publisher.stop();
+  }
+}
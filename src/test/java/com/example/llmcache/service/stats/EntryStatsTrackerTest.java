@@ -0,0 +1,72 @@
+package com.example.llmcache.service.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.model.CacheEntry;
+import com.example.llmcache.service.store.EmbeddedCacheStore;
+
+class EntryStatsTrackerTest {
+
+  @TempDir Path directory;
+
+  private EmbeddedCacheStore store;
+  private EntryStatsTracker tracker;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    store = new EmbeddedCacheStore();
+    ReflectionTestUtils.setField(store, "directoryName", directory.toString());
+    ReflectionTestUtils.setField(store, "segmentMb", 1L);
+    store.open();
+    tracker = new EntryStatsTracker(store);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  void shouldTrackWritesAndRemovals() {
+    tracker.recordWrite("a", 100);
+    tracker.recordWrite("b", 50);
+    tracker.recordWrite("a", 120);
+    tracker.recordRemoval(List.of("b", "missing"));
+
+    assertEquals(1, tracker.getEntryCount());
+    assertEquals(120, tracker.getTotalBytes());
+  }
+
+  @Test
+  void shouldCorrectDriftOnReconcile() {
+    CacheEntry first = new CacheEntry("What is Java?", "A language", new float[] {1, 2});
+    CacheEntry second = new CacheEntry("What is Go?", "Another language", new float[] {3, 4});
+    store.put(first, Duration.ofHours(1));
+    store.put(second, Duration.ofHours(1));
+    tracker.reconcile();
+    long bytes = tracker.getTotalBytes();
+
+    // Drift: a write that was never reported and a removal of a tracked id that still exists
+    store.put(new CacheEntry("What is Rust?", "A third language", null), Duration.ofHours(1));
+    tracker.recordRemoval(first.getId());
+    assertEquals(1, tracker.getEntryCount());
+
+    tracker.reconcile();
+
+    assertTrue(tracker.isReconciled());
+    assertEquals(3, tracker.getEntryCount());
+    assertEquals(-2, tracker.getLastDrift());
+    assertTrue(tracker.getTotalBytes() > bytes);
+  }
+}
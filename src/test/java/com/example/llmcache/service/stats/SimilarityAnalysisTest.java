@@ -0,0 +1,66 @@
+package com.example.llmcache.service.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SimilarityAnalysisTest {
+
+  @Test
+  void shouldEstimateHitRateAtOtherThresholds() {
+    SimilarityAnalysis analysis = new SimilarityAnalysis();
+    analysis.recordLookup("exact");
+    analysis.recordLookup("lexical");
+    for (double similarity : new double[] {0.97, 0.93, 0.88, 0.6}) {
+      analysis.recordSimilarity("query", () -> null, similarity);
+      analysis.recordLookup(similarity >= 0.95 ? "semantic" : "miss");
+    }
+    // A lookup whose embedding failed never gets a similarity
+    analysis.recordLookup("miss");
+
+    SimilarityAnalysis.Report report = analysis.analyze(List.of(0.85, 0.9, 0.95));
+
+    assertEquals(7, report.lookups());
+    assertEquals(2, report.earlyHits());
+    assertEquals(4, report.scoredSearches());
+    SimilarityAnalysis.ThresholdOutcome at85 = report.thresholds().get(0);
+    SimilarityAnalysis.ThresholdOutcome at95 = report.thresholds().get(2);
+    assertEquals(3, at85.semanticHits());
+    assertEquals(75.0, at85.semanticHitRatePercentage(), 0.001);
+    assertEquals(5 * 100.0 / 7, at85.hitRatePercentage(), 0.001);
+    assertEquals(3 * 100.0 / 7, at95.hitRatePercentage(), 0.001);
+    assertEquals(4, report.distribution().stream().mapToLong(b -> b.count()).sum());
+  }
+
+  @Test
+  void shouldKeepOnlyTheMostRecentSamples() {
+    SimilarityAnalysis analysis = new SimilarityAnalysis();
+    ReflectionTestUtils.setField(analysis, "sampleRate", 1.0);
+    ReflectionTestUtils.setField(analysis, "maxSamples", 2);
+
+    analysis.recordSimilarity("first", () -> "a", 0.91);
+    analysis.recordSimilarity("second", () -> "b", 0.92);
+    analysis.recordSimilarity("third", () -> null, 0.5);
+
+    List<SimilarityAnalysis.Sample> samples = analysis.analyze(List.of(0.9)).samples();
+    assertEquals(List.of("second", "third"), samples.stream().map(s -> s.query()).toList());
+    assertNull(samples.get(1).candidate());
+  }
+
+  @Test
+  void shouldNotSampleByDefault() {
+    SimilarityAnalysis analysis = new SimilarityAnalysis();
+
+    analysis.recordSimilarity(
+        "query",
+        () -> {
+          throw new AssertionError("Candidate prompt read without sampling");
+        },
+        0.99);
+
+    assertTrue(analysis.analyze(List.of(0.9)).samples().isEmpty());
+  }
+}
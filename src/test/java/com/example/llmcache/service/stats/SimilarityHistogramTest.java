@@ -0,0 +1,39 @@
+package com.example.llmcache.service.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SimilarityHistogramTest {
+
+  @Test
+  void shouldCountSimilaritiesAtOrAboveThreshold() {
+    SimilarityHistogram histogram = new SimilarityHistogram();
+    histogram.record(0.95);
+    histogram.record(0.9499);
+    histogram.record(0.97);
+    histogram.record(1.0);
+    histogram.record(-0.2);
+
+    assertEquals(5, histogram.getTotal());
+    assertEquals(3, histogram.countAtOrAbove(0.95));
+    assertEquals(4, histogram.countAtOrAbove(0.949));
+    assertEquals(1, histogram.countAtOrAbove(1.0));
+    assertEquals(5, histogram.countAtOrAbove(0.0));
+  }
+
+  @Test
+  void shouldBucketDistribution() {
+    SimilarityHistogram histogram = new SimilarityHistogram();
+    histogram.record(0.02);
+    histogram.record(0.5);
+    histogram.record(0.96);
+    histogram.record(1.0);
+
+    long[] distribution = histogram.distribution(20);
+
+    assertEquals(1, distribution[0]);
+    assertEquals(1, distribution[10]);
+    assertEquals(2, distribution[19]);
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.llmcache.service.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class StatsBucketsTest {
+
+  private static final long NOW = 1_700_000_123_456L;
+
+  @Test
+  void shouldRecordIntoFineAndHourlyBuckets() {
+    List<String> keys = StatsBuckets.keysAt(NOW);
+
+    assertEquals(List.of("f:" + NOW / 10_000, "h:" + NOW / 3_600_000), keys);
+  }
+
+  @Test
+  void shouldCoverShortWindowsWithFineBuckets() {
+    List<String> minute = StatsBuckets.keysFor(Duration.ofMinutes(1), NOW);
+    List<String> hour = StatsBuckets.keysFor(Duration.ofHours(1), NOW);
+
+    assertEquals(6, minute.size());
+    assertEquals(360, hour.size());
+    assertTrue(minute.contains(StatsBuckets.keysAt(NOW).get(0)));
+    assertFalse(minute.contains("f:" + (NOW / 10_000 - 6)));
+  }
+
+  @Test
+  void shouldCoverLongWindowsWithHourlyBuckets() {
+    List<String> day = StatsBuckets.keysFor(Duration.ofHours(24), NOW);
+
+    assertEquals(24, day.size());
+    assertEquals("h:" + NOW / 3_600_000, day.get(23));
+    assertTrue(day.stream().allMatch(key -> key.startsWith("h:")));
+  }
+
+  @Test
+  void shouldKeepBucketsAsLongAsAWindowReadsThem() {
+    String fine = StatsBuckets.keysAt(NOW).get(0);
+    String hourly = StatsBuckets.keysAt(NOW).get(1);
+
+    assertTrue(StatsBuckets.expiresAt(fine) > NOW + Duration.ofHours(1).toMillis());
+    assertTrue(StatsBuckets.expiresAt(hourly) > NOW + Duration.ofHours(24).toMillis());
+  }
+}
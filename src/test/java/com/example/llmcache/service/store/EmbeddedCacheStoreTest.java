@@ -0,0 +1,185 @@
+package com.example.llmcache.service.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.llmcache.model.CacheEntry;
+
+class EmbeddedCacheStoreTest {
+
+  @TempDir Path directory;
+
+  private EmbeddedCacheStore store;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    store = open();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  void shouldStoreAndReadEntries() {
+    CacheEntry entry = entry("What is Redis?", "An in-memory data store");
+    entry.getMetadata().put("model", "gpt-4");
+
+    store.put(entry, Duration.ofHours(1));
+
+    CacheEntry stored = store.get(entry.getId());
+    assertEquals("An in-memory data store", stored.getResponse());
+    assertArrayEquals(entry.getVector(), stored.getVector());
+    assertEquals("gpt-4", stored.getMetadata().get("model"));
+    assertEquals(1, store.count());
+  }
+
+  @Test
+  void shouldReportTtlsLikeRedis() {
+    CacheEntry expiring = entry("a", "1");
+    CacheEntry permanent = entry("b", "2");
+    store.put(expiring, Duration.ofHours(1));
+    store.put(permanent, null);
+
+    long ttl = store.getTtlMillis(expiring.getId());
+    assertTrue(ttl > 0 && ttl <= Duration.ofHours(1).toMillis());
+    assertEquals(-1, store.getTtlMillis(permanent.getId()));
+    assertEquals(-2, store.getTtlMillis("missing"));
+  }
+
+  @Test
+  void shouldHideExpiredEntries() {
+    CacheEntry entry = entry("a", "1");
+    store.put(entry, Duration.ofMillis(-1));
+
+    assertNull(store.get(entry.getId()));
+    assertEquals(0, store.count());
+  }
+
+  @Test
+  void shouldRecoverStateAfterRestart() throws IOException {
+    CacheEntry kept = entry("kept", "1");
+    CacheEntry deleted = entry("deleted", "2");
+    CacheEntry extended = entry("extended", "3");
+    store.put(kept, Duration.ofHours(1));
+    store.put(deleted, Duration.ofHours(1));
+    store.put(extended, Duration.ofMinutes(1));
+    store.delete(List.of(deleted.getId()));
+    store.expire(Map.of(extended.getId(), Duration.ofHours(2)));
+
+    store.close();
+    store = open();
+
+    assertEquals("1", store.get(kept.getId()).getResponse());
+    assertNull(store.get(deleted.getId()));
+    assertTrue(store.getTtlMillis(extended.getId()) > Duration.ofHours(1).toMillis());
+  }
+
+  @Test
+  void shouldKeepEntriesExtendedPastTheirOriginalExpiryAfterRestart() throws Exception {
+    CacheEntry entry = entry("sliding", "1");
+    store.put(entry, Duration.ofMillis(200));
+    store.expire(Map.of(entry.getId(), Duration.ofHours(1)));
+    store.close();
+
+    Thread.sleep(300);
+    store = open();
+
+    assertEquals("1", store.get(entry.getId()).getResponse());
+    assertTrue(store.getTtlMillis(entry.getId()) > Duration.ofMinutes(59).toMillis());
+    assertEquals(1, store.count());
+  }
+
+  @Test
+  void shouldDropEntriesThatExpiredBeforeRestart() throws Exception {
+    CacheEntry entry = entry("short", "1");
+    store.put(entry, Duration.ofMillis(100));
+    store.close();
+
+    Thread.sleep(200);
+    store = open();
+
+    assertNull(store.get(entry.getId()));
+    assertEquals(0, store.count());
+  }
+
+  @Test
+  void shouldTruncateTornWriteOnRecovery() throws IOException {
+    CacheEntry entry = entry("a", "1");
+    store.put(entry, Duration.ofHours(1));
+    store.close();
+
+    Path segment = onlySegment();
+    long validSize = Files.size(segment);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 1, 0, 42}));
+    }
+
+    store = open();
+
+    assertEquals("1", store.get(entry.getId()).getResponse());
+    assertEquals(validSize, Files.size(segment));
+  }
+
+  @Test
+  void shouldKeepLiveEntriesWhenCompacting() throws IOException {
+    String payload = "x".repeat(100_000);
+    List<CacheEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      CacheEntry entry = entry("prompt " + i, payload);
+      entries.add(entry);
+      store.put(entry, Duration.ofHours(1));
+    }
+    store.delete(entries.subList(0, 25).stream().map(CacheEntry::getId).toList());
+    store.expire(Map.of(entries.get(29).getId(), Duration.ofHours(5)));
+
+    store.compact();
+
+    assertEquals(1, store.getCompactions());
+    assertEquals(5, store.count());
+    for (CacheEntry entry : entries.subList(25, 30)) {
+      assertEquals(payload, store.get(entry.getId()).getResponse());
+    }
+
+    store.close();
+    store = open();
+    assertEquals(5, store.count());
+    assertTrue(store.getTtlMillis(entries.get(29).getId()) > Duration.ofHours(4).toMillis());
+  }
+
+  private EmbeddedCacheStore open() throws IOException {
+    EmbeddedCacheStore opened = new EmbeddedCacheStore();
+    ReflectionTestUtils.setField(opened, "directoryName", directory.toString());
+    ReflectionTestUtils.setField(opened, "segmentMb", 1L);
+    opened.open();
+    return opened;
+  }
+
+  private Path onlySegment() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(f -> f.toString().endsWith(".log")).findFirst().orElseThrow();
+    }
+  }
+
+  private static CacheEntry entry(String prompt, String response) {
+    return new CacheEntry(prompt, response, new float[] {0.1f, 0.2f, 0.3f});
+  }
+}
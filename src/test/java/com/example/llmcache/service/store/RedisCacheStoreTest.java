@@ -0,0 +1,123 @@
+package com.example.llmcache.service.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.example.llmcache.config.RedisConfig;
+import com.example.llmcache.mocks.MockRedisServer;
+import com.example.llmcache.model.CacheEntry;
+
+class RedisCacheStoreTest {
+
+  private MockRedisServer server;
+  private LettuceConnectionFactory connectionFactory;
+  private RedisTemplate<String, Object> redisTemplate;
+  private RedisCacheStore store;
+  private final Set<String> ids = new HashSet<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new MockRedisServer();
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration("localhost", server.getPort()));
+    connectionFactory.afterPropertiesSet();
+    // Serialized like the application's template
+    redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.setDefaultSerializer(RedisConfig.valueSerializer());
+    redisTemplate.afterPropertiesSet();
+    store = new RedisCacheStore(redisTemplate);
+
+    List<CacheEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 1234; i++) {
+      CacheEntry entry = new CacheEntry("prompt " + i, "response " + i, new float[] {i});
+      entries.add(entry);
+      ids.add(entry.getId());
+    }
+    store.putAll(entries, Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    connectionFactory.destroy();
+    server.close();
+  }
+
+  @Test
+  void shouldVisitEveryEntryOncePageByPage() {
+    List<String> visited = new ArrayList<>();
+    int pages = 0;
+    String cursor = null;
+    do {
+      cursor = store.forEachInPage(cursor, entry -> visited.add(entry.getId()));
+      pages++;
+    } while (cursor != null);
+
+    assertEquals(ids.size(), visited.size());
+    assertEquals(ids, new HashSet<>(visited));
+    assertTrue(pages > 1);
+  }
+
+  @Test
+  void shouldWalkEveryEntryIdAndSize() {
+    Set<String> entries = new HashSet<>();
+    store.forEach(entry -> entries.add(entry.getId()));
+    Set<String> walkedIds = new HashSet<>();
+    store.forEachId(walkedIds::add);
+    Set<String> sized = new HashSet<>();
+    store.forEachSize(
+        (id, size) -> {
+          assertTrue(size > 0);
+          sized.add(id);
+        });
+
+    assertEquals(ids, entries);
+    assertEquals(ids, walkedIds);
+    assertEquals(ids, sized);
+    assertEquals(ids.size(), store.count());
+  }
+
+  @Test
+  void shouldPageOnlyThroughLiveCacheEntries() {
+    redisTemplate.opsForValue().set("llm_stats:total", 42L);
+    String deleted = ids.iterator().next();
+    store.delete(List.of(deleted));
+
+    Set<String> visited = new HashSet<>();
+    String cursor = null;
+    do {
+      cursor = store.forEachInPage(cursor, entry -> visited.add(entry.getId()));
+    } while (cursor != null);
+
+    assertEquals(ids.size() - 1, visited.size());
+    assertFalse(visited.contains(deleted));
+  }
+
+  @Test
+  void shouldShareReadCountsUntilTheirEntriesAreDeleted() {
+    List<String> counted = new ArrayList<>(ids).subList(0, 2);
+    store.addReads(Map.of(counted.get(0), 3L), Duration.ofHours(1));
+    store.addReads(Map.of(counted.get(0), 2L, counted.get(1), 1L), Duration.ofHours(1));
+
+    assertEquals(List.of(5L, 1L, 0L), store.getReads(List.of(counted.get(0), counted.get(1), "x")));
+
+    store.delete(List.of(counted.get(0)));
+
+    assertEquals(List.of(0L), store.getReads(List.of(counted.get(0))));
+  }
+}
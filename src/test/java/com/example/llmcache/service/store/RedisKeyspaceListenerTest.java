@@ -0,0 +1,71 @@
+package com.example.llmcache.service.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.example.llmcache.config.RedisConfig;
+import com.example.llmcache.service.index.CacheKeyFilter;
+import com.example.llmcache.service.stats.EntryStatsTracker;
+
+class RedisKeyspaceListenerTest {
+
+  private RedisTemplate<String, Object> redisTemplate;
+  private EntryStatsTracker entryStats;
+  private RedisKeyspaceListener listener;
+
+  @BeforeEach
+  void setUp() {
+    // Serialized like the application's template; never connected
+    redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(new LettuceConnectionFactory());
+    redisTemplate.setDefaultSerializer(RedisConfig.valueSerializer());
+    redisTemplate.afterPropertiesSet();
+    RedisCacheStore store = new RedisCacheStore(redisTemplate);
+    entryStats = new EntryStatsTracker(store);
+    listener = new RedisKeyspaceListener(null, store, entryStats, new CacheKeyFilter(store, null));
+  }
+
+  @Test
+  void shouldMatchCacheKeysInTheirStoredJsonForm() {
+    RedisCacheStore store = new RedisCacheStore(redisTemplate);
+
+    assertEquals("\"llm_cache:*\"", store.storedKeyPattern());
+    assertEquals("abc", store.idOfStoredKey(rawKey("llm_cache:abc")));
+    assertNull(store.idOfStoredKey(rawKey("llm_stats:total")));
+    assertNull(store.idOfStoredKey("llm_cache:abc".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void shouldApplyRemovalsOfCacheKeysAsStored() {
+    entryStats.recordWrite("abc", 100);
+    entryStats.recordWrite("def", 100);
+
+    listener.onMessage(notification("llm_stats:total", "del"), null);
+    assertEquals(2, entryStats.getEntryCount());
+
+    listener.onMessage(notification("llm_cache:abc", "expired"), null);
+    assertEquals(1, entryStats.getEntryCount());
+    assertEquals(100, entryStats.getTotalBytes());
+  }
+
+  private DefaultMessage notification(String key, String event) {
+    ByteArrayOutputStream channel = new ByteArrayOutputStream();
+    channel.writeBytes("__keyspace@0__:".getBytes(StandardCharsets.UTF_8));
+    channel.writeBytes(rawKey(key));
+    return new DefaultMessage(channel.toByteArray(), event.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @SuppressWarnings("unchecked")
+  private byte[] rawKey(String key) {
+    return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+  }
+}
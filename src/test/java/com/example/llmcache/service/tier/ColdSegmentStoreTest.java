@@ -0,0 +1,107 @@
+package com.example.llmcache.service.tier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColdSegmentStoreTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void shouldReadBackAppendedPayloads() throws IOException {
+    try (ColdSegmentStore store = new ColdSegmentStore(directory, 1024 * 1024)) {
+      String first = store.append("first response");
+      String second = store.append("zweite Antwort ✓");
+
+      assertEquals("first response", store.read(first));
+      assertEquals("zweite Antwort ✓", store.read(second));
+    }
+  }
+
+  @Test
+  void shouldReadSealedSegmentsThroughMapping() throws IOException {
+    try (ColdSegmentStore store = new ColdSegmentStore(directory, 64)) {
+      String first = store.append("a".repeat(40));
+      String second = store.append("b".repeat(40));
+
+      assertNotEquals(first.split(":")[1], second.split(":")[1]);
+      assertEquals("a".repeat(40), store.read(first));
+      assertEquals("b".repeat(40), store.read(second));
+    }
+  }
+
+  @Test
+  void shouldResolveReferencesAfterReopening() throws IOException {
+    String ref;
+    try (ColdSegmentStore store = new ColdSegmentStore(directory, 1024)) {
+      ref = store.append("persisted");
+    }
+
+    try (ColdSegmentStore store = new ColdSegmentStore(directory, 1024)) {
+      assertEquals("persisted", store.read(ref));
+      assertNotNull(store.read(store.append("more")));
+    }
+  }
+
+  @Test
+  void shouldIgnoreReferencesFromOtherInstances() throws IOException {
+    try (ColdSegmentStore store = new ColdSegmentStore(directory, 1024)) {
+      String ref = store.append("payload");
+
+      assertNull(store.read("someoneelse:" + ref.substring(ref.indexOf(':') + 1)));
+    }
+  }
+
+  @Test
+  void shouldDetectCorruptRecords() throws IOException {
+    try (ColdSegmentStore store = new ColdSegmentStore(directory, 1024)) {
+      String ref = store.append("payload");
+      try (Stream<Path> files = Files.list(directory)) {
+        Path segment = files.filter(f -> f.toString().endsWith(".log")).findFirst().orElseThrow();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+          channel.write(ByteBuffer.wrap(new byte[] {'X'}), 8);
+        }
+      }
+
+      assertNull(store.read(ref));
+    }
+  }
+
+  @Test
+  void shouldRejectOutOfBoundsRecordsInActiveSegment() throws IOException {
+    try (ColdSegmentStore store = new ColdSegmentStore(directory, 1024 * 1024)) {
+      String ref = store.append("payload");
+      try (Stream<Path> files = Files.list(directory)) {
+        Path segment = files.filter(f -> f.toString().endsWith(".log")).findFirst().orElseThrow();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+          channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE), 0);
+        }
+      }
+
+      assertNull(store.read(ref));
+      assertNull(store.read(ref.substring(0, ref.lastIndexOf(':') + 1) + 4096));
+    }
+  }
+
+  @Test
+  void shouldDeleteOnlySealedSegments() throws IOException {
+    try (ColdSegmentStore store = new ColdSegmentStore(directory, 64)) {
+      String sealed = store.append("a".repeat(40));
+      String active = store.append("b".repeat(40));
+
+      assertEquals(1, store.deleteSegmentsOlderThan(Long.MAX_VALUE));
+      assertNull(store.read(sealed));
+      assertEquals("b".repeat(40), store.read(active));
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.llmcache.service.tier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class HotTierTest {
+
+  @Test
+  void shouldReturnResponseWithinLocalTtl() {
+    HotTier tier = new HotTier(10, 1000);
+    tier.put("a", "response", 42, 0);
+
+    HotTier.Entry entry = tier.get("a", 999);
+
+    assertNotNull(entry);
+    assertEquals("response", entry.response());
+    assertEquals(42, entry.createdAt());
+  }
+
+  @Test
+  void shouldDropEntryAfterLocalTtl() {
+    HotTier tier = new HotTier(10, 1000);
+    tier.put("a", "response", 0, 0);
+
+    assertNull(tier.get("a", 1000));
+    assertEquals(0, tier.size());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedWhenFull() {
+    HotTier tier = new HotTier(2, 1000);
+    tier.put("a", "1", 0, 0);
+    tier.put("b", "2", 0, 0);
+    tier.get("a", 1);
+
+    tier.put("c", "3", 0, 2);
+
+    assertNotNull(tier.get("a", 3));
+    assertNull(tier.get("b", 3));
+    assertNotNull(tier.get("c", 3));
+  }
+
+  @Test
+  void shouldForgetRemovedEntries() {
+    HotTier tier = new HotTier(10, 1000);
+    tier.put("a", "response", 0, 0);
+
+    tier.remove("a");
+
+    assertNull(tier.get("a", 1));
+  }
+}
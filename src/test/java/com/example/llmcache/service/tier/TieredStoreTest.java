@@ -0,0 +1,44 @@
+package com.example.llmcache.service.tier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TieredStoreTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void shouldDrainReadsCountedSinceTheLastDrain() {
+    TieredStore store = new TieredStore();
+    ReflectionTestUtils.setField(store, "coldEnabled", true);
+    ReflectionTestUtils.setField(store, "coldDirectory", directory.toString());
+    ReflectionTestUtils.setField(store, "segmentMb", 1L);
+    store.init();
+    try {
+      store.recordRead("a");
+      store.recordRead("a");
+      store.recordRead("b");
+
+      assertEquals(Map.of("a", 2L, "b", 1L), store.drainReads());
+      assertTrue(store.drainReads().isEmpty());
+    } finally {
+      store.close();
+    }
+  }
+
+  @Test
+  void shouldNotCountReadsWithoutColdTier() {
+    TieredStore store = new TieredStore();
+    store.init();
+
+    store.recordRead("a");
+
+    assertTrue(store.drainReads().isEmpty());
+  }
+}